@@ -0,0 +1,101 @@
+/*
+
+   Derby - Class org.apache.derby.impl.drda.DDMWriterBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.drda;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the encoding of replies in DDMWriter. The benchmark lives in
+ * the package of DDMWriter, since the writer is not public. Like
+ * ProtocolTestAdapter, it uses a writer without a connection thread, so
+ * only the methods that don't consult the session can be measured.
+ */
+@State(Scope.Thread)
+public class DDMWriterBenchmark {
+
+    /** Number of rows encoded in a query data reply. */
+    private static final int ROWS = 64;
+
+    private static final String STRING =
+        "A string value of moderate length";
+
+    private static final BigDecimal DECIMAL = new BigDecimal("12345.6789");
+
+    private DDMWriter writer;
+
+    @Setup
+    public void createWriter() {
+        writer = new DDMWriter(null, null);
+    }
+
+    /**
+     * Encode strings with the default encoding of the server.
+     */
+    @Benchmark
+    public int writeString() throws DRDAProtocolException {
+        writer.clearBuffer();
+        for (int i = 0; i < ROWS; i++) {
+            writer.writeString(STRING);
+        }
+        return writer.getBufferPosition();
+    }
+
+    /**
+     * Encode scalar strings in EBCDIC, as in the replies to connection
+     * requests.
+     */
+    @Benchmark
+    public int writeScalarString() {
+        writer.clearBuffer();
+        for (int i = 0; i < ROWS; i++) {
+            writer.writeScalarString(CodePoint.SRVNAM, STRING);
+        }
+        return writer.getBufferPosition();
+    }
+
+    /**
+     * Encode a QRYDTA reply with rows of an integer, a decimal and a
+     * string column.
+     */
+    @Benchmark
+    public int writeQueryData()
+            throws DRDAProtocolException, SQLException {
+        writer.clearBuffer();
+        writer.createDssObject();
+        writer.startDdm(CodePoint.QRYDTA);
+        for (int i = 0; i < ROWS; i++) {
+            writer.writeByte(0xFF);
+            writer.writeInt(i);
+            writer.writeBigDecimal(DECIMAL, 9, 4);
+            writer.writeShort(STRING.length());
+            writer.writeString(STRING);
+        }
+        writer.endDdmAndDss();
+        return writer.getBufferPosition();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+
+   Derby - Class org.apache.derbyBenchmarks.BTreeScanBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyBenchmarks;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measure the positioning of BTreeScan. Each operation opens a scan on
+ * the primary key index at a new key, so the time is dominated by the
+ * search from the root of the B-tree to the leaf.
+ */
+public class BTreeScanBenchmark extends MemoryDatabaseBenchmark {
+
+    /** Prime stride that visits the keys in a scattered order. */
+    private static final int STRIDE = 7919;
+
+    /** Lookup of a single key. */
+    private PreparedStatement lookup;
+
+    /** Range scan that stops after the first key. */
+    private PreparedStatement rangeStart;
+
+    /** The key to position on in the next operation. */
+    private int nextKey;
+
+    protected void prepare() throws SQLException {
+        lookup = conn.prepareStatement(
+            "SELECT N FROM T WHERE ID = ?");
+        rangeStart = conn.prepareStatement(
+            "SELECT ID FROM T WHERE ID >= ? ORDER BY ID " +
+            "FETCH FIRST ROW ONLY");
+    }
+
+    private int nextKey() {
+        nextKey = (nextKey + STRIDE) % rows;
+        return nextKey;
+    }
+
+    /**
+     * Position on an equality predicate on the key.
+     */
+    @Benchmark
+    public int pointLookup() throws SQLException {
+        return singleInt(lookup, nextKey());
+    }
+
+    /**
+     * Position on the start of a range.
+     */
+    @Benchmark
+    public int rangeStart() throws SQLException {
+        return singleInt(rangeStart, nextKey());
+    }
+
+    private int singleInt(PreparedStatement ps, int key)
+            throws SQLException {
+        ps.setInt(1, key);
+        ResultSet rs = ps.executeQuery();
+        rs.next();
+        int value = rs.getInt(1);
+        rs.close();
+        return value;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+
+   Derby - Class org.apache.derbyBenchmarks.ConcurrentCacheBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyBenchmarks;
+
+import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.services.cache.CacheManager;
+import org.apache.derby.iapi.services.cache.Cacheable;
+import org.apache.derby.iapi.services.cache.CacheableFactory;
+import org.apache.derby.impl.services.cache.ConcurrentCacheFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measure find and release in ConcurrentCache. The keys are drawn from a
+ * range that is either smaller than the cache, so that every find is a
+ * hit, or larger, so that finds also evict entries. Run with several
+ * threads (-t) to measure contention.
+ */
+@State(Scope.Benchmark)
+public class ConcurrentCacheBenchmark {
+
+    /** Prime stride that visits the keys in a scattered order. */
+    private static final int STRIDE = 7919;
+
+    /** Maximum number of entries in the cache. */
+    @Param({"1000"})
+    public int cacheSize;
+
+    /** Number of distinct keys, as a percentage of the cache size. */
+    @Param({"50", "400"})
+    public int keyRange;
+
+    private CacheManager cache;
+
+    private Integer[] keys;
+
+    @Setup
+    public void createCache() {
+        cache = new ConcurrentCacheFactory().newCacheManager(
+                new CacheableFactory() {
+                    public Cacheable newCacheable(CacheManager cm) {
+                        return new BenchmarkCacheable();
+                    }
+                }, "benchmark", cacheSize, cacheSize);
+
+        keys = new Integer[cacheSize * keyRange / 100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+    }
+
+    @TearDown
+    public void shutdownCache() throws StandardException {
+        cache.shutdown();
+    }
+
+    /**
+     * The position of a thread in the key range.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup
+        public void randomStart() {
+            next = (int) Thread.currentThread().getId() * STRIDE;
+        }
+    }
+
+    /**
+     * Find an object in the cache, and release it.
+     */
+    @Benchmark
+    public Object findRelease(Cursor cursor) throws StandardException {
+        cursor.next = ((cursor.next + STRIDE) & Integer.MAX_VALUE) %
+                keys.length;
+        Cacheable item = cache.find(keys[cursor.next]);
+        Object identity = item.getIdentity();
+        cache.release(item);
+        return identity;
+    }
+
+    /**
+     * A cacheable that is never dirty and needs no I/O to be created.
+     */
+    private static final class BenchmarkCacheable implements Cacheable {
+        private Object identity;
+
+        public Cacheable setIdentity(Object key) {
+            identity = key;
+            return this;
+        }
+
+        public Cacheable createIdentity(Object key, Object createParameter) {
+            identity = key;
+            return this;
+        }
+
+        public void clearIdentity() {
+            identity = null;
+        }
+
+        public Object getIdentity() {
+            return identity;
+        }
+
+        public boolean isDirty() {
+            return false;
+        }
+
+        public void clean(boolean forRemove) {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+
+   Derby - Class org.apache.derbyBenchmarks.ConcurrentLockSetBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyBenchmarks;
+
+import java.util.Hashtable;
+
+import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.services.locks.C_LockFactory;
+import org.apache.derby.iapi.services.locks.CompatibilitySpace;
+import org.apache.derby.iapi.services.locks.Latch;
+import org.apache.derby.iapi.services.locks.LockFactory;
+import org.apache.derby.iapi.services.locks.Lockable;
+import org.apache.derby.impl.services.locks.ConcurrentPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure lock and unlock in the lock table of ConcurrentPool, which is a
+ * ConcurrentLockSet. Run with several threads (-t) to measure contention.
+ */
+@State(Scope.Benchmark)
+public class ConcurrentLockSetBenchmark {
+
+    /** Number of locks a transaction holds before it releases them all. */
+    private static final int LOCKS_PER_GROUP = 16;
+
+    /** Qualifier of a shared lock. */
+    private static final Object SHARED = "S";
+
+    /** Qualifier of an exclusive lock. */
+    private static final Object EXCLUSIVE = "X";
+
+    /** The lock factory shared by all threads. */
+    private LockFactory lockFactory;
+
+    /** A lockable that all threads lock in shared mode. */
+    private final Lockable hot = new BenchmarkLockable();
+
+    @Setup
+    public void createLockFactory() {
+        lockFactory = new ConcurrentPool();
+    }
+
+    /**
+     * The compatibility space and the private lockables of a thread.
+     */
+    @State(Scope.Thread)
+    public static class Locker {
+        CompatibilitySpace space;
+        final Object group = new Object();
+        final Lockable[] lockables = new Lockable[LOCKS_PER_GROUP];
+
+        @Setup
+        public void createSpace(ConcurrentLockSetBenchmark benchmark) {
+            space = benchmark.lockFactory.createCompatibilitySpace(null);
+            for (int i = 0; i < lockables.length; i++) {
+                lockables[i] = new BenchmarkLockable();
+            }
+        }
+    }
+
+    /**
+     * Lock and unlock an object that no other thread locks.
+     */
+    @Benchmark
+    public boolean lockUnlockPrivate(Locker locker)
+            throws StandardException {
+        Lockable ref = locker.lockables[0];
+        boolean locked = lockFactory.lockObject(locker.space, locker.group,
+                ref, EXCLUSIVE, C_LockFactory.NO_WAIT);
+        lockFactory.unlock(locker.space, locker.group, ref, EXCLUSIVE);
+        return locked;
+    }
+
+    /**
+     * Lock and unlock an object that all threads lock in shared mode.
+     */
+    @Benchmark
+    public boolean lockUnlockShared(Locker locker) throws StandardException {
+        boolean locked = lockFactory.lockObject(locker.space, locker.group,
+                hot, SHARED, C_LockFactory.NO_WAIT);
+        lockFactory.unlock(locker.space, locker.group, hot, SHARED);
+        return locked;
+    }
+
+    /**
+     * Lock several objects and release them together, the way a
+     * transaction releases its locks when it commits.
+     */
+    @Benchmark
+    public void lockGroupUnlockGroup(Locker locker) throws StandardException {
+        for (Lockable ref : locker.lockables) {
+            lockFactory.lockObject(locker.space, locker.group,
+                    ref, EXCLUSIVE, C_LockFactory.NO_WAIT);
+        }
+        lockFactory.unlockGroup(locker.space, locker.group);
+    }
+
+    /**
+     * A lockable with shared and exclusive locks.
+     */
+    private static final class BenchmarkLockable implements Lockable {
+        public void lockEvent(Latch lockInfo) {
+        }
+
+        public boolean requestCompatible(Object requestedQualifier,
+                                         Object grantedQualifier) {
+            return requestedQualifier == SHARED &&
+                    grantedQualifier == SHARED;
+        }
+
+        public boolean lockerAlwaysCompatible() {
+            return true;
+        }
+
+        public void unlockEvent(Latch lockInfo) {
+        }
+
+        public boolean lockAttributes(int flag,
+                                      Hashtable<String, Object> attributes) {
+            return false;
+        }
+    }
+}
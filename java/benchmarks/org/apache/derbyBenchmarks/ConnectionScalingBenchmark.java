@@ -0,0 +1,157 @@
+/*
+
+   Derby - Class org.apache.derbyBenchmarks.ConnectionScalingBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyBenchmarks;
+
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.derby.drda.NetworkServerControl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measure how the network server copes with a growing number of
+ * concurrently active client connections, with sessions served by
+ * platform threads or, if derby.drda.virtualThreads is set, by virtual
+ * threads. Each invocation runs one short query on every connection at
+ * the same time, and waits for all of them to complete, so the score is
+ * the time of one round over all the connections.
+ * <p>
+ * The server runs in the benchmark JVM against an in-memory database.
+ * The virtual thread mode falls back to platform threads on JVMs older
+ * than Java 21, and then measures the same thing as the platform mode.
+ */
+@State(Scope.Benchmark)
+public class ConnectionScalingBenchmark {
+
+    /** Port of the server, not the default one to avoid running servers. */
+    private static final int PORT = 1537;
+
+    private static final String URL =
+        "jdbc:derby://localhost:" + PORT + "/memory:derbyBenchmarks";
+
+    /** Threads that serve the sessions: platform or virtual. */
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    /** Number of client connections. */
+    @Param({"16", "256"})
+    public int connections;
+
+    private NetworkServerControl server;
+    private Connection[] conns;
+    private List<Callable<Integer>> queries;
+    private ExecutorService clients;
+
+    @Setup(Level.Trial)
+    public void startServer() throws Exception {
+        // Read by the server when it starts.
+        System.setProperty("derby.drda.virtualThreads",
+                           Boolean.toString("virtual".equals(threads)));
+        server = new NetworkServerControl(InetAddress.getLoopbackAddress(),
+                                          PORT);
+        server.start(null);
+        waitForServer();
+
+        conns = new Connection[connections];
+        queries = new ArrayList<Callable<Integer>>(connections);
+        for (int i = 0; i < connections; i++) {
+            conns[i] = DriverManager.getConnection(
+                    i == 0 ? URL + ";create=true" : URL);
+            final PreparedStatement ps =
+                conns[i].prepareStatement("VALUES CURRENT_TIMESTAMP");
+            queries.add(new Callable<Integer>() {
+                public Integer call() throws SQLException {
+                    ResultSet rs = ps.executeQuery();
+                    int count = 0;
+                    while (rs.next()) {
+                        count++;
+                    }
+                    rs.close();
+                    return count;
+                }
+            });
+        }
+
+        // One client thread per connection, so that all the sessions are
+        // active at the same time.
+        clients = Executors.newFixedThreadPool(connections);
+    }
+
+    private void waitForServer() throws Exception {
+        for (int i = 0; ; i++) {
+            try {
+                server.ping();
+                return;
+            } catch (Exception e) {
+                if (i == 100) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    /**
+     * Run one query on every connection concurrently.
+     */
+    @Benchmark
+    public int queryAllConnections() throws Exception {
+        int rows = 0;
+        for (Future<Integer> f : clients.invokeAll(queries)) {
+            rows += f.get();
+        }
+        return rows;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws Exception {
+        clients.shutdown();
+        for (Connection c : conns) {
+            c.close();
+        }
+        try {
+            DriverManager.getConnection(URL + ";drop=true");
+        } catch (SQLException sqle) {
+            // A successful drop is reported with an exception.
+            if (!"08006".equals(sqle.getSQLState())) {
+                throw sqle;
+            }
+        }
+        server.shutdown();
+    }
+}
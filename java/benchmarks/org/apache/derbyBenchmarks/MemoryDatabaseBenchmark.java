@@ -0,0 +1,106 @@
+/*
+
+   Derby - Class org.apache.derbyBenchmarks.MemoryDatabaseBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyBenchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class for the benchmarks that run SQL against a database in the
+ * in-memory storage back end (VFMemoryStorageFactory), so that the
+ * measurements are not disturbed by file system I/O.
+ * <p>
+ * The database holds a single table T(ID INT PRIMARY KEY, N INT,
+ * V VARCHAR(40)) with {@link #rows} rows, and is dropped when the trial
+ * ends. The connection is shared by all the threads of a trial, so these
+ * benchmarks are meant to be run with a single thread.
+ */
+@State(Scope.Benchmark)
+public abstract class MemoryDatabaseBenchmark {
+
+    /** URL of the in-memory database. */
+    private static final String URL = "jdbc:derby:memory:derbyBenchmarks";
+
+    /** Number of rows in the table. */
+    @Param({"10000"})
+    public int rows;
+
+    /** Connection to the database, with auto-commit off. */
+    protected Connection conn;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        conn = DriverManager.getConnection(URL + ";create=true");
+        conn.setAutoCommit(false);
+
+        Statement s = conn.createStatement();
+        s.execute("CREATE TABLE T(ID INT PRIMARY KEY, N INT, " +
+                  "V VARCHAR(40))");
+        s.close();
+
+        PreparedStatement ps =
+            conn.prepareStatement("INSERT INTO T VALUES (?, ?, ?)");
+        for (int i = 0; i < rows; i++) {
+            ps.setInt(1, i);
+            ps.setInt(2, i % 100);
+            ps.setString(3, "value " + i + " of the benchmark table");
+            ps.addBatch();
+        }
+        ps.executeBatch();
+        ps.close();
+        conn.commit();
+
+        prepare();
+    }
+
+    /**
+     * Prepare the statements of the benchmark. Called once the table
+     * has been loaded.
+     *
+     * @throws SQLException if a statement cannot be prepared
+     */
+    protected abstract void prepare() throws SQLException;
+
+    @TearDown(Level.Trial)
+    public void dropDatabase() throws SQLException {
+        conn.rollback();
+        conn.close();
+        try {
+            DriverManager.getConnection(URL + ";drop=true");
+        } catch (SQLException sqle) {
+            // A successful drop is reported with an exception.
+            if (!"08006".equals(sqle.getSQLState())) {
+                throw sqle;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+
+   Derby - Class org.apache.derbyBenchmarks.SQLCharBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyBenchmarks;
+
+import java.util.Arrays;
+
+import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.types.SQLChar;
+import org.apache.derby.iapi.types.SQLVarchar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measure the comparison of SQLChar values, which decides the speed of
+ * sorts and index searches on character columns.
+ */
+@State(Scope.Thread)
+public class SQLCharBenchmark {
+
+    /** Length of the compared values. */
+    @Param({"8", "64"})
+    public int length;
+
+    private SQLChar value;
+    private SQLChar equal;
+    private SQLChar lastCharDiffers;
+    private SQLChar padded;
+    private SQLVarchar varchar;
+
+    @Setup
+    public void createValues() {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        String s = new String(chars);
+
+        value = new SQLChar(s);
+        equal = new SQLChar(s);
+        chars[length - 1] = 'b';
+        lastCharDiffers = new SQLChar(new String(chars));
+        padded = new SQLChar(s + "    ");
+        varchar = new SQLVarchar(s);
+    }
+
+    /**
+     * Compare two equal values.
+     */
+    @Benchmark
+    public int compareEqual() throws StandardException {
+        return value.compare(equal);
+    }
+
+    /**
+     * Compare two values that differ in the last character.
+     */
+    @Benchmark
+    public int compareLastCharDiffers() throws StandardException {
+        return value.compare(lastCharDiffers);
+    }
+
+    /**
+     * Compare two values that are equal except for trailing blanks.
+     */
+    @Benchmark
+    public int compareTrailingBlanks() throws StandardException {
+        return value.compare(padded);
+    }
+
+    /**
+     * Compare a CHAR value with a VARCHAR value.
+     */
+    @Benchmark
+    public int compareWithVarchar() throws StandardException {
+        return value.compare(varchar);
+    }
+}
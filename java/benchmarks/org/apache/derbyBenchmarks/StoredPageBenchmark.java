@@ -0,0 +1,78 @@
+/*
+
+   Derby - Class org.apache.derbyBenchmarks.StoredPageBenchmark
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyBenchmarks;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Measure record access in StoredPage. The benchmarks scan the heap of a
+ * table that fits in the page cache, so most of the time is spent reading
+ * records from the pages.
+ */
+public class StoredPageBenchmark extends MemoryDatabaseBenchmark {
+
+    /** Scan that qualifies every record in the store but returns none. */
+    private PreparedStatement qualifyAll;
+
+    /** Scan that reads a varchar column from every record. */
+    private PreparedStatement fetchAll;
+
+    protected void prepare() throws SQLException {
+        qualifyAll = conn.prepareStatement(
+            "SELECT COUNT(*) FROM T --DERBY-PROPERTIES index=null\n" +
+            "WHERE N < 0");
+        fetchAll = conn.prepareStatement(
+            "SELECT MAX(V) FROM T --DERBY-PROPERTIES index=null\n");
+    }
+
+    /**
+     * Evaluate a qualifier on a column of each record.
+     */
+    @Benchmark
+    public int qualifyRecords() throws SQLException {
+        return singleInt(qualifyAll);
+    }
+
+    /**
+     * Read a column of each record into a row.
+     */
+    @Benchmark
+    public String fetchRecords() throws SQLException {
+        ResultSet rs = fetchAll.executeQuery();
+        rs.next();
+        String max = rs.getString(1);
+        rs.close();
+        return max;
+    }
+
+    private int singleInt(PreparedStatement ps) throws SQLException {
+        ResultSet rs = ps.executeQuery();
+        rs.next();
+        int value = rs.getInt(1);
+        rs.close();
+        return value;
+    }
+}
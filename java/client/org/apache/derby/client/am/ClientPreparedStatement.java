@@ -48,6 +48,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Iterator;
+import java.util.List;
 import org.apache.derby.client.ClientPooledConnection;
 import org.apache.derby.jdbc.ClientDriver;
 import org.apache.derby.shared.common.reference.SQLState;
@@ -1844,6 +1845,24 @@ public class ClientPreparedStatement extends ClientStatement
         materialPreparedStatement_.readExecute_();
     }
 
+    private int writeExecuteRows(Section section,
+                                 ColumnMetaData parameterMetaData,
+                                 List<Object> inputRows,
+                                 int numInputColumns,
+                                 boolean outputExpected,
+                                 boolean chainedWritesFollowingSetLob) throws SqlException {
+        return materialPreparedStatement_.writeExecuteRows_(section,
+                parameterMetaData,
+                inputRows,
+                numInputColumns,
+                outputExpected,
+                chainedWritesFollowingSetLob);
+    }
+
+    private void readExecuteRow(boolean firstRow, boolean lastRow) throws SqlException {
+        materialPreparedStatement_.readExecuteRow_(firstRow, lastRow);
+    }
+
     private void writeOpenQuery(Section section,
                                int fetchSize,
                                int resultSetType,
@@ -2289,6 +2308,10 @@ public class ClientPreparedStatement extends ClientStatement
             timeoutSent = true;
         }
 
+        // The number of elements sent with the execute that starts at each
+        // element, or zero for the other elements of a multi-row execute.
+        int[] executeRows = new int[batchSize];
+
         for (int i = 0; i < batchSize; i++) {
             if (parameterMetaData_ != null) {
                 parameterMetaData_.clientParamtertype_ = parameterTypeList.get(i);
@@ -2303,12 +2326,24 @@ public class ClientPreparedStatement extends ClientStatement
                     throw new SqlException(se);
                 }
 
-                writeExecute(getSection(),
+                // The elements that follow with the same parameter types
+                // may be sent with this one.
+                int end = i + 1;
+                if (parameterMetaData_ != null) {
+                    while (end < batchSize &&
+                           Arrays.equals(parameterTypeList.get(i),
+                                         parameterTypeList.get(end))) {
+                        end++;
+                    }
+                }
+
+                executeRows[i] = writeExecuteRows(getSection(),
                         parameterMetaData_,
-                        parameters_,
+                        batch_.subList(i, end),
                         numInputColumns,
                         outputExpected,
                         chainAutoCommit || (i != batchSize - 1));  // more statements to chain
+                i += executeRows[i] - 1;
             } else if (outputRegistered_) // make sure no output parameters are registered
             {
                 throw ClientDriver.getFactory().newBatchUpdateException(agent_.logWriter_, 
@@ -2347,11 +2382,20 @@ public class ClientPreparedStatement extends ClientStatement
         }
 
         try {
+            int lastRow = -1;
             for (int i = 0; i < batchSize; i++) {
                 agent_.setBatchedExceptionLabelIndex(i);
                 parameters_ = (Object[]) batch_.get(i);
                 if (sqlMode_ != isCall__) {
-                    readExecute();
+                    if (executeRows[i] == 1) {
+                        readExecute();
+                    } else {
+                        // one of the rows of a multi-row execute
+                        if (executeRows[i] > 1) {
+                            lastRow = i + executeRows[i] - 1;
+                        }
+                        readExecuteRow(executeRows[i] > 1, i == lastRow);
+                    }
                 } else {
                     readExecuteCall();
                 }
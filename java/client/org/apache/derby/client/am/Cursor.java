@@ -334,6 +334,10 @@ public abstract class Cursor {
         rowsRead_++;
     }
 
+    public final long getRowsRead() {
+        return rowsRead_;
+    }
+
     //------- the following getters are called on known column types -------------
     // Direct conversions only, cross conversions are handled by another set of getters.
 
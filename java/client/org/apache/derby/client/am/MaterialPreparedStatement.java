@@ -21,6 +21,7 @@
 
 package org.apache.derby.client.am;
 
+import java.util.List;
 
 
 public interface MaterialPreparedStatement extends MaterialStatement {
@@ -44,6 +45,20 @@ public interface MaterialPreparedStatement extends MaterialStatement {
 
     public abstract void readExecute_() throws SqlException;
 
+    // Write one execute with as many of the given rows of input as the
+    // material layer can send together, starting with the first one.
+    // Returns the number of rows written. If it is one, the row has been
+    // written with writeExecute_().
+    public abstract int writeExecuteRows_(Section section,
+                                          ColumnMetaData parameterMetaData,
+                                          List<Object> inputRows,
+                                          int numInputColumns,
+                                          boolean outputExpected,
+                                          boolean chainedWritesFollowingSetLob) throws SqlException;
+
+    // Read the reply for one of the rows written by writeExecuteRows_().
+    public abstract void readExecuteRow_(boolean firstRow, boolean lastRow) throws SqlException;
+
     public abstract void writeOpenQuery_(Section section,
                                          int fetchSize,
                                          int resultSetType,
@@ -300,6 +300,9 @@ class CodePoint {
     // Query Row Number.
     static final int QRYROWNBR = 0x213D;
 
+    // Number of Fetch or Insert Rows.
+    static final int NBRROW = 0x213A;
+
     // Query Block Reset.
     static final int QRYBLKRST = 0x2154;
 
@@ -534,6 +537,20 @@ class CodePoint {
     // Current schema as UTF8 String (product-specific)
     static final int PBSD_SCHEMA = 0xC002;
 
+    // Compression manager (product-specific). Level 1 means that QRYDTA and
+    // EXTDTA objects may be compressed with java.util.zip.Deflater.
+    static final int CMPRSMGR = 0xC010;
+
+    // QRYDTA with data compressed by Deflater (product-specific)
+    static final int QRYDTA_DEFLATED = 0xC011;
+
+    // EXTDTA with data compressed by Deflater (product-specific)
+    static final int EXTDTA_DEFLATED = 0xC012;
+
+    // Multi-row input manager (product-specific). Level 1 means that an
+    // EXCSQLSTT may carry several rows of input data, their number in NBRROW.
+    static final int MROWMGR = 0xC013;
+
     //--------------------------ddm error code points---------------------------------
     // Syntax Error Code.  DSS header length less than 6.
     static int SYNERRCD_DSS_LESS_THAN_6 = 0x01;
@@ -114,6 +114,13 @@ public class NetAgent extends Agent {
      * It is cleared when the write chain is ended.
      */
     private boolean writeChainIsDirty_ = false;
+
+    /**
+     * Result set that has sent a CNTQRY whose reply has not been read yet,
+     * or null. The reply must be read before anything else flows on the
+     * connection, see {@link #completePendingFetch()}.
+     */
+    NetResultSet pendingFetch_;
     //---------------------constructors/finalizer---------------------------------
 
     // Only used for testing
@@ -490,12 +497,14 @@ public class NetAgent extends Agent {
         }
     }
     public void beginWriteChainOutsideUOW() throws SqlException {
+        completePendingFetch();
         verifyWriteChainIsClean();
         request_.initialize();
         writeDeferredResetConnection();
     }
 
     public void beginWriteChain(ClientStatement statement) throws SqlException {
+        completePendingFetch();
         verifyWriteChainIsClean();
         request_.initialize();
         writeDeferredResetConnection();
@@ -503,6 +512,20 @@ public class NetAgent extends Agent {
     }
 
     protected void endWriteChain() {}
+
+    /**
+     * Read the reply to a CNTQRY that a result set sent ahead of time,
+     * if there is one, so that a new request can flow.
+     *
+     * @throws DisconnectException if the reply could not be read
+     */
+    void completePendingFetch() throws DisconnectException {
+        NetResultSet resultSet = pendingFetch_;
+        if (resultSet != null) {
+            pendingFetch_ = null;
+            resultSet.readPendingFetch();
+        }
+    }
     
     private void readDeferredResetConnection() throws SqlException {
         if (!netConnection_.resetConnectionAtFirstSql_) {
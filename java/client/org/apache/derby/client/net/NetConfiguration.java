@@ -111,6 +111,9 @@ public class NetConfiguration {
     // Manager is NA or not usued.
     static final int MGRLVL_NA = 0;
 
+    // Manager Level 1 constant.
+    static final int MGRLVL_1 = 0x01;
+
     // Manager Level 5 constant.
     static final int MGRLVL_5 = 0x05;
 
@@ -102,6 +102,16 @@ public class NetConnection extends ClientConnection {
     protected int targetSyncptmgr_ = NetConfiguration.MGRLVL_NA;
     protected int targetRsyncmgr_ = NetConfiguration.MGRLVL_NA;
     protected int targetUnicodemgr_ = CcsidManager.UTF8_CCSID;
+    // MGRLVL_1 if the user asked for compressed data, and the server
+    // agreed to it if still MGRLVL_1 after EXCSAT
+    protected int targetCmprsmgr_ = NetConfiguration.MGRLVL_NA;
+    // MGRLVL_1 if the server accepts several rows of input in one
+    // EXCSQLSTT; servers that don't know the manager answer level 0
+    protected int targetMrowmgr_ = NetConfiguration.MGRLVL_1;
+
+    // True if forward-only result sets should keep a CNTQRY in flight,
+    // see NetResultSet.prefetchQueryBlock()
+    boolean prefetchQueryBlocks_ = false;
 
     private String extnam_;
 
@@ -207,6 +217,11 @@ public class NetConnection extends ClientConnection {
         String password = BasicClientDataSource40.getPassword(properties);
         securityMechanism_ =
                 BasicClientDataSource40.getSecurityMechanism(properties);
+        if (BasicClientDataSource40.getCompression(properties)) {
+            targetCmprsmgr_ = NetConfiguration.MGRLVL_1;
+        }
+        prefetchQueryBlocks_ =
+            BasicClientDataSource40.getPrefetchQueryBlocks(properties);
         flowConnect(password, securityMechanism_);
         if(!isConnectionNull())
             completeConnect();
@@ -266,6 +281,10 @@ public class NetConnection extends ClientConnection {
                             BasicClientDataSource40 dataSource,
                             boolean isXAConn) throws SqlException {
         securityMechanism_ = dataSource.getSecurityMechanism(password);
+        if (dataSource.getCompression()) {
+            targetCmprsmgr_ = NetConfiguration.MGRLVL_1;
+        }
+        prefetchQueryBlocks_ = dataSource.getPrefetchQueryBlocks();
 
         setDeferredResetPassword(password);
         checkDatabaseName();
@@ -674,7 +693,9 @@ public class NetConnection extends ClientConnection {
                 targetXamgr_,
                 targetSyncptmgr_,
                 targetRsyncmgr_,
-                targetUnicodemgr_);
+                targetUnicodemgr_,
+                targetCmprsmgr_,
+                targetMrowmgr_);
         agent_.flowOutsideUOW();
         netAgent_.netConnectionReply_.readExchangeServerAttributes(this);
         agent_.endReadChain();
@@ -754,7 +775,9 @@ public class NetConnection extends ClientConnection {
                 targetXamgr_,
                 targetSyncptmgr_,
                 targetRsyncmgr_,
-                targetUnicodemgr_);
+                targetUnicodemgr_,
+                targetCmprsmgr_,
+                targetMrowmgr_);
         netAgent_.netConnectionRequest_.writeAccessSecurity(securityMechanism,
                 databaseName_,
                 publicKey);
@@ -1705,6 +1728,15 @@ public class NetConnection extends ClientConnection {
         return metadata.serverSupportsEXTDTAAbort();
     }
 
+    /**
+     * Check whether the server accepts several rows of input parameters
+     * in one EXCSQLSTT.
+     * @return true if multi-row input is supported
+     */
+    final boolean serverSupportsMultiRowInput() {
+        return targetMrowmgr_ >= NetConfiguration.MGRLVL_1;
+    }
+
     /**
      * Checks whether the server supports locators for large objects.
      *
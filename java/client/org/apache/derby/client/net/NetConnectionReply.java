@@ -2262,6 +2262,20 @@ class NetConnectionReply extends Reply
                 }
                 netConnection.targetUnicodemgr_ = managerLevel;
                 break;
+            case CodePoint.CMPRSMGR:
+                // level 0 if the server can't or won't compress
+                if (managerLevel > netConnection.targetCmprsmgr_) {
+                    doMgrlvlrmSemantics(managerCodePoint, managerLevel);
+                }
+                netConnection.targetCmprsmgr_ = managerLevel;
+                break;
+            case CodePoint.MROWMGR:
+                // level 0 if the server only takes one row per EXCSQLSTT
+                if (managerLevel > netConnection.targetMrowmgr_) {
+                    doMgrlvlrmSemantics(managerCodePoint, managerLevel);
+                }
+                netConnection.targetMrowmgr_ = managerLevel;
+                break;
             case CodePoint.RSYNCMGR:
                 if ((managerLevel != 0) &&
                         (managerLevel < NetConfiguration.MIN_RSYNCMGR_MGRLVL) ||
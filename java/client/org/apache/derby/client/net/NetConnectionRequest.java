@@ -46,7 +46,9 @@ class NetConnectionRequest extends Request
                                        int targetXamgr,
                                        int targetSyncptmgr,
                                        int targetRsyncmgr,
-                                       int targetUnicodemgr) throws SqlException {
+                                       int targetUnicodemgr,
+                                       int targetCmprsmgr,
+                                       int targetMrowmgr) throws SqlException {
         // send the exchange server attributes command to the server.
         // no other commands will be chained to the excsat because
         // the manager levels are needed before anything else is attempted.
@@ -60,7 +62,9 @@ class NetConnectionRequest extends Request
                 targetXamgr,
                 targetSyncptmgr,
                 targetRsyncmgr,
-                targetUnicodemgr);
+                targetUnicodemgr,
+                targetCmprsmgr,
+                targetMrowmgr);
 
     }
 
@@ -209,7 +213,9 @@ class NetConnectionRequest extends Request
                      int targetXamgr,
                      int targetSyncptmgr,
                      int targetRsyncmgr,
-                     int targetUnicodemgr) throws SqlException {
+                     int targetUnicodemgr,
+                     int targetCmprsmgr,
+                     int targetMrowmgr) throws SqlException {
         createCommand();
 
         // begin excsat collection by placing the 4 byte llcp in the buffer.
@@ -247,7 +253,9 @@ class NetConnectionRequest extends Request
                 targetXamgr,
                 targetSyncptmgr,
                 targetRsyncmgr,
-                targetUnicodemgr);
+                targetUnicodemgr,
+                targetCmprsmgr,
+                targetMrowmgr);
 
 
         // place the server class name into the buffer.
@@ -597,7 +605,9 @@ class NetConnectionRequest extends Request
                                int xamgr,
                                int syncptmgr,
                                int rsyncmgr,
-                               int unicodemgr) throws SqlException {
+                               int unicodemgr,
+                               int cmprsmgr,
+                               int mrowmgr) throws SqlException {
         markLengthBytes(CodePoint.MGRLVLLS);
 
         // place the managers and their levels in the buffer
@@ -606,6 +616,14 @@ class NetConnectionRequest extends Request
         writeCodePoint4Bytes(CodePoint.RDB, rdb);
         writeCodePoint4Bytes(CodePoint.SECMGR, secmgr);
         writeCodePoint4Bytes(CodePoint.UNICODEMGR, unicodemgr);
+        // only ask for compression if the user wants it, since servers
+        // other than Derby don't know the manager
+        if (cmprsmgr != NetConfiguration.MGRLVL_NA) {
+            writeCodePoint4Bytes(CodePoint.CMPRSMGR, cmprsmgr);
+        }
+        if (mrowmgr != NetConfiguration.MGRLVL_NA) {
+            writeCodePoint4Bytes(CodePoint.MROWMGR, mrowmgr);
+        }
         
         if (netAgent_.netConnection_.isXAConnection()) {
             if (xamgr != NetConfiguration.MGRLVL_NA) {
@@ -20,6 +20,7 @@
 */
 package org.apache.derby.client.net;
 
+import java.util.List;
 import org.apache.derby.client.am.ColumnMetaData;
 import org.apache.derby.client.am.ClientPreparedStatement;
 import org.apache.derby.client.am.Section;
@@ -167,6 +168,25 @@ class NetPreparedStatement extends NetStatement
         netAgent_.statementReply_.readExecute(preparedStatement_);
     }
 
+    public int writeExecuteRows_(Section section,
+                                 ColumnMetaData parameterMetaData,
+                                 List<Object> inputRows,
+                                 int numInputColumns,
+                                 boolean outputExpected,
+                                 boolean chainedWritesFollowingSetLob) throws SqlException {
+        return netAgent_.statementRequest_.writeExecuteRows(this,
+                section,
+                parameterMetaData,
+                inputRows,
+                numInputColumns,
+                outputExpected,
+                chainedWritesFollowingSetLob);
+    }
+
+    public void readExecuteRow_(boolean firstRow, boolean lastRow) throws SqlException {
+        netAgent_.statementReply_.readExecuteRow(preparedStatement_, firstRow, lastRow);
+    }
+
     public void writeOpenQuery_(Section section,
                                 int fetchSize,
                                 int resultSetType,
@@ -51,6 +51,15 @@ class NetResultSet extends ClientResultSet {
     // This is used to avoid sending multiple outovr over subsequent next()'s
     boolean firstOutovrBuilt_ = false;
 
+    // Number of fetch replies received, counting the reply to OPNQRY.
+    // Used to estimate the number of rows in a query block.
+    private int fetchRepliesReceived_ = 1;
+
+    // Exception raised by the reply to a CNTQRY sent ahead of time, when
+    // the reply was read on behalf of another request. It is thrown on the
+    // next fetch from this result set.
+    private SqlException pendingFetchException_;
+
     //---------------------constructors/finalizer---------------------------------
 
     // parseOpnqrym() is called right after this constructor is called.
@@ -255,6 +264,10 @@ class NetResultSet extends ClientResultSet {
      * @exception SqlException
      */
     protected void preClose_() throws SqlException {
+        // Read the reply to a CNTQRY sent ahead of time first, so that the
+        // state of the cursor on the server is known.
+        netAgent_.completePendingFetch();
+        pendingFetchException_ = null;
         if (netCursor_.getQryclsimpEnabled()) {
             netCursor_.scanDataBufferForEndOfData();
         }
@@ -265,13 +278,86 @@ class NetResultSet extends ClientResultSet {
     // read/skip Fdoca bytes methods in the net whenever data reads exhaust the
     // internal buffer used by this reply.
     void flowFetch() throws DisconnectException, SqlException {
+        if (netAgent_.pendingFetch_ == this) {
+            // The CNTQRY was sent ahead of time, only the reply is left.
+            netAgent_.pendingFetch_ = null;
+        } else {
+            if (pendingFetchException_ != null) {
+                SqlException e = pendingFetchException_;
+                pendingFetchException_ = null;
+                throw e;
+            }
+            agent_.beginWriteChain(statement_);
+            writeFetch_((generatedSection_ == null) ?
+                    statement_.getSection() :
+                    generatedSection_);
+            agent_.flow(statement_);
+        }
+        readFetch_();
+        agent_.endReadChain();
+        fetchRepliesReceived_++;
+        prefetchQueryBlock();
+    }
+
+    /**
+     * Send the CNTQRY for the next query block of a forward-only cursor
+     * without waiting for the reply, so that the block travels over the
+     * network while the application reads the rows of the current one.
+     * The reply is read by the next {@link #flowFetch()}, or by
+     * {@link NetAgent#completePendingFetch()} if another request needs
+     * the connection first.
+     * <p>
+     * Only one CNTQRY is kept in flight per connection. If the
+     * application has set a fetch size, no CNTQRY is sent ahead when the
+     * current block and the next one would likely hold more rows than the
+     * fetch size. Cursors with LOB columns, rowset cursors and cursors
+     * that use the fixed row protocol, where the server positions on the
+     * fetched row, are never fetched ahead.
+     */
+    private void prefetchQueryBlock() throws SqlException {
+        if (!netConnection_.prefetchQueryBlocks_ ||
+                resultSetType_ != ResultSet.TYPE_FORWARD_ONLY ||
+                isRowsetCursor_ || isFixedRowProtocol ||
+                !netCursor_.blocking_ || netCursor_.hasLobs_ ||
+                !openOnServer_ || netCursor_.allRowsReceivedFromServer() ||
+                netAgent_.pendingFetch_ != null) {
+            return;
+        }
+        if (fetchSize_ != 0) {
+            // Rows per block, estimated from the blocks read so far.
+            long rowsPerBlock =
+                netCursor_.getRowsRead() / (fetchRepliesReceived_ - 1);
+            if (2 * rowsPerBlock > fetchSize_) {
+                return;
+            }
+        }
         agent_.beginWriteChain(statement_);
         writeFetch_((generatedSection_ == null) ?
                 statement_.getSection() :
                 generatedSection_);
         agent_.flow(statement_);
-        readFetch_();
-        agent_.endReadChain();
+        netAgent_.pendingFetch_ = this;
+    }
+
+    /**
+     * Read the reply to the CNTQRY sent by {@link #prefetchQueryBlock()}
+     * on behalf of another request. The data is added to the cursor, and
+     * an exception in the reply is kept until the application fetches
+     * from this result set again, since it doesn't belong to the request
+     * that needs the connection.
+     *
+     * @throws DisconnectException if the reply could not be read
+     */
+    void readPendingFetch() throws DisconnectException {
+        try {
+            readFetch_();
+            agent_.endReadChain();
+            fetchRepliesReceived_++;
+        } catch (DisconnectException de) {
+            throw de;
+        } catch (SqlException sqle) {
+            pendingFetchException_ = sqle;
+        }
     }
 
 }
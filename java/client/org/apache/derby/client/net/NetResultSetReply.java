@@ -99,7 +99,7 @@ class NetResultSetReply extends NetStatementReply
             peekCP = peekCodePoint();
         }
 
-        if (peekCP == CodePoint.QRYDTA) {
+        if (isQRYDTA(peekCP)) {
             found = true;
             if (!doCopyQrydta) {
                 parseLengthAndMatchCodePoint(CodePoint.QRYDTA);
@@ -142,10 +142,10 @@ class NetResultSetReply extends NetStatementReply
             do {
                 parseQRYDTA((NetResultSet) resultSetI);
                 peekCP = peekCodePoint();
-            } while (peekCP == CodePoint.QRYDTA);
+            } while (isQRYDTA(peekCP));
         }
 
-        if (peekCP == CodePoint.EXTDTA) {
+        if (isEXTDTA(peekCP)) {
             found = true;
             do {
                 copyEXTDTA((NetCursor) ((ClientResultSet) resultSetI).cursor_);
@@ -158,7 +158,7 @@ class NetResultSetReply extends NetStatementReply
                 }
 
                 peekCP = peekCodePoint();
-            } while (peekCP == CodePoint.EXTDTA);
+            } while (isEXTDTA(peekCP));
         }
 
         if (peekCP == CodePoint.SQLCARD) {
@@ -21,9 +21,12 @@
 
 package org.apache.derby.client.net;
 
+import java.io.ByteArrayOutputStream;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 import org.apache.derby.client.am.ClientMessageId;
 import org.apache.derby.client.am.ColumnMetaData;
 import org.apache.derby.client.am.DisconnectException;
@@ -43,6 +46,9 @@ import org.apache.derby.shared.common.reference.SQLState;
 class NetStatementReply extends NetPackageReply
     implements StatementReplyInterface {
 
+    /** Decompresses data sent by the server, created when first needed. */
+    private Inflater inflater_;
+
     NetStatementReply(NetAgent netAgent, int bufferSize) {
         super(netAgent, bufferSize);
     }
@@ -73,6 +79,20 @@ class NetStatementReply extends NetPackageReply
         endOfSameIdChainData();
     }
 
+    // The reply to a multi-row EXCSQLSTT has the reply of an ordinary
+    // EXCSQLSTT for each row, all in the same chain.
+    public void readExecuteRow(PreparedStatementCallbackInterface preparedStatement,
+                               boolean firstRow,
+                               boolean lastRow) throws DisconnectException {
+        if (firstRow) {
+            startSameIdChainParse();
+        }
+        parseEXCSQLSTTreply(preparedStatement);
+        if (lastRow) {
+            endOfSameIdChainData();
+        }
+    }
+
     public void readPrepare(StatementCallbackInterface statement) throws DisconnectException {
         startSameIdChainParse();
         parsePRPSQLSTTreply(statement);
@@ -343,7 +363,7 @@ class NetStatementReply extends NetPackageReply
 
             // there may be externalized LOB data which also gets returned.
             peekCP = peekCodePoint();
-            while (peekCP == CodePoint.EXTDTA) {
+            while (isEXTDTA(peekCP)) {
                 copyEXTDTA(netSqldta);
                 peekCP = peekCodePoint();
             }
@@ -416,7 +436,7 @@ class NetStatementReply extends NetPackageReply
         // LOBs may have been returned for one of the stored procedure parameters so
         // check for any externalized data.
         peekCP = peekCodePoint();
-        while (peekCP == CodePoint.EXTDTA) {
+        while (isEXTDTA(peekCP)) {
             copyEXTDTA(netSqldta);
             peekCP = peekCodePoint();
         }
@@ -460,7 +480,7 @@ class NetStatementReply extends NetPackageReply
         statementI.completeExecuteCallOpenQuery(netSqlca, netResultSet, resultSetMetaData, section);
 
         // Depending on the blocking rules, QRYDTA may have been returned on the open.
-        while (peekCP == CodePoint.QRYDTA) {
+        while (isQRYDTA(peekCP)) {
             parseQRYDTA(netResultSet);
             peekCP = peekCodePoint();
         }
@@ -514,7 +534,7 @@ class NetStatementReply extends NetPackageReply
         parseQRYDSC(netResultSet.netCursor_);
 
         peekCP = peekCodePoint();
-        while (peekCP == CodePoint.QRYDTA) {
+        while (isQRYDTA(peekCP)) {
             parseQRYDTA(netResultSet);
             peekCP = peekCodePoint();
         }
@@ -1469,6 +1489,10 @@ class NetStatementReply extends NetPackageReply
     }
 
     void parseQRYDTA(NetResultSet netResultSet) throws DisconnectException {
+        if (peekCodePoint() == CodePoint.QRYDTA_DEFLATED) {
+            parseDeflatedQRYDTA(netResultSet.netCursor_);
+            return;
+        }
         parseLengthAndMatchCodePoint(CodePoint.QRYDTA);
         if (longValueForDecryption_ == null) {
             int ddmLength = getDdmLength();
@@ -1496,6 +1520,48 @@ class NetStatementReply extends NetPackageReply
 
     }
 
+    /**
+     * Parse a QRYDTA whose data the server has compressed, and add the
+     * decompressed data to the data buffer of the cursor.
+     */
+    private void parseDeflatedQRYDTA(NetCursor netCursor)
+            throws DisconnectException {
+        parseLengthAndMatchCodePoint(CodePoint.QRYDTA_DEFLATED);
+        inflateData(netCursor.dataBufferStream_);
+        netCursor.dataBuffer_ = netCursor.dataBufferStream_.toByteArray();
+        netCursor.lastValidBytePosition_ = netCursor.dataBuffer_.length;
+    }
+
+    /**
+     * Read the data of the current DDM, which the server has compressed
+     * with a Deflater, and write the decompressed data to a stream.
+     *
+     * @param out the stream to write the data to
+     */
+    private void inflateData(ByteArrayOutputStream out)
+            throws DisconnectException {
+        byte[] deflated = getData(null).toByteArray();
+        if (inflater_ == null) {
+            inflater_ = new Inflater();
+        }
+        inflater_.reset();
+        inflater_.setInput(deflated);
+        byte[] chunk = new byte[Math.max(deflated.length * 4, 1024)];
+        try {
+            while (!inflater_.finished()) {
+                int n = inflater_.inflate(chunk);
+                if (n == 0 && (inflater_.needsInput() ||
+                               inflater_.needsDictionary())) {
+                    // the data ended before the compressed stream did
+                    descriptorErrorDetected();
+                }
+                out.write(chunk, 0, n);
+            }
+        } catch (DataFormatException dfe) {
+            descriptorErrorDetected();
+        }
+    }
+
     private NetSqlca parseFDODTA(NetCursor netCursor)
             throws DisconnectException {
         parseLengthAndMatchCodePoint(CodePoint.FDODTA);
@@ -1540,6 +1606,13 @@ class NetStatementReply extends NetPackageReply
 
     void copyEXTDTA(NetCursor netCursor) throws DisconnectException {
         try {
+            if (peekCodePoint() == CodePoint.EXTDTA_DEFLATED) {
+                parseLengthAndMatchCodePoint(CodePoint.EXTDTA_DEFLATED);
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
+                inflateData(data);
+                netCursor.extdtaData_.add(data.toByteArray());
+                return;
+            }
             parseLengthAndMatchCodePoint(CodePoint.EXTDTA);
             byte[] data = null;
             if (longValueForDecryption_ == null) {
@@ -1556,6 +1629,24 @@ class NetStatementReply extends NetPackageReply
         }
     }
 
+    /**
+     * Check if a code point is that of a QRYDTA, with or without
+     * compressed data.
+     */
+    static boolean isQRYDTA(int codePoint) {
+        return codePoint == CodePoint.QRYDTA ||
+               codePoint == CodePoint.QRYDTA_DEFLATED;
+    }
+
+    /**
+     * Check if a code point is that of an EXTDTA, with or without
+     * compressed data.
+     */
+    static boolean isEXTDTA(int codePoint) {
+        return codePoint == CodePoint.EXTDTA ||
+               codePoint == CodePoint.EXTDTA_DEFLATED;
+    }
+
     //------------------------parse DDM Scalars-----------------------------
 
     // RDB Package name, consistency token, and section number
@@ -31,8 +31,10 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
 import org.apache.derby.client.am.ClientBlob;
 import org.apache.derby.client.am.ClientMessageId;
 import org.apache.derby.client.am.ClientClob;
@@ -151,7 +153,8 @@ class NetStatementRequest extends NetPackageRequest
                 false, // sendRslsetflg
                 0, // resultSetFlag
                 false, // sendQryrowset
-                0);               // qryrowset
+                0, // qryrowset
+                1);               // nbrrow
 
         if (numInputColumns > 0) {
             if ((extdtaPositions_ != null) && (!extdtaPositions_.isEmpty())) {
@@ -167,6 +170,104 @@ class NetStatementRequest extends NetPackageRequest
         }
     }
 
+    // Write the message to execute a prepared statement with several rows
+    // of input parameters, which the server executes as a batch and
+    // replies to with an SQLCARD per row. Rows are sent together as long
+    // as they have the same descriptor as the first row and don't need
+    // EXTDTA objects. Returns the number of rows written; a single row is
+    // written with an ordinary execute.
+    //
+    // preconditions:
+    //   all the rows have the same input parameter types
+    public int writeExecuteRows(NetPreparedStatement materialPreparedStatement,
+                                Section section,
+                                ColumnMetaData parameterMetaData,
+                                List<Object> inputRows,
+                                int numInputColumns,
+                                boolean outputExpected,
+                                boolean chained) throws SqlException {
+        int numRows = countMultiRowInput(parameterMetaData, inputRows);
+        if (numRows < 2) {
+            writeExecute(materialPreparedStatement,
+                    section,
+                    parameterMetaData,
+                    (Object[]) inputRows.get(0),
+                    numInputColumns,
+                    outputExpected,
+                    chained);
+            return 1;
+        }
+
+        buildEXCSQLSTT(section,
+                true, // sendOutexp
+                outputExpected, // outexp
+                false, // sendPrcnam
+                null, // prcnam
+                false, // sendQryblksz
+                false, // sendMaxrslcnt,
+                0, // maxrslcnt,
+                false, // sendMaxblkext
+                0, // maxblkext
+                false, // sendRslsetflg
+                0, // resultSetFlag
+                false, // sendQryrowset
+                0, // qryrowset
+                numRows);         // nbrrow
+
+        buildSQLDTAcommandData(numInputColumns,
+                parameterMetaData,
+                inputRows.subList(0, numRows));
+        return numRows;
+    }
+
+    // Count the rows at the start of inputRows that can be sent in one
+    // multi-row execute.
+    private int countMultiRowInput(ColumnMetaData parameterMetaData,
+                                   List<Object> inputRows) throws SqlException {
+        if (inputRows.size() < 2 || parameterMetaData == null ||
+                parameterMetaData.columns_ == 0 ||
+                !netAgent_.netConnection_.serverSupportsMultiRowInput()) {
+            return 1;
+        }
+
+        int[][] firstRow = new int[parameterMetaData.columns_][2];
+        computeProtocolTypesAndLengths((Object[]) inputRows.get(0),
+                parameterMetaData, firstRow, null);
+        if (!promototedParameters_.isEmpty() || needsEXTDTA(firstRow)) {
+            return 1;
+        }
+
+        int[][] row = new int[parameterMetaData.columns_][2];
+        int numRows = 1;
+        while (numRows < inputRows.size()) {
+            computeProtocolTypesAndLengths((Object[]) inputRows.get(numRows),
+                    parameterMetaData, row, null);
+            if (!promototedParameters_.isEmpty() ||
+                    !Arrays.deepEquals(firstRow, row)) {
+                break;
+            }
+            numRows++;
+        }
+        promototedParameters_.clear();
+        return numRows;
+    }
+
+    // Check if any of the parameters are sent as EXTDTA objects
+    private static boolean needsEXTDTA(int[][] protocolTypesAndLengths) {
+        for (int i = 0; i < protocolTypesAndLengths.length; i++) {
+            switch (protocolTypesAndLengths[i][0] | 0x01) {
+            case DRDAConstants.DRDA_TYPE_NLOBBYTES:
+            case DRDAConstants.DRDA_TYPE_NLOBCSBCS:
+            case DRDAConstants.DRDA_TYPE_NLOBCDBCS:
+            case DRDAConstants.DRDA_TYPE_NLOBCMIXED:
+                return true;
+            default:
+                break;
+            }
+        }
+        return false;
+    }
+
 
     // Write the message to open a bound or prepared query with input parameters.
     // Check this -> For open query with input parameters
@@ -301,7 +402,8 @@ class NetStatementRequest extends NetPackageRequest
                 true, // sendRslsetflg
                 calculateResultSetFlags(), // resultSetFlag
                 sendQryrowset, // sendQryrowset
-                fetchSize);      // qryrowset
+                fetchSize, // qryrowset
+                1);      // nbrrow
 
         if (numParameters > 0) {
             if ((extdtaPositions_ != null) && (!extdtaPositions_.isEmpty())) {
@@ -473,7 +575,8 @@ class NetStatementRequest extends NetPackageRequest
                         boolean sendRslsetflg,
                         int resultSetFlag,
                         boolean sendQryrowset,
-                        int qryrowset) throws SqlException {
+                        int qryrowset,
+                        int nbrrow) throws SqlException {
         createCommand();
         markLengthBytes(CodePoint.EXCSQLSTT);
 
@@ -497,6 +600,9 @@ class NetStatementRequest extends NetPackageRequest
         if (sendQryrowset) {
             buildQRYROWSET(qryrowset);
         }
+        if (nbrrow > 1) {
+            buildNBRROW(nbrrow);
+        }
         if (sendPrcnam) {
             buildPRCNAM(prcnam);
         }
@@ -568,6 +674,50 @@ class NetStatementRequest extends NetPackageRequest
         return overrideExists;
     }
 
+    // Build the SQL Program Variable Data Command Data Object for a
+    // multi-row execute. The descriptor is computed from the first row,
+    // and FDODTA holds all the rows.
+    //
+    // preconditions:
+    //   countMultiRowInput() has accepted all the rows
+    private void buildSQLDTAcommandData(int numInputColumns,
+                                        ColumnMetaData parameterMetaData,
+                                        List<Object> inputRows) throws SqlException {
+        createEncryptedCommandData();
+
+        int loc = buffer.position();
+
+        markLengthBytes(CodePoint.SQLDTA);
+
+        int[][] protocolTypesAndLengths = allocateLidAndLengthsArray(parameterMetaData);
+
+        Hashtable protocolTypeToOverrideLidMapping =
+                computeProtocolTypesAndLengths((Object[]) inputRows.get(0),
+                        parameterMetaData, protocolTypesAndLengths, null);
+
+        buildFDODSC(numInputColumns,
+                protocolTypesAndLengths,
+                false,
+                protocolTypeToOverrideLidMapping,
+                null);
+
+        markLengthBytes(CodePoint.FDODTA);
+        for (int i = 0; i < inputRows.size(); i++) {
+            buildFDODTARow(numInputColumns,
+                    protocolTypesAndLengths,
+                    (Object[]) inputRows.get(i));
+        }
+        updateLengthBytes(); // for fdodta
+
+        updateLengthBytes(); // for sqldta
+        if (netAgent_.netConnection_.getSecurityMechanism() ==
+                NetConfiguration.SECMEC_EUSRIDDTA ||
+                netAgent_.netConnection_.getSecurityMechanism() ==
+                NetConfiguration.SECMEC_EUSRPWDDTA) {
+            encryptDataStream(loc);
+        }
+    }
+
     // Build the FDOCA Data Descriptor Scalar whose value is a FDOCA
     // Descriptor or a segment of an FDOCA Descriptor.
     //
@@ -689,12 +839,20 @@ class NetStatementRequest extends NetPackageRequest
     private void buildFDODTA(int numVars,
                              int[][] protocolTypesAndLengths,
                              Object[] inputs) throws SqlException {
+        markLengthBytes(CodePoint.FDODTA);
+        buildFDODTARow(numVars, protocolTypesAndLengths, inputs);
+        updateLengthBytes(); // for fdodta
+    }
+
+    // Write one row of FD:OCA data, starting with the row indicator.
+    private void buildFDODTARow(int numVars,
+                                int[][] protocolTypesAndLengths,
+                                Object[] inputs) throws SqlException {
         try
         {
             
             Object o = null;
 
-            markLengthBytes(CodePoint.FDODTA);
             write1Byte(FdocaConstants.NULL_LID); // write the 1-byte row indicator
 
             // write data for each input column
@@ -927,7 +1085,6 @@ class NetStatementRequest extends NetPackageRequest
                     }
                 }
             }
-            updateLengthBytes(); // for fdodta
         }
         catch ( SQLException se )
         {
@@ -1690,6 +1847,12 @@ class NetStatementRequest extends NetPackageRequest
         writeScalar2Bytes(CodePoint.MAXRSLCNT, maxResultSetCount);
     }
 
+    // Number of Fetch or Insert Rows specifies the number of rows of input
+    // data sent with an EXCSQLSTT.
+    private void buildNBRROW(int numberOfRows) throws SqlException {
+        writeScalar4Bytes(CodePoint.NBRROW, numberOfRows);
+    }
+
     // RDB Commit Allowed specifies whether an RDB should allow the processing of any
     // commit or rollback operations that occure during execution of a statement.
     // True allow the processing of commits and rollbacks
@@ -60,6 +60,14 @@ class StatementReply extends ConnectionReply {
         agent_.checkForChainBreakingException_();
     }
 
+    void readExecuteRow(PreparedStatementCallbackInterface preparedStatement,
+                        boolean firstRow,
+                        boolean lastRow) throws SqlException {
+        materialStatementReply_.readExecuteRow(preparedStatement,
+                                               firstRow, lastRow);
+        agent_.checkForChainBreakingException_();
+    }
+
     void readPrepare(StatementCallbackInterface statement) throws SqlException {
         materialStatementReply_.readPrepare(statement);
         agent_.checkForChainBreakingException_();
@@ -34,6 +34,10 @@ interface StatementReplyInterface {
 
     public void readExecute(PreparedStatementCallbackInterface preparedStatement) throws DisconnectException;
 
+    public void readExecuteRow(PreparedStatementCallbackInterface preparedStatement,
+                               boolean firstRow,
+                               boolean lastRow) throws DisconnectException;
+
     public void readPrepare(StatementCallbackInterface statement) throws DisconnectException;
 
     public void readDescribeInput(PreparedStatementCallbackInterface preparedStatement) throws DisconnectException;
@@ -22,6 +22,7 @@
 package org.apache.derby.client.net;
 
 import java.util.ArrayList;
+import java.util.List;
 import org.apache.derby.client.am.ColumnMetaData;
 import org.apache.derby.client.am.Section;
 import org.apache.derby.client.am.SqlException;
@@ -63,6 +64,14 @@ interface StatementRequestInterface {
                              // then we could just always set the chaining flag to on for blob send data
                              boolean chainedWritesFollowingSetLob) throws SqlException;
 
+    public int writeExecuteRows(NetPreparedStatement materialPreparedStatement,
+                                Section section,
+                                ColumnMetaData parameterMetaData,
+                                List<Object> inputRows,
+                                int numInputColumns,
+                                boolean outputExpected,
+                                boolean chainedWritesFollowingSetLob) throws SqlException;
+
 
     public void writeOpenQuery(NetPreparedStatement materialPreparedStatement,
                                Section section,
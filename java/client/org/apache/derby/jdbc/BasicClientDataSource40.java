@@ -87,6 +87,8 @@ import org.apache.derby.shared.common.reference.SQLState;
  *   <li>shutdownDatabase</li>
  *   <li>attributesAsPassword</li>
  *   <li>retrieveMessageText</li>
+ *   <li>compression</li>
+ *   <li>prefetchQueryBlocks</li>
  *   <li>securityMechanism</li>
  *   <li>traceDirectory</li>
  *   <li>traceFile</li>
@@ -598,6 +600,32 @@ public class BasicClientDataSource40
             retrieveMessageTextString, propertyDefault_retrieveMessageText);
     }
 
+    // ---------------------------- compression -------------------------------
+
+    /**
+     * @serial
+     */
+    private boolean compression = false;
+
+    public static boolean getCompression(Properties properties) {
+        String compressionString =
+            properties.getProperty(Attribute.CLIENT_COMPRESSION);
+        return parseBoolean(compressionString, false);
+    }
+
+    // ------------------------ prefetchQueryBlocks ---------------------------
+
+    /**
+     * @serial
+     */
+    private boolean prefetchQueryBlocks = false;
+
+    public static boolean getPrefetchQueryBlocks(Properties properties) {
+        String prefetchString =
+            properties.getProperty(Attribute.CLIENT_PREFETCH_QUERY_BLOCKS);
+        return parseBoolean(prefetchString, false);
+    }
+
     // ---------------------------- traceFile ---------------------------------
 
     /**
@@ -1046,6 +1074,40 @@ public class BasicClientDataSource40
         return this.retrieveMessageText;
     }
 
+    /**
+     * Set whether the server should be asked to compress the query data
+     * and LOB values that it sends. This saves bandwidth on slow networks
+     * if the server has compression enabled, and costs CPU time on both
+     * sides.
+     *
+     * @param compression true to ask for compressed data
+     */
+    synchronized public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public boolean getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Set whether forward-only result sets should ask for their next
+     * query block while the application reads the current one, so that
+     * the network round trip overlaps with the processing of the rows.
+     * A fetch size set on the result set caps the number of rows that
+     * are buffered this way.
+     *
+     * @param prefetchQueryBlocks true to keep a query block in flight
+     */
+    synchronized public void setPrefetchQueryBlocks(
+            boolean prefetchQueryBlocks) {
+        this.prefetchQueryBlocks = prefetchQueryBlocks;
+    }
+
+    public boolean getPrefetchQueryBlocks() {
+        return this.prefetchQueryBlocks;
+    }
+
 
     /**
      * Sets the security mechanism.
@@ -1354,6 +1416,12 @@ public class BasicClientDataSource40
         if (prop.containsKey(Attribute.CLIENT_RETIEVE_MESSAGE_TEXT)) {
             setRetrieveMessageText(getRetrieveMessageText(prop));
         }
+        if (prop.containsKey(Attribute.CLIENT_COMPRESSION)) {
+            setCompression(getCompression(prop));
+        }
+        if (prop.containsKey(Attribute.CLIENT_PREFETCH_QUERY_BLOCKS)) {
+            setPrefetchQueryBlocks(getPrefetchQueryBlocks(prop));
+        }
         if (prop.containsKey(Attribute.SSL_ATTR)) {
             sslMode = getClientSSLMode(prop);
         }
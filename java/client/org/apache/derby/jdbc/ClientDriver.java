@@ -202,7 +202,9 @@ public class ClientDriver implements Driver {
             String key = (String) keys.nextElement();
             if (key.equals(Attribute.USERNAME_ATTR) || 
                 key.equals(Attribute.PASSWORD_ATTR) ||
-                key.equals(Attribute.SSL_ATTR))
+                key.equals(Attribute.SSL_ATTR) ||
+                key.equals(Attribute.CLIENT_COMPRESSION) ||
+                key.equals(Attribute.CLIENT_PREFETCH_QUERY_BLOCKS))
                 continue;
             longDatabase.append(";" + key + "=" + augmentedProperties.getProperty(key));
         }
@@ -139,6 +139,38 @@ import org.apache.derby.impl.drda.NetworkServerControlImpl;
     A value of 0 causes the thread to work on the current session until the 
     session exits. If this property is not set, the default value is 0. </LI>
 
+    <LI>derby.drda.selectIdleSessions=true: If this property is set,
+    a connection thread gives up a session while the client is idle, and
+    the session waits for its next request in a selector instead of in a
+    connection thread. Together with derby.drda.maxThreads this lets a
+    small number of threads serve a large number of mostly idle
+    connections. The property is ignored when SSL is enabled. Default is
+    false. </LI>
+
+    <LI>derby.drda.virtualThreads=true: If this property is set, and the
+    JVM supports virtual threads (Java 21 or newer), each session is run
+    by a virtual thread of its own. There is no pool of connection
+    threads to tune, so derby.drda.maxThreads, derby.drda.timeSlice and
+    derby.drda.selectIdleSessions are ignored. Before Java 24, a session
+    that waits for a lock or a log flush still occupies a platform
+    thread while it waits. Default is false. </LI>
+
+    <LI>derby.drda.prefetchSize=&lt;number of bytes&gt;: If this property
+    is set, a session that has sent a block of rows from a forward-only
+    cursor goes on to build the following blocks while the client reads
+    the first one, until it holds this many bytes of rows that the client
+    has not asked for yet. The next fetches from the client are then
+    answered without reading from the database. If this property is not
+    set, the default value is 0, and blocks are built when the client
+    asks for them. </LI>
+
+    <LI>derby.drda.compressionLevel=&lt;level&gt;: If this property is
+    set to a value from 1 (fastest) to 9 (smallest), the server compresses
+    the rows and the LOB values that it sends to the clients that connect
+    with the compression=true attribute. This saves bandwidth on slow
+    networks at the cost of CPU time on both sides. If this property is
+    not set, the default value is 0, and no data is compressed. </LI>
+
     <LI>derby.drda.sslMode=&lt;sslmode&gt; This property sets the SSL
     mode of the server.
     
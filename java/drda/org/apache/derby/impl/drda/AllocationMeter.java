@@ -0,0 +1,93 @@
+/*
+
+   Derby - Class org.apache.derby.impl.drda.AllocationMeter
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.drda;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * Measures the memory allocated by the current thread, so that the server
+ * can report how much the sessions allocate. The measurement relies on
+ * the <code>com.sun.management.ThreadMXBean</code> extension, and is not
+ * available on JVMs that don't have it, or that have it disabled. The
+ * extension doesn't measure virtual threads either.
+ */
+final class AllocationMeter {
+
+    /** The thread bean, or null if allocation can't be measured. */
+    private static final ThreadMXBean BEAN = findBean();
+
+    private AllocationMeter() {
+    }
+
+    private static ThreadMXBean findBean() {
+        try {
+            ThreadMXBean bean = AccessController.doPrivileged(
+                    new PrivilegedAction<ThreadMXBean>() {
+                        public ThreadMXBean run() {
+                            return ManagementFactory.getThreadMXBean();
+                        }
+                    });
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean =
+                        (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported() &&
+                        sunBean.isThreadAllocatedMemoryEnabled()) {
+                    return bean;
+                }
+            }
+        } catch (SecurityException se) {
+            // Not allowed to monitor the threads.
+        } catch (LinkageError le) {
+            // No com.sun.management in this JVM.
+        }
+        return null;
+    }
+
+    /**
+     * Check if allocation can be measured.
+     *
+     * @param virtualThreads whether the sessions run on virtual threads
+     * @return true if {@link #allocatedBytes()} returns a measurement when
+     *   called by a session
+     */
+    static boolean isSupported(boolean virtualThreads) {
+        return BEAN != null && !virtualThreads;
+    }
+
+    /**
+     * Get the number of bytes allocated by the current thread since it
+     * started.
+     *
+     * @return the number of bytes, or -1 if it can't be measured, as for
+     *   a virtual thread
+     */
+    static long allocatedBytes() {
+        if (BEAN == null) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) BEAN)
+                .getCurrentThreadAllocatedBytes();
+    }
+}
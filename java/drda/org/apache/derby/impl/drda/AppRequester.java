@@ -44,7 +44,9 @@ class AppRequester
                                             3, // CMNAPPC, 
                                             4, // CMNSYNCPT
                                             5, // CMNTCPIP
+                                            1, // CMPRSMGR
                                             1, // DICTIONARY
+                                            1, // MROWMGR
                                             3, // RDB
                                             4, // RSYNCMGR
                                             1, // SECMGR    
@@ -294,6 +296,24 @@ class AppRequester
         return (getManagerLevel(CodePoint.UNICODEMGR) == CcsidManager.UTF8_CCSID);
     }
 
+    /**
+     * Returns whether our AppRequester's CMPRSMGR accepts QRYDTA and EXTDTA
+     * objects compressed with a Deflater.
+     * @return {@code true} if the data may be compressed, {@code false} if not
+     */
+    protected boolean supportsCompression() {
+        return (getManagerLevel(CodePoint.CMPRSMGR) >= 1);
+    }
+
+    /**
+     * Returns whether our AppRequester's MROWMGR may send several rows of
+     * input data in one EXCSQLSTT.
+     * @return {@code true} if multi-row input is accepted, {@code false} if not
+     */
+    protected boolean supportsMultiRowInput() {
+        return (getManagerLevel(CodePoint.MROWMGR) >= 1);
+    }
+
     protected boolean supportsSessionDataCaching() {
         return (clientType == DNC_CLIENT && greaterThanOrEqualTo(10, 4, 0));
     }
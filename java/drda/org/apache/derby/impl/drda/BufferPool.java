@@ -0,0 +1,77 @@
+/*
+
+   Derby - Class org.apache.derby.impl.drda.BufferPool
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.drda;
+
+import java.util.ArrayDeque;
+
+/**
+ * Pool of the I/O buffers of <code>DDMReader</code> and
+ * <code>DDMWriter</code>. A <code>DRDAConnThread</code> takes its buffers
+ * from the pool when it starts, and gives them back when it ends, so that
+ * threads that come and go, like the virtual threads that serve a single
+ * session each, reuse the buffers instead of allocating new ones. Buffers
+ * that have grown are kept at their new size, up to a limit.
+ */
+final class BufferPool {
+
+    /** Size of new buffers. */
+    static final int BUFFER_SIZE = 32767;
+
+    /** Maximum number of idle buffers kept in the pool. */
+    private static final int MAX_IDLE_BUFFERS = 64;
+
+    /** Buffers larger than this are left to the garbage collector. */
+    private static final int MAX_POOLED_SIZE = 1024 * 1024;
+
+    private final ArrayDeque<byte[]> idle = new ArrayDeque<byte[]>();
+
+    /**
+     * Take a buffer from the pool, or allocate a new one if the pool is
+     * empty.
+     *
+     * @return a buffer of at least {@link #BUFFER_SIZE} bytes
+     */
+    byte[] take() {
+        byte[] buffer;
+        synchronized (idle) {
+            buffer = idle.pollLast();
+        }
+        return (buffer == null) ? new byte[BUFFER_SIZE] : buffer;
+    }
+
+    /**
+     * Give a buffer back to the pool. The caller must not use the buffer
+     * afterwards.
+     *
+     * @param buffer the buffer, may be null
+     */
+    void give(byte[] buffer) {
+        if (buffer == null || buffer.length > MAX_POOLED_SIZE) {
+            return;
+        }
+        synchronized (idle) {
+            if (idle.size() < MAX_IDLE_BUFFERS) {
+                idle.addLast(buffer);
+            }
+        }
+    }
+}
@@ -694,6 +694,20 @@ class CodePoint
     // Current schema as UTF8 String (product-specific)
     static final int PBSD_SCHEMA = 0xC002;
 
+    // Compression manager (product-specific). Level 1 means that QRYDTA and
+    // EXTDTA objects may be compressed with java.util.zip.Deflater.
+    static final int CMPRSMGR = 0xC010;
+
+    // QRYDTA with data compressed by Deflater (product-specific)
+    static final int QRYDTA_DEFLATED = 0xC011;
+
+    // EXTDTA with data compressed by Deflater (product-specific)
+    static final int EXTDTA_DEFLATED = 0xC012;
+
+    // Multi-row input manager (product-specific). Level 1 means that an
+    // EXCSQLSTT may carry several rows of input data, their number in NBRROW.
+    static final int MROWMGR = 0xC013;
+
     //--------------------------ddm error code points---------------------------------
     static final int SYNERRCD_DSS_LESS_THAN_6 = 0x01;
     static final int SYNERRCD_DSS_LENGTH_BYTE_NUMBER_MISMATCH = 0x02;
@@ -874,7 +888,9 @@ class CodePoint
                                             CMNAPPC, 
                                             CMNSYNCPT,
                                             CMNTCPIP,
+                                            CMPRSMGR,
                                             DICTIONARY,
+                                            MROWMGR,
                                             RDB,
                                             RSYNCMGR,
                                             SECMGR,
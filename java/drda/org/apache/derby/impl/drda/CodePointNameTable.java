@@ -161,6 +161,10 @@ class CodePointNameTable extends java.util.Hashtable<Integer, String>
     put(CodePoint.PBSD_ISO, "PBSD_ISO");
     put(CodePoint.PBSD_SCHEMA, "PBSD_SCHEMA");
     put(CodePoint.UNICODEMGR, "UNICODEMGR");
+    put(CodePoint.CMPRSMGR, "CMPRSMGR");
+    put(CodePoint.QRYDTA_DEFLATED, "QRYDTA_DEFLATED");
+    put(CodePoint.EXTDTA_DEFLATED, "EXTDTA_DEFLATED");
+    put(CodePoint.MROWMGR, "MROWMGR");
   }
 
   String lookup (int codePoint)
@@ -109,8 +109,9 @@ class DDMReader
     };
 
     private DRDAConnThread agent;
-    private Utf8CcsidManager utf8CcsidManager;
-    private EbcdicCcsidManager ebcdicCcsidManager;
+    private final Utf8CcsidManager utf8CcsidManager = new Utf8CcsidManager();
+    private final EbcdicCcsidManager ebcdicCcsidManager =
+            new EbcdicCcsidManager();
     private CcsidManager ccsidManager;
 
     // data buffer
@@ -168,7 +169,21 @@ class DDMReader
     // constructor
     DDMReader (DRDAConnThread agent, DssTrace dssTrace)
     {
-        buffer = new byte[DEFAULT_BUFFER_SIZE];
+        this(agent, dssTrace, new byte[DEFAULT_BUFFER_SIZE]);
+    }
+
+    /**
+     * Create a reader that uses the given buffer, which may have been
+     * used by another reader.
+     *
+     * @param agent the connection thread of the reader
+     * @param dssTrace trace object of the session
+     * @param buffer the buffer, of at least DEFAULT_BUFFER_SIZE bytes
+     * @see BufferPool
+     */
+    DDMReader (DRDAConnThread agent, DssTrace dssTrace, byte[] buffer)
+    {
+        this.buffer = buffer;
         ddmCollectionLenStack = new long[MAX_MARKS_NESTING];
         initialize(agent, dssTrace);
     }
@@ -193,8 +208,6 @@ class DDMReader
     protected void initialize(DRDAConnThread agent, DssTrace dssTrace)
     {
         this.agent = agent;
-        this.utf8CcsidManager = new Utf8CcsidManager();
-        this.ebcdicCcsidManager = new EbcdicCcsidManager();
         this.ccsidManager = ebcdicCcsidManager;
         if (agent != null)
         {
@@ -223,6 +236,30 @@ class DDMReader
         ccsidManager = ebcdicCcsidManager;
     }
     
+    /**
+     * Check if bytes that have been read from the socket are waiting to
+     * be parsed.
+     *
+     * @return true if the buffer holds bytes that have not been parsed
+     */
+    boolean hasBufferedData()
+    {
+        return pos < count;
+    }
+
+    /**
+     * Give up the buffer of the reader, so that it can be reused. The
+     * reader must not be used afterwards.
+     *
+     * @return the buffer
+     */
+    byte[] releaseBuffer()
+    {
+        byte[] b = buffer;
+        buffer = null;
+        return b;
+    }
+
     protected boolean terminateChainOnErr()
     {
         return terminateChainOnErr;
@@ -35,6 +35,7 @@ import java.nio.charset.CodingErrorAction;
 import java.sql.DataTruncation;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.zip.Deflater;
 import org.apache.derby.iapi.reference.DRDAConstants;
 import org.apache.derby.iapi.reference.Property;
 import org.apache.derby.iapi.services.io.DynamicByteArrayOutputStream;
@@ -72,6 +73,9 @@ class DDMWriter
     // A saved mark in the stream is saved temporarily to revisit the location.
     private int[] markStack = new int[MAX_MARKS_NESTING];
 
+    // Scratch space for deflateDdm(), allocated when first used.
+    private byte[] deflateBuffer;
+
     // top of the stack
     private int top;
 
@@ -131,13 +135,27 @@ class DDMWriter
     volatile long totalByteCount = 0;
     
     DDMWriter (DRDAConnThread agent, DssTrace dssTrace)
+    {
+        this(agent, dssTrace, new byte[DEFAULT_BUFFER_SIZE]);
+    }
+
+    /**
+     * Create a writer that uses the given buffer, which may have been
+     * used by another writer.
+     *
+     * @param agent the connection thread of the writer
+     * @param dssTrace trace object of the session
+     * @param buffer the buffer, of at least DEFAULT_BUFFER_SIZE bytes
+     * @see BufferPool
+     */
+    DDMWriter (DRDAConnThread agent, DssTrace dssTrace, byte[] buffer)
     {
         // Create instances of the two ccsid managers and default to EBCDIC
         this.ebcdicCcsidManager = new EbcdicCcsidManager();
         this.utf8CcsidManager = new Utf8CcsidManager();
         this.ccsidManager = this.ebcdicCcsidManager;
         
-        this.buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        this.buffer = ByteBuffer.wrap(buffer);
         this.agent = agent;
         this.prevHdrLocation = -1;
         this.previousCorrId = DssConstants.CORRELATION_ID_UNKNOWN;
@@ -152,6 +170,19 @@ class DDMWriter
             .onUnmappableCharacter(CodingErrorAction.REPLACE);
     }
 
+    /**
+     * Give up the buffer of the writer, so that it can be reused. The
+     * writer must not be used afterwards.
+     *
+     * @return the buffer
+     */
+    byte[] releaseBuffer()
+    {
+        byte[] b = buffer.array();
+        buffer = null;
+        return b;
+    }
+
     // Switch the ccsidManager to the UTF-8 instance
     protected void setUtf8Ccsid() {
         ccsidManager = utf8CcsidManager;
@@ -442,6 +473,43 @@ class DDMWriter
         isDRDAProtocol = true;
     }
 
+    /**
+     * Compress the data of the current DDM, and change its code point to
+     * tell the receiver that the data is compressed. The data is left as
+     * it is if it doesn't get smaller, so that the DDM never grows.
+     * Afterwards, the deflater tells how many bytes it read and wrote.
+     *
+     * @param deflater the deflater to compress with, it is reset first
+     * @param codePoint code point of the DDM with compressed data
+     * @return true if the data was compressed
+     */
+    protected boolean deflateDdm (Deflater deflater, int codePoint)
+    {
+        final int lengthLocation = markStack[top - 1];
+        final int dataStart = lengthLocation + 4;
+        final int length = buffer.position() - dataStart;
+
+        deflater.reset();
+        deflater.setInput(buffer.array(), dataStart, length);
+        deflater.finish();
+        if (deflateBuffer == null || deflateBuffer.length < length) {
+            deflateBuffer = new byte[length];
+        }
+        int deflated = 0;
+        while (!deflater.finished() && deflated < length) {
+            deflated += deflater.deflate(deflateBuffer, deflated,
+                                         length - deflated);
+        }
+        if (!deflater.finished()) {
+            return false;
+        }
+
+        buffer.position(dataStart);
+        buffer.put(deflateBuffer, 0, deflated);
+        buffer.putShort(lengthLocation + 2, (short) codePoint);
+        return true;
+    }
+
     /**
      * End the current DDM
      *
@@ -677,7 +745,7 @@ class DDMWriter
     
     protected void writeScalarStream (boolean chainedWithSameCorrelator,
                                       int codePoint,
-                      EXTDTAInputStream in,
+                      InputStream in,
                                       boolean writeNullByte) 
         throws DRDAProtocolException
     {
@@ -20,6 +20,7 @@
 
 package org.apache.derby.impl.drda;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -27,10 +28,12 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.sql.BatchUpdateException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DataTruncation;
@@ -50,6 +53,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Properties;
 import java.util.TimeZone;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
 import org.apache.derby.catalog.SystemProcedures;
 import org.apache.derby.shared.common.error.ExceptionSeverity;
 import org.apache.derby.iapi.error.StandardException;
@@ -111,6 +116,12 @@ class DRDAConnThread extends Thread {
     private DDMReader reader;
     private DDMWriter writer;
     private DRDAXAProtocol xaProto;
+    /** Writer that builds query blocks ahead of time, or null. */
+    private DDMWriter prefetchWriter;
+    /** True while query blocks are built ahead of time. */
+    private boolean prefetching;
+    /** Deflater that compresses data for the client, or null. */
+    private Deflater deflater;
 
     private static int [] ACCRDB_REQUIRED = {CodePoint.RDBACCCL, 
                                              CodePoint.CRRTKN,
@@ -130,6 +141,11 @@ class DRDAConnThread extends Thread {
     private volatile long timeSlice;
     /** Whether or not to log connections. */
     private volatile boolean logConnections;
+    /**
+     * The virtual thread that runs this connection thread, or null if it
+     * runs as a platform thread of its own.
+     */
+    private volatile Thread virtualThread;
 
     private boolean sendWarningsOnCNTQRY = false;   // Send Warnings for SELECT if true
     /** End this thread. */
@@ -248,6 +264,11 @@ class DRDAConnThread extends Thread {
         this.logConnections = logConnections;
         this.pendingStatementTimeout = -1;
         initialize();
+        if (session.state != Session.INIT) {
+            // A session that has been parked, and is resumed by a new
+            // thread because all the existing threads are busy.
+            initializeForSession();
+        }
     }
 
     /**
@@ -296,6 +317,8 @@ class DRDAConnThread extends Thread {
                         long currentTimeSlice;
 
                         do {
+                            long allocated =
+                                    AllocationMeter.allocatedBytes();
                             try {
                                 processCommands();
                             } catch (DRDASocketTimeoutException ste) {
@@ -303,6 +326,11 @@ class DRDAConnThread extends Thread {
                                 // a timeout on the read call in
                                 // DDMReader.fill(), which will happen
                                 // only when timeSlice is set.
+                            } finally {
+                                recordAllocation(allocated);
+                            }
+                            if (parkIdleSession()) {
+                                break;
                             }
                             currentTimeSlice = getTimeSlice();
                         } while ((currentTimeSlice <= 0)  || 
@@ -348,9 +376,74 @@ class DRDAConnThread extends Thread {
         if (SanityManager.DEBUG) {
             trace("Ending connection thread");
         }
+        BufferPool pool = server.getBufferPool();
+        pool.give(reader.releaseBuffer());
+        pool.give(writer.releaseBuffer());
+        if (prefetchWriter != null) {
+            pool.give(prefetchWriter.releaseBuffer());
+        }
+        if (deflater != null) {
+            deflater.end();
+        }
         server.removeThread(this);
 
     }
+    /**
+     * Add the memory allocated by this thread since a measurement to the
+     * allocation statistics of the server.
+     *
+     * @param allocated the result of the earlier
+     * {@link AllocationMeter#allocatedBytes()} call
+     */
+    private void recordAllocation(long allocated)
+    {
+        long now = AllocationMeter.allocatedBytes();
+        // negative if allocation is not measured
+        if (allocated >= 0 && now >= allocated) {
+            server.addAllocatedBytes(now - allocated);
+        }
+    }
+
+    /**
+     * Make {@link #start()} start a virtual thread instead of this thread.
+     * The virtual thread calls {@link #run()}, and this <code>Thread</code>
+     * object is never started. The virtual thread is created here, so that
+     * the server knows whether it can be created before it lists the
+     * thread.
+     *
+     * @see VirtualThreads
+     */
+    void useVirtualThread()
+    {
+        virtualThread = VirtualThreads.newThread(getName(), this);
+    }
+
+    /**
+     * Start the thread, or the virtual thread that runs it.
+     */
+    @Override
+    public synchronized void start()
+    {
+        if (virtualThread != null) {
+            virtualThread.start();
+        } else {
+            super.start();
+        }
+    }
+
+    /**
+     * Interrupt the thread, or the virtual thread that runs it.
+     */
+    @Override
+    public void interrupt()
+    {
+        if (virtualThread != null) {
+            virtualThread.interrupt();
+        } else {
+            super.interrupt();
+        }
+    }
+
     /**
      * Get input stream
      *
@@ -612,8 +705,9 @@ class DRDAConnThread extends Thread {
         sockis = session.sessionInput;
         sockos = session.sessionOutput;
 
-        reader = new DDMReader(this, session.dssTrace);
-        writer = new DDMWriter(this, session.dssTrace);
+        BufferPool pool = server.getBufferPool();
+        reader = new DDMReader(this, session.dssTrace, pool.take());
+        writer = new DDMWriter(this, session.dssTrace, pool.take());
         
         /* At this stage we can initialize the strings as we have
          * the CcsidManager for the DDMWriter. */
@@ -648,6 +742,86 @@ class DRDAConnThread extends Thread {
         /* All sessions MUST start as EBCDIC */
         reader.setEbcdicCcsid();
         writer.setEbcdicCcsid();
+
+        if (session.parked) {
+            restoreParkedSession();
+        }
+    }
+
+    /**
+     * Park the session if its client has not sent another request, so
+     * that this thread can serve other sessions while the client is idle.
+     * Some of the protocol state of a session is kept in the thread, so
+     * only sessions that have passed the security check, and that are not
+     * in a global transaction, are parked. The part of the state that
+     * lasts between requests is saved in the session, and restored by the
+     * thread that resumes it.
+     *
+     * @return true if the session was parked and this thread no longer
+     * serves it
+     */
+    private boolean parkIdleSession()
+    {
+        if (session == null || session.state != Session.CHKSEC ||
+                databaseAccessException != null ||
+                (xaProto != null && xaProto.hasCurrentTransaction()) ||
+                !server.canParkSession(session) ||
+                reader.hasBufferedData()) {
+            return false;
+        }
+
+        try {
+            if (sockis.available() > 0) {
+                return false;
+            }
+        } catch (IOException ioe) {
+            // Let the next read report the error.
+            return false;
+        }
+
+        session.savedSqlamLevel = sqlamLevel;
+        session.savedDiagnosticLevel = diagnosticLevel;
+        session.savedSendWarningsOnCNTQRY = sendWarningsOnCNTQRY;
+        session.savedKnownManagers = knownManagers;
+        session.savedUnknownManagers = unknownManagers;
+        session.savedDeferredReset = deferredReset;
+        session.savedPendingStatementTimeout = pendingStatementTimeout;
+        session.parked = true;
+
+        // Another thread may pick up the session as soon as it has been
+        // parked, so let go of it first.
+        Session idle = session;
+        session = null;
+        database = null;
+        appRequester = null;
+        sockis = null;
+        sockos = null;
+        server.parkSession(idle);
+        return true;
+    }
+
+    /**
+     * Restore the protocol state that was saved when the session was
+     * parked.
+     */
+    private void restoreParkedSession()
+    {
+        sqlamLevel = session.savedSqlamLevel;
+        diagnosticLevel = session.savedDiagnosticLevel;
+        sendWarningsOnCNTQRY = session.savedSendWarningsOnCNTQRY;
+        knownManagers = session.savedKnownManagers;
+        unknownManagers = session.savedUnknownManagers;
+        deferredReset = session.savedDeferredReset;
+        pendingStatementTimeout = session.savedPendingStatementTimeout;
+        session.savedKnownManagers = null;
+        session.savedUnknownManagers = null;
+        session.parked = false;
+
+        // The session has been through ACCSEC, after which the client
+        // uses UTF-8 if it supports it.
+        if (appRequester.supportsUtf8Ccsid()) {
+            switchToUtf8();
+        }
     }
     /**      
      * In initial state for a session, 
@@ -729,10 +903,13 @@ class DRDAConnThread extends Thread {
     private void processCommands() throws DRDAProtocolException
     {
         DRDAStatement stmt = null;
+        // statement that got a QRYDTA in reply to the last command
+        DRDAStatement fetchStmt = null;
         boolean PRPSQLSTTfailed = false;
         boolean checkSecurityCodepoint = session.requiresSecurityCodepoint();
         do
         {
+            fetchStmt = null;
             correlationID = reader.readDssHeader();
             int codePoint = reader.readLengthAndCodePoint( false );
             int writerMark = writer.markDSSClearPoint();
@@ -757,6 +934,7 @@ class DRDAConnThread extends Thread {
                             // Send any warnings if JCC can handle them
                             checkWarning(null, null, stmt.getResultSet(), 0, false, sendWarningsOnCNTQRY);
                             writePBSD();
+                            fetchStmt = stmt;
                         }
                     }
                     catch(SQLException e)
@@ -908,6 +1086,7 @@ class DRDAConnThread extends Thread {
                                     if (drdars != null &&
                                         !drdars.hasLobColumns()) {
                                         writeQRYDTA(stmt);
+                                        fetchStmt = stmt;
                                     }
                                 } catch (SQLException sqle) {
                                     cleanUpAndCloseResultSet(stmt, sqle,
@@ -1136,6 +1315,12 @@ class DRDAConnThread extends Thread {
 
         }
         while (reader.isChainedWithSameID() || reader.isChainedWithDiffID());
+
+        // The reply is on its way to the client. Use the time until the
+        // next request arrives to build the blocks it is likely to ask for.
+        if (fetchStmt != null) {
+            prefetchQRYDTA(fetchStmt);
+        }
     }
 
     /**
@@ -2265,7 +2450,7 @@ class DRDAConnThread extends Thread {
                         break;
                     // optional 
                     case CodePoint.SQLDTA:
-                        parseSQLDTA(stmt);
+                        parseSQLDTA(stmt, 1);
                         break;
                     // optional
                     case CodePoint.EXTDTA:
@@ -4320,11 +4505,35 @@ class DRDAConnThread extends Thread {
     
         // set the statement as the current statement
         database.setCurrentStatement(stmt);
+
+        if (numRows > 1)
+        {
+            // Multi-row input, which the client only sends if it has
+            // negotiated MROWMGR, and only for statements that don't
+            // return result sets or output parameters.
+            if (!appRequester.supportsMultiRowInput() ||
+                    isProcedure || !reader.isChainedWithSameID()) {
+                invalidValue(CodePoint.NBRROW);
+            }
+            try {
+                parseEXCSQLSTTobjects(stmt, numRows);
+            } catch (SQLException se) {
+                // The rest of the input has been skipped. Every row gets
+                // the error, so that the client gets a reply for each.
+                stmt.ps.clearBatch();
+                for (int i = 0; i < numRows; i++) {
+                    writeSQLCARDs(se, 0);
+                }
+                return;
+            }
+            executeRows(stmt, numRows);
+            return;
+        }
         
         boolean hasResultSet;
         if (reader.isChainedWithSameID()) 
         {
-            hasResultSet = parseEXCSQLSTTobjects(stmt);
+            hasResultSet = parseEXCSQLSTTobjects(stmt, 1);
         } else 
         {
             if (isProcedure  && (needPrepareCall))
@@ -4474,11 +4683,16 @@ class DRDAConnThread extends Thread {
      * the values sent in the ACCRDB are used.
      * Objects may follow in one DSS or in several DSS chained together.
      * 
+     * If numRows is more than one, the SQLDTA holds that many rows, which
+     * are added to the batch of the statement instead of being executed.
+     * 
      * @param stmt  the DRDAStatement to execute
+     * @param numRows the number of rows of input data
      * @throws DRDAProtocolException
      * @throws SQLException
      */
-    private boolean parseEXCSQLSTTobjects(DRDAStatement stmt) throws DRDAProtocolException, SQLException
+    private boolean parseEXCSQLSTTobjects(DRDAStatement stmt, int numRows)
+            throws DRDAProtocolException, SQLException
     {
         int codePoint;
         boolean gotSQLDTA = false, gotEXTDTA = false;
@@ -4503,11 +4717,15 @@ class DRDAConnThread extends Thread {
                         break;
                     // required
                     case CodePoint.SQLDTA:
-                        parseSQLDTA(stmt);
+                        parseSQLDTA(stmt, numRows);
                         gotSQLDTA = true;
                         break;
                     // optional
                     case CodePoint.EXTDTA:
+                        if (numRows > 1) {
+                            // multi-row input has no externalized data
+                            invalidCodePoint(codePoint);
+                        }
                         readAndSetAllExtParams(stmt, true);
                         stmt.ps.clearWarnings();
                         result = stmt.execute();
@@ -4528,7 +4746,7 @@ class DRDAConnThread extends Thread {
             missingCodePoint(CodePoint.SQLDTA);
         }
         
-        if (! gotEXTDTA) {
+        if (! gotEXTDTA && numRows == 1) {
             stmt.ps.clearWarnings();
             result = stmt.execute();
         }
@@ -4536,6 +4754,73 @@ class DRDAConnThread extends Thread {
         return result;
     }
 
+    /**
+     * Execute the rows of a multi-row EXCSQLSTT, and write an SQLCARD for
+     * each row, the same as the replies to one EXCSQLSTT per row. A row
+     * that fails doesn't stop the execution of the rows that follow it,
+     * unless the error closes the connection.
+     *
+     * @param stmt the DRDAStatement with the rows in its batch
+     * @param numRows the number of rows
+     * @throws DRDAProtocolException
+     * @throws SQLException
+     */
+    private void executeRows(DRDAStatement stmt, int numRows)
+            throws DRDAProtocolException, SQLException
+    {
+        EnginePreparedStatement ps = stmt.getPreparedStatement();
+        // The rows whose parameters could not be set are not in the batch.
+        SQLException[] paramErrors = stmt.rowParamErrors;
+        stmt.rowParamErrors = null;
+        int batchRows = numRows;
+        if (paramErrors != null) {
+            for (int i = 0; i < numRows; i++) {
+                if (paramErrors[i] != null) {
+                    batchRows--;
+                }
+            }
+        }
+        SQLException[] errors = new SQLException[batchRows];
+        long[] updateCounts;
+        SQLException failure = null;
+
+        ps.clearWarnings();
+        try {
+            updateCounts = (batchRows == 0) ?
+                new long[0] : stmt.executeRows(errors);
+        } catch (BatchUpdateException bue) {
+            // The rows with an update count were executed, and the rest
+            // get the error.
+            updateCounts = bue.getLargeUpdateCounts();
+            failure = (bue.getCause() instanceof SQLException) ?
+                (SQLException) bue.getCause() : bue;
+        } catch (SQLException se) {
+            // none of the rows were executed
+            updateCounts = new long[0];
+            failure = se;
+        }
+
+        // b is the position of row i in the batch
+        for (int i = 0, b = 0; i < numRows; i++) {
+            if (paramErrors != null && paramErrors[i] != null) {
+                writeSQLCARDs(paramErrors[i], 0);
+                continue;
+            }
+            if (b >= updateCounts.length) {
+                writeSQLCARDs(failure, 0);
+            } else if (errors[b] != null) {
+                writeSQLCARDs(errors[b], 0);
+            } else if (b == batchRows - 1) {
+                // report the warnings of the batch with its last row
+                checkWarning(database.getConnection(), ps, null,
+                             updateCounts[b], true, true);
+            } else {
+                writeSQLCARDs(null, updateCounts[b]);
+            }
+            b++;
+        }
+    }
+
     /**
      * Write SQLCINRD - result set column information
      *
@@ -4629,10 +4914,11 @@ class DRDAConnThread extends Thread {
      * @see #parseSQLDTA_work
      */
 
-    private void parseSQLDTA(DRDAStatement stmt) throws DRDAProtocolException,SQLException
+    private void parseSQLDTA(DRDAStatement stmt, int numRows)
+            throws DRDAProtocolException, SQLException
     {
         try {
-            parseSQLDTA_work(stmt);
+            parseSQLDTA_work(stmt, numRows);
         } 
         catch (SQLException se)
         {
@@ -4646,11 +4932,15 @@ class DRDAConnThread extends Thread {
      * Instance Variables
      *  FDODSC - FD:OCA data descriptor - required
      *  FDODTA - FD:OCA data - optional
+     *
+     * If numRows is more than one, FDODTA holds that many rows, and each
+     * row is added to the batch of the statement.
      *    
      * @throws DRDAProtocolException
      * @throws SQLException
      */
-    private void parseSQLDTA_work(DRDAStatement stmt) throws DRDAProtocolException,SQLException
+    private void parseSQLDTA_work(DRDAStatement stmt, int numRows)
+            throws DRDAProtocolException, SQLException
     {
         String strVal;
         EnginePreparedStatement ps = stmt.getPreparedStatement();
@@ -4751,31 +5041,37 @@ class DRDAConnThread extends Thread {
                     break;
                 // optional
                 case CodePoint.FDODTA:
-                    reader.readByte();  // row indicator
-                    for (int i = 0; i < numVars; i++)
+                    for (int row = 0; row < numRows; row++)
                     {
-                    
-                        if ((stmt.getParamDRDAType(i+1) & 0x1) == 0x1)  // nullable
+                        SQLException rowError = null;
+                        reader.readByte();  // row indicator
+                        for (int i = 0; i < numVars; i++)
                         {
-                            int nullData = reader.readUnsignedByte();
-                            if ((nullData & 0xFF) == FdocaConstants.NULL_DATA)
-                            {
-                                if (SanityManager.DEBUG) {
-                                    trace("******param null");
+                            try {
+                                readAndSetParam(i, stmt, pmeta);
+                            } catch (SQLException se) {
+                                if (numRows == 1) {
+                                    throw se;
                                 }
-                                if (pmeta.getParameterMode(i + 1)
-                                    != ParameterMetaData.parameterModeOut) {
-                                        ps.setNull(i+1, pmeta.getParameterType(i+1));
+                                // The value has been read, so go on with
+                                // the next one. The row fails on its own,
+                                // like it would if it were sent by itself.
+                                if (rowError == null) {
+                                    rowError = se;
                                 }
-                                if (stmt.isOutputParam(i+1)) {
-                                    stmt.registerOutParam(i+1);
+                            }
+                        }
+                        if (numRows > 1) {
+                            if (rowError == null) {
+                                ps.addBatch();
+                            } else {
+                                if (stmt.rowParamErrors == null) {
+                                    stmt.rowParamErrors =
+                                        new SQLException[numRows];
                                 }
-                                continue;
+                                stmt.rowParamErrors[row] = rowError;
                             }
                         }
-
-                        // not null, read and set it
-                        readAndSetParams(i, stmt, pmeta);
                     }
                     break;
                 case CodePoint.EXTDTA:
@@ -4791,6 +5087,45 @@ class DRDAConnThread extends Thread {
 
     }
 
+    /**
+     * Read the value of one parameter of an FDODTA row, which may be null,
+     * and set it in the PreparedStatement.
+     * @param i         index of the parameter
+     * @param stmt      drda statement
+     * @param pmeta     parameter meta data
+     *
+     * @throws DRDAProtocolException
+     * @throws SQLException
+     */
+    private void readAndSetParam(int i,
+                                 DRDAStatement stmt,
+                                 ParameterMetaData pmeta)
+                throws DRDAProtocolException, SQLException
+    {
+        if ((stmt.getParamDRDAType(i+1) & 0x1) == 0x1)  // nullable
+        {
+            int nullData = reader.readUnsignedByte();
+            if ((nullData & 0xFF) == FdocaConstants.NULL_DATA)
+            {
+                if (SanityManager.DEBUG) {
+                    trace("******param null");
+                }
+                if (pmeta.getParameterMode(i + 1)
+                    != ParameterMetaData.parameterModeOut) {
+                        stmt.getPreparedStatement().setNull(
+                            i+1, pmeta.getParameterType(i+1));
+                }
+                if (stmt.isOutputParam(i+1)) {
+                    stmt.registerOutParam(i+1);
+                }
+                return;
+            }
+        }
+
+        // not null, read and set it
+        readAndSetParams(i, stmt, pmeta);
+    }
+
     private int getByteOrder()
     {
         DRDAStatement stmt = database.getCurrentStatement();
@@ -7212,15 +7547,30 @@ class DRDAConnThread extends Thread {
     private void writeQRYDTA (DRDAStatement stmt) 
         throws DRDAProtocolException, SQLException
     {
-        boolean getMoreData = true;
-        boolean sentExtData = false;
-        int startLength = 0;
         writer.createDssObject();
 
         if (SanityManager.DEBUG) {
             trace("Write QRYDTA");
         }
         writer.startDdm(CodePoint.QRYDTA);
+        // Blocks that were built ahead of time come before anything else,
+        // see prefetchQRYDTA(). If the end of the data was reached when
+        // they were built, the result set is closed when the last of them
+        // has been sent, as doneData() would have done.
+        if (processPrefetchedQRYDTA(stmt))
+        {
+            if (!stmt.hasdata() &&
+                    !stmt.getCurrentDrdaResultSet().hasPrefetchedQRYDTA())
+            {
+                final boolean qryclsOnLmtblkprc =
+                    appRequester.supportsQryclsimpForLmtblkprc();
+                if (stmt.isRSCloseImplicit(qryclsOnLmtblkprc)) {
+                    stmt.rsClose();
+                    stmt.rsSuspend();
+                }
+            }
+            return;
+        }
         // Check to see if there was leftover data from splitting
         // the previous QRYDTA for this result set. If there was, and
         // if we have now sent all of it, send any EXTDTA for that row
@@ -7238,6 +7588,40 @@ class DRDAConnThread extends Thread {
             return;
         }
 
+        boolean sentExtData = writeQRYDTARows(stmt);
+        // If we sent extDta we will rely on
+        // writeScalarStream to end the dss with the proper chaining.
+        // otherwise end it here.
+        if (!sentExtData) {
+            endQRYDTA(stmt);
+        }
+
+        if (!stmt.hasdata()) {
+            final boolean qryclsOnLmtblkprc =
+                appRequester.supportsQryclsimpForLmtblkprc();
+            if (stmt.isRSCloseImplicit(qryclsOnLmtblkprc)) {
+                stmt.rsClose();
+            }
+        }
+    }
+
+    /**
+     * Place rows into the current QRYDTA block until it is full, the
+     * data ends, or a row needs to send EXTDTA.
+     *
+     * @param stmt  DRDA statement we are processing
+     * @return true if EXTDTA was sent, in which case the QRYDTA has
+     * already been ended
+     * @throws DRDAProtocolException
+     * @throws SQLException
+     */
+    private boolean writeQRYDTARows(DRDAStatement stmt)
+        throws DRDAProtocolException, SQLException
+    {
+        boolean getMoreData = true;
+        boolean sentExtData = false;
+        int startLength = 0;
+
         while(getMoreData)
         {
             sentExtData = false;
@@ -7246,7 +7630,7 @@ class DRDAConnThread extends Thread {
             if (stmt.getExtDtaObjects() != null &&
                     stmt.getSplitQRYDTA() == null)
             {
-                writer.endDdmAndDss();
+                endQRYDTA(stmt);
                 writeEXTDTA(stmt);
                 getMoreData=false;
                 sentExtData = true;
@@ -7267,20 +7651,7 @@ class DRDAConnThread extends Thread {
             }
 
         }
-        // If we sent extDta we will rely on
-        // writeScalarStream to end the dss with the proper chaining.
-        // otherwise end it here.
-        if (!sentExtData) {
-            writer.endDdmAndDss();
-        }
-
-        if (!stmt.hasdata()) {
-            final boolean qryclsOnLmtblkprc =
-                appRequester.supportsQryclsimpForLmtblkprc();
-            if (stmt.isRSCloseImplicit(qryclsOnLmtblkprc)) {
-                stmt.rsClose();
-            }
-        }
+        return sentExtData;
     }
 
     /**
@@ -7749,6 +8120,178 @@ class DRDAConnThread extends Thread {
         }
         stmt.setSplitQRYDTA(temp);
     }
+    /**
+     * Build the next query blocks of a forward-only cursor while the
+     * client reads the block it has just been sent, so that the next
+     * CNTQRY requests can be answered without waiting for the database.
+     * The client only accepts extra query blocks (MAXBLKEXT) for rowset
+     * cursors, so the blocks are kept by the result set and sent one by
+     * one in reply to the CNTQRY requests, see writeQRYDTA().
+     * <p>
+     * The blocks are built with the negotiated QRYBLKSZ, exactly as they
+     * would have been built on demand, and take at most
+     * derby.drda.prefetchSize bytes per session. Only one result set of
+     * a session holds blocks at a time. Building stops as soon as the
+     * client sends another request.
+     *
+     * @param stmt DRDA statement whose result set was fetched from
+     * @throws DRDAProtocolException
+     */
+    private void prefetchQRYDTA(DRDAStatement stmt)
+        throws DRDAProtocolException
+    {
+        int prefetchSize = server.getPrefetchSize();
+        if (prefetchSize <= 0) {
+            return;
+        }
+
+        DRDAResultSet drdars = stmt.getCurrentDrdaResultSet();
+        DRDAResultSet holder = session.prefetchedResultSet;
+        try {
+            if (drdars == null || stmt.rsIsClosed() || !stmt.hasdata() ||
+                    stmt.isScrollable() || stmt.needsToSendParamData ||
+                    stmt.getQryprctyp() != CodePoint.LMTBLKPRC ||
+                    !stmt.getQryrtndta() ||
+                    stmt.getSplitQRYDTA() != null ||
+                    drdars.getPrefetchException() != null ||
+                    drdars.hasLobColumns() ||
+                    (holder != null && holder != drdars &&
+                     holder.hasPrefetchedQRYDTA())) {
+                return;
+            }
+        } catch (SQLException sqle) {
+            // Leave it to the next CNTQRY to run into the error.
+            return;
+        }
+        session.prefetchedResultSet = drdars;
+
+        int blksize = stmt.getBlksize() > 0 ?
+            stmt.getBlksize() : CodePoint.QRYBLKSZ_MAX;
+        if (prefetchWriter == null) {
+            prefetchWriter = new DDMWriter(this, null,
+                                           server.getBufferPool().take());
+        }
+        // Strings in the SQLCAs must be encoded as in the reply writer.
+        if (writer.getCurrentCcsidManager() instanceof Utf8CcsidManager) {
+            prefetchWriter.setUtf8Ccsid();
+        } else {
+            prefetchWriter.setEbcdicCcsid();
+        }
+
+        // Build the blocks with the code that writes them on demand.
+        DDMWriter replyWriter = writer;
+        writer = prefetchWriter;
+        prefetching = true;
+        try {
+            while (drdars.getPrefetchedBytes() + blksize <= prefetchSize &&
+                    stmt.hasdata() && stmt.getSplitQRYDTA() == null &&
+                    !clientRequestWaiting()) {
+                writer.clearBuffer();
+                writer.createDssObject();
+                writer.startDdm(CodePoint.QRYDTA);
+                int dataStart = writer.getBufferPosition();
+                writeQRYDTARows(stmt);
+                drdars.addPrefetchedQRYDTA(
+                        writer.getBufferContents(dataStart));
+            }
+        } catch (SQLException sqle) {
+            // Rows in the unfinished block are lost, as they would have
+            // been if the error happened while answering a CNTQRY.
+            drdars.setPrefetchException(sqle);
+        } finally {
+            writer.clearBuffer();
+            writer = replyWriter;
+            prefetching = false;
+        }
+    }
+
+    /**
+     * Check if the client has sent another request.
+     *
+     * @return true if a request is waiting to be processed
+     */
+    private boolean clientRequestWaiting()
+    {
+        if (reader.hasBufferedData()) {
+            return true;
+        }
+        try {
+            return sockis.available() > 0;
+        } catch (IOException ioe) {
+            // Let the next read report the error.
+            return true;
+        }
+    }
+
+    /**
+     * End the current QRYDTA and its DSS. If the client accepts compressed
+     * data, the data of the QRYDTA is compressed first, and sent as a
+     * QRYDTA_DEFLATED if it got smaller. Blocks of scrollable cursors are
+     * not compressed, since the client reads the SQLCA of positioning
+     * fetches straight from the QRYDTA.
+     *
+     * @param stmt DRDA statement the block belongs to
+     * @throws DRDAProtocolException
+     */
+    private void endQRYDTA(DRDAStatement stmt) throws DRDAProtocolException
+    {
+        Deflater d = stmt.isScrollable() ? null : getDeflater();
+        if (d != null) {
+            boolean deflated =
+                writer.deflateDdm(d, CodePoint.QRYDTA_DEFLATED);
+            server.addCompressedBytes(d.getBytesRead(),
+                    deflated ? d.getBytesWritten() : d.getBytesRead());
+        }
+        writer.endDdmAndDss();
+    }
+
+    /**
+     * Get the deflater that compresses the data sent to the client.
+     *
+     * @return the deflater, or null if the data is not to be compressed
+     */
+    private Deflater getDeflater()
+    {
+        if (!appRequester.supportsCompression()) {
+            return null;
+        }
+        if (deflater == null) {
+            deflater = new Deflater(server.getCompressionLevel());
+        }
+        return deflater;
+    }
+
+    /**
+     * Send the next query block that was built ahead of time for the
+     * result set, if any. If all of them have been sent, and an error
+     * was raised while building them, report the error now.
+     *
+     * @param stmt DRDA statement
+     * @return true if a block was sent
+     * @throws SQLException the error raised while building the blocks
+     * @throws DRDAProtocolException
+     */
+    private boolean processPrefetchedQRYDTA(DRDAStatement stmt)
+        throws SQLException, DRDAProtocolException
+    {
+        DRDAResultSet drdars = stmt.getCurrentDrdaResultSet();
+        if (drdars == null) {
+            return false;
+        }
+        byte[] data = drdars.pollPrefetchedQRYDTA();
+        if (data == null) {
+            SQLException e = drdars.getPrefetchException();
+            if (e != null) {
+                drdars.setPrefetchException(null);
+                throw e;
+            }
+            return false;
+        }
+        writer.writeBytes(data);
+        endQRYDTA(stmt);
+        return true;
+    }
+
     /**
      * Process remainder data resulting from a split.
      *
@@ -7773,21 +8316,20 @@ class DRDAConnThread extends Thread {
         }
         int blksize = stmt.getBlksize() > 0 ? stmt.getBlksize() : CodePoint.QRYBLKSZ_MAX;
         blksize = blksize - 10; //DSS header + QRYDTA and length
-        if (leftovers.length < blksize)
+        int offset = stmt.getSplitQRYDTAOffset();
+        int remaining = leftovers.length - offset;
+        if (remaining < blksize)
         {
-            writer.writeBytes(leftovers, 0, leftovers.length);
+            writer.writeBytes(leftovers, offset, remaining);
             stmt.setSplitQRYDTA(null);
         }
         else
         {
-            writer.writeBytes(leftovers, 0, blksize);
-            byte []newLeftovers = new byte[leftovers.length-blksize];
-            System.arraycopy(
-                leftovers, blksize, newLeftovers, 0, newLeftovers.length);
-            stmt.setSplitQRYDTA(newLeftovers);
+            writer.writeBytes(leftovers, offset, blksize);
+            stmt.setSplitQRYDTAOffset(offset + blksize);
         }
         // finish off query block and send
-        writer.endDdmAndDss();
+        endQRYDTA(stmt);
         return true;
     }
 
@@ -7834,7 +8376,12 @@ class DRDAConnThread extends Thread {
             {
                 final boolean qryclsOnLmtblkprc =
                     appRequester.supportsQryclsimpForLmtblkprc();
-                if (stmt.isRSCloseImplicit(qryclsOnLmtblkprc)) {
+                if (prefetching) {
+                    // Stop building blocks ahead. If the result set is
+                    // closed implicitly, it is closed when the client has
+                    // received the blocks, see writeQRYDTA().
+                    stmt.setHasdata(false);
+                } else if (stmt.isRSCloseImplicit(qryclsOnLmtblkprc)) {
                     stmt.rsClose();
                     stmt.rsSuspend();
                 }
@@ -9074,10 +9621,16 @@ class DRDAConnThread extends Thread {
                         
             try{
                         stream.initInputStream();
-            writer.writeScalarStream (chainedWithSameCorrelator,
-                                      CodePoint.EXTDTA,
-                                      stream,
-                                      writeNullByte);
+            Deflater d = getDeflater();
+            if (d == null) {
+                writer.writeScalarStream (chainedWithSameCorrelator,
+                                          CodePoint.EXTDTA,
+                                          stream,
+                                          writeNullByte);
+            } else {
+                writeDeflatedEXTDTA(d, chainedWithSameCorrelator,
+                                    stream, writeNullByte);
+            }
             
             }finally{
                 // close the stream when done
@@ -9091,6 +9644,39 @@ class DRDAConnThread extends Thread {
 
   }
 
+    /**
+     * Write an EXTDTA_DEFLATED with the compressed value of a LOB. The
+     * null indicator byte, if any, is compressed along with the value, so
+     * that the client gets the same bytes as from an EXTDTA when it has
+     * decompressed them.
+     *
+     * @param d the deflater to compress with
+     * @param chainedWithSameCorrelator whether the DSS is chained to the
+     * next one with the same correlation id
+     * @param stream the value
+     * @param writeNullByte whether the value is preceded by a null
+     * indicator byte
+     * @throws DRDAProtocolException
+     */
+    private void writeDeflatedEXTDTA(Deflater d,
+                                     boolean chainedWithSameCorrelator,
+                                     InputStream stream,
+                                     boolean writeNullByte)
+        throws DRDAProtocolException
+    {
+        InputStream in = stream;
+        if (writeNullByte) {
+            in = new SequenceInputStream(
+                    new ByteArrayInputStream(new byte[] { 0 }), in);
+        }
+        d.reset();
+        // writeScalarStream() peeks at the stream, which requires mark()
+        in = new BufferedInputStream(new DeflaterInputStream(in, d));
+        writer.writeScalarStream(chainedWithSameCorrelator,
+                                 CodePoint.EXTDTA_DEFLATED, in, false);
+        server.addCompressedBytes(d.getBytesRead(), d.getBytesWritten());
+    }
+
 
     /**
      * Check SQLWarning and write SQLCARD as needed.
@@ -25,6 +25,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import org.apache.derby.iapi.jdbc.EngineResultSet;
 
@@ -91,6 +92,21 @@ class DRDAResultSet
     // the bytes that didn't fit. These bytes should be the first bytes
     // emitted in the next QRYDTA response to a CNTQRY request.
     private byte []splitQRYDTA;
+    // Offset of the first byte in splitQRYDTA that has not been sent yet.
+    // A long row may take several QRYDTA responses, and the offset is
+    // moved forward instead of copying the rest of the row each time.
+    private int splitQRYDTAOffset;
+
+    // Query blocks that have been built ahead of the CNTQRY requests that
+    // will ask for them, see DRDAConnThread.prefetchQRYDTA(). Each element
+    // holds the contents of one QRYDTA, and the blocks are sent before
+    // anything else for this result set, including splitQRYDTA.
+    private ArrayDeque<byte[]> prefetchedQRYDTA;
+    // Total size of the blocks in prefetchedQRYDTA.
+    private int prefetchedBytes;
+    // Error raised while building blocks ahead. It is reported to the
+    // client when it has received the blocks that were built before it.
+    private SQLException prefetchException;
 
     DRDAResultSet()
     {
@@ -140,11 +156,87 @@ class DRDAResultSet
     public void setSplitQRYDTA(byte []data)
     {
         splitQRYDTA = data;
+        splitQRYDTAOffset = 0;
     }
     public byte[]getSplitQRYDTA()
     {
         return splitQRYDTA;
     }
+    public void setSplitQRYDTAOffset(int offset)
+    {
+        splitQRYDTAOffset = offset;
+    }
+    public int getSplitQRYDTAOffset()
+    {
+        return splitQRYDTAOffset;
+    }
+
+    /**
+     * Add a query block that has been built ahead of time.
+     *
+     * @param data the contents of the QRYDTA
+     */
+    protected void addPrefetchedQRYDTA(byte[] data)
+    {
+        if (prefetchedQRYDTA == null) {
+            prefetchedQRYDTA = new ArrayDeque<byte[]>();
+        }
+        prefetchedQRYDTA.addLast(data);
+        prefetchedBytes += data.length;
+    }
+
+    /**
+     * Remove the first query block that has been built ahead of time.
+     *
+     * @return the contents of the QRYDTA, or null if there is none
+     */
+    protected byte[] pollPrefetchedQRYDTA()
+    {
+        byte[] data = (prefetchedQRYDTA == null) ?
+            null : prefetchedQRYDTA.pollFirst();
+        if (data != null) {
+            prefetchedBytes -= data.length;
+        }
+        return data;
+    }
+
+    /**
+     * @return true if there are query blocks that have been built ahead
+     * of time and not sent yet
+     */
+    protected boolean hasPrefetchedQRYDTA()
+    {
+        return prefetchedQRYDTA != null && !prefetchedQRYDTA.isEmpty();
+    }
+
+    /**
+     * @return the total size of the query blocks that have been built
+     * ahead of time and not sent yet
+     */
+    protected int getPrefetchedBytes()
+    {
+        return prefetchedBytes;
+    }
+
+    protected void setPrefetchException(SQLException e)
+    {
+        prefetchException = e;
+    }
+
+    protected SQLException getPrefetchException()
+    {
+        return prefetchException;
+    }
+
+    /**
+     * Forget the query blocks that have been built ahead of time.
+     */
+    private void clearPrefetchedQRYDTA()
+    {
+        prefetchedQRYDTA = null;
+        prefetchedBytes = 0;
+        prefetchException = null;
+    }
 
     /**
      *@return ResultSet DRDA DataTypes
@@ -334,6 +426,7 @@ class DRDAResultSet
         extDtaObjects = null;
         splitQRYDTA = null;
         rsExtPositions = null;
+        clearPrefetchedQRYDTA();
     }
     
     /**
@@ -380,6 +473,7 @@ class DRDAResultSet
         rsExtPositions = null;
         pkgcnstkn = null;
         splitQRYDTA = null;
+        clearPrefetchedQRYDTA();
     }
 
 
@@ -264,6 +264,13 @@ class DRDAStatement
     // These the default for ResultSets created for this statement.
     // These can be overriden by OPNQRY or CNTQRY,
     protected int nbrrow;           // number of fetch or insert rows
+
+    /**
+     * The errors raised while setting the parameters of the rows of a
+     * multi-row EXCSQLSTT, at the position of each row that failed, or null
+     * if no row failed. The rows that failed are not in the batch.
+     */
+    protected SQLException[] rowParamErrors;
     protected int qryrowset;            // Query row set
     protected int blksize;              // Query block size
     protected int maxblkext;            // Maximum number of extra blocks
@@ -419,6 +426,14 @@ class DRDAStatement
     {
         return currentDrdaRs.getSplitQRYDTA();
     }
+    public void setSplitQRYDTAOffset(int offset)
+    {
+        currentDrdaRs.setSplitQRYDTAOffset(offset);
+    }
+    public int getSplitQRYDTAOffset()
+    {
+        return currentDrdaRs.getSplitQRYDTAOffset();
+    }
     
     /**
      * Add extDtaObject
@@ -745,6 +760,23 @@ class DRDAStatement
         return hasResultSet;
 
     }
+
+    /**
+     * Execute the rows that have been added to the batch of the
+     * statement by a multi-row EXCSQLSTT. A row that fails does not stop
+     * the execution of the rows that follow it.
+     *
+     * @param errors receives the exception of each row that failed
+     * @return the update counts of the rows
+     * @throws SQLException if the rows could not be executed
+     */
+    protected long[] executeRows(SQLException[] errors) throws SQLException
+    {
+        long[] updateCounts = ps.executeLargeBatchNonAtomic(errors);
+        // The batch has closed any result sets of earlier executions.
+        numResultSets = 0;
+        return updateCounts;
+    }
     
     /**
      * clear out type data for parameters.
@@ -1118,6 +1150,7 @@ class DRDAStatement
         drdaParamState_.clear(false);
         
         nbrrow = 0;
+        rowParamErrors = null;
         qryrowset = 0;
         blksize = 0;        
         maxblkext = 0;
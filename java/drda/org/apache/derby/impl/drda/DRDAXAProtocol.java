@@ -719,6 +719,16 @@ class DRDAXAProtocol {
         return ((XADatabase)connThread.getDatabase()).getResourceAdapter();
     }
 
+    /**
+     * Check if a global transaction is associated with the connection.
+     *
+     * @return true if a global transaction has been started and not ended
+     */
+    boolean hasCurrentTransaction()
+    {
+        return xid != null;
+    }
+
     /**
      * This function rollbacks the current global transaction associated
      * with the XAResource or a local transaction. The function should
@@ -31,9 +31,11 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.charset.Charset;
 import java.security.AccessControlException;
 import java.security.AccessController;
@@ -51,7 +53,10 @@ import java.util.Hashtable;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
 import javax.net.ServerSocketFactory;
 import javax.net.SocketFactory;
 import javax.net.ssl.SSLServerSocket;
@@ -213,7 +218,9 @@ public final class NetworkServerControlImpl {
                                                  0, // CNMAPPC not implemented
                                                  0, // CMNSYNCPT not implemented
                                                  5, // CMNTCPIP
+                                                 1, // CMPRSMGR, if enabled
                                                  0, // DICTIONARY
+                                                 1, // MROWMGR
                                                  7, // RDB
                                                  0, // RSYNCMGR
                                                  7, // SECMGR
@@ -285,6 +292,10 @@ public final class NetworkServerControlImpl {
                                         // and changing timeSlice
 
     private boolean keepAlive = true;   // keepAlive value for client socket 
+    private boolean selectIdleSessions; // park idle sessions in a selector
+    private boolean virtualThreads;     // run each session on a virtual thread
+    private int prefetchSize;           // bytes of query data built ahead
+    private int compressionLevel;       // Deflater level, 0 if not offered
     private int minPoolSize;            //minimum pool size for pooled connections
     private int maxPoolSize;            //maximum pool size for pooled connections
     private Object poolSync = new Object(); // object to use for syning reading
@@ -328,10 +339,28 @@ public final class NetworkServerControlImpl {
 
     // queue of sessions waiting for a free thread - the queue is managed
     // in a simple first come, first serve manner - no priorities
-    private Vector<Session> runQueue = new Vector<Session>();
+    private final ConcurrentLinkedQueue<Session> runQueue =
+            new ConcurrentLinkedQueue<Session>();
 
-    // number of DRDAConnThreads waiting for something to do
-    private int freeThreads;
+    // number of DRDAConnThreads waiting for something to do, only changed
+    // while synchronized on freeThreadsSync
+    private volatile int freeThreads;
+    // object that free DRDAConnThreads wait on for sessions in runQueue
+    private final Object freeThreadsSync = new Object();
+
+    // I/O buffers of the DRDAConnThreads that have ended
+    private final BufferPool bufferPool = new BufferPool();
+
+    // bytes allocated by the DRDAConnThreads while processing requests
+    private final LongAdder allocatedBytes = new LongAdder();
+    // Query data sent to clients that use compression, before and after
+    // compression.
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+
+    // thread that watches the sockets of idle sessions, null unless
+    // derby.drda.selectIdleSessions is true and SSL is off
+    private SessionSelector sessionSelector;
 
     // known application requesters
     private Hashtable<String, AppRequester> appRequesterTable =
@@ -718,6 +747,14 @@ public final class NetworkServerControlImpl {
         switch (getSSLMode()) {
         case SSL_OFF:
         default:
+            if (selectIdleSessions && !virtualThreads) {
+                // The sockets of idle sessions are registered with a
+                // selector, so they must be created by a channel.
+                ServerSocketChannel ssc = ServerSocketChannel.open();
+                ssc.socket().bind(
+                        new InetSocketAddress(hostAddress, portNumber));
+                return ssc.socket();
+            }
             ServerSocketFactory sf =
                 ServerSocketFactory.getDefault();
             return sf.createServerSocket(portNumber
@@ -875,6 +912,17 @@ public final class NetworkServerControlImpl {
                             NetworkServerMBean.class,
                             "type=NetworkServer");
 
+        if (selectIdleSessions && !virtualThreads &&
+                getSSLMode() == SSL_OFF) {
+            sessionSelector = AccessController.doPrivileged(
+                new PrivilegedExceptionAction<SessionSelector>() {
+                    public SessionSelector run() throws Exception {
+                        return new SessionSelector(thisControl);
+                    }
+                });
+            sessionSelector.start();
+        }
+
         // We accept clients on a separate thread so we don't run into a problem
         // blocking on the accept when trying to process a shutdown
         final ClientThread clientThread = AccessController.doPrivileged(
@@ -910,6 +958,11 @@ public final class NetworkServerControlImpl {
                                 //interrupt client thread
                                 clientThread.interrupt();
 
+                                // stop watching idle sessions, they are
+                                // closed with the other sessions below
+                                if (sessionSelector != null)
+                                    sessionSelector.close();
+
                                 return null;
                            }
                         });
@@ -962,8 +1015,8 @@ public final class NetworkServerControlImpl {
             // Wake up those waiting on sessions, so
             // they can close down
             try{
-                synchronized (runQueue) {
-                    runQueue.notifyAll();
+                synchronized (freeThreadsSync) {
+                    freeThreadsSync.notifyAll();
                 }
             } catch (Exception exception) {
                 consolePrintAndIgnore("DRDA_UnexpectedException.S", exception, true);
@@ -1071,12 +1124,10 @@ public final class NetworkServerControlImpl {
                     // exception), so we need to clean up first.
 
                         // Close and remove sessions on runQueue.
-                        synchronized (runQueue) {
-                            for (Session s : runQueue) {
-                                s.close();
-                                removeFromSessionTable(s.getConnNum());
-                            }
-                            runQueue.clear();
+                        Session s;
+                        while ((s = runQueue.poll()) != null) {
+                            s.close();
+                            removeFromSessionTable(s.getConnNum());
                         }
 
                         // DERBY-1326: There could be active threads that
@@ -1913,39 +1964,48 @@ public final class NetworkServerControlImpl {
         Session retval = null;
         if (shutdown == true)
             return retval;
-        synchronized (runQueue)
+
+        // a virtual thread serves its session until the session ends
+        if (virtualThreads)
+            return currentSession;
+
+        retval = runQueue.poll();
+        if (retval != null)
+        {
+            if (currentSession != null)
+                runQueueAdd(currentSession);
+            return retval;
+        }
+
+        // nobody waiting - go on with current session
+        if (currentSession != null)
+            return currentSession;
+
+        // no current session - wait for some work
+        synchronized (freeThreadsSync)
         {
             try {
-                // nobody waiting - go on with current session
-                if (runQueue.size() == 0)
+                while (retval == null)
                 {
-                    // no current session - wait for some work
-                    if (currentSession == null)
-                    {
-                        while (runQueue.size() == 0)
-                        {
-                            // This thread has nothing to do now so 
-                            // we will add it to freeThreads
-                            freeThreads++;
-                            runQueue.wait();
-                            if (shutdown == true)
-                                return null;
-                            freeThreads--;
-                        }
+                    // This thread has nothing to do now so we will add it
+                    // to freeThreads. It must be counted before it looks
+                    // at the queue again, see runQueueAdd().
+                    freeThreads++;
+                    try {
+                        retval = runQueue.poll();
+                        if (retval == null)
+                            freeThreadsSync.wait();
+                    } finally {
+                        freeThreads--;
                     }
-                    else
-                        return currentSession;
+                    if (shutdown == true)
+                        return null;
                 }
-                retval = (Session) runQueue.get(0);
-                runQueue.remove(0);
-                if (currentSession != null)
-                    runQueueAdd(currentSession);
             } catch (InterruptedException e) {
             // If for whatever reason (ex. database shutdown) a waiting thread is
             // interrupted while in this method, that thread is going to be
-            // closed down, so we need to decrement the number of threads
-            // that will be available for use.
-                freeThreads--;
+            // closed down.
+                return null;
             }
         }
         return retval;
@@ -1997,6 +2057,10 @@ public final class NetworkServerControlImpl {
             if (mindex == CodePoint.UNKNOWN_MANAGER)
             SanityManager.THROWASSERT("manager out of bounds");
         }
+        // Compression is only offered if it has been enabled.
+        if (manager == CodePoint.CMPRSMGR && compressionLevel == 0) {
+            return 0;
+        }
         return MGR_LEVELS[mindex];
     }
     /**
@@ -2425,10 +2489,17 @@ public final class NetworkServerControlImpl {
      */
     private void runQueueAdd(Session clientSession)
     {
-        synchronized(runQueue)
+        runQueue.add(clientSession);
+
+        // Wake up a free thread, if there is one. A thread counts itself
+        // as free before it looks at the queue for the last time before it
+        // waits, so if it is not counted here, it will find the session.
+        if (freeThreads > 0)
         {
-            runQueue.add(clientSession);
-            runQueue.notify();
+            synchronized (freeThreadsSync)
+            {
+                freeThreadsSync.notify();
+            }
         }
     }
     /**
@@ -3245,6 +3316,37 @@ public final class NetworkServerControlImpl {
         if (propval != null && 
             StringUtil.SQLEqualsIgnoreCase(propval,"false"))
             keepAlive = false;
+
+        propval = PropertyUtil.getSystemProperty(
+            Property.DRDA_PROP_SELECT_IDLE_SESSIONS);
+        if (propval != null &&
+            StringUtil.SQLEqualsIgnoreCase(propval,"true"))
+            selectIdleSessions = true;
+
+        // Fall back to platform threads if the JVM has no virtual threads.
+        propval = PropertyUtil.getSystemProperty(
+            Property.DRDA_PROP_VIRTUAL_THREADS);
+        if (propval != null &&
+            StringUtil.SQLEqualsIgnoreCase(propval,"true"))
+            virtualThreads = VirtualThreads.isSupported();
+
+        propval = PropertyUtil.getSystemProperty(
+            Property.DRDA_PROP_PREFETCH_SIZE);
+        if (propval != null && !propval.equals(""))
+            prefetchSize = getIntPropVal(Property.DRDA_PROP_PREFETCH_SIZE,
+                                         propval);
+
+        propval = PropertyUtil.getSystemProperty(
+            Property.DRDA_PROP_COMPRESSION_LEVEL);
+        if (propval != null && !propval.equals("")) {
+            int level = getIntPropVal(Property.DRDA_PROP_COMPRESSION_LEVEL,
+                                      propval);
+            if (level < 0 || level > Deflater.BEST_COMPRESSION) {
+                consolePropertyMessage("DRDA_InvalidPropVal.S", new String []
+                    {Property.DRDA_PROP_COMPRESSION_LEVEL, propval});
+            }
+            compressionLevel = level;
+        }
         
         propval = PropertyUtil.getSystemProperty( 
             Property.DRDA_PROP_HOSTNAME);
@@ -4039,6 +4141,14 @@ public final class NetworkServerControlImpl {
         retval.put(Property.DRDA_PROP_PORTNUMBER, Integer.toString(portNumber));
         retval.put(Property.DRDA_PROP_HOSTNAME, hostArg);
         retval.put(Property.DRDA_PROP_KEEPALIVE, Boolean.toString(keepAlive));
+        retval.put(Property.DRDA_PROP_SELECT_IDLE_SESSIONS,
+                   Boolean.toString(selectIdleSessions));
+        retval.put(Property.DRDA_PROP_VIRTUAL_THREADS,
+                   Boolean.toString(virtualThreads));
+        retval.put(Property.DRDA_PROP_PREFETCH_SIZE,
+                   Integer.toString(prefetchSize));
+        retval.put(Property.DRDA_PROP_COMPRESSION_LEVEL,
+                   Integer.toString(compressionLevel));
 
         String tracedir = getTraceDirectory();
         if (tracedir != null)
@@ -4111,17 +4221,44 @@ public final class NetworkServerControlImpl {
 
         sessionTable.put(connectionNumber, session);
 
-        // Check whether there are enough free threads to service all the
-        // threads in the run queue in addition to the newly added session.
-        boolean enoughThreads;
-        synchronized (runQueue) {
-            enoughThreads = (runQueue.size() < freeThreads);
+        scheduleSession(session);
+    }
+
+    /**
+     * Give a session that has work to do to a <code>DRDAConnThread</code>.
+     * Start a new thread for the session if there are more sessions waiting
+     * than there are free threads, and the maximum number of threads is not
+     * exceeded, or put the session in the run queue otherwise. If
+     * derby.drda.virtualThreads is set, always start a new virtual thread.
+     *
+     * @param session the session
+     */
+    private void scheduleSession(Session session) {
+
+        // Virtual threads are cheap, so every session gets one of its own.
+        if (virtualThreads) {
+            DRDAConnThread thread = new DRDAConnThread(session, this, 0,
+                                                       getLogConnections());
+            thread.useVirtualThread();
+            // The thread removes itself from threadList when it ends, so
+            // it must be listed before it starts. Don't leave it in the
+            // list if it can't be started.
+            threadList.add(thread);
+            try {
+                thread.start();
+            } catch (RuntimeException re) {
+                threadList.remove(thread);
+                throw re;
+            }
+            return;
         }
-        // No need to hold the synchronization on runQueue any longer than
-        // this. Since no other threads can make runQueue grow, and no other
-        // threads will reduce the number of free threads without removing
-        // sessions from runQueue, (runQueue.size() < freeThreads) cannot go
-        // from true to false until addSession() returns.
+
+        // Check whether there are enough free threads to service all the
+        // threads in the run queue in addition to the session. This is
+        // only a hint, since other threads may add sessions to the queue
+        // at the same time. If it is wrong, the session waits in the
+        // queue until a thread becomes free.
+        boolean enoughThreads = (runQueue.size() < freeThreads);
 
         DRDAConnThread thread = null;
 
@@ -4148,6 +4285,41 @@ public final class NetworkServerControlImpl {
         }
     }
 
+    /**
+     * Check if a session can be parked while its client is idle.
+     *
+     * @param session the session
+     * @return true if idle sessions are selected, and the session has a
+     * socket channel that can be selected
+     */
+    boolean canParkSession(Session session) {
+        return sessionSelector != null && !shutdown &&
+                SessionSelector.canPark(session);
+    }
+
+    /**
+     * Park a session that has no request waiting, so that the calling
+     * <code>DRDAConnThread</code> can serve other sessions while the
+     * client is idle. The session is scheduled again when the client sends
+     * its next request.
+     *
+     * @param session the idle session, for which
+     * {@link #canParkSession} is true
+     */
+    void parkSession(Session session) {
+        sessionSelector.park(session);
+    }
+
+    /**
+     * Schedule a parked session whose client has sent a new request. Called
+     * by the <code>SessionSelector</code>.
+     *
+     * @param session the session
+     */
+    void resumeSession(Session session) {
+        scheduleSession(session);
+    }
+
     /**
      * Remove a thread from the thread list. Should be called when a
      * <code>DRDAConnThread</code> has been closed.
@@ -4203,6 +4375,65 @@ public final class NetworkServerControlImpl {
         return s;
     }
     
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Get the number of bytes of query data that a session may build
+     * ahead of the requests from its client.
+     *
+     * @return the number of bytes, 0 if query data is not built ahead
+     */
+    int getPrefetchSize() {
+        return prefetchSize;
+    }
+
+    void addAllocatedBytes(long bytes) {
+        allocatedBytes.add(bytes);
+    }
+
+    /**
+     * Get the number of bytes that the connection threads have allocated
+     * while processing requests.
+     *
+     * @return the number of bytes, or -1 if the JVM can't measure it, or
+     *   the sessions run on virtual threads
+     */
+    long getAllocatedBytes() {
+        return AllocationMeter.isSupported(virtualThreads) ?
+                allocatedBytes.sum() : -1;
+    }
+
+    /**
+     * Get the Deflater level used to compress query data for the clients
+     * that ask for compression.
+     *
+     * @return the level, 0 if compression is not offered to the clients
+     */
+    int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Add to the statistics of the query data that has been compressed.
+     *
+     * @param uncompressed the size of the data
+     * @param compressed the size of the data that was sent to the client
+     */
+    void addCompressedBytes(long uncompressed, long compressed) {
+        uncompressedBytes.add(uncompressed);
+        compressedBytes.add(compressed);
+    }
+
+    long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
     long getBytesRead() {
         long count=0;
         for (DRDAConnThread thread : threadList) {
@@ -345,6 +345,56 @@ class NetworkServerMBeanImpl implements NetworkServerMBean {
         }
         return sentResult;
     }
+
+    public long getAllocatedBytes() {
+        checkMonitor();
+
+        return server.getAllocatedBytes();
+    }
+
+    private long lastAllocatedTime = System.currentTimeMillis();
+    private long lastAllocatedBytes = 0;
+    private long allocatedResult = 0;
+
+    synchronized public long getAllocatedBytesPerSecond() {
+        checkMonitor();
+
+        long count = getAllocatedBytes();
+        if (count < 0) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastAllocatedTime >= 1000) {
+            allocatedResult = (count - lastAllocatedBytes) * 1000 /
+                    (now - lastAllocatedTime);
+            lastAllocatedTime = now;
+            lastAllocatedBytes = count;
+        }
+        return allocatedResult;
+    }
+
+    public long getAllocatedBytesPerConnection() {
+        checkMonitor();
+
+        long count = getAllocatedBytes();
+        int connections = server.getConnectionNumber();
+        if (count < 0) {
+            return -1;
+        }
+        return (connections == 0) ? 0 : count / connections;
+    }
+
+    public long getUncompressedBytes() {
+        checkMonitor();
+
+        return server.getUncompressedBytes();
+    }
+
+    public long getCompressedBytes() {
+        checkMonitor();
+
+        return server.getCompressedBytes();
+    }
     
     /**
      * Return start time.
@@ -28,6 +28,7 @@ import java.net.Socket;
 import java.sql.SQLException;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.List;
 import org.apache.derby.iapi.tools.i18n.LocalizedResource;
 
 /**
@@ -66,9 +67,23 @@ class Session
     protected AppRequester appRequester;    // Application requester for this session
     protected Database database;        // current database
     protected int qryinsid;             // unique identifier for each query
+    protected DRDAResultSet prefetchedResultSet; // result set holding query
+                                        // blocks built ahead, see
+                                        // DRDAConnThread.prefetchQRYDTA()
     protected LocalizedResource langUtil;       // localization information for command session
                                         // client
 
+    // DRDAConnThread state saved while the session is parked, see
+    // DRDAConnThread.parkIdleSession()
+    protected boolean parked;           // whether the state below is saved
+    protected int savedSqlamLevel;
+    protected byte savedDiagnosticLevel;
+    protected boolean savedSendWarningsOnCNTQRY;
+    protected List<Integer> savedKnownManagers;
+    protected List<Integer> savedUnknownManagers;
+    protected boolean savedDeferredReset;
+    protected int savedPendingStatementTimeout;
+
     /** Table of databases accessed in this session. */
     private Hashtable<String, Database> dbtable;
     private NetworkServerControlImpl nsctrl;        // NetworkServerControlImpl needed for logging
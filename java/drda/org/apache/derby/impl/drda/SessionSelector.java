@@ -0,0 +1,177 @@
+/*
+
+   Derby - Class org.apache.derby.impl.drda.SessionSelector
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.drda;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread that watches the sockets of idle sessions, so that the sessions
+ * don't hold on to connection threads while their clients are idle.
+ * <p>
+ * When a <code>DRDAConnThread</code> has replied to a request, and the
+ * client has not sent a new one, it parks the session here. The socket
+ * channel of the session is put in non-blocking mode and registered with
+ * a selector. When the client sends its next request, or closes the
+ * connection, the channel is deregistered, put back in blocking mode, and
+ * the session is put in the run queue of the server, where the next free
+ * connection thread picks it up and reads the request with the normal
+ * blocking <code>DDMReader</code>.
+ * <p>
+ * Only sessions whose socket has a channel can be parked, which means
+ * that SSL sessions always keep their connection threads.
+ */
+final class SessionSelector extends Thread {
+
+    private final NetworkServerControlImpl server;
+
+    private final Selector selector;
+
+    /**
+     * Sessions waiting to be registered with the selector. A channel can't
+     * be registered while another thread is blocked in
+     * <code>select()</code>, so the sessions are registered by this thread.
+     */
+    private final ConcurrentLinkedQueue<Session> pending =
+            new ConcurrentLinkedQueue<Session>();
+
+    private volatile boolean closed;
+
+    SessionSelector(NetworkServerControlImpl server) throws IOException {
+        // Use a more meaningful name for this thread.
+        super(NetworkServerControlImpl.getUniqueThreadName(
+                "NetworkServerSelector"));
+        setDaemon(true);
+        this.server = server;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Check if a session can be parked.
+     *
+     * @param session the session
+     * @return true if the socket of the session has a channel
+     */
+    static boolean canPark(Session session) {
+        return session.clientSocket.getChannel() != null;
+    }
+
+    /**
+     * Park an idle session until its client sends the next request. The
+     * caller must not use the session after this call.
+     *
+     * @param session the session, for which {@link #canPark} is true
+     */
+    void park(Session session) {
+        pending.add(session);
+        selector.wakeup();
+    }
+
+    /**
+     * Stop the thread. Parked sessions are closed by the server, which
+     * closes all the sessions in its session table when it shuts down.
+     */
+    void close() {
+        closed = true;
+        try {
+            selector.close();
+        } catch (IOException ioe) {
+            // Ignore, we're shutting down.
+        }
+    }
+
+    public void run() {
+        while (!closed) {
+            try {
+                selector.select();
+                registerPending();
+                resumeReady();
+            } catch (ClosedSelectorException cse) {
+                // close() was called
+                return;
+            } catch (IOException ioe) {
+                if (!closed) {
+                    server.consoleExceptionPrintTrace(ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Register the channels of the sessions that have been parked since
+     * the last time.
+     */
+    private void registerPending() {
+        Session session;
+        while ((session = pending.poll()) != null) {
+            SocketChannel channel = session.clientSocket.getChannel();
+            try {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, session);
+            } catch (IOException ioe) {
+                // The socket has been closed. Let a connection thread find
+                // out when it reads from it, and clean up the session.
+                resume(session);
+            }
+        }
+    }
+
+    /**
+     * Put the sessions whose clients have sent data back in the run queue.
+     */
+    private void resumeReady() throws IOException {
+        ArrayList<Session> ready = new ArrayList<Session>();
+        Set<SelectionKey> keys = selector.selectedKeys();
+        while (!keys.isEmpty()) {
+            for (SelectionKey key : keys) {
+                key.cancel();
+                ready.add((Session) key.attachment());
+            }
+            keys.clear();
+            // A channel can't be put back in blocking mode until its
+            // cancelled key has been removed from the selector, which
+            // happens in the next selection operation. That may select
+            // more keys.
+            selector.selectNow();
+        }
+
+        for (Session session : ready) {
+            resume(session);
+        }
+    }
+
+    private void resume(Session session) {
+        try {
+            session.clientSocket.getChannel().configureBlocking(true);
+        } catch (IOException ioe) {
+            // The socket has been closed, which the connection thread
+            // will find out when it reads from it.
+        }
+        server.resumeSession(session);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+
+   Derby - Class org.apache.derby.impl.drda.VirtualThreads
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.drda;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Creates virtual threads for <code>DRDAConnThread</code>s. Virtual
+ * threads were added in Java 21, and Derby is compiled for an older
+ * platform, so the thread builder is looked up with reflection. In Java 19
+ * and 20 they are a preview feature, and the methods exist but fail unless
+ * preview features are enabled, so one thread is created up front to see
+ * if they work.
+ * <p>
+ * A session only releases its carrier thread while it waits for the
+ * client, since the socket reads hold no monitors. The engine executes
+ * every statement while holding the monitor of the connection, and lock
+ * waits and log flushes wait with <code>Object.wait()</code>, so before
+ * Java 24 a session keeps its carrier thread pinned while it waits for a
+ * lock or for the log to be flushed.
+ */
+final class VirtualThreads {
+
+    /** Thread.ofVirtual(), or null if the JVM has no virtual threads. */
+    private static final Method OF_VIRTUAL;
+    /** Thread.Builder.name(String) */
+    private static final Method NAME;
+    /** Thread.Builder.unstarted(Runnable) */
+    private static final Method UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method unstarted = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class);
+            unstarted = builder.getMethod("unstarted", Runnable.class);
+
+            // Throws UnsupportedOperationException, wrapped in an
+            // InvocationTargetException, if virtual threads are a
+            // preview feature that is not enabled. The thread is never
+            // started.
+            unstarted.invoke(name.invoke(ofVirtual.invoke(null), "probe"),
+                             new Runnable() {
+                                 public void run() {
+                                 }
+                             });
+        } catch (ReflectiveOperationException roe) {
+            // Not Java 21 or newer, and not enabled as a preview feature.
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        UNSTARTED = unstarted;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Check if the JVM supports virtual threads.
+     *
+     * @return true if virtual threads can be created
+     */
+    static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create a virtual thread. The thread is not started.
+     *
+     * @param name the name of the thread
+     * @param task the task that the thread runs
+     * @return an unstarted virtual thread
+     */
+    static Thread newThread(String name, Runnable task) {
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name);
+            return (Thread) UNSTARTED.invoke(builder, task);
+        } catch (IllegalAccessException iae) {
+            // The methods are public members of public classes.
+            throw new IllegalStateException(iae);
+        } catch (InvocationTargetException ite) {
+            Throwable cause = ite.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -412,6 +412,80 @@ public interface NetworkServerMBean {
      * @return the number of bytes sent per millisecond
      */
     public int getBytesSentPerSecond();
+
+    /**
+     * <p>
+     * Gets the total number of bytes of memory allocated by the connection
+     * threads of the server while processing requests, since the server
+     * was started. The value is -1 if the JVM cannot measure the memory
+     * allocated by a thread, or if derby.drda.virtualThreads is in effect,
+     * since the memory allocated by virtual threads isn't measured.</p>
+     * <p>
+     * Requires <code>SystemPermission("server", "monitor")</code> if a security
+     * manager is installed.</p>
+     *
+     * @return the number of bytes allocated by the server, or -1
+     */
+    public long getAllocatedBytes();
+
+    /**
+     * <p>
+     * Gets the number of bytes of memory allocated per second by the
+     * connection threads of the server. The value is calculated like
+     * {@link #getBytesSentPerSecond()}, and is -1 if
+     * {@link #getAllocatedBytes()} is.</p>
+     * <p>
+     * Requires <code>SystemPermission("server", "monitor")</code> if a security
+     * manager is installed.</p>
+     *
+     * @return the number of bytes allocated per second, or -1
+     */
+    public long getAllocatedBytesPerSecond();
+
+    /**
+     * <p>
+     * Gets the average number of bytes of memory allocated per connection,
+     * that is the allocated bytes divided by the accumulated number of
+     * connections. The value is -1 if {@link #getAllocatedBytes()} is.</p>
+     * <p>
+     * Requires <code>SystemPermission("server", "monitor")</code> if a security
+     * manager is installed.</p>
+     *
+     * @return the average number of bytes allocated per connection, or -1
+     * @see #getAllocatedBytes()
+     * @see #getAccumulatedConnectionCount()
+     */
+    public long getAllocatedBytesPerConnection();
+
+    /**
+     * <p>
+     * Gets the total number of bytes of query data and LOB values that the
+     * server has sent to clients that use compression, counted before the
+     * data was compressed. Data for clients that don't use compression is
+     * not counted. See the derby.drda.compressionLevel property.</p>
+     * <p>
+     * Requires <code>SystemPermission("server", "monitor")</code> if a security
+     * manager is installed.</p>
+     *
+     * @return the number of bytes before compression
+     * @see #getCompressedBytes()
+     */
+    public long getUncompressedBytes();
+
+    /**
+     * <p>
+     * Gets the total number of bytes of query data and LOB values that the
+     * server has sent to clients that use compression, counted after the
+     * data was compressed. Blocks of query data that don't get smaller
+     * are sent, and counted, as they are.</p>
+     * <p>
+     * Requires <code>SystemPermission("server", "monitor")</code> if a security
+     * manager is installed.</p>
+     *
+     * @return the number of bytes after compression
+     * @see #getUncompressedBytes()
+     */
+    public long getCompressedBytes();
     
     /**
      * <p>
@@ -510,6 +510,14 @@ public class BrokeredPreparedStatement extends BrokeredStatement
 
         return engnps.executeLargeUpdate();
     }    
+
+    public long[] executeLargeBatchNonAtomic(SQLException[] errors)
+        throws SQLException
+    {
+        final EnginePreparedStatement engnps = (EnginePreparedStatement) getPreparedStatement();  
+
+        return engnps.executeLargeBatchNonAtomic(errors);
+    }
     
     public void setBinaryStream(int parameterIndex, 
                                 InputStream x)
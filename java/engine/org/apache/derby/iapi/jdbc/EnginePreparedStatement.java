@@ -39,6 +39,22 @@ public interface EnginePreparedStatement extends PreparedStatement, EngineStatem
      * @return version counter
      */
     public long getVersionCounter() throws SQLException;
+
+    /**
+     * Execute the batch like <code>executeLargeBatch()</code>, but go on
+     * with the elements that follow a failing element instead of stopping,
+     * the way the network client executes a batch. Used by the network
+     * server for the rows of a multi-row EXCSQLSTT.
+     *
+     * @param errors receives the exception of each element that failed, at
+     *     the position of the element. Must have room for all the elements.
+     * @return the update counts, with <code>Statement.EXECUTE_FAILED</code>
+     *     for the elements that failed
+     * @throws SQLException if the batch could not be executed, or if an
+     *     element failed with an error that closed the connection
+     */
+    public long[] executeLargeBatchNonAtomic(SQLException[] errors)
+        throws SQLException;
     
     ////////////////////////////////////////////////////////////////////
     //
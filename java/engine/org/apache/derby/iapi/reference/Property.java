@@ -340,6 +340,27 @@ public interface Property {
 	 */
 	int MIN_LOCKS_ESCALATION_THRESHOLD = 100;
 
+	/**
+		derby.locks.escalationGlobalThreshold
+		<BR>
+		The number of locked objects in the lock table of a database after
+		which transactions holding at least MIN_LOCKS_ESCALATION_THRESHOLD
+		locks try to escalate their row locks to table locks, even if they
+		have not reached derby.locks.escalationThreshold. This bounds the
+		memory used by the lock table when many transactions each hold a
+		large number of row locks. Default value is 0, which disables the
+		global threshold.
+		<BR>
+		This property takes effect dynamically.
+	 */
+	String LOCKS_ESCALATION_GLOBAL_THRESHOLD =
+		"derby.locks.escalationGlobalThreshold";
+
+	/**
+		The default value for LOCKS_ESCALATION_GLOBAL_THRESHOLD (disabled).
+	 */
+	int DEFAULT_LOCKS_ESCALATION_GLOBAL_THRESHOLD = 0;
+
 	/**
 		Configuration parameter for deadlock timeouts, set in seconds.
 	*/
@@ -383,6 +404,40 @@ public interface Property {
 	*/
 	public static final String LOCKWAIT_TIMEOUT = "derby.locks.waitTimeout";
 
+	/**
+		Interval, in milliseconds, between the searches of the background
+		deadlock detector. When it is greater than zero, a background thread
+		looks for deadlocks at this interval while some transaction is
+		waiting for a lock, so that deadlocks are broken without waiting
+		for derby.locks.deadlockTimeout to expire. Default value is 0, which
+		leaves deadlock detection to the waiters.
+		<BR>
+		This property takes effect dynamically.
+	 */
+	public static final String DEADLOCK_DETECTION_INTERVAL =
+		"derby.locks.deadlockDetectionInterval";
+
+	/**
+		Default value for the deadlock detection interval (disabled).
+	*/
+	public static final int DEADLOCK_DETECTION_INTERVAL_DEFAULT = 0;
+
+	/**
+		Let read-only scans at the read committed and repeatable read
+		isolation levels skip rows inserted by transactions that have not
+		committed yet, instead of waiting for the inserters to commit or roll
+		back. Such rows are not part of the committed state of the table, so
+		the scans still only see committed data, but readers no longer block
+		on concurrent inserts. Rows updated or deleted by uncommitted
+		transactions are still waited for, and so are uncommitted inserts by
+		the scans that check foreign keys and other constraints. Default
+		value is false.
+		<BR>
+		This property takes effect dynamically.
+	 */
+	public static final String SKIP_UNCOMMITTED_INSERTS =
+		"derby.locks.skipUncommittedInserts";
+
 	/*
 	** db2j.database.*
 	*/
@@ -586,6 +641,69 @@ public interface Property {
 	public static final String FILESYNC_TRANSACTION_LOG = 
         "derby.storage.fileSyncTransactionLog";
 
+	/**
+     * derby.storage.mapContainerFiles
+     * <p>
+     * When set to true, pages of the container files are read through
+     * read-only memory mappings of the files instead of positional
+     * reads on the file channel. This saves a system call and a copy per
+     * page read, which helps large scans of read-mostly tables that don't
+     * fit in the page cache. Pages are still written through the file
+     * channel. Not recommended on platforms that cannot delete or
+     * truncate files while they are mapped, such as Windows.
+     * </p>
+     *
+	 * <p>
+	 * Undocumented.
+     * </p>
+     *
+     **/
+	public static final String STORAGE_MAP_CONTAINER_FILES =
+        "derby.storage.mapContainerFiles";
+
+	/**
+     * derby.storage.indexFillFactor
+     * <p>
+     * The percentage of each leaf page that is filled when a btree is
+     * loaded from sorted rows, for example by CREATE INDEX. The rest of
+     * the page is left free, so that later inserts into the index don't
+     * have to split the leaf pages right away. Must be between 10 and
+     * 100. Database. Dynamic.
+     * </p>
+     *
+	 * <p>
+	 * Undocumented.
+     * </p>
+     *
+     **/
+	public static final String STORAGE_INDEX_FILL_FACTOR =
+        "derby.storage.indexFillFactor";
+
+	/** Default value for above, fill the leaf pages completely. */
+	public static final int DEFAULT_STORAGE_INDEX_FILL_FACTOR = 100;
+
+	/**
+     * derby.system.cachePartitions
+     * <p>
+     * The number of partitions to split each cache manager into, for
+     * example the page cache. Every partition has its own hash table,
+     * replacement policy and background cleaner queue, so that threads
+     * looking up objects in different partitions don't contend on the
+     * clock of a single replacement policy. The value is rounded down to
+     * a power of two. 0 means one partition per available processor.
+     * Caches that are too small to give every partition a reasonable
+     * number of entries use fewer partitions. Default is 1, that is, no
+     * partitioning.
+     * </p>
+     *
+	 * <p>
+	 * Undocumented.
+     * </p>
+     *
+     **/
+	public static final String CACHE_PARTITIONS =
+        "derby.system.cachePartitions";
+
 
 	/**
 	 *	derby.storage.logArchiveMode
@@ -725,10 +843,20 @@ public interface Property {
 	 * Name of the implementation of SequencePreallocator which is used
      * to tune how many values Derby pre-allocates for identity columns
      * and sequences. Database.  Static.
+	 * <p>
+	 * The value may also be a number, which is used as the size of every
+	 * pre-allocated range, or LANG_SEQUENCE_PREALLOCATOR_ADAPTIVE.
 	 * <p>
 	 * Externally visible.
 	 */
 	String	LANG_SEQUENCE_PREALLOCATOR = "derby.language.sequence.preallocator";
+
+	/**
+	 * Value of LANG_SEQUENCE_PREALLOCATOR which makes the size of the
+	 * pre-allocated ranges grow when values are consumed quickly, and
+	 * shrink again when they are not.
+	 */
+	String	LANG_SEQUENCE_PREALLOCATOR_ADAPTIVE = "adaptive";
     
 	/**
 	  derby.language.stalePlanCheckInterval
@@ -750,6 +878,28 @@ public interface Property {
 	/** Minimum value for above */
 	int MIN_LANGUAGE_STALE_PLAN_CHECK_INTERVAL = 5;
 
+	/**
+	  derby.language.maxDegreeOfParallelism
+
+	  <P>
+	  The maximum number of threads a single hash join may use to build its
+	  in memory hash table, and a single external sort may use to sort the
+	  rows of its merge runs. The inner table is still scanned, and the
+	  merge runs are still written and merged, by the thread that executes
+	  the statement, and the work is only split if there are enough rows.
+	  1 means that hash tables and sorts always use only the thread that
+	  executes the statement. Database. Dynamic, but a hash join reads it
+	  only once per execution plan it is part of, so a prepared statement
+	  that has already built its hash tables keeps the old value.
+	  <P>
+	  Externally visible but undocumented.
+	 */
+	String LANGUAGE_MAX_DEGREE_OF_PARALLELISM =
+								"derby.language.maxDegreeOfParallelism";
+
+	/** Default value for above */
+	int DEFAULT_LANGUAGE_MAX_DEGREE_OF_PARALLELISM = 1;
+
 
 	/*
 		Statement plan cache size
@@ -1048,7 +1198,43 @@ public interface Property {
         Undocumented.
 	 */
 	public static final String LOG_BUFFER_SIZE = "derby.storage.logBufferSize";
-	
+
+	/**
+		Property name for specifying the group commit window, in
+		milliseconds. A transaction that has to sync the log waits up to
+		this long for other committing transactions, so that all of them
+		are made durable by one write and one sync of the log file.
+		0 (the default) disables the wait. Only the flushes done when a
+		transaction ends wait; flushes done before a data page is written
+		or by a checkpoint never do.
+
+        Undocumented.
+	 */
+	public static final String LOG_GROUP_COMMIT_DELAY =
+        "derby.storage.logGroupCommitDelay";
+
+	/**
+		Property name for specifying the group commit queue depth. When
+		this many transactions are waiting for the log to be synced, the
+		group commit window is closed early and the sync starts at once.
+		Only used when derby.storage.logGroupCommitDelay is non-zero.
+
+        Undocumented.
+	 */
+	public static final String LOG_GROUP_COMMIT_SIZE =
+        "derby.storage.logGroupCommitSize";
+
+	/**
+		Property name for specifying the longest time, in milliseconds,
+		that a transaction committed with asyncCommit=true may stay in the
+		log buffer before a background thread syncs it to disk. This bounds
+		how much committed work can be lost if the system crashes.
+
+        Undocumented.
+	 */
+	public static final String LOG_ASYNC_COMMIT_DELAY =
+        "derby.storage.logAsyncCommitDelay";
+
 	
 	/*
 	** Replication
@@ -1231,6 +1417,60 @@ public interface Property {
 	 * client socket setKeepAlive value
 	 */
 	public final static String DRDA_PROP_KEEPALIVE = "derby.drda.keepAlive";
+
+	/**
+	 * derby.drda.selectIdleSessions
+	 *<BR>
+	 * If true, a connection thread hands a session to a selector when the
+	 * client has no request waiting, and the session gets a thread again
+	 * when the next request arrives. Idle sessions then don't hold on to
+	 * connection threads, so that many mostly idle connections can be
+	 * served by a small number of threads (see derby.drda.maxThreads).
+	 * Only used when SSL is off. Default is false.
+	 * This property is static. Server must be restarted for the property
+	 * to take effect.
+	 */
+	public final static String DRDA_PROP_SELECT_IDLE_SESSIONS =
+		"derby.drda.selectIdleSessions";
+
+	/**
+	 * derby.drda.virtualThreads
+	 *<BR>
+	 * If true, and the JVM supports virtual threads, each session is
+	 * served by a virtual thread of its own. derby.drda.maxThreads,
+	 * derby.drda.timeSlice and derby.drda.selectIdleSessions are then
+	 * ignored. Default is false.
+	 * This property is static. Server must be restarted for the property
+	 * to take effect.
+	 */
+	public final static String DRDA_PROP_VIRTUAL_THREADS =
+		"derby.drda.virtualThreads";
+
+	/**
+	 * derby.drda.prefetchSize
+	 *<BR>
+	 * The maximum number of bytes of query data that a session builds
+	 * ahead of time for a forward-only cursor, while the client is busy
+	 * with the blocks it has already received. Default is 0, which means
+	 * that query blocks are only built when the client asks for them.
+	 * This property is static. Server must be restarted for the property
+	 * to take effect.
+	 */
+	public final static String DRDA_PROP_PREFETCH_SIZE =
+		"derby.drda.prefetchSize";
+
+	/**
+	 * derby.drda.compressionLevel
+	 *<BR>
+	 * The level, from 1 (fastest) to 9 (smallest), at which query data
+	 * and LOB values are compressed for the clients that connect with
+	 * compression=true. Default is 0, which means that the server does
+	 * not compress data for any client.
+	 * This property is static. Server must be restarted for the property
+	 * to take effect.
+	 */
+	public final static String DRDA_PROP_COMPRESSION_LEVEL =
+		"derby.drda.compressionLevel";
 	
 
     /**
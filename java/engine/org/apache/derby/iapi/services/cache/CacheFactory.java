@@ -39,5 +39,21 @@ public interface CacheFactory {
 	
 	public CacheManager newCacheManager(CacheableFactory holderFactory, String name,
 										int initialSize, int maximumSize);
+
+	/**
+		Create a cache that uses the named replacement policy to decide
+		which objects to evict when the cache is full.
+
+		@param holderFactory The factory for the objects that are to be cached.
+		@param name			The name of the cache
+		@param initialSize	The initial capacity of the cache
+		@param maximumSize  The maximum number of objects the cache will hold
+		@param replacementPolicy The name of the replacement policy, for
+							example "CLOCK" or "2Q". An unknown name or
+							null selects the default policy.
+	*/
+	public CacheManager newCacheManager(CacheableFactory holderFactory, String name,
+										int initialSize, int maximumSize,
+										String replacementPolicy);
 }
 
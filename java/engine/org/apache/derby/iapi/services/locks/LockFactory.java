@@ -190,6 +190,24 @@ public interface LockFactory extends PropertySetCallback {
 	public boolean isLockHeld(CompatibilitySpace compatibilitySpace,
 							  Object group, Lockable ref, Object qualifier);
 
+	/**
+		Check to see if a lock with a specific qualifier on an object has
+		been granted to any compatibility space other than the given one.
+
+		@param compatibilitySpace the compatibility space to disregard
+		@param ref reference to the locked object
+		@param qualifier the qualifier of the lock to look for
+	*/
+	public boolean isLockHeldByOther(CompatibilitySpace compatibilitySpace,
+									 Lockable ref, Object qualifier);
+
+	/**
+		Tell whether readers may skip objects inserted by uncommitted
+		transactions instead of waiting for them, as set by the property
+		derby.locks.skipUncommittedInserts.
+	*/
+	public boolean getSkipUncommittedInserts();
+
 	/**
 		Get the lock timeout in milliseconds. A negative number means that
         there is no timeout.
@@ -225,6 +243,22 @@ public interface LockFactory extends PropertySetCallback {
 	 */
 	public Enumeration makeVirtualLockTable();
 
+	/**
+		Register an MBean that reports the lock statistics of this lock
+		factory. The MBean will be unregistered automatically when the
+		database is shut down, or explicitly by calling deregisterMBean().
+
+		@param dbName the unique name of the database the locks belong to
+		@exception StandardException if an error occurs when registering
+		the MBean
+	 */
+	public void registerMBean(String dbName) throws StandardException;
+
+	/**
+		Unregister the MBean registered by registerMBean(), if any.
+	 */
+	public void deregisterMBean();
+
 }
 
 
@@ -23,6 +23,7 @@ package org.apache.derby.iapi.sql;
 
 import java.sql.SQLWarning;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Vector;
 import org.apache.derby.iapi.error.StandardException;
 import org.apache.derby.iapi.sql.conn.LanguageConnectionContext;
@@ -523,6 +524,47 @@ public interface Activation extends Dependent
 	 */
 	public long getMaxRows();
 
+	/**
+	 * Give the activation the parameter values of the elements of a JDBC
+	 * batch that follow the element being executed. A statement that can
+	 * execute several elements of a batch in one execution moves them
+	 * into its ParameterValueSet one at a time with
+	 * {@link #nextBatchParameters()}.
+	 *
+	 * @param batch the parameter values of the following elements, or
+	 * null if the activation is not executing a batch
+	 */
+	public void setBatchParameters(List<ParameterValueSet> batch);
+
+	/**
+	 * Get the parameter values given with {@link #setBatchParameters}.
+	 *
+	 * @return the parameter values of the following batch elements, or
+	 * null if the activation is not executing a batch
+	 */
+	public List<ParameterValueSet> getBatchParameters();
+
+	/**
+	 * Move the parameter values of the next element of the batch into the
+	 * ParameterValueSet of the activation. Elements whose values can't be
+	 * moved this way, like streams, are left for a separate execution.
+	 *
+	 * @return true if the values of another element were moved, false
+	 * if there are no more elements that can be executed this way
+	 *
+	 * @exception StandardException if the values could not be moved
+	 */
+	public boolean nextBatchParameters() throws StandardException;
+
+	/**
+	 * Get the number of batch elements whose parameter values have been
+	 * moved into the ParameterValueSet by {@link #nextBatchParameters()}
+	 * since {@link #setBatchParameters} was called.
+	 *
+	 * @return the number of batch elements used
+	 */
+	public int getBatchParametersUsed();
+
 	/**
 	 * Is this Activation for a cursor?
 	 *
@@ -104,6 +104,27 @@ public interface NoPutResultSet extends ResultSet, RowLocationRetRowSource
 	 */
 	public ExecRow	getNextRowCore() throws StandardException;
 
+	/**
+	 * Return the next rows (if any) for which the restriction evaluates
+	 * to true, as getNextRowCore() would have returned them one by one.
+	 * <p>
+	 * The returned rows are only valid until the next call to
+	 * getNextRowBatch() or getNextRowCore() on this result set, and the
+	 * current row of the result set is not defined after the call.
+	 * So only callers that consume the rows right away, without
+	 * positioning on them, should use this method. Result sets that
+	 * cannot return more than one row at a time return a single row.
+	 *
+	 * @param rows	An array to put the rows in. Its length is the
+	 *				maximum number of rows to return.
+	 *
+	 * @return	The number of rows put in the array, 0 if there are
+	 *			no more rows.
+	 *
+	 * @exception StandardException thrown on failure.
+	 */
+	public int getNextRowBatch(ExecRow[] rows) throws StandardException;
+
 	/**
 	 * Return the point of attachment for this subquery.
 	 * (Only meaningful for Any and Once ResultSets, which can and will only
@@ -28,17 +28,24 @@ import org.apache.derby.iapi.types.LocatedRow;
 import org.apache.derby.iapi.types.RowLocation;
 
 import org.apache.derby.iapi.services.cache.ClassSize;
+import org.apache.derby.iapi.util.ParallelWorkers;
 
 import org.apache.derby.shared.common.sanity.SanityManager;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties; 
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
 <p>
@@ -128,6 +135,17 @@ a LocatedRow becomes a DataValueDescriptor[], where the last cell contains
 the RowLocation.
 </p>
 
+<p>
+If the hash table is created with a build parallelism greater than one and
+duplicates are kept, the rows are buffered as they arrive and the in memory
+hash table is built when it is first accessed. If there are enough rows, the
+hash keys are computed and the rows are inserted into a number of partitions
+by several threads at the same time. The rows are still read from the row
+source or the scan by the calling thread, since the store does not allow a
+transaction to be used by more than one thread. The other threads belong to
+Derby's own fork/join pool, see {@link ParallelWorkers}.
+</p>
+
 **/
 
 public class BackingStoreHashtable
@@ -138,7 +156,7 @@ public class BackingStoreHashtable
      **************************************************************************
      */
     private TransactionController tc;
-    private HashMap<Object,Object>     hash_table;
+    private Map<Object,Object>     hash_table;
     private int[]       key_column_numbers;
     private boolean     remove_duplicates;
 	private boolean		skipNullKeyColumns;
@@ -151,6 +169,15 @@ public class BackingStoreHashtable
     private long max_inmemory_rowcnt;
     private long inmemory_rowcnt;
     private long max_inmemory_size;
+
+    /**
+     * How much memory the partitions of the overflow that are read back
+     * into memory may use, in rows if max_inmemory_rowcnt &gt; 0 and in
+     * bytes otherwise. The same as the limit of the in memory hash table,
+     * so a hash table that has spilled may keep up to twice that limit in
+     * memory.
+     */
+    private long spill_memory_budget;
     private boolean keepAfterCommit;
 
     /**
@@ -159,7 +186,35 @@ public class BackingStoreHashtable
     private final static int ARRAY_LIST_SIZE =
         ClassSize.estimateBaseFromCatalog(ArrayList.class);
     
-    private DiskHashtable diskHashtable;
+    private PartitionedDiskHashtable diskHashtable;
+
+    /**
+     * The smallest number of rows each thread should get when the hash table
+     * is built in parallel. Hash tables with fewer rows than this times two
+     * are built by the calling thread alone.
+     */
+    private final static int MIN_ROWS_PER_BUILD_THREAD = 20000;
+
+    /** The maximum number of threads used to build the in memory hash table. */
+    private int max_build_parallelism = 1;
+
+    /** The number of threads actually used to build the hash table. */
+    private int build_parallelism = 1;
+
+    /**
+     * Rows that have been added to the hash table but not yet inserted into
+     * hash_table, or null if rows are inserted as they arrive. Only used
+     * when the hash table may be built in parallel.
+     */
+    private ArrayList<Object> pending_rows;
+
+    /**
+     * The memory accounted for each pending row for the list of duplicates
+     * it may end up in. Whether a row has duplicates is only known once it
+     * is inserted, and at most one list is made for every two rows, so this
+     * is an upper bound until finishBuild() replaces it with the real cost.
+     */
+    private final static int PENDING_ROW_LIST_SIZE = ARRAY_LIST_SIZE / 2;
 
     /**************************************************************************
      * Constructors for This class:
@@ -231,6 +286,40 @@ public class BackingStoreHashtable
 	boolean					skipNullKeyColumns,
     boolean                 keepAfterCommit)
         throws StandardException
+    {
+        this(tc, row_source, key_column_numbers, remove_duplicates,
+             estimated_rowcnt, max_inmemory_rowcnt, initialCapacity,
+             loadFactor, skipNullKeyColumns, keepAfterCommit, 1);
+    }
+
+    /**
+     * Create the BackingStoreHashtable from a row source, allowing the in
+     * memory hash table to be built by several threads.
+     * <p>
+     * The parameters are the same as for the constructor without the
+     * max_build_parallelism parameter.
+     *
+     * @param max_build_parallelism The maximum number of threads that may
+     *                          be used to build the in memory hash table.
+     *                          1 means that the table is built by the
+     *                          calling thread as the rows arrive. Ignored
+     *                          if remove_duplicates is true.
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    public BackingStoreHashtable(
+    TransactionController   tc,
+    RowSource               row_source,
+    int[]                   key_column_numbers,
+    boolean                 remove_duplicates,
+    long                    estimated_rowcnt,
+    long                    max_inmemory_rowcnt,
+    int                     initialCapacity,
+    float                   loadFactor,
+	boolean					skipNullKeyColumns,
+    boolean                 keepAfterCommit,
+    int                     max_build_parallelism)
+        throws StandardException
     {
         this.key_column_numbers    = key_column_numbers;
         this.remove_duplicates    = remove_duplicates;
@@ -240,14 +329,25 @@ public class BackingStoreHashtable
         if ( max_inmemory_rowcnt > 0)
         {
             max_inmemory_size = Long.MAX_VALUE;
+            spill_memory_budget = max_inmemory_rowcnt;
         }
         else
         {
             max_inmemory_size = Runtime.getRuntime().totalMemory()/100;
+            spill_memory_budget = max_inmemory_size;
         }
         this.tc = tc;
         this.keepAfterCommit = keepAfterCommit;
 
+        // Rows can only be buffered for a parallel build if duplicates are
+        // kept. Otherwise every new row must be checked against the rows
+        // already in the hash table.
+        if (max_build_parallelism > 1 && !remove_duplicates)
+        {
+            this.max_build_parallelism = max_build_parallelism;
+            pending_rows = new ArrayList<Object>();
+        }
+
         if (SanityManager.DEBUG)
         {
             // RowLocations are not currently supported if the
@@ -478,46 +578,205 @@ public class BackingStoreHashtable
             columnValues = cloneRow( columnValues );
         }
 
-        Object key = KeyHasher.buildHashKey( columnValues, key_column_numbers );
         Object hashValue = !includeRowLocations() ?
             columnValues : new LocatedRow( columnValues, rowLocation );
-        Object duplicate_value = hash_table.put( key, hashValue );
 
-        if (duplicate_value == null)
+        if (pending_rows != null)
         {
+            // Insert the row when the hash table is accessed. The list
+            // overhead of duplicates is not known yet, so account for the
+            // most it can be.
+            pending_rows.add( hashValue );
             doSpaceAccounting( hashValue, false );
+            if ( max_inmemory_rowcnt <= 0)
+            {
+                max_inmemory_size -= PENDING_ROW_LIST_SIZE;
+            }
+            return;
+        }
+
+        Object key = KeyHasher.buildHashKey( columnValues, key_column_numbers );
+        int duplicates = putInMemory( hash_table, key, hashValue );
+
+        if (duplicates == 0 || !remove_duplicates)
+        {
+            doSpaceAccounting( hashValue, duplicates == 1 );
+        }
+    }
+
+    /**
+     * Put a row into an in memory hash map. If duplicates are kept, rows
+     * with the same key are collected in a RowList.
+     *
+     * @param map       the map to put the row into
+     * @param key       the hash key of the row
+     * @param hashValue the row
+     *
+     * @return the number of rows that were already in the map with the
+     *         same key
+     */
+    private int putInMemory( Map<Object,Object> map, Object key,
+                             Object hashValue )
+    {
+        Object duplicate_value = map.put( key, hashValue );
+
+        if (duplicate_value == null)
+        {
+            return 0;
+        }
+
+        if (remove_duplicates)
+        {
+            return 1;
+        }
+
+        RowList row_vec;
+
+        // inserted a duplicate
+        if (duplicate_value instanceof RowList)
+        {
+            row_vec = (RowList) duplicate_value;
         }
         else
         {
-            if (!remove_duplicates)
-            {
-                RowList row_vec;
+            // allocate list to hold duplicates
+            row_vec = new RowList(2);
 
-                // inserted a duplicate
-                if (duplicate_value instanceof RowList)
+            // insert original row into vector
+            row_vec.add( duplicate_value );
+        }
+
+        // insert new row into list
+        row_vec.add( hashValue );
+
+        // store list of rows back into hash table,
+        // overwriting the duplicate key that was 
+        // inserted.
+        map.put(key, row_vec);
+
+        return row_vec.size() - 1;
+    }
+
+    /**
+     * Insert the buffered rows into the in memory hash table. If there are
+     * enough rows, the work is split between several threads: each thread
+     * first computes the hash keys for a range of the rows, and then
+     * inserts the rows that belong to its partition of the hash table.
+     *
+	 * @exception  StandardException  Standard exception policy.
+     */
+    private void finishBuild()
+        throws StandardException
+    {
+        if (pending_rows == null)
+        {
+            return;
+        }
+
+        ArrayList<Object> rows = pending_rows;
+        pending_rows = null;
+
+        // The pool of parallel workers limits the number of tasks that run
+        // at the same time to the number of processors, so the number of
+        // tasks is only limited by the requested parallelism and the row
+        // count.
+        int threads = Math.min(max_build_parallelism,
+                               rows.size() / MIN_ROWS_PER_BUILD_THREAD);
+
+        // The number of lists of duplicates that were made.
+        int lists = 0;
+
+        if (threads <= 1 || hash_table.size() > 0)
+        {
+            for (Object hashValue : rows)
+            {
+                if (putInMemory(
+                        hash_table,
+                        KeyHasher.buildHashKey(
+                            columnsOf( hashValue ), key_column_numbers ),
+                        hashValue ) == 1)
                 {
-                    doSpaceAccounting( hashValue, false );
-                    row_vec = (RowList) duplicate_value;
+                    lists++;
                 }
-                else
-                {
-                    // allocate list to hold duplicates
-                    row_vec = new RowList(2);
+            }
+            accountForRowLists( rows.size(), lists );
+            return;
+        }
 
-                    // insert original row into vector
-                    row_vec.add( duplicate_value );
-                    doSpaceAccounting( hashValue, true );
-                }
+        PartitionedHashMap partitioned = new PartitionedHashMap( threads );
+        Object[] keys = new Object[rows.size()];
+        int[] partitionOf = new int[rows.size()];
 
-                // insert new row into list
-                row_vec.add( hashValue );
+        ParallelBuildTask[] tasks = new ParallelBuildTask[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            tasks[i] = new ParallelBuildTask(
+                rows, keys, partitionOf, partitioned, i, threads, true );
+        }
+        runInParallel( tasks );
 
-                // store list of rows back into hash table,
-                // overwriting the duplicate key that was 
-                // inserted.
-                hash_table.put(key, row_vec);
-            }
+        for (int i = 0; i < threads; i++)
+        {
+            tasks[i] = new ParallelBuildTask(
+                rows, keys, partitionOf, partitioned, i, threads, false );
+        }
+        runInParallel( tasks );
+
+        for (int i = 0; i < threads; i++)
+        {
+            lists += tasks[i].lists;
+        }
+        accountForRowLists( rows.size(), lists );
+
+        hash_table = partitioned;
+        build_parallelism = threads;
+    }
+
+    /**
+     * Replace the memory accounted for the lists of duplicates of pending
+     * rows with the cost of the lists that were actually made.
+     *
+     * @param rowCount the number of pending rows that were inserted
+     * @param lists the number of lists of duplicates that were made
+     */
+    private void accountForRowLists( int rowCount, int lists )
+    {
+        if ( max_inmemory_rowcnt <= 0)
+        {
+            max_inmemory_size += (long) rowCount * PENDING_ROW_LIST_SIZE;
+            max_inmemory_size -= (long) lists * ARRAY_LIST_SIZE;
+        }
+    }
+
+    /**
+     * Run the tasks, the first one in the current thread and the others in
+     * Derby's pool of parallel workers, and wait for all of them to complete.
+     *
+     * @param tasks the tasks to run
+     */
+    private static void runInParallel( ParallelBuildTask[] tasks )
+    {
+        ForkJoinPool pool = ParallelWorkers.getPool();
+        for (int i = 1; i < tasks.length; i++)
+        {
+            pool.execute( tasks[i] );
         }
+        tasks[0].invoke();
+        for (int i = 1; i < tasks.length; i++)
+        {
+            tasks[i].join();
+        }
+    }
+
+    /**
+     * Get the column values of a row that is stored in the in memory hash
+     * table.
+     */
+    private static DataValueDescriptor[] columnsOf( Object hashValue )
+    {
+        return (hashValue instanceof LocatedRow) ?
+            ((LocatedRow) hashValue).columnValues() :
+            (DataValueDescriptor[]) hashValue;
     }
 
     private void doSpaceAccounting(Object hashValue,
@@ -578,17 +837,21 @@ public class BackingStoreHashtable
                 return false;
             }
             
-            // Want to start spilling
+            // Want to start spilling. Insert the buffered rows first, so
+            // that duplicates already in memory can be found below.
+            finishBuild();
+
             diskRow = makeDiskRow( columnValues, rowLocation );
  
             diskHashtable = 
-                new DiskHashtable(
+                new PartitionedDiskHashtable(
                        tc,
                        diskRow,
                        (int[]) null, //TODO-COLLATION, set non default collation if necessary.
                        key_column_numbers,
                        remove_duplicates,
-                       keepAfterCommit);
+                       keepAfterCommit,
+                       spill_memory_budget);
         }
         Object key = KeyHasher.buildHashKey( columnValues, key_column_numbers );
         Object duplicateValue = hash_table.get( key);
@@ -603,13 +866,16 @@ public class BackingStoreHashtable
                 List duplicateVec = (List) duplicateValue;
                 for( int i = duplicateVec.size() - 1; i >= 0; i--)
                 {
+                    Object dup = duplicateVec.get( i );
                     diskHashtable.put
-                        ( key, makeDiskRow( duplicateVec.get( i ) ));
+                        ( key, makeDiskRow( dup ), getSpillCost( dup ) );
                 }
             }
             else
             {
-                diskHashtable.put( key, makeDiskRow( duplicateValue ) );
+                diskHashtable.put
+                    ( key, makeDiskRow( duplicateValue ),
+                      getSpillCost( duplicateValue ) );
             }
             hash_table.remove( key);
         }
@@ -617,7 +883,11 @@ public class BackingStoreHashtable
         if ( diskRow == null )
         { diskRow = makeDiskRow( columnValues, rowLocation ); }
         
-        diskHashtable.put( key, diskRow );
+        diskHashtable.put
+            ( key, diskRow,
+              getSpillCost( !includeRowLocations() ?
+                            columnValues :
+                            new LocatedRow( columnValues, rowLocation ) ) );
         return true;
     } // end of spillToDisk
 
@@ -707,6 +977,16 @@ public class BackingStoreHashtable
         }
     }
 
+    /**
+     * Get the cost of reading a spilled row back into memory, in the unit
+     * of spill_memory_budget.
+     */
+    private long getSpillCost( Object hashValue )
+    {
+        return ( max_inmemory_rowcnt > 0 ) ?
+            1 : getEstimatedMemUsage( hashValue );
+    }
+
     /**
      * Take a value which will go into the hash table and return an estimate
      * of how much memory that value will consume. The hash value could
@@ -772,6 +1052,7 @@ public class BackingStoreHashtable
     public void close() 
 		throws StandardException
     {
+        pending_rows = null;
         hash_table = null;
         if ( diskHashtable != null)
         {
@@ -828,6 +1109,8 @@ public class BackingStoreHashtable
     public Enumeration<Object> elements()
         throws StandardException
     {
+        finishBuild();
+
         if ( diskHashtable == null)
         {
             return Collections.enumeration(hash_table.values());
@@ -913,6 +1196,8 @@ public class BackingStoreHashtable
     public Object get(Object key)
 		throws StandardException
     {
+        finishBuild();
+
         Object obj = hash_table.get(key);
         if ( diskHashtable == null || obj != null)
         {
@@ -950,6 +1235,11 @@ public class BackingStoreHashtable
             org.apache.derby.iapi.util.PropertyUtil.copyProperties
                 (auxillary_runtimestats, prop);
         }
+
+        if (diskHashtable != null)
+        {
+            diskHashtable.getAllRuntimeStats(prop);
+        }
     }
 
     /**
@@ -965,6 +1255,8 @@ public class BackingStoreHashtable
     Object      key)
 		throws StandardException
     {
+        finishBuild();
+
         Object obj = hash_table.remove(key);
         if ( obj != null || diskHashtable == null)
         {
@@ -973,6 +1265,22 @@ public class BackingStoreHashtable
         return diskHashtable.remove(key);
     }
 
+    /**
+     * Get the number of threads that were used to build the in memory hash
+     * table. The hash table is completely built when this method returns.
+     *
+     * @return the number of threads, 1 if the hash table was built by the
+     *         calling thread alone
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    public int getBuildParallelism()
+		throws StandardException
+    {
+        finishBuild();
+        return build_parallelism;
+    }
+
     /**
      * Set the auxillary runtime stats.
      * <p>
@@ -1061,6 +1369,8 @@ public class BackingStoreHashtable
     public int size()
 		throws StandardException
     {
+        finishBuild();
+
         if ( diskHashtable == null)
         {
             return(hash_table.size());
@@ -1138,4 +1448,170 @@ public class BackingStoreHashtable
         // Casts to RowList, on the other hand, won't cause warnings, as there
         // are no parameterized types and type erasure doesn't come into play.
     }
+
+    /**
+     * A map that consists of a number of hash maps, each holding the keys
+     * whose hash codes map to that partition. The partitions can be filled
+     * by different threads at the same time.
+     */
+    private static class PartitionedHashMap extends AbstractMap<Object,Object>
+    {
+        private final HashMap<Object,Object>[] partitions;
+
+        @SuppressWarnings("unchecked")
+        private PartitionedHashMap(int partitionCount)
+        {
+            partitions = new HashMap[partitionCount];
+            for (int i = 0; i < partitionCount; i++)
+            {
+                partitions[i] = new HashMap<Object,Object>();
+            }
+        }
+
+        private int partitionOf(Object key)
+        {
+            int h = key.hashCode();
+            h ^= (h >>> 16);
+            return (h & Integer.MAX_VALUE) % partitions.length;
+        }
+
+        @Override
+        public Object get(Object key)
+        {
+            return partitions[partitionOf(key)].get(key);
+        }
+
+        @Override
+        public Object put(Object key, Object value)
+        {
+            return partitions[partitionOf(key)].put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key)
+        {
+            return partitions[partitionOf(key)].remove(key);
+        }
+
+        @Override
+        public int size()
+        {
+            int size = 0;
+            for (HashMap<Object,Object> partition : partitions)
+            {
+                size += partition.size();
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Map.Entry<Object,Object>> entrySet()
+        {
+            return new AbstractSet<Map.Entry<Object,Object>>()
+            {
+                public int size()
+                {
+                    return PartitionedHashMap.this.size();
+                }
+
+                public Iterator<Map.Entry<Object,Object>> iterator()
+                {
+                    return new Iterator<Map.Entry<Object,Object>>()
+                    {
+                        private int next = 0;
+                        private Iterator<Map.Entry<Object,Object>> current;
+
+                        public boolean hasNext()
+                        {
+                            while (current == null || !current.hasNext())
+                            {
+                                if (next == partitions.length)
+                                {
+                                    return false;
+                                }
+                                current = partitions[next++].entrySet().iterator();
+                            }
+                            return true;
+                        }
+
+                        public Map.Entry<Object,Object> next()
+                        {
+                            if (!hasNext())
+                            {
+                                throw new NoSuchElementException();
+                            }
+                            return current.next();
+                        }
+
+                        public void remove()
+                        {
+                            current.remove();
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * One thread's share of a parallel build of the in memory hash table.
+     * In the first phase, the task computes the hash keys and partitions of
+     * a contiguous range of the rows. In the second phase, it inserts the
+     * rows of one partition, in their original order, so that lists of
+     * duplicates come out the same as in a serial build.
+     */
+    private class ParallelBuildTask extends RecursiveAction
+    {
+        private final ArrayList<Object> rows;
+        private final Object[] keys;
+        private final int[] partitionOf;
+        private final PartitionedHashMap map;
+        private final int index;
+        private final int count;
+        private final boolean computeKeys;
+
+        /** The number of lists of duplicates made in the second phase. */
+        int lists;
+
+        ParallelBuildTask(ArrayList<Object> rows, Object[] keys,
+                          int[] partitionOf, PartitionedHashMap map,
+                          int index, int count, boolean computeKeys)
+        {
+            this.rows = rows;
+            this.keys = keys;
+            this.partitionOf = partitionOf;
+            this.map = map;
+            this.index = index;
+            this.count = count;
+            this.computeKeys = computeKeys;
+        }
+
+        protected void compute()
+        {
+            int size = rows.size();
+            if (computeKeys)
+            {
+                int end = (int) (((long) size * (index + 1)) / count);
+                for (int i = (int) (((long) size * index) / count); i < end; i++)
+                {
+                    Object key = KeyHasher.buildHashKey(
+                        columnsOf( rows.get(i) ), key_column_numbers );
+                    keys[i] = key;
+                    partitionOf[i] = map.partitionOf(key);
+                }
+            }
+            else
+            {
+                HashMap<Object,Object> partition = map.partitions[index];
+                for (int i = 0; i < size; i++)
+                {
+                    if (partitionOf[i] == index &&
+                        putInMemory( partition, keys[i], rows.get(i) ) == 1)
+                    {
+                        lists++;
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,921 @@
+/*
+
+   Derby - Class org.apache.derby.iapi.store.access.PartitionedDiskHashtable
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.iapi.store.access;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import org.apache.derby.shared.common.reference.SQLState;
+import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.services.context.Context;
+import org.apache.derby.iapi.services.context.ContextService;
+import org.apache.derby.iapi.services.i18n.MessageService;
+import org.apache.derby.iapi.services.io.FormatableBitSet;
+import org.apache.derby.iapi.sql.conn.LanguageConnectionContext;
+import org.apache.derby.iapi.types.DataValueDescriptor;
+import org.apache.derby.iapi.types.RowLocation;
+import org.apache.derby.shared.common.sanity.SanityManager;
+
+/**
+ * This class is used by BackingStoreHashtable when the BackingStoreHashtable
+ * must spill to disk. It splits the overflow rows into a number of
+ * partitions based on the hash code of their keys, in the manner of a
+ * hybrid hash join.
+ * <p>
+ * The rows of a partition are appended to a temporary heap conglomerate of
+ * its own, so writing the overflow is a sequential operation. The first
+ * time a key in a partition is looked up, the whole partition is read back
+ * with a single scan. If it fits in what is left of a budget of the same
+ * size as the in memory part of the BackingStoreHashtable, it is kept in
+ * memory, and later lookups in the same partition are answered from
+ * memory. Otherwise it is moved into a DiskHashtable shared by all such
+ * partitions, which looks up each key in a B-tree.
+ * <p>
+ * Unlike in a hybrid hash join, the lookups are not partitioned as well:
+ * they come one at a time, in the order of the rows of the outer table of
+ * the join, which must be kept. So a partition that is kept in memory is
+ * never dropped to make room for another one, since lookups in random
+ * order would keep reading the same partitions back. Each partition is
+ * read at most once, and the worst case is close to keeping the overflow
+ * in a DiskHashtable from the start.
+ * <p>
+ * Since the budget of the partitions comes in addition to the memory used
+ * by the in memory part, a BackingStoreHashtable that has spilled may hold
+ * up to twice its memory limit (derby.language.maxMemoryPerTable for a
+ * hash join) in memory.
+ * <p>
+ * If duplicates are removed, every new row must be checked against the
+ * rows that are already in the hash table, so all the rows go into the
+ * DiskHashtable from the start.
+ */
+
+public class PartitionedDiskHashtable
+{
+    /** The number of partitions if duplicates are kept is 2 to this power. */
+    private static final int PARTITION_BITS = 5;
+
+    private final TransactionController   tc;
+    private final DataValueDescriptor[]   template;
+    private final int[]                   collation_ids;
+    private final int[]                   key_column_numbers;
+    private final boolean                 remove_duplicates;
+    private final boolean                 keepAfterCommit;
+    private final boolean                 keepStatistics;
+    private final Partition[]             partitions;
+
+    /**
+     * The DiskHashtable that holds the rows of the partitions that are not
+     * kept in heaps, or null if there are no such partitions.
+     */
+    private DiskHashtable                 btree;
+
+    /**
+     * How much the partitions that are kept in memory may cost, in the
+     * same unit as the cost passed to put().
+     */
+    private final long                    residentBudget;
+
+    /** The cost of the partitions that are currently kept in memory. */
+    private long                          residentCost;
+
+    /** The number of times a partition has been read into memory. */
+    private int                           partitionLoads;
+
+    /**
+     * Creates a new <code>PartitionedDiskHashtable</code> instance.
+     *
+     * @param tc
+     * @param template              An array of DataValueDescriptors that
+     *                              serves as a template for the rows.
+     * @param collation_ids         The collation ids of the columns, or
+     *                              null for the default collation
+     * @param key_column_numbers    The indexes of the key columns (0 based)
+     * @param remove_duplicates     If true then rows with duplicate keys are
+     *                              removed.
+     * @param keepAfterCommit       If true then the hash table is kept after
+     *                              a commit
+     * @param residentBudget        How much the partitions that are kept in
+     *                              memory may cost, in the same unit as the
+     *                              cost passed to put()
+     */
+    public PartitionedDiskHashtable(
+    TransactionController   tc,
+    DataValueDescriptor[]   template,
+    int[]                   collation_ids,
+    int[]                   key_column_numbers,
+    boolean                 remove_duplicates,
+    boolean                 keepAfterCommit,
+    long                    residentBudget)
+        throws StandardException
+    {
+        this.tc                         = tc;
+        this.collation_ids              = collation_ids;
+        this.key_column_numbers         = key_column_numbers;
+        this.remove_duplicates          = remove_duplicates;
+        this.keepAfterCommit            = keepAfterCommit;
+        this.residentBudget             = residentBudget;
+
+        LanguageConnectionContext lcc   = (LanguageConnectionContext)
+            getContextOrNull(
+                LanguageConnectionContext.CONTEXT_ID);
+
+        keepStatistics = (lcc != null) && lcc.getRunTimeStatisticsMode();
+
+        // Keep a template row of our own, the caller may reuse its row.
+        this.template = new DataValueDescriptor[template.length];
+        for( int i = 0; i < template.length; i++)
+        {
+            this.template[i] = template[i].getNewNull();
+
+            if (SanityManager.DEBUG)
+            {
+                // must have an object template for all cols in hash overflow.
+                SanityManager.ASSERT(
+                    this.template[i] != null,
+                    "Template for the hash table must have non-null object");
+            }
+        }
+
+        partitions = new Partition[remove_duplicates ? 1 : 1 << PARTITION_BITS];
+        for (int i = 0; i < partitions.length; i++)
+        {
+            partitions[i] = new Partition();
+        }
+
+        if (remove_duplicates)
+        {
+            btree = newDiskHashtable();
+            partitions[0].inBtree = true;
+        }
+    } // end of constructor
+
+    public void close() throws StandardException
+    {
+        for (Partition p : partitions)
+        {
+            p.rows = null;
+            p.dropHeap();
+        }
+        residentCost = 0;
+        if (btree != null)
+        {
+            btree.close();
+            btree = null;
+        }
+    } // end of close
+
+    /**
+     * Put a new row in the overflow structure.
+     *
+     * @param key  The key of the row.
+     * @param row  The row to be inserted. No reference to the row is kept.
+     * @param cost The cost of keeping the row in memory.
+     *
+     * @return true  if the row was added,
+     *         false if it was not added (because it was a duplicate and we
+     *               are eliminating duplicates).
+     *
+     * @exception StandardException standard error policy
+     */
+    public boolean put(Object key, Object[] row, long cost)
+        throws StandardException
+    {
+        Partition p = getPartition(key);
+
+        if (!p.inBtree && p.removed != null && p.removed.contains(key))
+        {
+            // The rows of the removed key are still in the heap. Move the
+            // partition to the DiskHashtable, which really deletes them.
+            moveToDiskHashtable(p);
+        }
+
+        if (p.inBtree)
+        {
+            return btree.put(key, row);
+        }
+
+        if (p.rows != null)
+        {
+            // Don't update the copy in memory, read the partition again
+            // if it is needed.
+            dropFromMemory(p);
+        }
+
+        p.insert((DataValueDescriptor[]) row, cost);
+
+        if (p.cost > residentBudget)
+        {
+            // The partition can never be read back into memory.
+            moveToDiskHashtable(p);
+        }
+        return true;
+    } // end of put
+
+    /**
+     * Get a row from the overflow structure.
+     *
+     * @param key If the rows only have one key column then the key value.
+     *            If there is more than one key column then a KeyHasher
+     *
+     * @return null if there is no corresponding row,
+     *         the row (DataValueDescriptor[]) if there is exactly one row
+     *         with the key, or
+     *         a List of all the rows with the key if there is more than one.
+     *
+     * @exception StandardException
+     */
+    public Object get(Object key)
+        throws StandardException
+    {
+        Partition p = getPartition(key);
+
+        if (!p.inBtree)
+        {
+            if (p.rowCount == 0 ||
+                (p.removed != null && p.removed.contains(key)))
+            {
+                return null;
+            }
+            makeResident(p);
+        }
+
+        if (p.inBtree)
+        {
+            return btree.get(key);
+        }
+        return p.rows.get(key);
+    }
+
+    /**
+     * remove all rows with a given key from the hash table.
+     *
+     * @param key          The key of the rows to remove.
+     *
+     * @return The removed row(s).
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    public Object remove( Object key)
+		throws StandardException
+    {
+        Object value = get(key);
+        Partition p = getPartition(key);
+
+        if (p.inBtree)
+        {
+            return btree.remove(key);
+        }
+
+        if (value != null)
+        {
+            p.rows.remove(key);
+            if (p.removed == null)
+            {
+                p.removed = new HashSet<Object>();
+            }
+            p.removed.add(key);
+            p.keyCount = p.rows.size();
+        }
+        return value;
+    } // end of remove
+
+    /**
+     * @return The number of unique keys in the hash table, or 0 if runtime
+     *         statistics are not collected
+     *
+	 * @exception  StandardException  Standard exception policy.
+     */
+    public int size()
+        throws StandardException
+    {
+        int size = 0;
+        if (!keepStatistics)
+        {
+            return size;
+        }
+
+        if (btree != null)
+        {
+            size += btree.size();
+        }
+
+        for (Partition p : partitions)
+        {
+            if (p.inBtree)
+            {
+                continue;
+            }
+            else if (p.rows != null)
+            {
+                size += p.rows.size();
+            }
+            else if (p.keyCount >= 0)
+            {
+                // Counted since the partition last changed.
+                size += p.keyCount;
+            }
+            else if (p.rowCount > 0)
+            {
+                HashSet<Object> keys = new HashSet<Object>();
+                ScanController scan = p.openScan();
+                try
+                {
+                    while (scan.fetchNext(template))
+                    {
+                        Object key = KeyHasher.buildHashKey(
+                            materializeRow(template), key_column_numbers);
+                        if (p.removed == null || !p.removed.contains(key))
+                        {
+                            keys.add(key);
+                        }
+                    }
+                }
+                finally
+                {
+                    scan.close();
+                }
+                p.keyCount = keys.size();
+                size += p.keyCount;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Return an Enumeration that can be used to scan entire table. The
+     * partitions are returned one after the other.
+     *
+	 * @return The Enumeration.
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    public Enumeration<Object> elements()
+        throws StandardException
+    {
+        return new ElementEnum();
+    }
+
+    /**
+     * Get the number of times a partition has been read into memory.
+     */
+    public int getPartitionLoads()
+    {
+        return partitionLoads;
+    }
+
+    /**
+     * Get the number of partitions that have been moved into a
+     * DiskHashtable.
+     */
+    public int getDiskHashtablePartitions()
+    {
+        int count = 0;
+        for (Partition p : partitions)
+        {
+            if (p.inBtree)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of partitions that have rows, either in a heap or in
+     * the DiskHashtable.
+     */
+    public int getSpilledPartitions()
+    {
+        int count = 0;
+        for (Partition p : partitions)
+        {
+            if (p.heapId != -1 || p.inBtree)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Add the statistics of the partitions to a set of runtime statistics.
+     *
+     * @param prop   The set of properties to append to.
+     */
+    public void getAllRuntimeStats(Properties prop)
+    {
+        prop.put(
+            MessageService.getTextMessage(
+                SQLState.STORE_RTS_NUM_SPILLED_PARTITIONS),
+            Integer.toString(getSpilledPartitions()));
+        prop.put(
+            MessageService.getTextMessage(
+                SQLState.STORE_RTS_NUM_PARTITION_READS),
+            Integer.toString(getPartitionLoads()));
+        prop.put(
+            MessageService.getTextMessage(
+                SQLState.STORE_RTS_NUM_BTREE_PARTITIONS),
+            Integer.toString(getDiskHashtablePartitions()));
+    }
+
+    /**
+     * Get the partition that holds the rows with the given key.
+     */
+    private Partition getPartition(Object key)
+    {
+        int h = key.hashCode();
+        // Don't use the low bits directly, the in memory hash table uses
+        // them too.
+        h ^= (h >>> 16);
+        h *= 0x9E3779B9;
+        return partitions[(h >>> (32 - PARTITION_BITS)) & (partitions.length - 1)];
+    }
+
+    private DiskHashtable newDiskHashtable()
+        throws StandardException
+    {
+        return new DiskHashtable(
+            tc,
+            template,
+            collation_ids,
+            key_column_numbers,
+            remove_duplicates,
+            keepAfterCommit);
+    }
+
+    /**
+     * Make sure that the rows of a partition are in memory, or that the
+     * partition has been moved into a DiskHashtable. A partition is only
+     * read into memory once, if it fits in what is left of the budget.
+     */
+    private void makeResident(Partition p)
+        throws StandardException
+    {
+        if (p.rows != null)
+        {
+            return;
+        }
+
+        if (p.loads > 0 || residentCost + p.cost > residentBudget)
+        {
+            // Already read once and changed since, or no room for it.
+            moveToDiskHashtable(p);
+            return;
+        }
+
+        HashMap<Object, Object> rows = new HashMap<Object, Object>();
+        ScanController scan = p.openScan();
+        try
+        {
+            while (scan.fetchNext(template))
+            {
+                DataValueDescriptor[] row = materializeRow(template);
+                Object key = KeyHasher.buildHashKey(row, key_column_numbers);
+                if (p.removed != null && p.removed.contains(key))
+                {
+                    continue;
+                }
+
+                Object duplicate = rows.put(key, row);
+                if (duplicate != null)
+                {
+                    List<Object> list;
+                    if (duplicate instanceof DataValueDescriptor[])
+                    {
+                        list = new ArrayList<Object>(2);
+                        list.add(duplicate);
+                    }
+                    else
+                    {
+                        list = castToList(duplicate);
+                    }
+                    list.add(row);
+                    rows.put(key, list);
+                }
+            }
+        }
+        finally
+        {
+            scan.close();
+        }
+
+        p.rows = rows;
+        p.keyCount = rows.size();
+        p.loads++;
+        partitionLoads++;
+        residentCost += p.cost;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> castToList(Object list)
+    {
+        return (List<Object>) list;
+    }
+
+    /** Stop keeping the rows of a partition in memory. */
+    private void dropFromMemory(Partition p)
+    {
+        if (p.rows != null)
+        {
+            residentCost -= p.cost;
+            p.rows = null;
+        }
+    }
+
+    /**
+     * Move the rows of a partition from its heap into the DiskHashtable.
+     */
+    private void moveToDiskHashtable(Partition p)
+        throws StandardException
+    {
+        dropFromMemory(p);
+
+        if (btree == null)
+        {
+            btree = newDiskHashtable();
+        }
+
+        if (p.rowCount > 0)
+        {
+            ScanController scan = p.openScan();
+            try
+            {
+                while (scan.fetchNext(template))
+                {
+                    Object key =
+                        KeyHasher.buildHashKey(template, key_column_numbers);
+                    if (p.removed == null || !p.removed.contains(key))
+                    {
+                        btree.put(key, template);
+                    }
+                }
+            }
+            finally
+            {
+                scan.close();
+            }
+        }
+
+        p.dropHeap();
+        p.inBtree = true;
+    }
+
+    /**
+     * Copy a row that was fetched from a heap. The values are materialized,
+     * since the heap is not kept open while the copy is in use.
+     */
+    private static DataValueDescriptor[] materializeRow(
+            DataValueDescriptor[] row)
+        throws StandardException
+    {
+        DataValueDescriptor[] copy = new DataValueDescriptor[row.length];
+        for (int i = 0; i < row.length; i++)
+        {
+            copy[i] = row[i].cloneValue(true);
+        }
+        return copy;
+    }
+
+    /**
+     * Privileged lookup of a Context. Must be private so that user code
+     * can't call this entry point.
+     */
+    private  static  Context    getContextOrNull( final String contextID )
+    {
+        if ( System.getSecurityManager() == null )
+        {
+            return ContextService.getContextOrNull( contextID );
+        }
+        else
+        {
+            return AccessController.doPrivileged
+                (
+                 new PrivilegedAction<Context>()
+                 {
+                     public Context run()
+                     {
+                         return ContextService.getContextOrNull( contextID );
+                     }
+                 }
+                 );
+        }
+    }
+
+    /**
+     * One partition of the overflow. The rows are either in a heap
+     * conglomerate, possibly with a copy in memory, or in the DiskHashtable.
+     */
+    private class Partition
+    {
+        /** The id of the heap that holds the rows, or -1 if none. */
+        private long heapId = -1;
+        /** The open heap, used for inserting rows. */
+        private ConglomerateController heap;
+        /** The number of rows in the heap. */
+        private long rowCount;
+        /** The cost of keeping the rows of the heap in memory. */
+        private long cost;
+        /** The rows of the heap by key, if they are kept in memory. */
+        private HashMap<Object, Object> rows;
+        /** The number of times the heap has been read into memory. */
+        private int loads;
+        /**
+         * The number of distinct keys in the heap, or -1 if it has not
+         * been counted since the heap last changed.
+         */
+        private int keyCount = -1;
+        /** Keys that have been removed, but whose rows are still in the heap. */
+        private HashSet<Object> removed;
+        /** Whether the rows are in the DiskHashtable instead of a heap. */
+        private boolean inBtree;
+
+        private void insert(DataValueDescriptor[] row, long rowCost)
+            throws StandardException
+        {
+            if (heap == null)
+            {
+                int tempFlags =
+                    keepAfterCommit ?
+                    (TransactionController.IS_TEMPORARY |
+                     TransactionController.IS_KEPT) :
+                    TransactionController.IS_TEMPORARY;
+
+                heapId =
+                    tc.createConglomerate(
+                        "heap",
+                        template,
+                        (ColumnOrdering[]) null,
+                        collation_ids,
+                        (Properties) null,
+                        tempFlags);
+
+                heap =
+                    tc.openConglomerate(
+                        heapId,
+                        keepAfterCommit,
+                        TransactionController.OPENMODE_FORUPDATE,
+                        TransactionController.MODE_TABLE,
+                        TransactionController.ISOLATION_NOLOCK/* Single thread only */);
+            }
+
+            heap.insert(row);
+            rowCount++;
+            cost += rowCost;
+            keyCount = -1;
+        }
+
+        private ScanController openScan()
+            throws StandardException
+        {
+            return openScan(false); // the scan is closed before returning
+        }
+
+        private ScanController openScan(boolean hold)
+            throws StandardException
+        {
+            return tc.openScan(
+                heapId,
+                hold,
+                0, // read only
+                TransactionController.MODE_TABLE,
+                TransactionController.ISOLATION_NOLOCK,
+                (FormatableBitSet) null, // all columns
+                (DataValueDescriptor[]) null, // no start key
+                0, // no start key operator
+                (Qualifier[][]) null,
+                (DataValueDescriptor[]) null, // no stop key
+                0 /* no stop key operator */);
+        }
+
+        private void dropHeap()
+            throws StandardException
+        {
+            if (heap != null)
+            {
+                heap.close();
+                heap = null;
+                tc.dropConglomerate(heapId);
+                heapId = -1;
+            }
+            rowCount = 0;
+            keyCount = -1;
+            cost = 0;
+            removed = null;
+        }
+    }
+
+    /**
+     * Enumeration of all the rows in the hash table, one partition after
+     * the other, followed by the rows in the DiskHashtable. The rows of a
+     * partition in a heap are read one by one with a scan, like those of a
+     * DiskHashtable, and are returned one by one even if they have the
+     * same key.
+     */
+    private class ElementEnum implements Enumeration<Object>
+    {
+        private int next;
+        private boolean btreeDone;
+        private Enumeration<Object> current;
+        private Object nextRow;
+
+        /** The scan of the heap of the current partition, if any. */
+        private ScanController scan;
+        private Partition scanned;
+        private boolean hasMore;
+        private RowLocation rowloc;
+
+        ElementEnum()
+            throws StandardException
+        {
+            advance();
+        }
+
+        /** Find the next row, and store it in nextRow. */
+        private void advance()
+            throws StandardException
+        {
+            nextRow = null;
+            while (nextRow == null)
+            {
+                if (current != null && current.hasMoreElements())
+                {
+                    nextRow = current.nextElement();
+                    break;
+                }
+                current = null;
+                if (scan != null)
+                {
+                    nextRow = nextScannedRow();
+                }
+                else if (next < partitions.length)
+                {
+                    Partition p = partitions[next++];
+                    if (p.inBtree)
+                    {
+                        continue;
+                    }
+                    else if (p.rows != null)
+                    {
+                        current = residentRows(p);
+                    }
+                    else if (p.rowCount > 0)
+                    {
+                        openScan(p);
+                    }
+                }
+                else if (btree != null && !btreeDone)
+                {
+                    btreeDone = true;
+                    current = btree.elements();
+                }
+                else
+                {
+                    return;
+                }
+            }
+        }
+
+        /** Get the rows of a partition that is kept in memory. */
+        private Enumeration<Object> residentRows(Partition p)
+        {
+            ArrayList<Object> list = new ArrayList<Object>(p.rows.size());
+            for (Object value : p.rows.values())
+            {
+                if (value instanceof List)
+                {
+                    list.addAll(castToList(value));
+                }
+                else
+                {
+                    list.add(value);
+                }
+            }
+            return Collections.enumeration(list);
+        }
+
+        /** Start scanning the heap of a partition. */
+        private void openScan(Partition p)
+            throws StandardException
+        {
+            scan = p.openScan(keepAfterCommit);
+            scanned = p;
+            hasMore = scan.next();
+            if (hasMore && keepAfterCommit)
+            {
+                rowloc = scan.newRowLocationTemplate();
+                scan.fetchLocation(rowloc);
+            }
+        }
+
+        /**
+         * Get the next row of the heap that is being scanned, or null if
+         * there are no more rows, in which case the scan is closed.
+         */
+        private Object nextScannedRow()
+            throws StandardException
+        {
+            try
+            {
+                while (hasMore)
+                {
+                    if (scan.isHeldAfterCommit())
+                    {
+                        // automatically reopens scan:
+                        if (!scan.positionAtRowLocation(rowloc))
+                        {
+                            throw StandardException.
+                                newException(SQLState.NO_CURRENT_ROW);
+                        }
+                    }
+
+                    scan.fetch(template);
+                    DataValueDescriptor[] row = materializeRow(template);
+
+                    hasMore = scan.next();
+                    if (hasMore && keepAfterCommit)
+                    {
+                        scan.fetchLocation(rowloc);
+                    }
+
+                    if (scanned.removed == null ||
+                        !scanned.removed.contains(KeyHasher.buildHashKey(
+                                row, key_column_numbers)))
+                    {
+                        return row;
+                    }
+                }
+            }
+            catch (StandardException se)
+            {
+                closeScan();
+                throw se;
+            }
+            closeScan();
+            return null;
+        }
+
+        private void closeScan()
+            throws StandardException
+        {
+            hasMore = false;
+            scanned = null;
+            rowloc = null;
+            if (scan != null)
+            {
+                ScanController s = scan;
+                scan = null;
+                s.close();
+            }
+        }
+
+        public boolean hasMoreElements()
+        {
+            return nextRow != null;
+        }
+
+        public Object nextElement()
+        {
+            if (nextRow == null)
+            {
+                throw new NoSuchElementException();
+            }
+            Object row = nextRow;
+            try
+            {
+                advance();
+            }
+            catch (StandardException se)
+            {
+                nextRow = null;
+                throw new NoSuchElementException();
+            }
+            return row;
+        }
+    } // end of class ElementEnum
+}
@@ -252,6 +252,18 @@ public interface TransactionController
      **/
     static final int OPENMODE_LOCK_ROW_NOWAIT       = 0x00008000;
 
+    /**
+     * Let a read-only scan skip rows inserted by transactions that have not
+     * committed yet, instead of waiting for them, if the isolation level
+     * allows phantoms and derby.locks.skipUncommittedInserts is set.
+     * <p>
+     * Only scans that read data for a user query may set this mode.  Scans
+     * that check constraints, such as the foreign key checks, must see
+     * uncommitted inserts and wait for them, or they could let a
+     * transaction delete a parent row whose child row is being inserted.
+     **/
+    static final int OPENMODE_SKIP_UNCOMMITTED_INSERTS = 0x00010000;
+
     /**
      * Constants used for the countOpen() call.
      **/
@@ -947,6 +959,11 @@ public interface TransactionController
      *
      * @param includeRowLocations If true then rows should include RowLocations.
      *
+     * @param max_build_parallelism The maximum number of threads that may
+     *                              be used to build the in memory hash
+     *                              table. The scan itself is always run by
+     *                              the calling thread.
+     *
      * @see BackingStoreHashtable
      * @see TransactionController#openScan
      *
@@ -973,7 +990,8 @@ public interface TransactionController
     boolean                 collect_runtimestats,
     boolean		            skipNullKeyColumns,
     boolean                 keepAfterCommit,
-    boolean                 includeRowLocations)
+    boolean                 includeRowLocations,
+    int                     max_build_parallelism)
         throws StandardException;
 
 
@@ -1542,6 +1560,16 @@ public interface TransactionController
      */
     public void setNoLockWait(boolean noWait);
 
+    /**
+     * Tell this transaction whether commit should return without waiting
+     * for the log to be synced to disk.
+     *
+     * @param async if {@code true} do not wait for the log to be synced
+     * when committing
+     * @see org.apache.derby.iapi.store.raw.Transaction#setAsyncCommit(boolean)
+     */
+    public void setAsyncCommit(boolean async);
+
     /**
      * Return static information about the conglomerate to be included in a
      * a compiled plan.
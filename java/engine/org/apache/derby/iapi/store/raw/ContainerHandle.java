@@ -145,6 +145,7 @@ public interface ContainerHandle
     public static final int MODE_SECONDARY_LOCKED      = 0x00002000; // external access
     public static final int MODE_BASEROW_INSERT_LOCKED = 0x00004000; // external access
     public static final int MODE_LOCK_ROW_NOWAIT       = 0x00008000;
+    public static final int MODE_SKIP_UNCOMMITTED_INSERTS = 0x00010000; // external access
 
 	public static final int TEMPORARY_SEGMENT = -1;
 
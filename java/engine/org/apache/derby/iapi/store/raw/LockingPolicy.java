@@ -133,6 +133,35 @@ public interface LockingPolicy {
     boolean         forUpdate)
 		throws StandardException;
 
+	/**
+		Tell whether read-only scans using this policy may skip records
+		inserted by transactions that have not committed yet, see
+		skipUncommittedInsert(). Lets callers avoid the work of finding the
+		record to check when it would not be skipped anyway.
+	*/
+	public boolean skipsUncommittedInserts();
+
+	/**
+		Called by a read-only scan before it locks a record, to find out if
+		the record was inserted by another transaction that has not committed
+		yet, and if the scan may skip it instead of waiting for its lock.
+
+		Such a record is not part of the committed state of the container.
+		Only policies for isolation levels that allow phantoms may let scans
+		skip it, and only if derby.locks.skipUncommittedInserts is set.
+
+        @param t            Transaction the scan belongs to.
+        @param record       Record the scan is about to lock.
+
+		@return true if the scan should skip the record.
+
+		@exception StandardException	Standard Derby error policy
+	*/
+	public boolean skipUncommittedInsert(
+    Transaction     t, 
+    RecordHandle    record)
+		throws StandardException;
+
 	/**
         Request a write lock which will be released immediately upon grant.
 
@@ -261,6 +261,23 @@ public interface Page
     int                 overflowThreshold) 
         throws StandardException;
 
+    /**
+     * Is less than the given percentage of the page in use?
+     * <p>
+     * Used by loads of sorted rows that leave free space on every page for
+     * later inserts. A true return doesn't mean that the next row fits on
+     * the page, the insert may still return null.
+     *
+     * <BR>
+     * MT - latched
+     *
+	 * @return true if less than fillFactor percent of the page is used.
+     *
+     * @param fillFactor    The percentage of the page to fill, 100 means
+     *                      fill the page completely.
+     **/
+	boolean spaceForLoad(int fillFactor);
+
     /**
      * Insert a record anywhere on the page.
      * <P>
@@ -149,6 +149,15 @@ public interface RawStoreFactory extends Corruptable {
     */
     public static final int PAGE_CACHE_SIZE_MAXIMUM = Integer.MAX_VALUE;
 
+    /** Property name for the replacement policy used by the page cache.
+        Equal to 'derby.storage.pageReplacementPolicy'. Valid values are
+        "CLOCK" (the default) and "2Q". 2Q keeps pages that are only read
+        once, for instance by a large table scan, from evicting pages that
+        are used frequently, such as the upper levels of B-tree indexes.
+    */
+    public static final String PAGE_REPLACEMENT_POLICY_PARAMETER =
+        "derby.storage.pageReplacementPolicy";
+
 
     /** Property name for the number of open files to maintain associated with
         the page cache.  Internally this is referred to as the "ContainerCache".
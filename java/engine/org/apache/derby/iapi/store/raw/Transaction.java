@@ -74,6 +74,19 @@ public interface Transaction {
      */
     void setNoLockWait(boolean noWait);
 
+    /**
+     * Tell this transaction whether commit should return as soon as the
+     * commit log record has been written to the log buffer, instead of
+     * waiting for the log to be synced to disk. A background thread syncs
+     * the log within derby.storage.logAsyncCommitDelay milliseconds, so a
+     * system crash may lose the most recently committed transactions, but
+     * it never leaves the database inconsistent.
+     *
+     * @param async if {@code true} do not wait for the log to be synced
+     * when committing
+     */
+    void setAsyncCommit(boolean async);
+
 	/**
 		Called after the transaction has been attached to an Access Manger
 		TransactionController. Thus may not be called for all transactions.
@@ -132,6 +132,17 @@ public interface LogFactory extends Corruptable {
 	*/
 	public void flush(LogInstant where) throws StandardException;
 
+	/**
+		Make sure all unwritten log records up to the log instance indicated
+		are flushed to disk within the configured asynchronous commit delay,
+		without waiting for the flush.
+
+		@param where flush log up to here
+
+		@exception StandardException the log is corrupt
+	*/
+	public void flushLazily(LogInstant where) throws StandardException;
+
 
 	/**
 		Get a LogScan to scan flushed records from the log.
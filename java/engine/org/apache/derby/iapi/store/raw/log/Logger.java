@@ -95,6 +95,16 @@ public interface Logger {
 	*/
 	public void flush(LogInstant where) throws StandardException;
 
+	/**
+		Make sure all unwritten log records up to the log instance indicated
+		get to disk soon, without waiting for it to happen.
+
+		@param where flush log up to here
+
+		@exception StandardException the log is corrupt
+	*/
+	public void flushLazily(LogInstant where) throws StandardException;
+
 
 	/**
 		Flush all unwritten log to disk
@@ -0,0 +1,86 @@
+/*
+
+   Derby - Class org.apache.derby.iapi.util.ParallelWorkers
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.iapi.util;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * The fork/join pool that runs the tasks of operations that are split
+ * between several threads, such as parallel hash table builds and sorts.
+ * <p>
+ * Derby does not use the common fork/join pool for this. Its threads are
+ * shared with the application, and when a security manager is installed
+ * they run without any permissions. The threads of this pool are created
+ * with the permissions of Derby's code, rather than those of the thread
+ * that happens to start them. They are daemon threads, and idle threads
+ * end on their own after a while.
+ * </p>
+ */
+public final class ParallelWorkers
+{
+    /** The pool, created when first needed. */
+    private static ForkJoinPool pool;
+
+    private ParallelWorkers() {}
+
+    /**
+     * Get the fork/join pool for parallel operations. Its parallelism is
+     * the number of available processors.
+     *
+     * @return the pool
+     */
+    public static synchronized ForkJoinPool getPool()
+    {
+        if (pool == null)
+        {
+            final ForkJoinPool.ForkJoinWorkerThreadFactory factory =
+                new ForkJoinPool.ForkJoinWorkerThreadFactory()
+                {
+                    public ForkJoinWorkerThread newThread(
+                        final ForkJoinPool forPool)
+                    {
+                        return AccessController.doPrivileged(
+                            new PrivilegedAction<ForkJoinWorkerThread>()
+                            {
+                                public ForkJoinWorkerThread run()
+                                {
+                                    ForkJoinWorkerThread t =
+                                        new ForkJoinWorkerThread(forPool) {};
+                                    t.setName( "derby.parallel-" +
+                                               t.getPoolIndex() );
+                                    t.setDaemon( true );
+                                    return t;
+                                }
+                            });
+                    }
+                };
+
+            pool = new ForkJoinPool(
+                Runtime.getRuntime().availableProcessors(),
+                factory, null, false );
+        }
+        return pool;
+    }
+}
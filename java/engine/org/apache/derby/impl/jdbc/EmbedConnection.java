@@ -631,6 +631,12 @@ public class EmbedConnection implements EngineConnection
                 throw se;
             }
 
+            // Let the transactions of this connection commit without
+            // waiting for the log to be synced, if requested.
+            if (isTrue(info, Attribute.ASYNC_COMMIT)) {
+                privilegedGetLCC().getTransactionExecute().setAsyncCommit(true);
+            }
+
 			// Raise a warning in sqlAuthorization mode if authentication is not ON
 			if (usingNoneAuth && privilegedGetLCC().usesSqlAuthorization())
 				addWarning(SQLWarningFactory.newSQLWarning(SQLState.SQL_AUTHORIZATION_WITH_NO_AUTHENTICATION));
@@ -36,12 +36,15 @@ import org.apache.derby.iapi.types.RawToBinaryFormatStream;
 import org.apache.derby.iapi.types.ReaderToUTF8Stream;
 
 import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.shared.common.error.ExceptionSeverity;
 
 import org.apache.derby.shared.common.reference.SQLState;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Vector;
 
 /*
@@ -95,6 +98,10 @@ public class EmbedPreparedStatement extends EmbedStatement
 
 	protected PreparedStatement	preparedStatement;
 	private Activation			activation;
+
+	// Number of batch elements to execute one at a time, because executing
+	// them together failed, see executeBatchElements()
+	private int singleBatchElements;
     /**
      * Tells which header format to use when writing CLOBs into the store.
      * <p>
@@ -1052,6 +1059,72 @@ public class EmbedPreparedStatement extends EmbedStatement
   	  }
     }
 
+	/**
+	 * Execute one or more elements of the batch. The parameter values of
+	 * the following elements are given to the activation, so that an
+	 * INSERT of a single row can insert the rows of the whole batch in one
+	 * execution, see InsertResultSet. Other statements ignore them, and
+	 * execute one element.
+	 * <p>
+	 * If an execution that has inserted the rows of several elements fails
+	 * with an error that rolls back the statement, the rows of the
+	 * elements before the failing one are gone too. Those elements are
+	 * executed again one at a time, so that the batch ends as it would
+	 * have without executing the elements together.
+	 */
+	int executeBatchElements(Vector<Object> batch, int first,
+							 long[] updateCounts)
+		throws SQLException, StandardException {
+
+		if (first == 0)
+			singleBatchElements = 0;
+
+		if (singleBatchElements > 0 || first == batch.size() - 1) {
+			if (singleBatchElements > 0)
+				singleBatchElements--;
+			return super.executeBatchElements(batch, first, updateCounts);
+		}
+
+		@SuppressWarnings("unchecked")
+		List<ParameterValueSet> following = (List<ParameterValueSet>)
+			(List<?>) batch.subList(first + 1, batch.size());
+
+		boolean returnsResultSet;
+		int used;
+		activation.setBatchParameters(following);
+		try {
+			returnsResultSet = executeBatchElement(batch.get(first));
+			used = activation.getBatchParametersUsed();
+		} catch (SQLException sqle) {
+			used = activation.getBatchParametersUsed();
+			if (used > 0 &&
+					sqle.getErrorCode() < ExceptionSeverity.TRANSACTION_SEVERITY) {
+				singleBatchElements = used;
+				return super.executeBatchElements(batch, first, updateCounts);
+			}
+			throw sqle;
+		} finally {
+			activation.setBatchParameters(null);
+		}
+
+		if (returnsResultSet)
+			throw newSQLException(SQLState.RESULTSET_RETURN_NOT_ALLOWED);
+
+		if (used == 0) {
+			updateCounts[first] = getLargeUpdateCount();
+		} else {
+			if (SanityManager.DEBUG) {
+				SanityManager.ASSERT(getLargeUpdateCount() == used + 1,
+					"Expected one row per batch element, got " +
+					getLargeUpdateCount() + " rows for " + (used + 1) +
+					" elements");
+			}
+			// Each element inserted a single row.
+			Arrays.fill(updateCounts, first, first + used + 1, 1L);
+		}
+		return used + 1;
+	}
+
 	boolean executeBatchElement(Object batchElement) throws SQLException, StandardException {
 		
 		ParameterValueSet temp = (ParameterValueSet) batchElement;
@@ -1967,4 +2040,9 @@ public class EmbedPreparedStatement extends EmbedStatement
     public final long getVersionCounter() throws SQLException {
         return preparedStatement.getVersionCounter();
     }
+
+    public final long[] executeLargeBatchNonAtomic(SQLException[] errors)
+            throws SQLException {
+        return executeLargeBatch(errors);
+    }
 }
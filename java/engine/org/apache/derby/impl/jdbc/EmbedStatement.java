@@ -21,6 +21,7 @@
 
 package org.apache.derby.impl.jdbc;
 
+import org.apache.derby.shared.common.error.ExceptionSeverity;
 import org.apache.derby.shared.common.reference.SQLState;
 
 import org.apache.derby.shared.common.sanity.SanityManager;
@@ -1053,6 +1054,17 @@ public class EmbedStatement extends ConnectionChild
      * statements which may touch more than Integer.MAX_VALUE rows.
      */
     public long[] executeLargeBatch() throws SQLException {
+		return executeLargeBatch(null);
+	}
+
+	/**
+	 * Execute the batch. If errors is null, stop at the first element that
+	 * fails and throw a BatchUpdateException. Otherwise, store the
+	 * exception of a failing element in errors and go on with the next
+	 * element, unless the error closed the connection.
+	 */
+	final long[] executeLargeBatch(SQLException[] errors)
+		throws SQLException {
 		checkExecStatus();
 		synchronized (getConnectionSynchronization()) 
 		{
@@ -1077,16 +1089,32 @@ public class EmbedStatement extends ConnectionChild
 
 			SQLException sqle;
 			try {
-				for (; i< size; i++) 
+				while (i < size)
 				{
                     // If we saw an interrupt, stop execution of batch now.
                     // throwIf will likely only throw after at least one stm
                     // has been executed, since first time around we probably
                     // didn't do anything to notice interrupts yet.
                     InterruptStatus.throwIf(lcc);
-					if (executeBatchElement(stmts.get(i)))
-						throw newSQLException(SQLState.RESULTSET_RETURN_NOT_ALLOWED);
-					returnUpdateCountForBatch[ i ] = getLargeUpdateCount();
+					SQLException failure;
+					try {
+						i += executeBatchElements(stmts, i,
+												  returnUpdateCountForBatch);
+						continue;
+					} catch (StandardException se) {
+						if (errors == null)
+							throw se;
+						failure = handleException(se);
+					} catch (SQLException e) {
+						if (errors == null)
+							throw e;
+						failure = e;
+					}
+					if (failure.getErrorCode() >=
+							ExceptionSeverity.SESSION_SEVERITY)
+						throw failure;
+					errors[i] = failure;
+					returnUpdateCountForBatch[i++] = Statement.EXECUTE_FAILED;
 				}
 
                 InterruptStatus.restoreIntrFlagIfSeen(lcc);
@@ -1116,6 +1144,22 @@ public class EmbedStatement extends ConnectionChild
         }
 	}
 
+	/**
+		Execute one or more elements of the batch, starting with the element
+		at position first, and store their update counts. Overridden by
+		EmbedPreparedStatement, which may execute several elements at once.
+
+		@return the number of elements executed
+	*/
+	int executeBatchElements(Vector<Object> batch, int first,
+							 long[] updateCounts)
+		throws SQLException, StandardException {
+		if (executeBatchElement(batch.get(first)))
+			throw newSQLException(SQLState.RESULTSET_RETURN_NOT_ALLOWED);
+		updateCounts[first] = getLargeUpdateCount();
+		return 1;
+	}
+
 	/**
 		Execute a single element of the batch. Overridden by EmbedPreparedStatement
 	*/
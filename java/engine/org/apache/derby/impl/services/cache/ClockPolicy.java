@@ -67,8 +67,17 @@ import org.apache.derby.shared.common.sanity.SanityManager;
  * clock structure or on a <code>Holder</code> object. The threads are however
  * allowed to obtain synchronization locks on the clock structure or on a
  * holder while they are locking one or more <code>CacheEntry</code> objects.
+ *
+ * <p>
+ *
+ * Subclasses may refine the algorithm through the hook methods
+ * {@code admitted()}, {@code accessed()}, {@code canEvict()},
+ * {@code evicted()} and {@code freed()}. The hooks are called while the
+ * current thread has locked the <code>CacheEntry</code> involved, and they
+ * must not obtain synchronization locks on the clock structure or on a
+ * holder.
  */
-final class ClockPolicy implements ReplacementPolicy {
+class ClockPolicy implements ReplacementPolicy {
 
     /**
      * The minimum number of items to check before we decide to give up
@@ -88,6 +97,9 @@ final class ClockPolicy implements ReplacementPolicy {
      */
     private static final float PART_OF_CLOCK_FOR_SHRINK = 0.1f;
 
+    /** The name of this replacement policy. */
+    static final String NAME = "CLOCK";
+
     /** The cache manager for which this replacement policy is used. */
     private final ConcurrentCache cacheManager;
 
@@ -95,7 +107,7 @@ final class ClockPolicy implements ReplacementPolicy {
      * The maximum size of the cache. When this size is exceeded, entries must
      * be evicted before new ones are inserted.
      */
-    private final int maxSize;
+    final int maxSize;
 
     /**
      * The circular clock buffer which holds all the entries in the
@@ -141,16 +153,34 @@ final class ClockPolicy implements ReplacementPolicy {
         }
     }
 
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int protectedSize() {
+        return 0;
+    }
+
+    @Override
+    public long getPromotionCount() {
+        return 0;
+    }
+
     /**
      * Insert an entry into the cache. If the maximum size is exceeded, evict a
      * <em>not recently used</em> object from the cache. If there are no
      * entries available for reuse, increase the size of the cache.
      *
+     * @param key the identity of the object being inserted
      * @param entry the entry to insert (must be locked)
      * @exception StandardException if an error occurs when inserting the entry
      */
-    public void insertEntry(CacheEntry entry) throws StandardException {
+    public void insertEntry(Object key, CacheEntry entry)
+            throws StandardException {
 
+        Holder h = null;
         final int size;
         synchronized (clock) {
             size = clock.size();
@@ -158,36 +188,108 @@ final class ClockPolicy implements ReplacementPolicy {
                 if (freeEntries.get() == 0) {
                     // We have not reached the maximum size yet, and there's no
                     // free entry to reuse. Make room by growing.
-                    clock.add(new Holder(entry));
-                    return;
+                    h = new Holder(entry);
+                    clock.add(h);
                 }
             }
         }
 
-        if (size > maxSize) {
-            // Maximum size is exceeded. Shrink the clock in the background
-            // cleaner, if we have one; otherwise, shrink it in the current
-            // thread.
-            BackgroundCleaner cleaner = cacheManager.getBackgroundCleaner();
-            if (cleaner != null) {
-                cleaner.scheduleShrink();
-            } else {
-                doShrink();
+        if (h == null) {
+            if (size > maxSize) {
+                // Maximum size is exceeded. Shrink the clock in the background
+                // cleaner, if we have one; otherwise, shrink it in the current
+                // thread.
+                BackgroundCleaner cleaner = cacheManager.getBackgroundCleaner();
+                if (cleaner != null) {
+                    cleaner.scheduleShrink();
+                } else {
+                    doShrink();
+                }
+            }
+
+            // Rotate the clock hand (look at up to 20% of the cache) and try
+            // to find free space for the entry. Only allow evictions if the
+            // cache has reached its maximum size. Otherwise, we only look for
+            // invalid entries and rather grow the cache than evict valid
+            // entries.
+            h = rotateClock(entry, size >= maxSize);
+
+            if (h == null) {
+                // didn't find a victim, so we need to grow
+                h = new Holder(entry);
+                synchronized (clock) {
+                    clock.add(h);
+                }
             }
         }
 
-        // Rotate the clock hand (look at up to 20% of the cache) and try to
-        // find free space for the entry. Only allow evictions if the cache
-        // has reached its maximum size. Otherwise, we only look for invalid
-        // entries and rather grow the cache than evict valid entries.
-        Holder h = rotateClock(entry, size >= maxSize);
+        admitted(h, key);
+    }
 
-        if (h == null) {
-            // didn't find a victim, so we need to grow
-            synchronized (clock) {
-                clock.add(new Holder(entry));
+    /**
+     * Called when a holder has been associated with the entry for a new
+     * object. The caller has locked the entry, and the holder's
+     * <code>recentlyUsed</code> flag is not set.
+     *
+     * @param h the holder that holds the new entry
+     * @param key the identity of the new object
+     */
+    void admitted(Holder h, Object key) {
+        // The plain clock algorithm treats all entries alike.
+    }
+
+    /**
+     * Called when the entry held by a holder is accessed. The caller has
+     * locked the entry.
+     *
+     * @param h the holder of the accessed entry
+     */
+    void accessed(Holder h) {
+        h.recentlyUsed = true;
+    }
+
+    /**
+     * Check if the replacement algorithm allows the eviction of an entry
+     * that is present in the cache and not kept. The caller has locked the
+     * entry.
+     *
+     * @param h the holder of the entry
+     * @param clearRecentlyUsedFlag tells whether or not the recently used flag
+     * should be cleared on the entry ({@code true} only when called as part of
+     * a normal clock rotation)
+     * @return {@code true} if the entry may be evicted
+     */
+    boolean canEvict(Holder h, boolean clearRecentlyUsedFlag) {
+        if (h.recentlyUsed) {
+            // The object has been used recently, so it cannot be evicted.
+            if (clearRecentlyUsedFlag) {
+                h.recentlyUsed = false;
             }
+            return false;
         }
+        return true;
+    }
+
+    /**
+     * Called when the entry held by a holder has been evicted from the
+     * cache. The caller has locked the evicted entry.
+     *
+     * @param h the holder of the evicted entry
+     * @param key the identity of the evicted object
+     */
+    void evicted(Holder h, Object key) {
+        // Nothing to do for the plain clock algorithm.
+    }
+
+    /**
+     * Called when the object held by a holder has been removed from the
+     * cache, and the holder is free to be reused. The caller has locked the
+     * removed entry.
+     *
+     * @param h the freed holder
+     */
+    void freed(Holder h) {
+        // Nothing to do for the plain clock algorithm.
     }
 
     /**
@@ -197,7 +299,7 @@ final class ClockPolicy implements ReplacementPolicy {
      * <code>ConcurrentCache</code> can notify the clock policy about events
      * relevant to the clock algorithm.
      */
-    private class Holder implements Callback {
+    class Holder implements Callback {
         /**
          * Flag indicating whether or not this entry has been accessed
          * recently. Should only be accessed/modified when the current thread
@@ -206,6 +308,13 @@ final class ClockPolicy implements ReplacementPolicy {
          */
         boolean recentlyUsed;
 
+        /**
+         * Flag that subclasses can use to tell that the entry is in the
+         * protected part of the cache. Same access rules as for
+         * <code>recentlyUsed</code>.
+         */
+        boolean hot;
+
         /**
          * Reference to the <code>CacheEntry</code> object held by this
          * object. The reference should only be accessed when the thread owns
@@ -242,7 +351,7 @@ final class ClockPolicy implements ReplacementPolicy {
          * <code>entry</code>.
          */
         public void access() {
-            recentlyUsed = true;
+            accessed(this);
         }
 
         /**
@@ -253,6 +362,7 @@ final class ClockPolicy implements ReplacementPolicy {
             freedCacheable = entry.getCacheable();
             entry = null;
             recentlyUsed = false;
+            freed(this);
             // let others know that a free entry is available
             int free = freeEntries.incrementAndGet();
             if (SanityManager.DEBUG) {
@@ -451,8 +561,10 @@ final class ClockPolicy implements ReplacementPolicy {
                 Cacheable c = e.getCacheable();
                 if (!c.isDirty()) {
                     // Not in use and not dirty. Take over the holder.
+                    Object evictedKey = c.getIdentity();
                     h.switchEntry(entry);
-                    cacheManager.evictEntry(c.getIdentity());
+                    cacheManager.evictEntry(evictedKey);
+                    evicted(h, evictedKey);
                     return h;
                 }
 
@@ -535,15 +647,7 @@ final class ClockPolicy implements ReplacementPolicy {
             SanityManager.ASSERT(!h.isEvicted(), "Holder is evicted");
         }
 
-        if (h.recentlyUsed) {
-            // The object has been used recently, so it cannot be evicted.
-            if (clearRecentlyUsedFlag) {
-                h.recentlyUsed = false;
-            }
-            return false;
-        }
-
-        return true;
+        return canEvict(h, clearRecentlyUsedFlag);
     }
 
     /**
@@ -662,7 +766,9 @@ final class ClockPolicy implements ReplacementPolicy {
                 h.setEvicted();
 
                 // remove from cache manager
-                cacheManager.evictEntry(c.getIdentity());
+                Object evictedKey = c.getIdentity();
+                cacheManager.evictEntry(evictedKey);
+                evicted(h, evictedKey);
 
                 // remove from clock
                 removeHolder(index, h);
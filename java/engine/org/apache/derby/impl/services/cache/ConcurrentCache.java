@@ -68,6 +68,12 @@ final class ConcurrentCache implements CacheManager {
     private final int maxSize;
     /** Replacement policy to be used for this cache. */
     private final ReplacementPolicy replacementPolicy;
+    /**
+     * The cache manager that is passed to the {@code CacheableFactory} when
+     * new {@code Cacheable}s are created. This is the cache itself, unless
+     * it is a partition of a {@code PartitionedCache}.
+     */
+    private final CacheManager owner;
 
     // Fields used by the MBean that monitors this instance.
 
@@ -107,11 +113,35 @@ final class ConcurrentCache implements CacheManager {
      */
     ConcurrentCache(CacheableFactory holderFactory, String name,
                     int initialSize, int maxSize) {
+        this(holderFactory, name, initialSize, maxSize, null, null);
+    }
+
+    /**
+     * Creates a new cache manager that may be a partition of another cache
+     * manager.
+     *
+     * @param holderFactory factory which creates <code>Cacheable</code>s
+     * @param name the name of the cache
+     * @param initialSize the initial capacity of the cache
+     * @param maxSize maximum number of elements in the cache
+     * @param policy the name of the replacement policy to use, or
+     * {@code null} to use the default clock policy
+     * @param owner the cache manager that this cache is a partition of, or
+     * {@code null} if it is not a partition
+     */
+    ConcurrentCache(CacheableFactory holderFactory, String name,
+                    int initialSize, int maxSize, String policy,
+                    CacheManager owner) {
         cache = new ConcurrentHashMap<Object, CacheEntry>(initialSize);
-        replacementPolicy = new ClockPolicy(this, initialSize, maxSize);
+        if (TwoQueuePolicy.NAME.equalsIgnoreCase(policy)) {
+            replacementPolicy = new TwoQueuePolicy(this, initialSize, maxSize);
+        } else {
+            replacementPolicy = new ClockPolicy(this, initialSize, maxSize);
+        }
         this.holderFactory = holderFactory;
         this.name = name;
         this.maxSize = maxSize;
+        this.owner = (owner == null) ? this : owner;
     }
 
     /**
@@ -226,7 +256,7 @@ final class ConcurrentCache implements CacheManager {
             throws StandardException {
 
         try {
-            replacementPolicy.insertEntry(entry);
+            replacementPolicy.insertEntry(key, entry);
         } catch (StandardException se) {
             // Failed to insert the entry into the replacement policy. Make
             // sure that it's also removed from the hash table.
@@ -238,7 +268,7 @@ final class ConcurrentCache implements CacheManager {
 
         if (free == null) {
             // We didn't get a reusable cacheable. Create a new one.
-            free = holderFactory.newCacheable(this);
+            free = holderFactory.newCacheable(owner);
         }
 
         entry.keep(true);
@@ -801,6 +831,21 @@ final class ConcurrentCache implements CacheManager {
     long getUsedEntries() {
         return cache.size();
     }
+
+    /** Get the name of the replacement policy. */
+    String getReplacementPolicyName() {
+        return replacementPolicy.getName();
+    }
+
+    /** Get the number of entries protected by the replacement policy. */
+    long getProtectedEntries() {
+        return replacementPolicy.protectedSize();
+    }
+
+    /** Get the number of promotions into the protected entries. */
+    long getPromotionCount() {
+        return replacementPolicy.getPromotionCount();
+    }
     
     /**
      * Privileged module lookup. Must be private so that user code
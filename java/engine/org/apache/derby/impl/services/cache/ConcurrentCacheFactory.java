@@ -21,28 +21,97 @@
 
 package org.apache.derby.impl.services.cache;
 
+import org.apache.derby.iapi.reference.Property;
 import org.apache.derby.iapi.services.cache.CacheFactory;
 import org.apache.derby.iapi.services.cache.CacheManager;
 import org.apache.derby.iapi.services.cache.CacheableFactory;
+import org.apache.derby.iapi.services.property.PropertyUtil;
 
 /**
  * Factory class which creates cache manager instances based on the
- * <code>ConcurrentCache</code> implementation.
+ * <code>ConcurrentCache</code> implementation. If the
+ * <code>derby.system.cachePartitions</code> property asks for more than one
+ * partition, caches that are large enough are split into a
+ * <code>PartitionedCache</code>.
  */
 public class ConcurrentCacheFactory implements CacheFactory {
+
+    /**
+     * The smallest number of entries a partition is allowed to hold. Caches
+     * that are smaller than this times the requested number of partitions
+     * get fewer partitions.
+     */
+    static final int MIN_PARTITION_SIZE = 64;
+
     /**
-     * Create a new <code>ConcurrentCache</code> instance.
+     * Create a new <code>ConcurrentCache</code> instance, or a
+     * <code>PartitionedCache</code> if partitioning is enabled.
      *
      * @param holderFactory factory which creates <code>Cacheable</code>s
      * @param name name of the cache
      * @param initialSize initial capacity of the cache (number of objects)
      * @param maximumSize maximum size of the cache (number of objects)
-     * @return a <code>ConcurrentCache</code> instance
+     * @return a <code>ConcurrentCache</code> or
+     * <code>PartitionedCache</code> instance
      */
     public CacheManager newCacheManager(CacheableFactory holderFactory,
                                         String name,
                                         int initialSize, int maximumSize) {
+        return newCacheManager(holderFactory, name,
+                               initialSize, maximumSize, null);
+    }
+
+    /**
+     * Create a new <code>ConcurrentCache</code> or
+     * <code>PartitionedCache</code> instance that uses the named
+     * replacement policy.
+     *
+     * @param holderFactory factory which creates <code>Cacheable</code>s
+     * @param name name of the cache
+     * @param initialSize initial capacity of the cache (number of objects)
+     * @param maximumSize maximum size of the cache (number of objects)
+     * @param replacementPolicy "CLOCK" or "2Q", or <code>null</code> for
+     * the default (CLOCK)
+     * @return a <code>ConcurrentCache</code> or
+     * <code>PartitionedCache</code> instance
+     */
+    public CacheManager newCacheManager(CacheableFactory holderFactory,
+                                        String name,
+                                        int initialSize, int maximumSize,
+                                        String replacementPolicy) {
+        int partitions = getPartitionCount(maximumSize);
+        if (partitions > 1) {
+            return new PartitionedCache(holderFactory, name,
+                                        initialSize, maximumSize,
+                                        replacementPolicy, partitions);
+        }
         return new ConcurrentCache(holderFactory, name,
-                                   initialSize, maximumSize);
+                                   initialSize, maximumSize,
+                                   replacementPolicy, null);
+    }
+
+    /**
+     * Find the number of partitions to use for a cache of the given size.
+     * The number is the value of <code>derby.system.cachePartitions</code>
+     * (or the number of available processors if the value is 0), rounded
+     * down to a power of two and reduced until each partition can hold at
+     * least {@link #MIN_PARTITION_SIZE} entries.
+     *
+     * @param maximumSize maximum size of the cache (number of objects)
+     * @return the number of partitions, 1 if the cache should not be
+     * partitioned
+     */
+    static int getPartitionCount(int maximumSize) {
+        int partitions = PropertyUtil.getSystemInt(
+                Property.CACHE_PARTITIONS, 0, 1024, 1);
+        if (partitions == 0) {
+            partitions = Runtime.getRuntime().availableProcessors();
+        }
+        partitions = Integer.highestOneBit(partitions);
+        while (partitions > 1 &&
+                maximumSize / partitions < MIN_PARTITION_SIZE) {
+            partitions >>= 1;
+        }
+        return partitions;
     }
 }
@@ -32,58 +32,150 @@ import org.apache.derby.security.SystemPermission;
  */
 final class ConcurrentCacheMBeanImpl implements CacheManagerMBean {
 
-    private final ConcurrentCache cache;
-
-    ConcurrentCacheMBeanImpl(ConcurrentCache cache) {
-        this.cache = cache;
+    /**
+     * The partitions of the monitored cache. A cache that is not
+     * partitioned is its own single partition.
+     */
+    private final ConcurrentCache[] partitions;
+
+    ConcurrentCacheMBeanImpl(ConcurrentCache... partitions) {
+        this.partitions = partitions;
     }
 
     @Override
     public void setCollectAccessCounts(boolean collect) {
         checkPermission();
-        cache.setCollectAccessCounts(collect);
+        for (ConcurrentCache cache : partitions) {
+            cache.setCollectAccessCounts(collect);
+        }
     }
 
     @Override
     public boolean getCollectAccessCounts() {
         checkPermission();
-        return cache.getCollectAccessCounts();
+        return partitions[0].getCollectAccessCounts();
     }
 
     @Override
     public long getHitCount() {
         checkPermission();
-        return cache.getHitCount();
+        long hits = 0;
+        for (ConcurrentCache cache : partitions) {
+            hits += cache.getHitCount();
+        }
+        return hits;
     }
 
     @Override
     public long getMissCount() {
         checkPermission();
-        return cache.getMissCount();
+        long misses = 0;
+        for (ConcurrentCache cache : partitions) {
+            misses += cache.getMissCount();
+        }
+        return misses;
     }
 
     @Override
     public long getEvictionCount() {
         checkPermission();
-        return cache.getEvictionCount();
+        long evictions = 0;
+        for (ConcurrentCache cache : partitions) {
+            evictions += cache.getEvictionCount();
+        }
+        return evictions;
     }
 
     @Override
     public long getMaxEntries() {
         checkPermission();
-        return cache.getMaxEntries();
+        long max = 0;
+        for (ConcurrentCache cache : partitions) {
+            max += cache.getMaxEntries();
+        }
+        return max;
     }
 
     @Override
     public long getAllocatedEntries() {
         checkPermission();
-        return cache.getAllocatedEntries();
+        long allocated = 0;
+        for (ConcurrentCache cache : partitions) {
+            allocated += cache.getAllocatedEntries();
+        }
+        return allocated;
     }
 
     @Override
     public long getUsedEntries() {
         checkPermission();
-        return cache.getUsedEntries();
+        long used = 0;
+        for (ConcurrentCache cache : partitions) {
+            used += cache.getUsedEntries();
+        }
+        return used;
+    }
+
+    @Override
+    public int getPartitionCount() {
+        checkPermission();
+        return partitions.length;
+    }
+
+    @Override
+    public long[] getPartitionHitCounts() {
+        checkPermission();
+        long[] hits = new long[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            hits[i] = partitions[i].getHitCount();
+        }
+        return hits;
+    }
+
+    @Override
+    public long[] getPartitionMissCounts() {
+        checkPermission();
+        long[] misses = new long[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            misses[i] = partitions[i].getMissCount();
+        }
+        return misses;
+    }
+
+    @Override
+    public long[] getPartitionEvictionCounts() {
+        checkPermission();
+        long[] evictions = new long[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            evictions[i] = partitions[i].getEvictionCount();
+        }
+        return evictions;
+    }
+
+    @Override
+    public String getReplacementPolicy() {
+        checkPermission();
+        return partitions[0].getReplacementPolicyName();
+    }
+
+    @Override
+    public long getProtectedEntries() {
+        checkPermission();
+        long protectedEntries = 0;
+        for (ConcurrentCache cache : partitions) {
+            protectedEntries += cache.getProtectedEntries();
+        }
+        return protectedEntries;
+    }
+
+    @Override
+    public long getPromotionCount() {
+        checkPermission();
+        long promotions = 0;
+        for (ConcurrentCache cache : partitions) {
+            promotions += cache.getPromotionCount();
+        }
+        return promotions;
     }
 
     private static void checkPermission() {
@@ -0,0 +1,258 @@
+/*
+
+   Derby - Class org.apache.derby.impl.services.cache.PartitionedCache
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.services.cache;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.reference.Module;
+import org.apache.derby.iapi.services.cache.CacheManager;
+import org.apache.derby.iapi.services.cache.Cacheable;
+import org.apache.derby.iapi.services.cache.CacheableFactory;
+import org.apache.derby.iapi.services.daemon.DaemonService;
+import org.apache.derby.iapi.services.jmx.ManagementService;
+import org.apache.derby.iapi.services.monitor.Monitor;
+import org.apache.derby.shared.common.sanity.SanityManager;
+import org.apache.derby.iapi.util.Matchable;
+import org.apache.derby.mbeans.CacheManagerMBean;
+
+/**
+ * A cache manager that splits the cached objects into a number of
+ * partitions based on the hash code of their identity. Each partition is a
+ * <code>ConcurrentCache</code> with its own hash table, replacement policy
+ * and background cleaner, so threads that access objects in different
+ * partitions never touch the same clock.
+ *
+ * <p>
+ *
+ * The maximum size of the cache is divided evenly between the partitions.
+ * Since an object always maps to the same partition, an object is never
+ * present in more than one partition, and operations on a single object
+ * are simply forwarded to its partition. Operations on the whole cache
+ * visit all the partitions.
+ */
+final class PartitionedCache implements CacheManager {
+
+    /** The partitions of this cache. */
+    private final ConcurrentCache[] partitions;
+    /** Bit mask used to map a hash code to a partition. */
+    private final int mask;
+    /** Name of this cache. */
+    private final String name;
+
+    /** The identifier of the MBean that allows monitoring of this instance. */
+    private Object mbean;
+
+    /**
+     * Creates a new partitioned cache manager.
+     *
+     * @param holderFactory factory which creates <code>Cacheable</code>s
+     * @param name the name of the cache
+     * @param initialSize the initial capacity of the cache
+     * @param maxSize maximum number of elements in the cache
+     * @param policy the name of the replacement policy to use in each
+     * partition, or {@code null} to use the default clock policy
+     * @param partitionCount the number of partitions, must be a power of two
+     */
+    PartitionedCache(CacheableFactory holderFactory, String name,
+                     int initialSize, int maxSize, String policy,
+                     int partitionCount) {
+        if (SanityManager.DEBUG) {
+            SanityManager.ASSERT(
+                    partitionCount > 1 &&
+                    (partitionCount & (partitionCount - 1)) == 0,
+                    "partition count must be a power of two: " +
+                    partitionCount);
+        }
+        partitions = new ConcurrentCache[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            // Spread the remainder over the first partitions so that the
+            // total size matches the requested size.
+            int max = maxSize / partitionCount +
+                    (i < maxSize % partitionCount ? 1 : 0);
+            int initial = Math.min(max, initialSize / partitionCount);
+            partitions[i] = new ConcurrentCache(
+                    holderFactory, name, initial, max, policy, this);
+        }
+        mask = partitionCount - 1;
+        this.name = name;
+    }
+
+    /**
+     * Get the partition that holds the object with the specified identity.
+     *
+     * @param key the identity of the object
+     * @return the partition responsible for the object
+     */
+    private ConcurrentCache getPartition(Object key) {
+        int h = key.hashCode();
+        // Mix in the high bits, since many keys (for instance page keys)
+        // differ mostly in their high bits.
+        h ^= (h >>> 16);
+        return partitions[h & mask];
+    }
+
+    /** Get the partitions of this cache. */
+    ConcurrentCache[] getPartitions() {
+        return partitions;
+    }
+
+    // Implementation of the CacheManager interface
+
+    public Cacheable find(Object key) throws StandardException {
+        return getPartition(key).find(key);
+    }
+
+    public Cacheable findCached(Object key) throws StandardException {
+        return getPartition(key).findCached(key);
+    }
+
+    public Cacheable create(Object key, Object createParameter)
+            throws StandardException {
+        return getPartition(key).create(key, createParameter);
+    }
+
+    public void release(Cacheable item) {
+        getPartition(item.getIdentity()).release(item);
+    }
+
+    public void remove(Cacheable item) throws StandardException {
+        getPartition(item.getIdentity()).remove(item);
+    }
+
+    public void cleanAll() throws StandardException {
+        for (ConcurrentCache partition : partitions) {
+            partition.cleanAll();
+        }
+    }
+
+    public void clean(Matchable partialKey) throws StandardException {
+        for (ConcurrentCache partition : partitions) {
+            partition.clean(partialKey);
+        }
+    }
+
+    public void ageOut() {
+        for (ConcurrentCache partition : partitions) {
+            partition.ageOut();
+        }
+    }
+
+    /**
+     * Shut down all the partitions of the cache. All partitions are shut
+     * down even if one of them fails, and the first error is rethrown.
+     */
+    public void shutdown() throws StandardException {
+        StandardException error = null;
+        for (ConcurrentCache partition : partitions) {
+            try {
+                partition.shutdown();
+            } catch (StandardException se) {
+                if (error == null) {
+                    error = se;
+                }
+            }
+        }
+        deregisterMBean();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Specify a daemon service that can be used to perform operations in
+     * the background. Each partition gets a background cleaner of its own.
+     *
+     * @param daemon the daemon service to use
+     */
+    public void useDaemonService(DaemonService daemon) {
+        for (ConcurrentCache partition : partitions) {
+            partition.useDaemonService(daemon);
+        }
+    }
+
+    public boolean discard(Matchable partialKey) {
+        boolean allRemoved = true;
+        for (ConcurrentCache partition : partitions) {
+            allRemoved &= partition.discard(partialKey);
+        }
+        return allRemoved;
+    }
+
+    public Collection<Cacheable> values() {
+        ArrayList<Cacheable> values = new ArrayList<Cacheable>();
+        for (ConcurrentCache partition : partitions) {
+            values.addAll(partition.values());
+        }
+        return values;
+    }
+
+    @Override
+    public void registerMBean(String dbName) throws StandardException {
+        if (SanityManager.DEBUG) {
+            SanityManager.ASSERT(mbean == null, "registerMBean() called twice");
+        }
+
+        ManagementService managementService =
+                (ManagementService) getSystemModule(Module.JMX);
+
+        if (managementService != null) {
+            mbean = managementService.registerMBean(
+                    new ConcurrentCacheMBeanImpl(partitions),
+                    CacheManagerMBean.class,
+                    "type=CacheManager,name=" + name +
+                    ",db=" + managementService.quotePropertyValue(dbName));
+        }
+    }
+
+    @Override
+    public void deregisterMBean() {
+        if (mbean != null) {
+            ManagementService managementService =
+                (ManagementService) getSystemModule(Module.JMX);
+            if (managementService != null) {
+                managementService.unregisterMBean(mbean);
+            }
+            mbean = null;
+        }
+    }
+
+    /**
+     * Privileged module lookup. Must be private so that user code
+     * can't call this entry point.
+     */
+    private static  Object getSystemModule( final String factoryInterface )
+    {
+        return AccessController.doPrivileged
+            (
+             new PrivilegedAction<Object>()
+             {
+                 public Object run()
+                 {
+                     return Monitor.getSystemModule( factoryInterface );
+                 }
+             }
+             );
+    }
+}
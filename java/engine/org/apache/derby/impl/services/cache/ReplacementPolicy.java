@@ -41,13 +41,14 @@ interface ReplacementPolicy {
      * use to communicate back to the replacement policy events (for instance,
      * that it has been accessed or become invalid).
      *
+     * @param key the identity of the object that is being inserted
      * @param entry the entry to insert
      * @exception StandardException if an error occurs while inserting the
      * entry
      *
      * @see CacheEntry#setCallback(ReplacementPolicy.Callback)
      */
-    void insertEntry(CacheEntry entry) throws StandardException;
+    void insertEntry(Object key, CacheEntry entry) throws StandardException;
 
     /**
      * Try to shrink the cache if it has exceeded its maximum size. It is not
@@ -65,6 +66,31 @@ interface ReplacementPolicy {
      */
     int size();
 
+    /**
+     * Get the name of the replacement algorithm.
+     *
+     * @return the name of the algorithm
+     */
+    String getName();
+
+    /**
+     * Get the number of entries in the part of the cache that the algorithm
+     * protects from eviction by objects that have only been used once, for
+     * instance by a large table scan.
+     *
+     * @return the number of protected entries, 0 if the algorithm does not
+     * protect any entries
+     */
+    int protectedSize();
+
+    /**
+     * Get the number of objects that have been admitted into the protected
+     * part of the cache.
+     *
+     * @return the number of promotions
+     */
+    long getPromotionCount();
+
     /**
      * The interface for the callback objects that <code>ConcurrentCache</code>
      * uses to notify the replacement algorithm about events such as look-ups
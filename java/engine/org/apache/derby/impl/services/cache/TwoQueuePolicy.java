@@ -0,0 +1,178 @@
+/*
+
+   Derby - Class org.apache.derby.impl.services.cache.TwoQueuePolicy
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.services.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A scan resistant replacement policy modeled after the 2Q algorithm, built
+ * on top of the clock in {@code ClockPolicy}.
+ *
+ * <p>
+ *
+ * Entries are either <em>cold</em> or <em>hot</em>. A new object enters the
+ * cache as a cold entry. Accesses to cold entries are not recorded, so the
+ * clock hand evicts cold entries in the order it finds them, even if they
+ * were accessed several times in a row, as pages are during a table scan.
+ * The identities of evicted objects are remembered in a bounded
+ * <em>ghost queue</em>. An object that is brought back into the cache while
+ * its identity is still in the ghost queue has been reused within a
+ * reasonable time, and enters the cache as a hot entry.
+ *
+ * <p>
+ *
+ * As long as the hot entries don't take up more than three quarters of the
+ * cache, the clock hand passes over them without touching them, so a large
+ * scan only recycles the cold part of the cache. When there are too many
+ * hot entries, the clock hand treats them the way the plain clock algorithm
+ * does: recently used entries get a second chance, the others are evicted.
+ */
+final class TwoQueuePolicy extends ClockPolicy {
+
+    /** The name of this replacement policy. */
+    static final String NAME = "2Q";
+
+    /** How large part of the cache the hot entries may occupy. */
+    private static final float HOT_FRACTION = 0.75f;
+
+    /**
+     * How many identities of evicted objects to remember, relative to the
+     * size of the cache.
+     */
+    private static final float GHOST_FRACTION = 0.5f;
+
+    /** The maximum number of hot entries. */
+    private final int maxHot;
+
+    /** The number of hot entries currently in the cache. */
+    private final AtomicInteger hotEntries = new AtomicInteger();
+
+    /** The number of objects that have entered the cache as hot entries. */
+    private final AtomicLong promotions = new AtomicLong();
+
+    /**
+     * The identities of recently evicted objects, oldest first. Accesses
+     * must be synchronized on the map. No other synchronization locks may
+     * be obtained while holding the lock on the map.
+     */
+    private final Map<Object, Object> ghosts;
+
+    /**
+     * Create a new <code>TwoQueuePolicy</code> instance.
+     *
+     * @param cacheManager the cache manager that requests this policy
+     * @param initialSize the initial capacity of the cache
+     * @param maxSize the maximum size of the cache
+     */
+    TwoQueuePolicy(ConcurrentCache cacheManager, int initialSize, int maxSize) {
+        super(cacheManager, initialSize, maxSize);
+        maxHot = Math.max(1, (int) (maxSize * HOT_FRACTION));
+        final int maxGhosts = Math.max(1, (int) (maxSize * GHOST_FRACTION));
+        ghosts = new LinkedHashMap<Object, Object>() {
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> e) {
+                return size() > maxGhosts;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int protectedSize() {
+        return hotEntries.get();
+    }
+
+    @Override
+    public long getPromotionCount() {
+        return promotions.get();
+    }
+
+    /**
+     * Make the new entry hot if its object was evicted recently, and cold
+     * otherwise.
+     */
+    @Override
+    void admitted(Holder h, Object key) {
+        boolean reused;
+        synchronized (ghosts) {
+            reused = (ghosts.remove(key) != null);
+        }
+        h.hot = reused;
+        if (reused) {
+            hotEntries.incrementAndGet();
+            promotions.incrementAndGet();
+        }
+    }
+
+    /** Only record accesses to hot entries. */
+    @Override
+    void accessed(Holder h) {
+        if (h.hot) {
+            h.recentlyUsed = true;
+        }
+    }
+
+    /**
+     * Cold entries can always be evicted. Hot entries are left alone by
+     * the clock hand unless there are too many of them.
+     */
+    @Override
+    boolean canEvict(Holder h, boolean clearRecentlyUsedFlag) {
+        if (!h.hot) {
+            return true;
+        }
+        if (clearRecentlyUsedFlag && hotEntries.get() <= maxHot) {
+            return false;
+        }
+        return super.canEvict(h, clearRecentlyUsedFlag);
+    }
+
+    /** Remember the identity of the evicted object in the ghost queue. */
+    @Override
+    void evicted(Holder h, Object key) {
+        if (h.hot) {
+            h.hot = false;
+            hotEntries.decrementAndGet();
+        }
+        synchronized (ghosts) {
+            ghosts.put(key, key);
+        }
+    }
+
+    /**
+     * Objects that are removed from the cache are not expected to come
+     * back soon, so they are not remembered in the ghost queue.
+     */
+    @Override
+    void freed(Holder h) {
+        if (h.hot) {
+            h.hot = false;
+            hotEntries.decrementAndGet();
+        }
+    }
+}
@@ -31,14 +31,22 @@ import org.apache.derby.iapi.error.StandardException;
 
 import org.apache.derby.iapi.services.property.PropertyUtil;
 import org.apache.derby.iapi.services.daemon.Serviceable;
+import org.apache.derby.iapi.services.jmx.ManagementService;
+import org.apache.derby.iapi.services.monitor.ModuleControl;
+import org.apache.derby.iapi.services.monitor.Monitor;
 
 import org.apache.derby.shared.common.sanity.SanityManager;
 import org.apache.derby.iapi.util.Matchable;
+import org.apache.derby.iapi.reference.Module;
 import org.apache.derby.iapi.reference.Property;
+import org.apache.derby.mbeans.LockManagerMBean;
 
 import java.io.Serializable;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.Dictionary;
 import java.util.Enumeration;
+import java.util.Properties;
 import org.apache.derby.shared.common.reference.SQLState;
 import org.apache.derby.iapi.services.locks.LockOwner;
 
@@ -51,7 +59,7 @@ import org.apache.derby.iapi.services.locks.LockOwner;
  *
  * <BR> MT - Mutable - Container Object : Thread Aware
  */
-abstract class AbstractPool implements LockFactory
+abstract class AbstractPool implements LockFactory, ModuleControl
 {
 	/**
 		The complete set of locks in the system
@@ -66,6 +74,25 @@ abstract class AbstractPool implements LockFactory
 	*/
 	int deadlockMonitor;
 
+	/** The identifier of the MBean that reports the lock statistics. */
+	private Object mbean;
+
+	/**
+		True if readers may skip objects inserted by uncommitted transactions,
+		see derby.locks.skipUncommittedInserts.
+	*/
+	private volatile boolean skipUncommittedInserts;
+
+	/**
+		The number of locked objects above which transactions are asked to
+		escalate their locks, or 0 if there is no such limit, see
+		derby.locks.escalationGlobalThreshold.
+	*/
+	private volatile int escalationGlobalThreshold;
+
+	/** The background deadlock detector, or null if it isn't running. */
+	private DeadlockDetector deadlockDetector;
+
 	protected AbstractPool() {
 		lockTable = createLockTable();
 	}
@@ -143,7 +170,8 @@ abstract class AbstractPool implements LockFactory
 			}
 		}
 
-		((LockSpace) compatibilitySpace).addLock(group, lock);
+		((LockSpace) compatibilitySpace).addLock(
+			lockTable, group, lock, escalationGlobalThreshold);
 
 		return true;
 	}
@@ -323,6 +351,15 @@ abstract class AbstractPool implements LockFactory
 			group, ref, qualifier);
 	}
 
+	public boolean isLockHeldByOther(CompatibilitySpace compatibilitySpace,
+									 Lockable ref, Object qualifier) {
+		return lockTable.isLockHeldByOther(compatibilitySpace, ref, qualifier);
+	}
+
+	public boolean getSkipUncommittedInserts() {
+		return skipUncommittedInserts;
+	}
+
 	/**
 		Get the lock timeout in milliseconds. A negative number means that
         there is no timeout.
@@ -377,6 +414,83 @@ abstract class AbstractPool implements LockFactory
 	}
 //EXCLUDE-END-lockdiag- 
 
+	public void registerMBean(String dbName) throws StandardException {
+		if (SanityManager.DEBUG) {
+			SanityManager.ASSERT(mbean == null, "registerMBean() called twice");
+		}
+
+		ManagementService managementService =
+			(ManagementService) getSystemModule(Module.JMX);
+
+		if (managementService != null) {
+			mbean = managementService.registerMBean(
+					new LockManagerMBeanImpl(lockTable),
+					LockManagerMBean.class,
+					"type=LockManager,db=" +
+					managementService.quotePropertyValue(dbName));
+		}
+	}
+
+	public void deregisterMBean() {
+		if (mbean != null) {
+			ManagementService managementService =
+				(ManagementService) getSystemModule(Module.JMX);
+			if (managementService != null) {
+				managementService.unregisterMBean(mbean);
+			}
+			mbean = null;
+		}
+	}
+
+    /**
+     * Privileged module lookup. Must be private so that user code
+     * can't call this entry point.
+     */
+    private static Object getSystemModule(final String factoryInterface)
+    {
+        return AccessController.doPrivileged
+            (
+             new PrivilegedAction<Object>()
+             {
+                 public Object run()
+                 {
+                     return Monitor.getSystemModule(factoryInterface);
+                 }
+             }
+             );
+    }
+
+
+	/*
+	** Methods of ModuleControl
+	*/
+
+	public void boot(boolean create, Properties properties) {
+	}
+
+	/**
+		Stop the background deadlock detector, if it is running.
+	*/
+	public void stop() {
+		setDeadlockDetectionInterval(0);
+	}
+
+	/**
+		Start, restart or stop the background deadlock detector.
+
+		@param interval milliseconds between the searches of the detector,
+		or 0 to stop it
+	*/
+	private synchronized void setDeadlockDetectionInterval(int interval) {
+		if (deadlockDetector != null) {
+			deadlockDetector.stop();
+			deadlockDetector = null;
+		}
+		if (interval > 0) {
+			deadlockDetector = new DeadlockDetector(lockTable, interval);
+			deadlockDetector.start();
+		}
+	}
 
 	/*
 	** Methods of PropertySetCallback
@@ -387,6 +501,9 @@ abstract class AbstractPool implements LockFactory
 		getAndApply(dbOnly, p, Property.DEADLOCK_TIMEOUT);
 		getAndApply(dbOnly, p, Property.LOCKWAIT_TIMEOUT);
 		getAndApply(dbOnly, p, Property.DEADLOCK_MONITOR);
+		getAndApply(dbOnly, p, Property.DEADLOCK_DETECTION_INTERVAL);
+		getAndApply(dbOnly, p, Property.SKIP_UNCOMMITTED_INSERTS);
+		getAndApply(dbOnly, p, Property.LOCKS_ESCALATION_GLOBAL_THRESHOLD);
 //EXCLUDE-START-lockdiag- 
         getAndApply(dbOnly, p, Property.DEADLOCK_TRACE);
 //EXCLUDE-END-lockdiag- 
@@ -421,6 +538,12 @@ abstract class AbstractPool implements LockFactory
 				getWaitValue((String) value,  Property.WAIT_TIMEOUT_DEFAULT);
 			else if (key.equals(Property.DEADLOCK_MONITOR))
 				PropertyUtil.booleanProperty(Property.DEADLOCK_MONITOR, value, false);
+			else if (key.equals(Property.DEADLOCK_DETECTION_INTERVAL))
+				getDetectionInterval((String) value);
+			else if (key.equals(Property.SKIP_UNCOMMITTED_INSERTS))
+				PropertyUtil.booleanProperty(Property.SKIP_UNCOMMITTED_INSERTS, value, false);
+			else if (key.equals(Property.LOCKS_ESCALATION_GLOBAL_THRESHOLD))
+				getEscalationGlobalThreshold((String) value);
             else if (key.equals(Property.DEADLOCK_TRACE))
                 PropertyUtil.booleanProperty(Property.DEADLOCK_TRACE, value, false);
 		}
@@ -448,6 +571,13 @@ abstract class AbstractPool implements LockFactory
 			deadlockMonitor = PropertyUtil.booleanProperty(Property.DEADLOCK_MONITOR, svalue, false) ?
 				StandardException.REPORT_ALWAYS : StandardException.REPORT_DEFAULT;
 		}
+		else if (key.equals(Property.DEADLOCK_DETECTION_INTERVAL))
+			setDeadlockDetectionInterval(getDetectionInterval(svalue));
+		else if (key.equals(Property.SKIP_UNCOMMITTED_INSERTS))
+			skipUncommittedInserts = PropertyUtil.booleanProperty(
+				Property.SKIP_UNCOMMITTED_INSERTS, svalue, false);
+		else if (key.equals(Property.LOCKS_ESCALATION_GLOBAL_THRESHOLD))
+			escalationGlobalThreshold = getEscalationGlobalThreshold(svalue);
 //EXCLUDE-START-lockdiag- 
         else if (key.equals(Property.DEADLOCK_TRACE))
             lockTable.setDeadlockTrace(PropertyUtil.booleanProperty(Property.DEADLOCK_TRACE, svalue, false));
@@ -477,4 +607,24 @@ abstract class AbstractPool implements LockFactory
 
 		return wait;
 	}
+
+	private static int getDetectionInterval(String value) {
+
+		// the interval is defined in milliseconds, negative values disable
+		// the detector like 0 does
+		return Math.max(0, PropertyUtil.handleInt(value, Integer.MIN_VALUE,
+			Integer.MAX_VALUE, Property.DEADLOCK_DETECTION_INTERVAL_DEFAULT));
+	}
+
+	private static int getEscalationGlobalThreshold(String value) {
+
+		// 0 disables the global threshold, other values may not be lower
+		// than the minimum per-transaction threshold
+		int threshold = PropertyUtil.handleInt(value, 0, Integer.MAX_VALUE,
+			Property.DEFAULT_LOCKS_ESCALATION_GLOBAL_THRESHOLD);
+		if ((threshold > 0) &&
+				(threshold < Property.MIN_LOCKS_ESCALATION_THRESHOLD))
+			threshold = Property.MIN_LOCKS_ESCALATION_THRESHOLD;
+		return threshold;
+	}
 }
@@ -35,13 +35,16 @@ import org.apache.derby.iapi.reference.Property;
 import org.apache.derby.shared.common.reference.SQLState;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -92,6 +95,14 @@ final class ConcurrentLockSet implements LockTable {
      */
     private ArrayList<Entry> seenByDeadlockDetection;
 
+    /**
+     * The objects that lock requests are waiting for. Only the entries of
+     * these objects can be part of a deadlock, so deadlock detection only
+     * has to look at, and lock, those entries instead of the whole lock
+     * table. An object is added and removed while its entry is locked.
+     */
+    private final Set<Lockable> waitedFor = ConcurrentHashMap.newKeySet();
+
 	/**
 		Timeout for deadlocks, in ms.
 		<BR>
@@ -111,6 +122,28 @@ final class ConcurrentLockSet implements LockTable {
 	// The number of waiters for locks
 	private final AtomicInteger blockCount;
 
+    /*
+     * Lock statistics, exposed through LockManagerMBean. They are always
+     * collected, so they are kept in LongAdders rather than AtomicLongs, in
+     * order not to make threads that lock different objects contend on a
+     * shared counter.
+     */
+
+    /** The number of calls to lockObject(). */
+    private final LongAdder lockRequests = new LongAdder();
+    /** The number of locks granted on objects that were not locked. */
+    private final LongAdder uncontendedLocks = new LongAdder();
+    /** The number of lock requests that had to wait. */
+    private final LongAdder lockWaits = new LongAdder();
+    /** The number of lock requests that ended in a deadlock. */
+    private final LongAdder deadlocks = new LongAdder();
+    /** The number of lock requests that timed out. */
+    private final LongAdder lockTimeouts = new LongAdder();
+    /** The number of calls to the limit callbacks of compatibility spaces. */
+    private final LongAdder escalationAttempts = new LongAdder();
+    /** The number of limit callbacks that escalated locks. */
+    private final LongAdder escalations = new LongAdder();
+
 	/*
 	** Constructor
 	*/
@@ -127,6 +160,20 @@ final class ConcurrentLockSet implements LockTable {
     private static final class Entry {
         /** The lock control. */
         Control control;
+
+        /** Create an empty entry. */
+        Entry() {
+        }
+
+        /**
+         * Create an entry that holds a granted lock, for an object that
+         * was not locked.
+         *
+         * @param lock the granted lock
+         */
+        Entry(Lock lock) {
+            control = lock;
+        }
         /**
          * Mutex used to ensure single-threaded access to the LockControls. To
          * avoid Java deadlocks, no thread should ever hold the mutex of more
@@ -285,6 +332,30 @@ final class ConcurrentLockSet implements LockTable {
         }
     }
 
+    /**
+     * Search the whole lock table for a deadlock on behalf of the background
+     * deadlock detector. Since the calling thread doesn't wait for a lock,
+     * it doesn't hold the mutex of any entry when it enters the search.
+     *
+     * @return <code>true</code> if a deadlock was found and a victim was
+     * awoken, <code>false</code> otherwise
+     */
+    public boolean checkDeadlocks() {
+        synchronized (Deadlock.class) {
+            try {
+                return Deadlock.lookAll(factory, this);
+            } finally {
+                // unlock all entries we visited
+                if (seenByDeadlockDetection != null) {
+                    for (Entry e : seenByDeadlockDetection) {
+                        e.unlock();
+                    }
+                    seenByDeadlockDetection = null;
+                }
+            }
+        }
+    }
+
 	/*
 	** Public Methods
 	*/
@@ -321,6 +392,26 @@ final class ConcurrentLockSet implements LockTable {
         String  lockDebug = null;
         boolean blockedByParent = false;
 
+        lockRequests.increment();
+
+        // Fast path for objects that are not locked. Instead of inserting an
+        // empty entry and locking its mutex, insert an entry that already
+        // holds the granted lock. Other threads only look at the control of
+        // an entry after they have locked it, and putIfAbsent() makes the
+        // fully built entry visible to them.
+        if (locks.get(ref) == null) {
+            Lock gl = new Lock(compatibilitySpace, ref, qualifier);
+            gl.grant();
+
+            if (locks.putIfAbsent(ref, new Entry(gl)) == null) {
+                uncontendedLocks.increment();
+                return gl;
+            }
+
+            // someone else locked the object in the meantime, take the
+            // slow path
+        }
+
         Entry entry = getEntry(ref);
         try {
 
@@ -335,6 +426,7 @@ final class ConcurrentLockSet implements LockTable {
 
 				entry.control = gl;
 
+                uncontendedLocks.increment();
 				return gl;
 			}
 
@@ -416,6 +508,8 @@ final class ConcurrentLockSet implements LockTable {
             }
         }
 
+        lockWaits.increment();
+
 		boolean deadlockWait = false;
 		int actualTimeout;
 
@@ -616,6 +710,11 @@ forever:	for (;;) {
                         {
                             // ending wait because of lock timeout or interrupt
 
+                            if (wakeupReason !=
+                                    Constants.WAITING_LOCK_INTERRUPTED) {
+                                lockTimeouts.increment();
+                            }
+
                             if (wakeupReason ==
                                     Constants.WAITING_LOCK_INTERRUPTED) {
 
@@ -644,6 +743,7 @@ forever:	for (;;) {
                         {
                             // ending wait because of lock deadlock.
 
+                            deadlocks.increment();
                             throw Deadlock.buildException(
                                     factory, deadlockData);
                         }
@@ -924,6 +1024,72 @@ forever:	for (;;) {
      * Get the wait timeout in milliseconds.
      */
     public int getWaitTimeout() { return waitTimeout; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getLockRequestCount() {
+        return lockRequests.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getUncontendedLockCount() {
+        return uncontendedLocks.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getLockWaitCount() {
+        return lockWaits.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getDeadlockCount() {
+        return deadlocks.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getLockTimeoutCount() {
+        return lockTimeouts.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getLockedObjectCount() {
+        return locks.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void limitReached(boolean escalated) {
+        escalationAttempts.increment();
+        if (escalated) {
+            escalations.increment();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getLockEscalationAttemptCount() {
+        return escalationAttempts.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long getLockEscalationCount() {
+        return escalations.sum();
+    }
     
 	/*
 	** Non public methods
@@ -970,10 +1136,20 @@ forever:	for (;;) {
      * table will be locked when this method returns. The entries that have
      * been seen and locked will be unlocked after the deadlock detection has
      * finished.
+     * <p>
+     * Only the entries of objects that are waited for are visited, since
+     * the search for a deadlock only follows wait relations, and only
+     * looks at the granted locks of objects that someone waits for. A
+     * request that starts waiting after its entry has been passed is not
+     * seen, and will be found by the next search if it is deadlocked.
      */
     public void addWaiters(Map<Object,Object> waiters) {
-        seenByDeadlockDetection = new ArrayList<Entry>(locks.size());
-        for (Entry entry : locks.values()) {
+        seenByDeadlockDetection = new ArrayList<Entry>(waitedFor.size());
+        for (Lockable ref : waitedFor) {
+            Entry entry = locks.get(ref);
+            if (entry == null) {
+                continue;
+            }
             seenByDeadlockDetection.add(entry);
             entry.lockForDeadlockDetection();
             if (entry.control != null) {
@@ -1019,6 +1195,20 @@ forever:	for (;;) {
 		blockCount.decrementAndGet();
 	}
 
+    /**
+     * Remember that an object is waited for.
+     */
+    public void waitingFor(Lockable ref) {
+        waitedFor.add(ref);
+    }
+
+    /**
+     * Forget that an object is waited for.
+     */
+    public void noLongerWaitingFor(Lockable ref) {
+        waitedFor.remove(ref);
+    }
+
     /**
      * Check whether anyone is blocked.
      * @return <code>true</code> if someone is blocked, <code>false</code>
@@ -1032,4 +1222,59 @@ forever:	for (;;) {
 		}
 		return blocked != 0;
 	}
+
+    /**
+     * Check whether a lock with the specified qualifier on an object has been
+     * granted to a compatibility space other than the specified one.
+     *
+     * @param space the compatibility space to disregard
+     * @param ref the locked object
+     * @param qualifier the qualifier of the lock
+     * @return <code>true</code> if such a lock is held, <code>false</code>
+     * otherwise
+     */
+    public boolean isLockHeldByOther(CompatibilitySpace space, Lockable ref,
+                                     Object qualifier) {
+        Entry entry = locks.get(ref);
+        if (entry == null) {
+            return false;
+        }
+
+        entry.lock();
+        try {
+            Control control = entry.control;
+            if (control == null) {
+                // the entry was removed from the table after we got it
+                return false;
+            }
+
+            Lock firstGrant = control.getFirstGrant();
+            if (firstGrant != null) {
+                return isHeldByOther(firstGrant, space, qualifier);
+            }
+
+            List granted = control.getGranted();
+            if (granted != null) {
+                for (int i = 0; i < granted.size(); i++) {
+                    if (isHeldByOther(
+                            (Lock) granted.get(i), space, qualifier)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            entry.unlock();
+        }
+    }
+
+    /**
+     * Check whether a granted lock has the specified qualifier and belongs
+     * to a compatibility space other than the specified one.
+     */
+    private static boolean isHeldByOther(Lock lock, CompatibilitySpace space,
+                                         Object qualifier) {
+        return lock.getQualifier() == qualifier &&
+            lock.getCompatabilitySpace() != space;
+    }
 }
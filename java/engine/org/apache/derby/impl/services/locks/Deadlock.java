@@ -36,6 +36,7 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Hashtable;
 import java.util.Dictionary;
+import java.util.Enumeration;
 import java.util.Stack;
 
 import java.util.List;
@@ -71,7 +72,9 @@ import java.util.List;
  * The search is performed as a depth-first search starting from the lock
  * request of a waiter that has been awoken for deadlock detection (either
  * because {@code derby.locks.deadlockTimeout} has expired or because some
- * other waiter had picked it as a victim in order to break a deadlock).
+ * other waiter had picked it as a victim in order to break a deadlock), or
+ * from each of the waiters in turn when the search is performed by the
+ * background deadlock detector, see {@link #lookAll}.
  * From this lock request, the wait graph is traversed by checking which
  * transactions have already been granted a lock on the object, and who they
  * are waiting for.
@@ -151,6 +154,91 @@ class Deadlock  {
 		// step one, get a list of all waiters
 		Dictionary waiters = Deadlock.getWaiters(set);
 
+		Stack<Object> chain = new Stack<Object>();
+		int index = search(waiters, chain, control, startingLock);
+		if (index == -1) {
+			return null;
+		}
+
+        // Pick a victim.
+		return Deadlock.handle(factory, chain, index, waiters, deadlockWake);
+	}
+
+    /**
+     * <p>
+     * Look for a deadlock among all the waiters in a lock table, on behalf
+     * of a thread that isn't waiting for a lock itself. The search starts
+     * from each of the waiters in turn, and ends when a deadlock is found.
+     * </p>
+     *
+     * <p>
+     * The victim picked to break the deadlock is awoken with
+     * {@code Constants.WAITING_LOCK_DEADLOCK}. Like a victim picked by
+     * {@link #look}, it checks that the deadlock still exists before it
+     * terminates itself. Only one deadlock is handled per call, so that
+     * two victims are never picked for the same deadlock.
+     * </p>
+     *
+     * <p>
+     * MT - same as {@link #look}.
+     * </p>
+     *
+     * @param factory the locking system factory
+     * @param set the complete lock table
+     * @return {@code true} if a deadlock was found and a victim was awoken,
+     * {@code false} otherwise
+     */
+	static boolean lookAll(AbstractPool factory, LockTable set) {
+
+		Dictionary waiters = Deadlock.getWaiters(set);
+
+		for (Enumeration e = waiters.keys(); e.hasMoreElements(); ) {
+			Object space = e.nextElement();
+			if (space instanceof ActiveLock) {
+				// a (lock, prevLock) pair, not a waiting space
+				continue;
+			}
+
+			ActiveLock startingLock = (ActiveLock) waiters.get(space);
+
+			// walk up the queue of waiters to find the lock control
+			Object waitOn = waiters.get(startingLock);
+			while (waitOn instanceof ActiveLock) {
+				waitOn = waiters.get(waitOn);
+			}
+
+			Stack<Object> chain = new Stack<Object>();
+			int index = search(waiters, chain, (LockControl) waitOn,
+							   startingLock);
+			if (index == -1) {
+				continue;
+			}
+
+			if (Deadlock.handle(factory, chain, index, waiters,
+								Constants.WAITING_LOCK_IN_WAIT) != null) {
+				// the space we started from was picked as the victim
+				startingLock.wakeUp(Constants.WAITING_LOCK_DEADLOCK);
+			}
+			return true;
+		}
+
+		return false;
+	}
+
+    /**
+     * Search the wait graph for a cycle that the waiting lock request
+     * {@code startingLock} is blocked by.
+     *
+     * @param waiters all the waiters in the lock table
+     * @param chain an empty stack that will hold the state of the search
+     * @param control the lock control that {@code startingLock} waits on
+     * @param startingLock the lock request to start the search from
+     * @return the position in {@code chain} where the cycle starts, or -1
+     * if no deadlock was found
+     */
+	private static int search(Dictionary waiters, Stack<Object> chain,
+							  LockControl control, ActiveLock startingLock) {
+
 		// This stack will track the potential deadlock chain
 		// The Stack consists of
 
@@ -158,8 +246,6 @@ class Deadlock  {
 		// - Compatibility space of waiter A
 		// - Stack of compatibility spaces with granted lock for waiter A
 
-		Stack<Object> chain = new Stack<Object>();
-
 		chain.push(startingLock.getCompatabilitySpace());
 		chain.push(control.getGrants());
 outer:	for (;;) {
@@ -250,8 +336,8 @@ inner:		for (;;) {
 						}
 					}
 
-                    // So it wasn't an illusion after all. Pick a victim.
-					return Deadlock.handle(factory, chain, index, waiters, deadlockWake);
+                    // So it wasn't an illusion after all.
+					return index;
 				}
 
                 // Otherwise... The space hasn't been examined yet, so put it
@@ -334,7 +420,7 @@ inner:		for (;;) {
             }
 		}
 
-		return null;
+		return -1;
 	}
 
     /**
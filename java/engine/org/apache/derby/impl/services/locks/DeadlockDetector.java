@@ -0,0 +1,150 @@
+/*
+
+   Derby - Class org.apache.derby.impl.services.locks.DeadlockDetector
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.services.locks;
+
+import org.apache.derby.iapi.services.monitor.ModuleFactory;
+import org.apache.derby.iapi.services.monitor.Monitor;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * <p>
+ * Background thread that looks for deadlocks in a lock table at a fixed
+ * interval, see {@code derby.locks.deadlockDetectionInterval}.
+ * </p>
+ *
+ * <p>
+ * Without it, a deadlock is only found when one of the waiters involved
+ * wakes up after {@code derby.locks.deadlockTimeout} and searches the wait
+ * graph. The detector runs the same search (see {@link Deadlock#lookAll})
+ * as soon as an interval has passed, but only while some transaction is
+ * blocked, so an idle or uncontended lock table costs nothing more than a
+ * check of the number of waiters per interval. The victim it picks is awoken
+ * and terminates itself exactly as if another waiter had picked it.
+ * </p>
+ *
+ * <p>
+ * During a search, the entries of the objects that are waited for are
+ * locked, so the lock requests on those objects wait for the search to
+ * finish. Requests on all other objects, which are usually most of the
+ * lock table, go on as usual.
+ * </p>
+ *
+ * <BR> MT - Thread Safe
+ */
+final class DeadlockDetector implements Runnable {
+
+    /** The lock table to search for deadlocks. */
+    private final LockTable lockTable;
+
+    /** Milliseconds between the searches. */
+    private final int interval;
+
+    /** Set when the detector has been asked to stop. */
+    private boolean stopped;
+
+    /** The thread running the detector. */
+    private Thread thread;
+
+    /**
+     * Create a deadlock detector.
+     *
+     * @param lockTable the lock table to search for deadlocks
+     * @param interval milliseconds between the searches
+     */
+    DeadlockDetector(LockTable lockTable, int interval) {
+        this.lockTable = lockTable;
+        this.interval = interval;
+    }
+
+    /**
+     * Start the thread running the detector.
+     */
+    void start() {
+        thread = getMonitor().getDaemonThread(
+                this, "derby.deadlock-detector", false);
+        thread.start();
+    }
+
+    /**
+     * Stop the detector and wait for its thread to finish.
+     */
+    void stop() {
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException ie) {
+                // Don't wait any longer, the thread will exit on its own.
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    public void run() {
+        while (waitForNextSearch()) {
+            // Only one deadlock is broken per search. Searching again right
+            // away could find the same deadlock before the victim has left
+            // it, and pick a second victim for it.
+            if (lockTable.anyoneBlocked()) {
+                lockTable.checkDeadlocks();
+            }
+        }
+    }
+
+    /**
+     * Wait for the interval to pass.
+     *
+     * @return {@code true} if the detector should search for deadlocks,
+     * {@code false} if it has been stopped
+     */
+    private synchronized boolean waitForNextSearch() {
+        if (!stopped) {
+            try {
+                wait(interval);
+            } catch (InterruptedException ie) {
+                // Treat an interrupt as a request to stop.
+                stopped = true;
+            }
+        }
+        return !stopped;
+    }
+
+    /**
+     * Privileged Monitor lookup. Must be private so that user code
+     * can't call this entry point.
+     */
+    private static ModuleFactory getMonitor() {
+        return AccessController.doPrivileged(
+            new PrivilegedAction<ModuleFactory>() {
+                public ModuleFactory run() {
+                    return Monitor.getMonitor();
+                }
+            });
+    }
+}
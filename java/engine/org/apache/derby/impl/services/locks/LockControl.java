@@ -660,6 +660,9 @@ final class LockControl implements Control {
 
 		// Maintain count of waiters
 		ls.oneMoreWaiter();
+		if (waiting.size() == 1) {
+			ls.waitingFor(ref);
+		}
 	}
 
 	/**
@@ -688,7 +691,11 @@ final class LockControl implements Control {
 		ls.oneLessWaiter();
 
 		// Remove and return the first lock request
-		return waiting.remove(index);
+		Object item = waiting.remove(index);
+		if (waiting.isEmpty()) {
+			ls.noLongerWaitingFor(ref);
+		}
+		return item;
 	}
 
 	/**
@@ -704,7 +711,11 @@ final class LockControl implements Control {
 		ls.oneLessWaiter();
 
 		// Remove item and return number of items removed
-		return waiting.remove(item) ? 1 : 0;
+		int count = waiting.remove(item) ? 1 : 0;
+		if (count == 1 && waiting.isEmpty()) {
+			ls.noLongerWaitingFor(ref);
+		}
+		return count;
 	}
 }
 
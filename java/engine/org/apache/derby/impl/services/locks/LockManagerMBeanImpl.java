@@ -0,0 +1,102 @@
+/*
+
+   Derby - Class org.apache.derby.impl.services.locks.LockManagerMBeanImpl
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.services.locks;
+
+import java.security.AccessControlException;
+import java.security.AccessController;
+import org.apache.derby.mbeans.LockManagerMBean;
+import org.apache.derby.security.SystemPermission;
+
+/**
+ * This class provides monitoring capabilities for the lock table of a
+ * LockFactory through Java Management Extension (JMX).
+ */
+final class LockManagerMBeanImpl implements LockManagerMBean {
+
+    private final LockTable lockTable;
+
+    LockManagerMBeanImpl(LockTable lockTable) {
+        this.lockTable = lockTable;
+    }
+
+    @Override
+    public long getLockRequestCount() {
+        checkPermission();
+        return lockTable.getLockRequestCount();
+    }
+
+    @Override
+    public long getUncontendedLockCount() {
+        checkPermission();
+        return lockTable.getUncontendedLockCount();
+    }
+
+    @Override
+    public long getLockWaitCount() {
+        checkPermission();
+        return lockTable.getLockWaitCount();
+    }
+
+    @Override
+    public long getDeadlockCount() {
+        checkPermission();
+        return lockTable.getDeadlockCount();
+    }
+
+    @Override
+    public long getLockTimeoutCount() {
+        checkPermission();
+        return lockTable.getLockTimeoutCount();
+    }
+
+    @Override
+    public int getLockedObjectCount() {
+        checkPermission();
+        return lockTable.getLockedObjectCount();
+    }
+
+    @Override
+    public long getLockEscalationAttemptCount() {
+        checkPermission();
+        return lockTable.getLockEscalationAttemptCount();
+    }
+
+    @Override
+    public long getLockEscalationCount() {
+        checkPermission();
+        return lockTable.getLockEscalationCount();
+    }
+
+    private static void checkPermission() {
+        if (System.getSecurityManager() != null) {
+            try {
+                AccessController.checkPermission(
+                        SystemPermission.ENGINE_MONITOR);
+            } catch (AccessControlException ace) {
+                // Need to throw a simplified version as AccessControlException
+                // will have a reference to Derby's SystemPermission class,
+                // which most likely will not be available on the client.
+                throw new SecurityException(ace.getMessage());
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.derby.iapi.services.locks.Limit;
 import org.apache.derby.iapi.util.Matchable;
 import org.apache.derby.shared.common.sanity.SanityManager;
 import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.reference.Property;
 
 import java.util.ArrayDeque;
 import java.util.Enumeration;
@@ -70,6 +71,13 @@ final class LockSpace implements CompatibilitySpace {
 	private int    nextLimitCall;
 	private Limit  callback;
 
+	/**
+		The group size above which the limit callback is called because the
+		lock table holds more objects than allowed by the global limit.
+	*/
+	private int    nextGlobalLimitCall =
+		Property.MIN_LOCKS_ESCALATION_THRESHOLD;
+
 	/**
 	 * Creates a new <code>LockSpace</code> instance.
 	 *
@@ -91,8 +99,16 @@ final class LockSpace implements CompatibilitySpace {
 
 	/**
 		Add a lock to a group.
+
+		@param lset the lock table the lock was granted in
+		@param group the group to add the lock to
+		@param lock the granted lock
+		@param globalLimit the number of locked objects in the lock table
+		above which the limit callback should be called early, or 0 if
+		there is no such limit
 	*/
-	protected synchronized void addLock(Object group, Lock lock)
+	protected synchronized void addLock(LockTable lset, Object group,
+										Lock lock, int globalLimit)
 		throws StandardException {
 
 		Lock lockInGroup = null;
@@ -117,18 +133,14 @@ final class LockSpace implements CompatibilitySpace {
 			return;
 
 		int groupSize = dl.size();
-		
+
 		if (groupSize > nextLimitCall) {
 
-			inLimit = true;
-			callback.reached(this, group, limit,
-				new LockList(java.util.Collections.enumeration(dl.keySet())), groupSize);
-			inLimit = false;
+			int newGroupSize = callLimit(lset, group, dl, limit);
 
 			// see when the next callback should occur, if the callback
 			// failed to release a sufficent amount of locks then
 			// delay until another "limit" locks are obtained.
-			int newGroupSize = dl.size();
 			if (newGroupSize < (limit / 2))
 				nextLimitCall = limit;
 			else if (newGroupSize < (nextLimitCall / 2))
@@ -136,8 +148,45 @@ final class LockSpace implements CompatibilitySpace {
 			else
 				nextLimitCall += limit;
 
+		} else if ((globalLimit > 0) && (groupSize > nextGlobalLimitCall)
+				&& (lset.getLockedObjectCount() > globalLimit)) {
+
+			// The lock table as a whole is over its budget. Ask for the
+			// row locks to be escalated as if this group's own size were
+			// its limit, and don't ask again until the group has doubled
+			// in size, so that a group that cannot escalate does not pay
+			// for the callback on every lock request.
+			int newGroupSize = callLimit(lset, group, dl, groupSize);
+			nextGlobalLimitCall = Math.max(
+				Property.MIN_LOCKS_ESCALATION_THRESHOLD, 2 * newGroupSize);
 		}
 	}
+
+	/**
+		Call the limit callback for a group and count the call in the
+		lock table statistics.
+
+		@return the size of the group after the callback
+	*/
+	private int callLimit(LockTable lset, Object group,
+						  HashMap<Lock, Lock> dl, int callLimit)
+		throws StandardException {
+
+		int groupSize = dl.size();
+
+		inLimit = true;
+		try {
+			callback.reached(this, group, callLimit,
+				new LockList(java.util.Collections.enumeration(dl.keySet())), groupSize);
+		} finally {
+			inLimit = false;
+		}
+
+		// the callback only releases locks by escalating them
+		int newGroupSize = dl.size();
+		lset.limitReached(newGroupSize < groupSize);
+		return newGroupSize;
+	}
 	
 	private boolean inLimit;
 	/**
@@ -155,6 +204,7 @@ final class LockSpace implements CompatibilitySpace {
 
 		if ((callbackGroup != null) && group.equals(callbackGroup)) {
 			nextLimitCall = limit;
+			nextGlobalLimitCall = Property.MIN_LOCKS_ESCALATION_THRESHOLD;
 		}
 
 		saveGroup(dl);
@@ -201,6 +251,7 @@ final class LockSpace implements CompatibilitySpace {
 			saveGroup(dl);
 			if ((callbackGroup != null) && group.equals(callbackGroup)) {
 				nextLimitCall = limit;
+				nextGlobalLimitCall = Property.MIN_LOCKS_ESCALATION_THRESHOLD;
 			}
 		}
 	}
@@ -318,6 +369,7 @@ final class LockSpace implements CompatibilitySpace {
 		callbackGroup = group;
 		this.nextLimitCall = this.limit = limit;
 		this.callback = callback;
+		nextGlobalLimitCall = Property.MIN_LOCKS_ESCALATION_THRESHOLD;
 	}
 
 	/**
@@ -83,6 +83,23 @@ interface LockTable {
      */
     void oneLessWaiter();
 
+    /**
+     * Notify the lock table that a lock request is waiting for an object
+     * that had no waiters. Called while the object's entry is locked.
+     *
+     * @param ref the object that is waited for
+     */
+    void waitingFor(Lockable ref);
+
+    /**
+     * Notify the lock table that the last lock request waiting for an
+     * object has stopped waiting. Called while the object's entry is
+     * locked.
+     *
+     * @param ref the object that is no longer waited for
+     */
+    void noLongerWaitingFor(Lockable ref);
+
     /**
      * Check whether there are anyone blocked in the lock table.
      *
@@ -91,6 +108,19 @@ interface LockTable {
      */
     boolean anyoneBlocked();
 
+    /**
+     * Check whether a lock with the specified qualifier on an object has been
+     * granted to a compatibility space other than the specified one.
+     *
+     * @param space the compatibility space to disregard
+     * @param ref the locked object
+     * @param qualifier the qualifier of the lock
+     * @return <code>true</code> if such a lock is held, <code>false</code>
+     * otherwise
+     */
+    boolean isLockHeldByOther(CompatibilitySpace space, Lockable ref,
+                              Object qualifier);
+
     /**
      * Lock an object and release the lock immediately. Equivalent to
      * <pre>
@@ -140,6 +170,72 @@ interface LockTable {
      */
     int getWaitTimeout();
 
+    /**
+     * Get the number of lock requests.
+     *
+     * @return the number of calls to <code>lockObject()</code>
+     */
+    long getLockRequestCount();
+
+    /**
+     * Get the number of locks that were granted on objects that no one had
+     * locked.
+     *
+     * @return the number of uncontended locks
+     */
+    long getUncontendedLockCount();
+
+    /**
+     * Get the number of lock requests that had to wait for the lock.
+     *
+     * @return the number of lock waits
+     */
+    long getLockWaitCount();
+
+    /**
+     * Get the number of lock requests that were chosen as deadlock victims.
+     *
+     * @return the number of deadlocks
+     */
+    long getDeadlockCount();
+
+    /**
+     * Get the number of lock requests that timed out.
+     *
+     * @return the number of lock timeouts
+     */
+    long getLockTimeoutCount();
+
+    /**
+     * Get the number of objects that are currently locked or waited for.
+     *
+     * @return the number of objects in the lock table
+     */
+    int getLockedObjectCount();
+
+    /**
+     * Record that the limit callback of a compatibility space was called
+     * because the space held too many locks.
+     *
+     * @param escalated {@code true} if the callback released locks by
+     * escalating them, {@code false} if it could not escalate any
+     */
+    void limitReached(boolean escalated);
+
+    /**
+     * Get the number of times transactions tried to escalate their locks.
+     *
+     * @return the number of lock escalation attempts
+     */
+    long getLockEscalationAttemptCount();
+
+    /**
+     * Get the number of lock escalation attempts that released locks.
+     *
+     * @return the number of lock escalations
+     */
+    long getLockEscalationCount();
+
     /**
      * Enable or disable tracing of deadlocks.
      *
@@ -155,4 +251,15 @@ interface LockTable {
      * @see LockControl#addWaiters
      */
     void addWaiters(Map<Object,Object> waiters);
+
+    /**
+     * Search the whole lock table for a deadlock, and wake up a victim to
+     * break it if one is found. Used by the background deadlock detector,
+     * which doesn't wait for any lock itself.
+     *
+     * @return <code>true</code> if a deadlock was found, <code>false</code>
+     * otherwise
+     * @see Deadlock#lookAll
+     */
+    boolean checkDeadlocks();
 }
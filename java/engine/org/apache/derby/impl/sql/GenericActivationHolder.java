@@ -23,6 +23,7 @@ package org.apache.derby.impl.sql;
 
 import java.sql.SQLWarning;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Vector;
 import org.apache.derby.catalog.Dependable;
 import org.apache.derby.catalog.DependableFinder;
@@ -309,6 +310,7 @@ final public class GenericActivationHolder implements Activation
 					ac.getAutoGeneratedKeysColumnNames());
                 }
 				newAC.setMaxRows(ac.getMaxRows());
+				newAC.setBatchParameters(ac.getBatchParameters());
 
 				// break the link with the prepared statement
 				ac.setupActivation(null, false);
@@ -565,6 +567,40 @@ final public class GenericActivationHolder implements Activation
 		return ac.getMaxRows();
 	}
 
+	/**
+	 * @see Activation#setBatchParameters
+	 */
+	public void setBatchParameters(List<ParameterValueSet> batch)
+	{
+		ac.setBatchParameters(batch);
+	}
+
+	/**
+	 * @see Activation#getBatchParameters
+	 */
+	public List<ParameterValueSet> getBatchParameters()
+	{
+		return ac.getBatchParameters();
+	}
+
+	/**
+	 * @see Activation#nextBatchParameters
+	 *
+	 * @exception StandardException if the values could not be moved
+	 */
+	public boolean nextBatchParameters() throws StandardException
+	{
+		return ac.nextBatchParameters();
+	}
+
+	/**
+	 * @see Activation#getBatchParametersUsed
+	 */
+	public int getBatchParametersUsed()
+	{
+		return ac.getBatchParametersUsed();
+	}
+
 	public void setTargetVTI(java.sql.ResultSet targetVTI)
 	{
 		ac.setTargetVTI(targetVTI);
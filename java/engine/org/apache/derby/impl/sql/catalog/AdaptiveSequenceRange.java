@@ -0,0 +1,154 @@
+/*
+
+   Derby - Class org.apache.derby.impl.sql.catalog.AdaptiveSequenceRange
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.sql.catalog;
+
+import org.apache.derby.catalog.SequencePreallocator;
+
+/**
+ * <p>
+ * Logic for pre-allocating values for an identity column or sequence which
+ * adapts the size of the ranges to the rate at which values are consumed.
+ * Selected by setting derby.language.sequence.preallocator to
+ * <i>adaptive</i>.
+ * </p>
+ *
+ * <p>
+ * Every new range is allocated by updating SYSSEQUENCES in a nested
+ * transaction, which serializes the sessions drawing values from the
+ * sequence. If a range was used up faster than the target interval, the next
+ * range is twice as large, so that bursts of inserts update the catalog less
+ * and less often. If a range lasted much longer than the target interval,
+ * the next range is half as large, so that a quiet sequence goes back to
+ * leaving small holes after a crash. The size always stays between the
+ * minimum and maximum range sizes.
+ * </p>
+ */
+public  class   AdaptiveSequenceRange   implements  SequencePreallocator
+{
+    ///////////////////////////////////////////////////////////////////////////////////
+    //
+    // CONSTANTS
+    //
+    ///////////////////////////////////////////////////////////////////////////////////
+
+    /** Largest number of values to pre-allocate by default. */
+    private static final int DEFAULT_MAX_PREALLOCATION_COUNT = 100 * SequenceRange.DEFAULT_PREALLOCATION_COUNT;
+
+    /** Default time, in milliseconds, that a range should last. */
+    private static final long DEFAULT_TARGET_MILLIS = 1000L;
+
+    /** Ranges which last this many times the target interval make the next range smaller. */
+    private static final long SHRINK_FACTOR = 10L;
+
+    ///////////////////////////////////////////////////////////////////////////////////
+    //
+    // STATE
+    //
+    ///////////////////////////////////////////////////////////////////////////////////
+
+    private final int _minRangeSize;
+    private final int _maxRangeSize;
+    private long _targetNanos;
+
+    private int _rangeSize;
+
+    // System.nanoTime() when the previous range was handed out, or 0 if none has been.
+    private long _lastAllocationTime;
+
+    ///////////////////////////////////////////////////////////////////////////////////
+    //
+    // CONSTRUCTOR
+    //
+    ///////////////////////////////////////////////////////////////////////////////////
+
+    /** <p>0-arg constructor needed to satisfy the SequencePreallocator contract.</p> */
+    public  AdaptiveSequenceRange()
+    {
+        this( SequenceRange.DEFAULT_PREALLOCATION_COUNT, DEFAULT_MAX_PREALLOCATION_COUNT, DEFAULT_TARGET_MILLIS );
+    }
+
+    /**
+     * @param minRangeSize Size of the first range, and smallest size of later ranges.
+     * @param maxRangeSize Largest size of a range.
+     * @param targetMillis Time, in milliseconds, that a range should last.
+     */
+    public  AdaptiveSequenceRange( int minRangeSize, int maxRangeSize, long targetMillis )
+    {
+        if ( minRangeSize <= 0 ) { minRangeSize = SequenceRange.DEFAULT_PREALLOCATION_COUNT; }
+        if ( maxRangeSize < minRangeSize ) { maxRangeSize = minRangeSize; }
+
+        _minRangeSize = minRangeSize;
+        _maxRangeSize = maxRangeSize;
+        setTargetMillis( targetMillis );
+        _rangeSize = minRangeSize;
+    }
+
+    /**
+     * Change the time that a range should last. Applies from the next range.
+     *
+     * @param targetMillis Time, in milliseconds, that a range should last.
+     */
+    public  synchronized void setTargetMillis( long targetMillis )
+    {
+        _targetNanos = Math.max( 0L, targetMillis ) * 1000000L;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////
+    //
+    // SequencePreallocator BEHAVIOR
+    //
+    ///////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * <p>
+     * Synchronized because the clones made for bulk insert share the
+     * preallocator of the original generator.
+     * </p>
+     */
+    public  synchronized int nextRangeSize
+        (
+         String schemaName,
+         String sequenceName
+         )
+    {
+        long now = System.nanoTime();
+
+        if ( _lastAllocationTime != 0L )
+        {
+            long elapsed = now - _lastAllocationTime;
+
+            if ( elapsed < _targetNanos )
+            {
+                _rangeSize = (int) Math.min( 2L * _rangeSize, _maxRangeSize );
+            }
+            else if ( elapsed / SHRINK_FACTOR >= _targetNanos )
+            {
+                _rangeSize = Math.max( _rangeSize / 2, _minRangeSize );
+            }
+        }
+
+        _lastAllocationTime = now;
+
+        return _rangeSize;
+    }
+
+}
@@ -42,7 +42,7 @@ public  class   SequenceRange   implements  SequencePreallocator
      * of 20 (see DERBY-4437). We boosted this to 100 in order to get better concurrency,
      * after fixing correctness problems in pre-allocation (see DERBY-5493).
      */
-    private static final int DEFAULT_PREALLOCATION_COUNT = 100;
+    static final int DEFAULT_PREALLOCATION_COUNT = 100;
 
     ///////////////////////////////////////////////////////////////////////////////////
     //
@@ -554,6 +554,12 @@ public abstract class SequenceUpdater implements Cacheable
 
         if ( className == null ) { return new SequenceRange(); }
 
+        // A range size which adapts to demand.
+        if ( Property.LANG_SEQUENCE_PREALLOCATOR_ADAPTIVE.equalsIgnoreCase( className ) )
+        {
+            return new AdaptiveSequenceRange();
+        }
+
         try {
             // If the property value was a number rather than a class name, then
             // use that as the default size for preallocated ranges.
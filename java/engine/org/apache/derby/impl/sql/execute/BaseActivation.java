@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Stack;
 import java.util.Vector;
 import org.apache.derby.catalog.Dependable;
@@ -138,6 +139,11 @@ public abstract class BaseActivation implements CursorActivation, GeneratedByteC
 	private long maxRows = -1L;
 	private boolean			forCreateTable;
 
+	// Parameter values of the batch elements that follow the current one,
+	// and the number of them moved into pvs, see nextBatchParameters()
+	private List<ParameterValueSet> batchParameters;
+	private int batchParametersUsed;
+
 	private boolean			scrollable;
 
   	private boolean resultSetHoldability;
@@ -1174,6 +1180,58 @@ public abstract class BaseActivation implements CursorActivation, GeneratedByteC
 		return maxRows;
 	}
 
+	/**
+	 * @see Activation#setBatchParameters
+	 */
+	public void setBatchParameters(List<ParameterValueSet> batch)
+	{
+		batchParameters = batch;
+		batchParametersUsed = 0;
+	}
+
+	/**
+	 * @see Activation#getBatchParameters
+	 */
+	public List<ParameterValueSet> getBatchParameters()
+	{
+		return batchParameters;
+	}
+
+	/**
+	 * @see Activation#nextBatchParameters
+	 *
+	 * @exception StandardException if the values could not be moved
+	 */
+	public boolean nextBatchParameters() throws StandardException
+	{
+		if (batchParameters == null ||
+				batchParametersUsed == batchParameters.size())
+		{
+			return false;
+		}
+		ParameterValueSet next = batchParameters.get(batchParametersUsed);
+		for (int i = 0; i < next.getParameterCount(); i++)
+		{
+			// Leave streams to a separate execution, where they are
+			// set with their length checks.
+			if (next.getParameter(i).hasStream())
+			{
+				return false;
+			}
+		}
+		next.transferDataValues(pvs);
+		batchParametersUsed++;
+		return true;
+	}
+
+	/**
+	 * @see Activation#getBatchParametersUsed
+	 */
+	public int getBatchParametersUsed()
+	{
+		return batchParametersUsed;
+	}
+
 	public void setTargetVTI(java.sql.ResultSet targetVTI)
 	{
 		this.targetVTI = targetVTI;
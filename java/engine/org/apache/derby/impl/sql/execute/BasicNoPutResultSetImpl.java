@@ -178,6 +178,23 @@ implements NoPutResultSet
 	 */
 	public abstract ExecRow	getNextRowCore() throws StandardException;
 
+	/**
+	 * Return a single row from getNextRowCore(). Result sets that can
+	 * return more than one row at a time override this method.
+	 *
+	 * @see NoPutResultSet#getNextRowBatch
+	 * @exception StandardException thrown on failure.
+	 */
+	public int getNextRowBatch(ExecRow[] rows) throws StandardException
+	{
+		ExecRow row = getNextRowCore();
+		if (row == null)
+			return 0;
+
+		rows[0] = row;
+		return 1;
+	}
+
 	/**
 	 * @see NoPutResultSet#getPointOfAttachment
 	 */
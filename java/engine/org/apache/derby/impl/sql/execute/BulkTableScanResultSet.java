@@ -71,6 +71,11 @@ class BulkTableScanResultSet extends TableScanResultSet
 {
 	private DataValueDescriptor[][] rowArray;
     private RowLocation[]   rowLocations;
+	/**
+	 * The rows returned by getNextRowBatch(), one for each row in
+	 * rowArray, allocated as needed.
+	 */
+	private ExecRow[] batchRows;
 	private int curRowPosition;
 	private int numRowsInArray;
     private int         baseColumnCount;
@@ -243,7 +248,9 @@ class BulkTableScanResultSet extends TableScanResultSet
 			tc = activation.getTransactionController();
 		scanController = tc.openCompiledScan(
 				activation.getResultSetHoldability(),
-				(forUpdate ? TransactionController.OPENMODE_FORUPDATE : 0),
+				(forUpdate ? TransactionController.OPENMODE_FORUPDATE :
+                    (skipsUncommittedInserts() ?
+                     TransactionController.OPENMODE_SKIP_UNCOMMITTED_INSERTS : 0)),
                 lockMode,
                 isolationLevel,
 				accessedCols,
@@ -292,6 +299,7 @@ class BulkTableScanResultSet extends TableScanResultSet
 		beginTime = getCurrentTimeMillis();
 		rowArray = new DataValueDescriptor[rowsPerRead][];
         if ( fetchRowLocations ) { rowLocations = new RowLocation[ rowsPerRead ]; }
+		batchRows = null;
 
 		// we only allocate the first row -- the
 		// store clones as needed for the rest
@@ -413,6 +421,89 @@ outer:		for (;;)
 	    return result;
 	}
 
+	/**
+	 * Return the rows that are left in the rowArray, reloading it
+	 * if it is empty. Each row in the rowArray has a compact row of
+	 * its own, so the rows stay valid until the rowArray is reloaded.
+	 *
+	 * @see NoPutResultSet#getNextRowBatch
+	 * @exception StandardException thrown on failure to get next row
+	 */
+	public int getNextRowBatch(ExecRow[] rows) throws StandardException
+	{
+		// Every row gets a new row with its row location anyway.
+		if ( fetchRowLocations )
+			return super.getNextRowBatch(rows);
+
+		if( isXplainOnlyMode() )
+			return 0;
+
+		int count = 0;
+
+        checkCancellationFlag();
+
+		beginTime = getCurrentTimeMillis();
+		if (isOpen && scanControllerOpened)
+		{
+			if (currentRow == null)
+			{
+				currentRow =
+					getCompactRow(candidate,
+									accessedCols,
+									isKeyed);
+			}
+			if (batchRows == null)
+			{
+				batchRows = new ExecRow[rowArray.length];
+			}
+
+			while (count == 0)
+			{
+				if (curRowPosition >= numRowsInArray - 1)
+				{
+					if (reloadArray() == OUT_OF_ROWS)
+					{
+						clearCurrentRow();
+						setRowCountIfPossible(rowsThisScan);
+						break;
+					}
+				}
+
+				while (count < rows.length &&
+					   ++curRowPosition < numRowsInArray)
+				{
+					candidate.setRowArray(rowArray[curRowPosition]);
+					rowsSeen++;
+					rowsThisScan++;
+
+					/*
+					** Skip rows where there are start or stop positioners
+					** that do not implement ordered null semantics and
+					** there are columns in those positions that contain
+					** null.
+					*/
+					if (skipRow(candidate))
+					{
+						rowsFiltered++;
+						continue;
+					}
+
+					ExecRow batchRow = batchRows[curRowPosition];
+					if (batchRow == null)
+					{
+						batchRow = currentRow.getNewNullRow();
+						batchRows[curRowPosition] = batchRow;
+					}
+					setCompatRow(batchRow, rowArray[curRowPosition]);
+					rows[count++] = batchRow;
+				}
+			}
+		}
+
+		nextTime += getElapsedMillis(beginTime);
+		return count;
+	}
+
 	/*
 	** Load up rowArray with a batch of
 	** rows.
@@ -446,6 +537,7 @@ outer:		for (;;)
 		curRowPosition = -1;
 		rowArray = null;
         rowLocations = null;
+		batchRows = null;
 	}
 
 	/**
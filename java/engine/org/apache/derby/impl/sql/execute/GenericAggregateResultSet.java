@@ -34,6 +34,7 @@ import org.apache.derby.iapi.sql.Activation;
 import org.apache.derby.iapi.sql.conn.LanguageConnectionContext;
 import org.apache.derby.iapi.sql.execute.ExecIndexRow;
 import org.apache.derby.iapi.sql.execute.ExecPreparedStatement;
+import org.apache.derby.iapi.sql.execute.ExecRow;
 import org.apache.derby.iapi.sql.execute.ExecRowBuilder;
 import org.apache.derby.iapi.sql.execute.ExecutionFactory;
 import org.apache.derby.iapi.sql.execute.NoPutResultSet;
@@ -50,6 +51,15 @@ abstract class GenericAggregateResultSet extends NoPutResultSetImpl
 	protected	NoPutResultSet	originalSource; // used for run time stats only
     private final ExecIndexRow rowTemplate;
 
+	/**
+	 * The maximum number of rows to read from the source in one call
+	 * to getNextRowBatch().
+	 */
+	private static final int INPUT_BATCH_SIZE = 64;
+
+	/** The rows read from the source by getNextRowBatch(). */
+	private ExecRow[] inputBatch;
+
 	/**
 	 * Constructor
 	 *
@@ -99,6 +109,18 @@ abstract class GenericAggregateResultSet extends NoPutResultSetImpl
         return rowTemplate;
     }
 
+    /**
+     * Get an array to read a batch of rows from the source into.
+     *
+     * @return an array of INPUT_BATCH_SIZE rows
+     */
+    ExecRow[] getInputBatch() {
+        if (inputBatch == null) {
+            inputBatch = new ExecRow[INPUT_BATCH_SIZE];
+        }
+        return inputBatch;
+    }
+
 	/**
 	 * For each AggregatorInfo in the list, generate a
 	 * GenericAggregator and stick it in an array of
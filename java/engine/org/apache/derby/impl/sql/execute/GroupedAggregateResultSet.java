@@ -284,7 +284,6 @@ class GroupedAggregateResultSet extends GenericAggregateResultSet
 		throws StandardException
 	{
 		SortController 			sorter;
-		ExecRow 				inputRow;
 		int						inputRowCountEstimate = (int) optimizerEstimatedRowCount;
         ExecIndexRow            sortTemplateRow = getRowTemplate();
 
@@ -309,9 +308,15 @@ class GroupedAggregateResultSet extends GenericAggregateResultSet
 		sorter = tc.openSort(genericSortId);
 	
 		/* The sorter is responsible for doing the cloning */
-		while ((inputRow = getNextRowFromRS()) != null) 
+		ExecRow[] batch = getInputBatch();
+		int count;
+		while ((count = source.getNextRowBatch(batch)) > 0)
 		{
-			sorter.insert(inputRow.getRowArray());
+			rowsInput += count;
+			for (int i = 0; i < count; i++)
+			{
+				sorter.insert(batch[i].getRowArray());
+			}
 		}
 		source.close();
 		sorter.completedInserts();
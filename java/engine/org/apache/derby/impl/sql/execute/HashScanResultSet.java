@@ -25,11 +25,13 @@ import java.util.List;
 import java.util.Properties;
 
 import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.reference.Property;
 import org.apache.derby.shared.common.reference.SQLState;
 import org.apache.derby.iapi.services.i18n.MessageService;
 import org.apache.derby.iapi.services.io.FormatableArrayHolder;
 import org.apache.derby.iapi.services.io.FormatableIntHolder;
 import org.apache.derby.iapi.services.loader.GeneratedMethod;
+import org.apache.derby.iapi.services.property.PropertyUtil;
 import org.apache.derby.shared.common.sanity.SanityManager;
 import org.apache.derby.iapi.sql.Activation;
 import org.apache.derby.iapi.sql.execute.CursorResultSet;
@@ -93,11 +95,16 @@ public class HashScanResultSet extends ScanResultSet
 	protected BackingStoreHashtable hashtable;
 	protected boolean eliminateDuplicates;		// set to true in DistinctScanResultSet
 
+	// derby.language.maxDegreeOfParallelism, or 0 if not read yet. Only
+	// read once, since the inner table of a join may be opened many times.
+	private int maxParallelism;
+
 	// Run time statistics
 	public Properties scanProperties;
 	public String startPositionString;
 	public String stopPositionString;
 	public int hashtableSize;
+	public int buildParallelism = 1;
 	public boolean isConstraint;
 
 	public static final	int	DEFAULT_INITIAL_CAPACITY = -1;
@@ -255,6 +262,16 @@ public class HashScanResultSet extends ScanResultSet
 			DataValueDescriptor[] stopPositionRow = 
                 stopPosition == null ? null : stopPosition.getRowArray();
 
+            if (maxParallelism == 0)
+            {
+                maxParallelism = PropertyUtil.getServiceInt(
+                        tc,
+                        Property.LANGUAGE_MAX_DEGREE_OF_PARALLELISM,
+                        1,
+                        Integer.MAX_VALUE,
+                        Property.DEFAULT_LANGUAGE_MAX_DEGREE_OF_PARALLELISM);
+            }
+
             hashtable = 
                 tc.createBackingStoreHashtableFromScan(
                     conglomId,          // conglomerate to open
@@ -277,11 +294,13 @@ public class HashScanResultSet extends ScanResultSet
                     runTimeStatisticsOn,
 					skipNullKeyColumns,
 					keepAfterCommit,
-					fetchRowLocations);
+					fetchRowLocations,
+                    maxParallelism);
 
 			if (runTimeStatisticsOn)
 			{
 				hashtableSize = hashtable.size();
+				buildParallelism = hashtable.getBuildParallelism();
 
 				if (scanProperties == null)
 				{
@@ -755,6 +774,19 @@ public class HashScanResultSet extends ScanResultSet
 
 	public Properties getScanProperties()
 	{
+		// The hash table may have spilled, and its partitions been read,
+		// since it was built.
+		if (runTimeStatisticsOn && hashtable != null && scanProperties != null)
+		{
+			try
+			{
+				hashtable.getAllRuntimeStats(scanProperties);
+			}
+			catch (StandardException se)
+			{
+				// ignore
+			}
+		}
 		return scanProperties;
 	}
 
@@ -756,6 +756,14 @@ class InsertResultSet extends DMLWriteGeneratedColumnsResultSet implements Targe
 		boolean setUserIdentity = constants.hasAutoincrement() && isSingleRowResultSet();
         ExecRow deferredRowBuffer;
         long user_autoinc=0;
+
+        // If the statement is executed for an element of a JDBC batch,
+        // the rows of the following elements can be inserted by this
+        // execution, see nextBatchRow().
+        boolean insertBatch = constants.singleRowSource &&
+            !constants.deferred && triggerInfo == null &&
+            !constants.underMerge() &&
+            !activation.getAutoGeneratedKeysResultsetMode();
                         
 		/* Get or re-use the row changer.
 		 */
@@ -929,6 +937,11 @@ class InsertResultSet extends DMLWriteGeneratedColumnsResultSet implements Targe
 	     {
 		row = getNextRowCore(sourceResultSet);
 	     }
+
+            if (row == null && insertBatch)
+            {
+                row = nextBatchRow();
+            }
         }
 
 		/*
@@ -1075,6 +1088,34 @@ class InsertResultSet extends DMLWriteGeneratedColumnsResultSet implements Targe
                 } 
  }
 
+    /**
+     * Get the row of the next element of the JDBC batch that the statement
+     * is executed for, if there is one. The parameter values of the
+     * element are moved into the activation, and the single row source is
+     * evaluated again, so that the rows of a batch are inserted with the
+     * row changer, constraint checkers and open conglomerates of one
+     * execution, instead of one execution per row.
+     *
+     * @return the row of the next batch element, or null if there are no
+     * more elements
+     *
+     * @exception StandardException Standard Derby error policy
+     */
+    private ExecRow nextBatchRow() throws StandardException
+    {
+        if (!activation.nextBatchParameters())
+        {
+            return null;
+        }
+
+        // Let the identity value of the last row be the one returned by
+        // IDENTITY_VAL_LOCAL(), as if each element was executed alone.
+        autoincrementGenerated = false;
+
+        sourceResultSet.reopenCore();
+        return getNextRowCore(sourceResultSet);
+    }
+
     @Override
 	protected ExecRow getNextRowCore( NoPutResultSet source )
 		throws StandardException
@@ -72,6 +72,11 @@ class ProjectRestrictResultSet extends NoPutResultSetImpl
 	private boolean shortCircuitOpen;
 
 	private ExecRow projRow;
+	/**
+	 * The result rows of getNextRowBatch(), one for each position in the
+	 * batch, allocated as needed.
+	 */
+	private ExecRow[] batchRows;
     private final boolean validatingCheckConstraint;
     private final UUID validatingBaseTableUUID;
     Enumeration<Object> rowLocations;
@@ -349,6 +354,131 @@ class ProjectRestrictResultSet extends NoPutResultSetImpl
     	return result;
 	}
 
+	/**
+	 * Return the projections of the rows of a batch from the source for
+	 * which the restriction evaluates to true. Each position in the batch
+	 * has a result row of its own. The columns that are mapped from the
+	 * source row are shared with it, and the columns that the projection
+	 * computes are copied, since the projection reuses its result row.
+	 *
+	 * @see NoPutResultSet#getNextRowBatch
+	 * @exception StandardException thrown on failure.
+	 */
+	public int getNextRowBatch(ExecRow[] rows) throws StandardException
+	{
+		if (validatingCheckConstraint)
+		{
+			return super.getNextRowBatch(rows);
+		}
+
+		if( isXplainOnlyMode() )
+			return 0;
+
+		/* Return no rows if open was short circuited by false constant expression */
+		if (shortCircuitOpen)
+		{
+			return 0;
+		}
+
+		if (batchRows == null || batchRows.length < rows.length)
+		{
+			ExecRow[] newRows = new ExecRow[rows.length];
+			if (batchRows != null)
+			{
+				System.arraycopy(batchRows, 0, newRows, 0, batchRows.length);
+			}
+			batchRows = newRows;
+		}
+
+		beginTime = getCurrentTimeMillis();
+		int count = 0;
+		int sourceCount;
+		while (count == 0 && (sourceCount = source.getNextRowBatch(rows)) > 0)
+		{
+			for (int i = 0; i < sourceCount; i++)
+			{
+				ExecRow candidateRow = rows[i];
+				long beginRT = getCurrentTimeMillis();
+
+				// The restriction and the projection read the current rows,
+				// which the source has not set for each row in the batch.
+				activation.setCurrentRow(
+					candidateRow, source.resultSetNumber());
+				setCurrentRow(candidateRow);
+
+				/* If restriction is null, then all rows qualify */
+				if (restriction != null)
+				{
+		            DataValueDescriptor restrictBoolean =
+						(DataValueDescriptor) restriction.invoke(activation);
+					restrictionTime += getElapsedMillis(beginRT);
+
+		            // if the result is null, we make it false --
+					// so the row won't be returned.
+					rowsSeen++;
+					if (restrictBoolean.isNull() ||
+						!restrictBoolean.getBoolean())
+					{
+						rowsFiltered++;
+						continue;
+					}
+					beginRT = getCurrentTimeMillis();
+				}
+				else
+				{
+					rowsSeen++;
+				}
+
+				ExecRow result = batchRows[count];
+				if (result == null)
+				{
+					result = activation.getExecutionFactory().
+						getValueRow(projectMapping.length);
+					batchRows[count] = result;
+				}
+				if (projection == null && !reuseResult)
+				{
+					mapColumns(candidateRow, result);
+				}
+				else
+				{
+					ExecRow projected = doProjection(candidateRow);
+					for (int index = 0; index < projectMapping.length; index++)
+					{
+						DataValueDescriptor dvd =
+							projected.getColumn(index + 1);
+						if (projectMapping[index] == -1 && dvd != null)
+						{
+							dvd = dvd.cloneValue(false);
+						}
+						result.setColumn(index + 1, dvd);
+					}
+				}
+				rows[count++] = result;
+
+				projectionTime += getElapsedMillis(beginRT);
+			}
+		}
+
+		if (count == 0)
+		{
+			clearCurrentRow();
+		}
+
+		if (runTimeStatsOn)
+		{
+			if (! isTopResultSet)
+			{
+				/* This is simply for RunTimeStats */
+				/* We first need to get the subquery tracking array via the StatementContext */
+				StatementContext sc = activation.getLanguageConnectionContext().getStatementContext();
+				subqueryTrackingArray = sc.getSubqueryTrackingArray();
+			}
+			nextTime += getElapsedMillis(beginTime);
+		}
+		return count;
+	}
+
 	/**
 	 * Return the total amount of time spent in this ResultSet
 	 *
@@ -398,6 +528,7 @@ class ProjectRestrictResultSet extends NoPutResultSetImpl
 			// REVISIT: does this need to be in a finally
 			// block, to ensure that it is executed?
 	    	clearCurrentRow();
+			batchRows = null;
 
 	        source.close();
 
@@ -536,6 +667,31 @@ class ProjectRestrictResultSet extends NoPutResultSetImpl
 		}
 
 		// Copy any mapped columns from the source
+		mapColumns(sourceRow, result);
+
+		/* We need to reSet the current row after doing the projection */
+		setCurrentRow(result);
+
+		/* Remember the result if reusing it */
+		if (reuseResult)
+		{
+			projRow = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Copy the columns that are mapped from the source row to the result
+	 * row.
+	 *
+	 * @param sourceRow		The source row.
+	 * @param result		The result row.
+	 *
+	 * @exception StandardException thrown on failure.
+	 */
+	private void mapColumns(ExecRow sourceRow, ExecRow result)
+		throws StandardException
+	{
 		for (int index = 0; index < projectMapping.length; index++)
 		{
 			if (projectMapping[index] != -1)
@@ -552,16 +708,6 @@ class ProjectRestrictResultSet extends NoPutResultSetImpl
                 result.setColumn(index + 1, dvd);
 			}
 		}
-
-		/* We need to reSet the current row after doing the projection */
-		setCurrentRow(result);
-
-		/* Remember the result if reusing it */
-		if (reuseResult)
-		{
-			projRow = result;
-		}
-		return result;
 	}
 
 	/**
@@ -1151,6 +1151,7 @@ public class RealResultSetStatisticsFactory
 											hsrs.indexName,
 											hsrs.isConstraint,
 											hsrs.hashtableSize,
+											hsrs.buildParallelism,
 											hsrs.keyColumns,
 											hsrs.printQualifiers(
 												hsrs.scanQualifiers),
@@ -175,7 +175,17 @@ class ScalarAggregateResultSet extends GenericAggregateResultSet
 			** Accumulate into the first row.  Only
 			** the first row is cloned.
 			*/
-	        while ((execIndexRow = getRowFromResultSet(false)) != null)
+			if (!singleInputRow)
+			{
+				aggResult = accumulateBatches();
+			}
+
+			/*
+			** The min/max optimization stops after the first row
+			** it needs, so it reads the rows one at a time.
+			*/
+	        while (singleInputRow &&
+				   (execIndexRow = getRowFromResultSet(false)) != null)
 	        {
 				/*
 				** Use a clone of the first row as our result.  
@@ -236,6 +246,41 @@ class ScalarAggregateResultSet extends GenericAggregateResultSet
 		return aggResult;
 	}
 
+	/**
+	 * Read the source rows a batch at a time, and accumulate them into
+	 * a clone of the first row.
+	 *
+	 * @return the clone of the first row, or null if there were no rows
+	 *
+	 * @exception StandardException thrown on error
+	 */
+	private ExecIndexRow accumulateBatches() throws StandardException
+	{
+		ExecIndexRow aggResult = null;
+		ExecRow[] batch = getInputBatch();
+		int count;
+
+		while ((count = source.getNextRowBatch(batch)) > 0)
+		{
+			rowsInput += count;
+			for (int i = 0; i < count; i++)
+			{
+				sourceExecIndexRow.execRowToExecIndexRow(batch[i]);
+				if (aggResult == null)
+				{
+					aggResult = (ExecIndexRow) sourceExecIndexRow.getClone();
+					initializeScalarAggregation(aggResult);
+				}
+				else
+				{
+					accumulateScalarAggregation(
+						sourceExecIndexRow, aggResult, false);
+				}
+			}
+		}
+		return aggResult;
+	}
+
 	/**
 	 * If the result set has been opened,
 	 * close the open scan.
@@ -315,6 +315,18 @@ class TableScanResultSet extends ScanResultSet
         }
     }
 
+	/**
+	 * Tell whether a read-only scan may skip rows inserted by transactions
+	 * that have not committed yet, see
+	 * TransactionController.OPENMODE_SKIP_UNCOMMITTED_INSERTS. Scans that
+	 * read data for a user query may, scans that check constraints must
+	 * not.
+	 */
+	boolean skipsUncommittedInserts()
+	{
+		return true;
+	}
+
 	/*
 	** Open the scan controller
 	**
@@ -346,6 +358,10 @@ class TableScanResultSet extends ScanResultSet
             if (activation.isCursorActivation())
                 openMode |= TransactionController.OPENMODE_USE_UPDATE_LOCKS;
         }
+        else if (skipsUncommittedInserts())
+        {
+            openMode = TransactionController.OPENMODE_SKIP_UNCOMMITTED_INSERTS;
+        }
 
 		scanController = tc.openCompiledScan(
 				activation.getResultSetHoldability(),
@@ -424,6 +424,23 @@ class TemporaryRowHolderResultSet implements CursorResultSet, NoPutResultSet, Cl
 		}
 	}
 
+	/**
+	 * Return a single row from getNextRowCore().
+	 *
+	 * @see NoPutResultSet#getNextRowBatch
+	 * @exception StandardException on error
+	 */
+	public int getNextRowBatch(ExecRow[] rows)
+		throws StandardException
+	{
+		ExecRow row = getNextRowCore();
+		if (row == null)
+			return 0;
+
+		rows[0] = row;
+		return 1;
+	}
+
 	/**
 	 * Get the next row.
 	 *
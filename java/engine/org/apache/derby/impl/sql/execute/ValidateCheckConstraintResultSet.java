@@ -94,6 +94,14 @@ final class ValidateCheckConstraintResultSet extends TableScanResultSet
                 optimizerEstimatedCost);
     }
 
+    /**
+     * The scan checks a constraint, so it must not skip uncommitted inserts.
+     */
+    @Override
+    boolean skipsUncommittedInserts() {
+        return false;
+    }
+
     @Override
     boolean loopControl(boolean moreRows) throws StandardException {
          try {
@@ -59,6 +59,7 @@ public class RealHashScanStatistics
 	/* Leave these fields public for object inspectors */
 	public boolean isConstraint;
 	public int hashtableSize;
+	public int buildParallelism;
 	public int[] hashKeyColumns;
 	public String isolationLevel;
 	public String lockString;
@@ -73,8 +74,66 @@ public class RealHashScanStatistics
 	// CONSTRUCTORS
 
 	/**
-	 * 
+	 * Create statistics for a hash scan whose hash table was built by a
+	 * single thread.
+	 */
+    public	RealHashScanStatistics(
+									int numOpens,
+									int rowsSeen,
+									int rowsFiltered,
+									long constructorTime,
+									long openTime,
+									long nextTime,
+									long closeTime,
+									int resultSetNumber,
+									String tableName,
+									String indexName,
+									boolean isConstraint,
+									int hashtableSize,
+									int[] hashKeyColumns,
+									String scanQualifiers,
+									String nextQualifiers,
+									Properties scanProperties,
+									String startPosition,
+									String stopPosition,
+									String isolationLevel,
+									String lockString,
+									double optimizerEstimatedRowCount,
+									double optimizerEstimatedCost
+									)
+	{
+		this(
+			numOpens,
+			rowsSeen,
+			rowsFiltered,
+			constructorTime,
+			openTime,
+			nextTime,
+			closeTime,
+			resultSetNumber,
+			tableName,
+			indexName,
+			isConstraint,
+			hashtableSize,
+			1,
+			hashKeyColumns,
+			scanQualifiers,
+			nextQualifiers,
+			scanProperties,
+			startPosition,
+			stopPosition,
+			isolationLevel,
+			lockString,
+			optimizerEstimatedRowCount,
+			optimizerEstimatedCost
+			);
+	}
+
+	/**
+	 * Create statistics for a hash scan.
 	 *
+	 * @param buildParallelism the number of threads that built the hash
+	 *                         table
 	 */
     public	RealHashScanStatistics(
 									int numOpens,
@@ -89,6 +148,7 @@ public class RealHashScanStatistics
 									String indexName,
 									boolean isConstraint,
 									int hashtableSize,
+									int buildParallelism,
 									int[] hashKeyColumns,
 									String scanQualifiers,
 									String nextQualifiers,
@@ -117,6 +177,7 @@ public class RealHashScanStatistics
 		this.indexName = indexName;
 		this.isConstraint = isConstraint;
 		this.hashtableSize = hashtableSize;
+		this.buildParallelism = buildParallelism;
 		this.hashKeyColumns = ArrayUtil.copy( hashKeyColumns );
 		this.scanQualifiers = scanQualifiers;
 		this.nextQualifiers = nextQualifiers;
@@ -210,6 +271,13 @@ public class RealHashScanStatistics
 			indent + MessageService.getTextMessage(
 												SQLState.RTS_HASH_TABLE_SIZE) +
 						" = " + hashtableSize + "\n" +
+			((buildParallelism > 1)
+				?
+					indent + MessageService.getTextMessage(
+								SQLState.RTS_HASH_TABLE_BUILD_PARALLELISM) +
+								" = " + buildParallelism + "\n"
+				:
+					"") +
 			indent + hashKeyColumnString + "\n" +
 			indent + MessageService.getTextMessage(SQLState.RTS_ROWS_SEEN) +
 						" = " + rowsSeen + "\n" +
@@ -305,10 +373,14 @@ public class RealHashScanStatistics
     public String getRSXplainType() { return XPLAINUtil.OP_HASHSCAN; }
     public String getRSXplainDetails()
     {
+        String details;
         if (this.indexName!=null)
-            return (this.isConstraint ? "C: " : "I: ") + this.indexName;
+            details = (this.isConstraint ? "C: " : "I: ") + this.indexName;
         else
-            return "T: " + this.tableName;
+            details = "T: " + this.tableName;
+        if (this.buildParallelism > 1)
+            details = details + " (DOP " + this.buildParallelism + ")";
+        return details;
     }
     public Object getScanPropsDescriptor(Object scanPropsID)
     {
@@ -86,7 +86,8 @@ class BackingStoreHashTableFromScan extends BackingStoreHashtable
         boolean                 collect_runtimestats,
 		boolean					skipNullKeyColumns,
         boolean                 keepAfterCommit,
-        boolean                 includeRowLocations )
+        boolean                 includeRowLocations,
+        int                     max_build_parallelism )
             throws StandardException
     {
 
@@ -100,7 +101,8 @@ class BackingStoreHashTableFromScan extends BackingStoreHashtable
             initialCapacity,
             loadFactor,
 			skipNullKeyColumns,
-            keepAfterCommit);
+            keepAfterCommit,
+            max_build_parallelism);
         this.includeRowLocations = includeRowLocations;
 
         open_scan =  (ScanManager)
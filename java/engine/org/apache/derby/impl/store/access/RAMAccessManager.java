@@ -1223,6 +1223,9 @@ public abstract class RAMAccessManager
             SanityManager.ASSERT(
                 TransactionController.OPENMODE_BASEROW_INSERT_LOCKED ==
                 ContainerHandle.MODE_BASEROW_INSERT_LOCKED);
+            SanityManager.ASSERT(
+                TransactionController.OPENMODE_SKIP_UNCOMMITTED_INSERTS ==
+                ContainerHandle.MODE_SKIP_UNCOMMITTED_INSERTS);
             SanityManager.ASSERT(
                 TransactionController.OPENMODE_FORUPDATE ==
                 ContainerHandle.MODE_FORUPDATE);
@@ -442,7 +442,8 @@ public class RAMTransaction
                       ContainerHandle.MODE_TEMP_IS_KEPT		        |
                       ContainerHandle.MODE_USE_UPDATE_LOCKS	        |
                       ContainerHandle.MODE_SECONDARY_LOCKED         |
-                      ContainerHandle.MODE_BASEROW_INSERT_LOCKED)) != 0)   
+                      ContainerHandle.MODE_BASEROW_INSERT_LOCKED    |
+                      ContainerHandle.MODE_SKIP_UNCOMMITTED_INSERTS)) != 0)   
             {
                 SanityManager.THROWASSERT(
                     "Bad open mode to openConglomerate:" + 
@@ -497,7 +498,8 @@ public class RAMTransaction
                    TransactionController.OPENMODE_FOR_LOCK_ONLY |
                    TransactionController.OPENMODE_LOCK_NOWAIT |
                    TransactionController.OPENMODE_LOCK_ROW_NOWAIT |
-                   TransactionController.OPENMODE_SECONDARY_LOCKED)) != 0)
+                   TransactionController.OPENMODE_SECONDARY_LOCKED |
+                   TransactionController.OPENMODE_SKIP_UNCOMMITTED_INSERTS)) != 0)
             {
                 SanityManager.THROWASSERT(
                     "Bad open mode to openScan:" +
@@ -1328,7 +1330,8 @@ public class RAMTransaction
     boolean                 collect_runtimestats,
     boolean		            skipNullKeyColumns,
     boolean                 keepAfterCommit,
-    boolean                 includeRowLocations )
+    boolean                 includeRowLocations,
+    int                     max_build_parallelism )
         throws StandardException
     {
         return (
@@ -1354,7 +1357,8 @@ public class RAMTransaction
                 collect_runtimestats,
 				skipNullKeyColumns,
                 keepAfterCommit,
-                includeRowLocations));
+                includeRowLocations,
+                max_build_parallelism));
     }
 
 
@@ -2405,6 +2409,10 @@ public class RAMTransaction
         rawtran.setNoLockWait(noWait);
     }
 
+    public void setAsyncCommit(boolean async) {
+        rawtran.setAsyncCommit(async);
+    }
+
     /**
      * Get string id of the transaction.
      * <p>
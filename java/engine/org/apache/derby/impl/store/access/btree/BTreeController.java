@@ -23,6 +23,7 @@ package org.apache.derby.impl.store.access.btree;
 
 import java.util.Properties;
 
+import org.apache.derby.iapi.reference.Property;
 import org.apache.derby.shared.common.reference.SQLState;
 
 import org.apache.derby.shared.common.sanity.SanityManager;
@@ -50,6 +51,7 @@ import org.apache.derby.iapi.types.DataValueDescriptor;
 import org.apache.derby.iapi.types.RowLocation;
 
 import org.apache.derby.iapi.services.io.FormatableBitSet;
+import org.apache.derby.iapi.services.property.PropertyUtil;
 import org.apache.derby.impl.store.access.conglomerate.ConglomerateUtil;
 
 /**
@@ -1048,13 +1050,19 @@ public class BTreeController extends OpenBTree implements ConglomerateController
 
     /**
      * Just insert the row on the current page/slot if it fits.
+     * <p>
+     * Once the page is filled to fill_factor percent the row is not
+     * inserted, so that the caller moves on to a new leaf.  The fill factor
+     * is only applied to pages with at least 2 rows, the split that makes
+     * room for the row moves the last row on the page to the new leaf.
      * <p>
 	 * @exception  StandardException  Standard exception policy.
      **/
 	private boolean do_load_insert(
     DataValueDescriptor[]   rowToInsert,
     LeafControlRow          leaf,
-    int                     insert_slot)
+    int                     insert_slot,
+    int                     fill_factor)
         throws StandardException
 	{
 		LeafControlRow old_leaf         = null;
@@ -1071,7 +1079,8 @@ public class BTreeController extends OpenBTree implements ConglomerateController
             this.isIndexableRowConsistent(rowToInsert);
         }
 
-        if (num_rows_on_page < BTree.maxRowsPerPage)
+        if (num_rows_on_page < BTree.maxRowsPerPage &&
+            (num_rows_on_page < 2 || leaf.page.spaceForLoad(fill_factor)))
         {
             // By default maxRowsPerPage is set to MAXINT, some tests
             // set it small to cause splitting to happen quicker with
@@ -1474,9 +1483,13 @@ public class BTreeController extends OpenBTree implements ConglomerateController
      * This routine does an almost bottom up build of a btree.  It assumes
      * all rows arrive in sorted order, and inserts them directly into the
      * next (to the right) spot in the current leaf until there is no space.
-     * Then it calls the generic split code to add the next leaf (RESOLVE - 
-     * in the future we could optimize this to split bottom up rather than
-     * top down for create index).
+     * Then it adds the next leaf directly under the parent of the current
+     * leaf, see LeafControlRow.appendForLoad().  Only when the current leaf
+     * is the root or its parent is full does it call the generic split code,
+     * which splits top down.
+     * <p>
+     * Leaf pages are filled to the percentage given by the
+     * derby.storage.indexFillFactor property, 100 by default.
      *
      * @exception StandardException Standard exception policy.  If conglomerate
 	 *                              supports uniqueness checks and has been 
@@ -1509,6 +1522,13 @@ public class BTreeController extends OpenBTree implements ConglomerateController
 
         LeafControlRow current_leaf = null;
 
+        int fill_factor = PropertyUtil.getServiceInt(
+            xact_manager,
+            Property.STORAGE_INDEX_FILL_FACTOR,
+            10,
+            100,
+            Property.DEFAULT_STORAGE_INDEX_FILL_FACTOR);
+
         try 
         {
             // Btree must just have been created and empty, so there must
@@ -1540,19 +1560,30 @@ public class BTreeController extends OpenBTree implements ConglomerateController
 
                 while (true)
                 {
-                    if (do_load_insert(row, current_leaf, current_insert_slot))
+                    if (do_load_insert(
+                            row, current_leaf, current_insert_slot,
+                            fill_factor))
                     {
                         // row inserted successfully.
                         break;
                     }
                     else
                     {
-                        // if insert fails, do a split pass. There is an edge
+                        // if insert fails, add a new leaf under the parent
+                        // of the current one.  If that is not possible
+                        // because the current leaf is the root or the parent
+                        // is full, do a split pass. There is an edge
                         // case where multiple split passes are necessary if
                         // branch splits are necessary, thus the loop.  It is
                         // most likely that only a single split pass will be
                         // necessary.
-                        current_leaf = do_load_split(row, current_leaf);
+                        LeafControlRow new_leaf = 
+                            current_leaf.appendForLoad(this, row);
+
+                        if (new_leaf != null)
+                            current_leaf = new_leaf;
+                        else
+                            current_leaf = do_load_split(row, current_leaf);
 
                         current_insert_slot = current_leaf.page.recordCount();
                     }
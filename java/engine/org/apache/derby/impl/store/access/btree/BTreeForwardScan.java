@@ -305,6 +305,20 @@ public class BTreeForwardScan extends BTreeScan
                 }
 
 
+                // A row inserted by a transaction that has not committed yet
+                // is not part of the committed state of the table, skip it
+                // rather than wait for the inserter if the locking policy
+                // allows it.
+                if (this.getLockingPolicy().skipUncommittedInsert(
+                        this, pos,
+                        init_lock_fetch_desc,
+                        pos.current_lock_template,
+                        pos.current_lock_row_loc,
+                        init_forUpdate))
+                {
+                    continue slot_loop;
+                }
+
                 // Only lock rows that are < the stopKeyValue.  No need to
                 // requalify against stop position after losing the latch
                 // as the only change that could have happened is that the
@@ -139,6 +139,39 @@ public interface BTreeLockingPolicy
     int                     lock_operation)
 		throws StandardException;
 
+    /**
+     * Check whether a scan should skip a row rather than lock it.
+     * <p>
+     * A read-only scan may skip a row whose base row was inserted by a
+     * transaction that has not committed yet, instead of waiting for that
+     * transaction, if it was opened with OPENMODE_SKIP_UNCOMMITTED_INSERTS,
+     * the isolation level allows phantoms and 
+     * derby.locks.skipUncommittedInserts is set.  See 
+     * LockingPolicy.skipUncommittedInsert().
+     * <p>
+     * The leaf of the position must be latched, and the latch is kept.
+     *
+	 * @return true if the row should be skipped.
+     *
+     * @param open_btree        The open_btree the scan belongs to.
+     * @param pos               The position of the row to check.
+     * @param lock_fetch_desc   The fetch descriptor to use to fetch the
+     *                          row location of the row.
+     * @param lock_template     A scratch area to use to read in rows.
+     * @param lock_row_loc      The row location in lock_template.
+     * @param forUpdate         Is the scan for update or for read only.
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    abstract public boolean skipUncommittedInsert(
+    OpenBTree               open_btree,
+    BTreeRowPosition        pos,
+    FetchDescriptor         lock_fetch_desc,
+    DataValueDescriptor[]   lock_template,
+    RowLocation             lock_row_loc,
+    boolean                 forUpdate)
+		throws StandardException;
+
     /**
      * Release read lock on a row.
      *
@@ -777,6 +777,104 @@ public class LeafControlRow extends ControlRow
         return(new_leaf_pageno);
     }
 
+    /**
+     * Add a new leaf to the right of this one during a load of sorted rows.
+     * <p>
+     * Instead of a top down split pass in an internal transaction, the new
+     * leaf is allocated directly under the parent of this leaf, and a branch
+     * row for it is appended to the parent.  The key of the branch row is
+     * the first row that will go on the new leaf, so no rows are moved.  The
+     * load works on a container that was just created unlogged in the
+     * current transaction and that no other transaction can see, so the work
+     * is done in the loading transaction and the latches may be taken bottom
+     * up.
+     * <p>
+     * On entry this page must be the rightmost leaf and latched.  If the new
+     * leaf was added this page has been released, otherwise it remains
+     * latched and the caller must do a split pass instead.
+     *
+	 * @return the new leaf, latched, or null if this page is the root or the
+     *         branch row does not fit on the parent.
+     *
+     * @param open_btree  The open btree being loaded.
+     * @param firstrow    The first row to insert on the new leaf.
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    protected LeafControlRow appendForLoad(
+    OpenBTree               open_btree, 
+    DataValueDescriptor[]   firstrow)
+        throws StandardException
+    {
+        if (SanityManager.DEBUG)
+        {
+            SanityManager.ASSERT(this.isRightmostLeaf());
+        }
+
+        if (this.getIsRoot())
+            return(null);
+
+        BranchControlRow parent = (BranchControlRow)
+            ControlRow.get(open_btree, this.getParentPageNumber());
+
+        if (SanityManager.DEBUG)
+        {
+            SanityManager.ASSERT(parent.getLevel() == 1);
+            SanityManager.ASSERT(
+                parent.getrightSiblingPageNumber() == 
+                    ContainerHandle.INVALID_PAGE_NUMBER);
+        }
+
+        BranchRow branchrow = BranchRow.createBranchRowFromOldLeafRow(
+            firstrow, BranchRow.DUMMY_PAGE_NUMBER);
+
+        if ((parent.page.recordCount() - 1 >= BTree.maxRowsPerPage) ||
+            !parent.page.spaceForInsert(
+                branchrow.getRow(), (FormatableBitSet) null,
+				AccessFactoryGlobals.BTREE_OVERFLOW_THRESHOLD))
+        {
+            parent.release();
+            return(null);
+        }
+
+        LeafControlRow newleaf = LeafControlRow.allocate(open_btree, parent);
+
+        branchrow.setPageNumber(newleaf.page.getPageNumber());
+
+        newleaf.linkRight(open_btree, this);
+
+        // The key is larger than all the keys on the parent, so the branch
+        // row goes at the end.
+		byte insertFlag = Page.INSERT_INITIAL;
+		insertFlag |= Page.INSERT_DEFAULT;
+		insertFlag |= Page.INSERT_UNDO_WITH_PURGE;
+        if (parent.page.insertAtSlot(
+            parent.page.recordCount(),
+            branchrow.getRow(),
+            (FormatableBitSet) null,
+			(LogicalUndo)null, 
+            insertFlag,
+			AccessFactoryGlobals.BTREE_OVERFLOW_THRESHOLD) == null) {
+
+            throw StandardException.newException(
+                    SQLState.BTREE_NO_SPACE_FOR_KEY);
+		}
+
+        if (SanityManager.DEBUG)
+        {
+            if (SanityManager.DEBUG_ON("enableBtreeConsistencyCheck"))
+            {
+                this.checkConsistency(open_btree, parent, false);
+                newleaf.checkConsistency(open_btree, parent, false);
+            }
+        }
+
+        parent.release();
+        this.release();
+
+        return(newleaf);
+    }
+
 	/**
 	 ** Grow a new root page from a leaf page.  Slightly
 	 ** tricky because we want to retain page 0 as the root.
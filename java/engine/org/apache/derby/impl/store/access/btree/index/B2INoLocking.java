@@ -144,6 +144,21 @@ public class B2INoLocking implements BTreeLockingPolicy
         return(true);
     }
 
+    /**
+     * No locks are requested, so no rows need to be skipped.
+     **/
+    public boolean skipUncommittedInsert(
+    OpenBTree               open_btree,
+    BTreeRowPosition        pos,
+    FetchDescriptor         lock_fetch_desc,
+    DataValueDescriptor[]   lock_template,
+    RowLocation             lock_row_loc,
+    boolean                 forUpdate)
+		throws StandardException
+    {
+        return(false);
+    }
+
     /**
      * Release read lock on a row.
      *
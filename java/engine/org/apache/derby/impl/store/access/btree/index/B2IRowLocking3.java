@@ -47,6 +47,7 @@ import org.apache.derby.impl.store.access.btree.OpenBTree;
 import org.apache.derby.impl.store.access.btree.BTreeRowPosition;
 import org.apache.derby.impl.store.access.btree.WaitError;
 import org.apache.derby.impl.store.access.heap.HeapController;
+import org.apache.derby.impl.store.access.heap.HeapRowLocation;
 
 /**
 
@@ -81,6 +82,12 @@ class B2IRowLocking3 implements BTreeLockingPolicy
      **/
     private Transaction                     rawtran;
 
+    /**
+     * The raw store locking policy of the isolation level of the scan, used
+     * to decide whether uncommitted inserts may be skipped.
+     **/
+    private LockingPolicy                   raw_locking_policy;
+
     /**************************************************************************
      * Constructors for This class:
      **************************************************************************
@@ -93,6 +100,7 @@ class B2IRowLocking3 implements BTreeLockingPolicy
     OpenBTree               open_btree)
     {
         this.rawtran             = rawtran;
+        this.raw_locking_policy  = locking_policy;
         this.base_cc             = base_cc;
         this.open_btree          = open_btree;
     }
@@ -717,6 +725,47 @@ class B2IRowLocking3 implements BTreeLockingPolicy
                 lock_operation));
     }
 
+    /**
+     * Check whether a scan should skip a row rather than lock it.
+     * <p>
+     * The row location is only fetched if the scan was opened with
+     * OPENMODE_SKIP_UNCOMMITTED_INSERTS and the raw store locking policy
+     * skips uncommitted inserts at all, which it never does for
+     * serializable.
+     * <p>
+     * @see BTreeLockingPolicy#skipUncommittedInsert
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    public boolean skipUncommittedInsert(
+    OpenBTree               open_btree,
+    BTreeRowPosition        pos,
+    FetchDescriptor         lock_fetch_desc,
+    DataValueDescriptor[]   lock_template,
+    RowLocation             lock_row_loc,
+    boolean                 forUpdate)
+		throws StandardException
+    {
+        if (forUpdate || 
+            (open_btree.getOpenMode() & 
+                TransactionManager.OPENMODE_SKIP_UNCOMMITTED_INSERTS) == 0 ||
+            !raw_locking_policy.skipsUncommittedInserts())
+        {
+            return(false);
+        }
+
+        // Fetch the row location of the base row.
+        pos.current_leaf.getPage().fetchFromSlot(
+            (RecordHandle) null, pos.current_slot, 
+            lock_template, lock_fetch_desc, true);
+
+        RecordHandle base_rh = 
+            ((HeapRowLocation) lock_row_loc).getRecordHandle(
+                ((HeapController) base_cc).getOpenConglomerate().getContainer());
+
+        return(raw_locking_policy.skipUncommittedInsert(rawtran, base_rh));
+    }
+
     /**
      * Release read lock on a row.
      *
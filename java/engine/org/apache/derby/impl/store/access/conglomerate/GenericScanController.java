@@ -679,6 +679,16 @@ public abstract class GenericScanController
                 // move scan current position forward.
                 scan_position.positionAtNextSlot();
 
+                // A row inserted by a transaction that has not committed yet
+                // is not part of the committed state of the table, skip it
+                // rather than wait for the inserter if the locking policy
+                // allows it.
+                if (open_conglom.skipUncommittedInsert(scan_position))
+                {
+                    this.stat_numrows_visited++;
+                    continue;
+                }
+
                 // Lock the row.
                 boolean lock_granted_while_latch_held = 
                     open_conglom.lockPositionForRead(
@@ -38,6 +38,7 @@ import org.apache.derby.iapi.store.access.TransactionController;
 import org.apache.derby.iapi.store.raw.ContainerHandle;
 import org.apache.derby.iapi.store.raw.LockingPolicy;
 import org.apache.derby.iapi.store.raw.Page;
+import org.apache.derby.iapi.store.raw.RecordHandle;
 import org.apache.derby.iapi.store.raw.Transaction;
 
 import org.apache.derby.iapi.types.DataValueDescriptor;
@@ -341,6 +342,46 @@ public abstract class OpenConglomerate
         return(false);
     }
 
+    /**
+     * Check whether a read-only scan should skip the row at the given
+     * position rather than lock it, because it was inserted by another
+     * transaction that has not committed yet.
+     * <p>
+     * Only scans opened with OPENMODE_SKIP_UNCOMMITTED_INSERTS skip such
+     * rows, only under the locking policies of isolation levels that allow
+     * phantoms, and only if derby.locks.skipUncommittedInserts is set.
+     * <p>
+     * Assumes latch held on current_page, and that current_slot is the slot
+     * of the row to check.  If the row is not skipped, current_rh is set
+     * to the row, ready for lockPositionForRead().
+     *
+	 * @return true if the row should be skipped.
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+    public boolean skipUncommittedInsert(RowPosition pos)
+        throws StandardException
+    {
+        if (forUpdate || 
+            (init_openmode & 
+                ContainerHandle.MODE_SKIP_UNCOMMITTED_INSERTS) == 0)
+        {
+            return(false);
+        }
+
+        RecordHandle rh = 
+            pos.current_page.getRecordHandleAtSlot(pos.current_slot);
+
+        if (this.container.getLockingPolicy().skipUncommittedInsert(
+                init_rawtran, rh))
+        {
+            return(true);
+        }
+
+        pos.current_rh = rh;
+
+        return(false);
+    }
 
     /**
      * <p>
@@ -30,6 +30,7 @@ import org.apache.derby.iapi.services.monitor.ModuleFactory;
 import org.apache.derby.iapi.services.monitor.ModuleSupportable;
 import org.apache.derby.iapi.services.monitor.Monitor;
 import org.apache.derby.iapi.services.property.PropertyUtil;
+import org.apache.derby.iapi.reference.Property;
 import org.apache.derby.shared.common.sanity.SanityManager;
 
 import org.apache.derby.iapi.error.StandardException;
@@ -227,9 +228,23 @@ public class ExternalSortFactory implements
             }
         }
 
+		// The merge runs of an external sort may be sorted in memory by
+		// several threads. Each thread sorts as many rows as the sort
+		// buffer holds, so don't use more threads than there are
+		// processors.
+		int maxParallelism = PropertyUtil.getServiceInt(
+            tran,
+            implParameters,
+            Property.LANGUAGE_MAX_DEGREE_OF_PARALLELISM,
+            1,
+            Integer.MAX_VALUE,
+            Property.DEFAULT_LANGUAGE_MAX_DEGREE_OF_PARALLELISM);
+		maxParallelism = Math.min(
+            maxParallelism, Runtime.getRuntime().availableProcessors());
+
 		sort.initialize(
             template, columnOrdering, sortObserver, 
-            alreadyInOrder, estimatedRows, sortBufferMax);
+            alreadyInOrder, estimatedRows, sortBufferMax, maxParallelism);
 		return sort;
 	}
 
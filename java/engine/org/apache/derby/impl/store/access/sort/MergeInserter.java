@@ -58,6 +58,14 @@ final class MergeInserter implements SortController
 	**/
 	private SortBuffer sortBuffer;
 
+	/**
+	An unordered buffer of rows that is sorted by several
+	threads before it is sent to a merge run.  Only used once
+	the sort has become an external sort, and only if the
+	sort may use more than one thread, null otherwise.
+	**/
+	private ParallelRunBuffer runBuffer;
+
 	/**
 	Information about memory usage to dynamically tune the
 	in-memory sort buffer size.
@@ -95,6 +103,14 @@ final class MergeInserter implements SortController
 		// Check that the inserted row is of the correct type
 		sort.checkColumnTypes(row);
 
+		if (runBuffer != null)
+		{
+			stat_numRowsInput++;
+			if (insertIntoRunBuffer(row))
+				stat_numRowsOutput++;
+			return;
+		}
+
 		// Insert the row into the sort buffer, which will
 		// sort it into the right order with the rest of the
 		// rows and remove any duplicates.
@@ -198,6 +214,25 @@ final class MergeInserter implements SortController
             totalRunSize += runSize;
             stat_mergeRunsSize.addElement(runSize);
 
+			if (sort.canSortInParallel())
+			{
+				// From now on, collect the rows of a merge run in a buffer
+				// of the same size as the sort buffer, and split it among
+				// the threads that sort it, so that the sort stays within
+				// the memory it was given.
+				runBuffer = new ParallelRunBuffer(
+					sort,
+					sortBuffer.capacity(),
+					sort.maxParallelism,
+					sort.sortBufferMax);
+
+				// The row was counted as output when the sort buffer
+				// was full.
+				if (!insertIntoRunBuffer(row))
+					stat_numRowsOutput--;
+				return;
+			}
+
 			// Re-insert the row into the sort buffer.
 			// This is guaranteed to work since the sort
 			// buffer has just been emptied.
@@ -205,6 +240,39 @@ final class MergeInserter implements SortController
 		}
 	}
 
+	/**
+	Insert a row into the run buffer, and send the rows in the
+	run buffer to a merge run if it became full.
+
+	@return false if the sort observer discarded the row
+	**/
+	private boolean insertIntoRunBuffer(DataValueDescriptor[] row)
+		throws StandardException
+	{
+		if ((sort.sortObserver != null) &&
+			((row = sort.sortObserver.insertNonDuplicateKey(row)) == null))
+		{
+			return false;
+		}
+
+		runBuffer.add(row);
+
+		if (runBuffer.isFull())
+		{
+			// Duplicates are only found when the rows are sorted.
+			stat_numRowsOutput -= runBuffer.sortRows();
+
+			long conglomid = sort.createMergeRun(tran, runBuffer);
+			mergeRuns.addElement(conglomid);
+
+			stat_numMergeRuns++;
+			runSize = stat_numRowsInput - totalRunSize;
+			totalRunSize += runSize;
+			stat_mergeRunsSize.addElement(runSize);
+		}
+		return true;
+	}
+
 	/**
      * Called when the caller has completed
      * inserting rows into the sorter.
@@ -217,13 +285,14 @@ final class MergeInserter implements SortController
 		// Tell the sort that we're closed, and hand off
 		// the sort buffer and the vector of merge runs.
 		if (sort != null)
-			sort.doneInserting(this, sortBuffer, mergeRuns);
+			sort.doneInserting(this, sortBuffer, runBuffer, mergeRuns);
 
         // if this is an external sort, there will actually
         // be one last merge run with the contents of the
-        // current sortBuffer. It will be created when the user
+        // current sortBuffer or runBuffer, unless the runBuffer
+        // is empty. It will be created when the user
         // reads the result of the sort using openSortScan
-        if (stat_sortType == "external")
+        if (stat_sortType == "external" && stat_numRowsInput > totalRunSize)
         {
             stat_numMergeRuns++;
             stat_mergeRunsSize.addElement(stat_numRowsInput - totalRunSize);
@@ -237,6 +306,7 @@ final class MergeInserter implements SortController
 		tran = null;
 		mergeRuns = null;
 		sortBuffer = null;
+		runBuffer = null;
 	}
 
 	/*
@@ -155,6 +155,13 @@ class MergeSort implements Sort
 	**/
 	private SortBuffer sortBuffer = null;
 
+	/**
+	The rows that didn't go in the last merge run if the
+	inserter sorted its runs in parallel, or null.  The
+	sort buffer is empty if this is not null.
+	**/
+	private ParallelRunBuffer runBuffer = null;
+
 	/**
 	The maximum number of entries a sort buffer can hold.
 	**/
@@ -165,6 +172,12 @@ class MergeSort implements Sort
 	**/
 	int sortBufferMin;
 
+	/**
+	The maximum number of threads that may sort the rows
+	of a merge run.
+	**/
+	int maxParallelism;
+
 	/**
 	Properties for mergeSort
 	**/
@@ -236,8 +249,7 @@ class MergeSort implements Sort
 		else
 		{
 			// Dump the rows in the sort buffer to a merge run.
-			long containerId = createMergeRun(tran, sortBuffer);
-			mergeRuns.addElement(containerId);
+			createLastMergeRun(tran);
 
 			// If there are more merge runs than we can sort
 			// at once with our sort buffer, we have to reduce
@@ -295,8 +307,7 @@ class MergeSort implements Sort
 		else
 		{
 			// Dump the rows in the sort buffer to a merge run.
-			long containerId = createMergeRun(tran, sortBuffer);
-			mergeRuns.addElement(containerId);
+			createLastMergeRun(tran);
 
 			// If there are more merge runs than we can sort
 			// at once with our sort buffer, we have to reduce
@@ -359,6 +370,11 @@ class MergeSort implements Sort
 			sortBuffer.close();
 			sortBuffer = null;
 		}
+		if (runBuffer != null)
+		{
+			runBuffer.close();
+			runBuffer = null;
+		}
 
 		// Clean out the rest of the objects.
 		template = null;
@@ -522,7 +538,8 @@ class MergeSort implements Sort
     SortObserver            sortObserver,
     boolean                 alreadyInOrder,
     long                    estimatedRows,
-    int                     sortBufferMax)
+    int                     sortBufferMax,
+    int                     maxParallelism)
         throws StandardException
 	{
         if (SanityManager.DEBUG)
@@ -558,7 +575,9 @@ class MergeSort implements Sort
 		// We don't have any merge runs.
 		this.mergeRuns = null;
 		this.sortBuffer = null;
+		this.runBuffer = null;
 		this.sortBufferMax = sortBufferMax;
+		this.maxParallelism = maxParallelism;
 
         if (estimatedRows > sortBufferMax)
 			sortBufferMin = sortBufferMax;
@@ -577,7 +596,8 @@ class MergeSort implements Sort
 	An inserter is closing.
 	**/
 	void doneInserting(MergeInserter inserter,
-		SortBuffer sortBuffer, Vector<Long> mergeRuns)
+		SortBuffer sortBuffer, ParallelRunBuffer runBuffer,
+		Vector<Long> mergeRuns)
 	{
         if (SanityManager.DEBUG)
         {
@@ -585,6 +605,7 @@ class MergeSort implements Sort
     	}
 
 		this.sortBuffer = sortBuffer;
+		this.runBuffer = runBuffer;
 		this.mergeRuns = mergeRuns;
 		this.inserter = null;
 
@@ -744,6 +765,42 @@ class MergeSort implements Sort
 		}
 	}
 
+	/**
+	Return true if the rows of the merge runs may be sorted by
+	more than one thread.  Not possible if the sort observer
+	remembers duplicates as a side effect of comparing rows.
+	**/
+	boolean canSortInParallel()
+	{
+		return maxParallelism > 1 &&
+			(sortObserver == null || !sortObserver.deferrable());
+	}
+
+	/**
+	Store the rows that didn't go in the previous merge runs
+	in a last merge run, and add it to the merge runs.
+	**/
+	private void createLastMergeRun(TransactionManager tran)
+		throws StandardException
+	{
+		if (runBuffer != null)
+		{
+			// The rows were inserted in a run buffer, and the sort
+			// buffer is empty.
+			if (runBuffer.size() > 0)
+			{
+				runBuffer.sortRows();
+				mergeRuns.addElement(createMergeRun(tran, runBuffer));
+			}
+			runBuffer.close();
+			runBuffer = null;
+		}
+		else
+		{
+			mergeRuns.addElement(createMergeRun(tran, sortBuffer));
+		}
+	}
+
 	/**
 	Remove all the rows from the sort buffer and store them
 	in a temporary conglomerate.  The temporary conglomerate
@@ -770,4 +827,21 @@ class MergeSort implements Sort
 
 		return id;
 	}
+
+	/**
+	Remove all the rows from a run buffer, which must have
+	been sorted, and store them in a temporary conglomerate.
+	Returns the container id of the merge run.
+	**/
+	long createMergeRun(TransactionManager tran, ParallelRunBuffer runBuffer)
+		throws StandardException
+	{
+		Transaction rawTran = tran.getRawStoreXact();
+		int segmentId = StreamContainerHandle.TEMPORARY_SEGMENT;
+
+		// The run buffer is emptied, the caller may reuse it for the
+		// next run.
+		return rawTran.addAndLoadStreamContainer(segmentId,
+			properties, runBuffer);
+	}
 }
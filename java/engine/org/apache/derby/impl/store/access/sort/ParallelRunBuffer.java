@@ -0,0 +1,361 @@
+/*
+
+   Derby - Class org.apache.derby.impl.store.access.sort.ParallelRunBuffer
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.store.access.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.derby.shared.common.sanity.SanityManager;
+import org.apache.derby.iapi.error.StandardException;
+import org.apache.derby.iapi.services.io.FormatableBitSet;
+import org.apache.derby.iapi.store.access.RowSource;
+import org.apache.derby.iapi.store.access.SortObserver;
+
+import org.apache.derby.iapi.types.DataValueDescriptor;
+import org.apache.derby.iapi.util.ParallelWorkers;
+
+/**
+
+  An unordered buffer of rows that is sorted by several threads before
+  it is written to a merge run.
+  <P>
+  Once a sort has become an external sort, and it is allowed to use more
+  than one thread, MergeInserter puts the rows in a ParallelRunBuffer
+  instead of the SortBuffer. When the buffer is full, it is split into
+  slices that are sorted by tasks in Derby's pool of parallel workers (see
+  ParallelWorkers), the sorted slices are merged by the same tasks, and
+  the result is written to a merge run by the thread that inserts the
+  rows. Only the in-memory sort runs in parallel, because the merge runs
+  are stream containers that belong to the transaction, and a transaction
+  may only be used by one thread at a time.
+  <P>
+  Each row is only touched by one task at a time: a slice is sorted by one
+  task, and two slices are merged by the task that sorted them after it has
+  joined the tasks of the slices. So the lazily computed state of the column
+  values that are compared is never shared between threads.
+  <P>
+  Rows are passed to SortObserver.insertNonDuplicateKey() as they are added,
+  since the caller may reuse them. Duplicates are found after the sort, and
+  passed to SortObserver.insertDuplicateKey() together with the first row
+  with the same key, just as if every row had been in a merge run of its
+  own.
+
+**/
+
+final class ParallelRunBuffer implements RowSource
+{
+	/**
+	The smallest number of rows a task should sort. Buffers with fewer
+	rows than twice this number are sorted by the inserting thread alone.
+	**/
+	private static final int MIN_ROWS_PER_SORT_TASK = 1000;
+
+	/**
+	The sort this buffer is associated with.
+	**/
+	private final MergeSort sort;
+
+	/**
+	The maximum number of tasks that sort the buffer.
+	**/
+	private final int maxParallelism;
+
+	/**
+	The maximum size of the free list of the sort observer.
+	**/
+	private final int maxFreeListSize;
+
+	/**
+	The rows in the buffer.  Unordered until sortRows() has been called.
+	**/
+	private DataValueDescriptor[][] rows;
+
+	/**
+	The number of rows in the buffer.
+	**/
+	private int count;
+
+	/**
+	The position of the next row to return from getNextRowFromRowSource().
+	**/
+	private int next;
+
+	ParallelRunBuffer(
+    MergeSort   sort,
+    int         capacity,
+    int         maxParallelism,
+    int         maxFreeListSize)
+	{
+		this.sort = sort;
+		this.maxParallelism = maxParallelism;
+		this.maxFreeListSize = maxFreeListSize;
+		this.rows = new DataValueDescriptor[capacity][];
+	}
+
+	/**
+	Add a row to the buffer. The row must already have been passed to
+	the sort observer.
+	**/
+	void add(DataValueDescriptor[] row)
+	{
+		if (SanityManager.DEBUG)
+			SanityManager.ASSERT(count < rows.length, "buffer is full");
+
+		rows[count++] = row;
+	}
+
+	/**
+	Return true if no more rows can be added to the buffer.
+	**/
+	boolean isFull()
+	{
+		return count == rows.length;
+	}
+
+	/**
+	Return the number of rows in the buffer.
+	**/
+	int size()
+	{
+		return count;
+	}
+
+	/**
+	Sort the rows in the buffer and remove the duplicates that the sort
+	observer discards.
+
+	@return the number of rows that were discarded as duplicates.
+	**/
+	int sortRows()
+		throws StandardException
+	{
+		int tasks = Math.min(maxParallelism, count / MIN_ROWS_PER_SORT_TASK);
+
+		RowComparator comparator = new RowComparator();
+		try
+		{
+			if (tasks <= 1)
+			{
+				Arrays.sort(rows, 0, count, comparator);
+			}
+			else
+			{
+				ParallelWorkers.getPool().invoke(
+					new SortTask(comparator, 0, count, tasks,
+						new DataValueDescriptor[count][]));
+			}
+		}
+		catch (RuntimeException re)
+		{
+			// A task that ran in another thread may have its exception
+			// wrapped in a new exception of the same type.
+			for (Throwable t = re; t != null; t = t.getCause())
+			{
+				if (t instanceof CompareException)
+					throw ((CompareException) t).se;
+			}
+			throw re;
+		}
+
+		SortObserver observer = sort.sortObserver;
+		if (observer == null)
+			return 0;
+
+		// Pass the rows that compare equal to the first row with the same
+		// key to the sort observer, which may aggregate them or throw them
+		// away.
+		int kept = 0;
+		int firstOfKey = -1;
+		for (int i = 0; i < count; i++)
+		{
+			DataValueDescriptor[] row = rows[i];
+			rows[i] = null;
+
+			if (firstOfKey >= 0 && sort.compare(row, rows[firstOfKey]) == 0)
+			{
+				if ((row = observer.insertDuplicateKey(
+							row, rows[firstOfKey])) == null)
+					continue;
+			}
+			else
+			{
+				firstOfKey = kept;
+			}
+			rows[kept++] = row;
+		}
+
+		int discarded = count - kept;
+		count = kept;
+		return discarded;
+	}
+
+	/**
+	Throw away the rows in the buffer.
+	**/
+	void close()
+	{
+		rows = null;
+		count = 0;
+		next = 0;
+	}
+
+	/*
+	 * Methods of RowSource
+	 */
+
+	/**
+	Return the sorted rows one by one, and empty the buffer when all
+	the rows have been returned so that it can be filled again.
+	**/
+	public DataValueDescriptor[] getNextRowFromRowSource()
+	{
+		if (rows == null || next == count)
+		{
+			count = 0;
+			next = 0;
+			return null;
+		}
+
+		DataValueDescriptor[] retval = rows[next];
+		rows[next++] = null;
+
+		// No rows are inserted while the merge run is written, so the row
+		// can go back to the free list of the sort observer right away.
+		if (sort.sortObserver != null)
+			sort.sortObserver.addToFreeList(retval, maxFreeListSize);
+
+		return retval;
+	}
+
+	public boolean needsToClone()
+	{
+		return false;
+	}
+
+	/**
+		All columns are always set from a sorter
+	*/
+	public FormatableBitSet getValidColumns()
+	{
+		return null;
+	}
+
+	/**
+	Nothing to do, the buffer is reused for the next merge run.
+	**/
+	public void closeRowSource()
+	{
+	}
+
+	/**
+	A StandardException thrown by a comparison during the sort.
+	**/
+	private static final class CompareException extends RuntimeException
+	{
+		private final StandardException se;
+
+		CompareException(StandardException se)
+		{
+			super(se);
+			this.se = se;
+		}
+	}
+
+	/**
+	Compares rows the way the sort does.
+	**/
+	private final class RowComparator
+		implements Comparator<DataValueDescriptor[]>
+	{
+		public int compare(DataValueDescriptor[] r1, DataValueDescriptor[] r2)
+		{
+			try
+			{
+				return sort.compare(r1, r2);
+			}
+			catch (StandardException se)
+			{
+				throw new CompareException(se);
+			}
+		}
+	}
+
+	/**
+	Sorts a range of the rows. If the range is to be split between more
+	than one task, the task sorts the two halves of the range in parallel
+	and then merges them.  The sort is stable, so rows with equal keys
+	keep the order they were inserted in.
+	**/
+	private final class SortTask extends RecursiveAction
+	{
+		private final RowComparator comparator;
+		private final int lo;
+		private final int hi;
+		private final int tasks;
+		private final DataValueDescriptor[][] scratch;
+
+		SortTask(RowComparator comparator, int lo, int hi, int tasks,
+				 DataValueDescriptor[][] scratch)
+		{
+			this.comparator = comparator;
+			this.lo = lo;
+			this.hi = hi;
+			this.tasks = tasks;
+			this.scratch = scratch;
+		}
+
+		protected void compute()
+		{
+			if (tasks == 1)
+			{
+				Arrays.sort(rows, lo, hi, comparator);
+				return;
+			}
+
+			int leftTasks = tasks / 2;
+			int mid = (int) (lo + ((long) (hi - lo) * leftTasks) / tasks);
+			invokeAll(
+				new SortTask(comparator, lo, mid, leftTasks, scratch),
+				new SortTask(comparator, mid, hi, tasks - leftTasks, scratch));
+
+			// Merge the sorted halves, taking the row from the left half
+			// when the keys are equal.
+			System.arraycopy(rows, lo, scratch, lo, hi - lo);
+			int l = lo;
+			int r = mid;
+			int to = lo;
+			while (l < mid && r < hi)
+			{
+				if (comparator.compare(scratch[r], scratch[l]) < 0)
+					rows[to++] = scratch[r++];
+				else
+					rows[to++] = scratch[l++];
+			}
+			while (l < mid)
+				rows[to++] = scratch[l++];
+			while (r < hi)
+				rows[to++] = scratch[r++];
+			Arrays.fill(scratch, lo, hi, null);
+		}
+	}
+}
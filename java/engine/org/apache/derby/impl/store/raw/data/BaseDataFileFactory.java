@@ -186,6 +186,9 @@ public class BaseDataFileFactory
     // disable syncing of data during checkpoint.
     boolean dataNotSyncedAtCheckpoint = false;
 
+    // read container pages through memory mapped regions of the files.
+    private boolean mapContainerFiles;
+
 	// these fields can be accessed directly by subclasses if it needs a
 	// different set of actions
 	private PageActions       loggablePageActions; 
@@ -435,9 +438,14 @@ public class BaseDataFileFactory
                     RawStoreFactory.PAGE_CACHE_SIZE_MINIMUM,
                     RawStoreFactory.PAGE_CACHE_SIZE_MAXIMUM);
 
+		String pageReplacementPolicy = PropertyUtil.getPropertyFromSet(
+                startParams,
+                RawStoreFactory.PAGE_REPLACEMENT_POLICY_PARAMETER);
+
 		pageCache =
             cf.newCacheManager(
-                this, "PageCache", pageCacheSize / 2, pageCacheSize);
+                this, "PageCache", pageCacheSize / 2, pageCacheSize,
+                pageReplacementPolicy);
 
         // Initialize the container cache
 	    int fileCacheSize = getIntParameter(
@@ -504,6 +512,9 @@ public class BaseDataFileFactory
                     "set to true.");
 		}
 
+        mapContainerFiles =
+            PropertyUtil.getSystemBoolean(Property.STORAGE_MAP_CONTAINER_FILES);
+
         fileHandler = new RFResource( this);
 	} // end of boot
 
@@ -2145,6 +2156,17 @@ public class BaseDataFileFactory
 		return databaseEncrypted;
 	}
 
+    /**
+     * Tell whether container pages should be read through memory mapped
+     * regions of the container files.
+     *
+     * @see Property#STORAGE_MAP_CONTAINER_FILES
+     */
+    final boolean mapContainerFiles()
+    {
+        return mapContainerFiles;
+    }
+
     /** {@inheritDoc} */
     public void setDatabaseEncrypted(boolean isEncrypted)
 	{
@@ -34,6 +34,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ClosedByInterruptException;
@@ -67,8 +68,18 @@ import org.apache.derby.io.StorageRandomAccessFile;
  *      The iosInProgress variable is used in an attempt to detect this should it
  *      happen while running a debug build.
  * </ol>
+ * <p>
+ * If derby.storage.mapContainerFiles is set, pages are read through
+ * read-only memory mappings of fixed size regions of the file rather than
+ * with positional reads. Only regions that lie completely inside the file
+ * are mapped, so pages near the end of a growing file are still read from
+ * the channel. Writes always go through the channel; the mappings see them
+ * since they share the operating system's page cache with the file.
+ * The mappings are dropped when the container is closed or truncated, and
+ * released by the garbage collector once no reader uses them any more.
  *
  * @see java.nio.channels.FileChannel
+ * @see org.apache.derby.iapi.reference.Property#STORAGE_MAP_CONTAINER_FILES
  */
 class RAFContainer4 extends RAFContainer {
 
@@ -115,6 +126,21 @@ class RAFContainer4 extends RAFContainer {
      */
     private int iosInProgress = 0; // protected by monitor on "this"
 
+    /**
+     * Size of the regions of the file that are mapped into memory when
+     * derby.storage.mapContainerFiles is set. A multiple of all the
+     * supported page sizes, so that a page never spans two regions.
+     */
+    private static final long MAP_REGION_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Read-only mappings of the regions of the file, indexed by region
+     * number, or null if no region has been mapped. Read without
+     * synchronization; only replaced, never modified, while holding the
+     * monitor on "this".
+     */
+    private volatile MappedByteBuffer[] mappedRegions;
+
     public RAFContainer4(BaseDataFileFactory factory) {
         super(factory);
     }
@@ -232,6 +258,10 @@ class RAFContainer4 extends RAFContainer {
                     "Container closed while IO operations are in progress. "
                     + " This should not happen.");
         }
+        // Drop the mappings, the file might be removed or reopened
+        // under another identity.
+        unmapRegions();
+
         if(ourChannel != null) {
             try {
                 ourChannel.close();
@@ -431,7 +461,11 @@ class RAFContainer4 extends RAFContainer {
                 if (offset == -1L) {
                     // Normal page read doesn't specify offset,
                     // so use one computed from page number.
-                    readFull(pageBuf, ioChannel, pageOffset);
+                    if (!dataFactory.mapContainerFiles() ||
+                        pageNumber == FIRST_ALLOC_PAGE_NUMBER ||
+                        !readMappedPage(ioChannel, pageOffset, pageData)) {
+                        readFull(pageBuf, ioChannel, pageOffset);
+                    }
                 } else {
                     // getEmbryonicPage specifies it own offset, so use that
                     if (SanityManager.DEBUG) {
@@ -464,6 +498,99 @@ class RAFContainer4 extends RAFContainer {
     }
 
 
+    /**
+     * Read a page through the memory mapping of the region of the file
+     * that holds it. The region is mapped on first use, provided that it
+     * is completely inside the file.
+     *
+     * @param ioChannel the channel of the container file
+     * @param pageOffset the offset of the page in the file
+     * @param pageData the buffer to read the page into
+     * @return {@code true} if the page was read, {@code false} if the
+     *   region cannot be mapped yet and the caller must read the page
+     *   from the channel
+     * @exception IOException if the region could not be mapped
+     */
+    private boolean readMappedPage(FileChannel ioChannel,
+                                   long pageOffset,
+                                   byte[] pageData)
+            throws IOException
+    {
+        int region = (int) (pageOffset / MAP_REGION_SIZE);
+        long regionStart = region * MAP_REGION_SIZE;
+
+        MappedByteBuffer[] regions = mappedRegions;
+        MappedByteBuffer map = (regions != null && region < regions.length) ?
+            regions[region] : null;
+
+        if (map == null) {
+            synchronized (this) {
+                regions = mappedRegions;
+                if (regions != null && region < regions.length) {
+                    map = regions[region];
+                }
+
+                if (map == null) {
+                    if (ioChannel.size() < regionStart + MAP_REGION_SIZE) {
+                        // The region is not completely allocated yet.
+                        return false;
+                    }
+
+                    map = ioChannel.map(FileChannel.MapMode.READ_ONLY,
+                                        regionStart, MAP_REGION_SIZE);
+
+                    // Publish a new array, readers may be looking at the
+                    // old one.
+                    MappedByteBuffer[] newRegions = new MappedByteBuffer[
+                        Math.max(region + 1,
+                                 regions == null ? 0 : regions.length)];
+                    if (regions != null) {
+                        System.arraycopy(regions, 0, newRegions, 0,
+                                         regions.length);
+                    }
+                    newRegions[region] = map;
+                    mappedRegions = newRegions;
+                }
+            }
+        }
+
+        // Use a private view so that concurrent readers don't disturb
+        // each other's position.
+        ByteBuffer view = map.duplicate();
+        view.position((int) (pageOffset - regionStart));
+        view.get(pageData, 0, pageSize);
+
+        return true;
+    }
+
+    /**
+     * Drop the memory mappings before the file is truncated, so that no
+     * page beyond the new end of the file is read through them.
+     * <p/>
+     * override of RAFContainer#truncatePages
+     */
+    protected void truncatePages(long lastValidPagenum)
+        throws StandardException
+    {
+        // Hold the monitor across the truncation so that no region can be
+        // mapped again before the file has shrunk. The table is locked
+        // exclusively while it is compressed, so no pages are being read.
+        synchronized (this) {
+            unmapRegions();
+            super.truncatePages(lastValidPagenum);
+        }
+    }
+
+    /**
+     * Forget the memory mappings of the file. They are released by the
+     * garbage collector, so a reader that still holds one of them keeps
+     * it valid until it is done.
+     */
+    private synchronized void unmapRegions()
+    {
+        mappedRegions = null;
+    }
+
     /**
      *  Write a page from the supplied array.
      *  <p/>
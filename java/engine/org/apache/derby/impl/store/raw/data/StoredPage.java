@@ -1171,6 +1171,22 @@ public class StoredPage extends CachedPage
         return(bytesPerRow <= freeSpace);
     }
 
+    /**
+     * Is less than the given percentage of the page in use?
+     *
+     * @return true if less than fillFactor percent of the page is used.
+     *
+     * @param fillFactor    The percentage of the page to fill.
+     *
+	 * @see Page#spaceForLoad
+     **/
+    public boolean spaceForLoad(int fillFactor)
+    {
+        int usedSpace = totalSpace - freeSpace;
+
+        return(((long) usedSpace * 100) < ((long) totalSpace * fillFactor));
+    }
+
     /**
      * Is row guaranteed to be inserted successfully on this page?
      * <p>
@@ -582,7 +582,19 @@ public class FileLogger implements Logger {
             }
 		}
 
-		logFactory.flush(where);
+		logFactory.flushEndXact(where);
+	}
+
+	/**
+		Flush log up to where in the background.
+
+		<P>MT - not needed, wrapper method
+
+		@exception StandardException the log is corrupt
+	*/
+	public void flushLazily(LogInstant where) throws StandardException
+	{
+		logFactory.flushLazily(where);
 	}
 
 	/**
@@ -26,6 +26,7 @@ import org.apache.derby.iapi.services.diag.Performance;
 import org.apache.derby.iapi.services.info.ProductVersionHolder;
 
 import org.apache.derby.shared.common.reference.MessageId;
+import org.apache.derby.iapi.reference.Module;
 import org.apache.derby.iapi.reference.Property;
 import org.apache.derby.shared.common.reference.SQLState;
 
@@ -33,6 +34,7 @@ import org.apache.derby.iapi.services.daemon.DaemonService;
 import org.apache.derby.iapi.services.daemon.Serviceable;
 import org.apache.derby.iapi.services.context.ContextManager;
 import org.apache.derby.iapi.services.context.ContextService;
+import org.apache.derby.iapi.services.jmx.ManagementService;
 import org.apache.derby.iapi.services.monitor.Monitor;
 import org.apache.derby.iapi.services.monitor.ModuleControl;
 import org.apache.derby.iapi.services.monitor.ModuleFactory;
@@ -73,6 +75,7 @@ import org.apache.derby.iapi.services.io.FileUtil;
 import org.apache.derby.io.WritableStorageFactory;
 import org.apache.derby.io.StorageFile;
 import org.apache.derby.io.StorageRandomAccessFile;
+import org.apache.derby.mbeans.TransactionLogMBean;
 
 import org.apache.derby.iapi.util.InterruptStatus;
 
@@ -264,6 +267,22 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 	private static final int LOG_BUFFER_SIZE_MAX = LOG_SWITCH_INTERVAL_MAX;
 	private int logBufferSize = DEFAULT_LOG_BUFFER_SIZE;
 
+	//group commit values, the delay is in milliseconds
+	private static final int DEFAULT_GROUP_COMMIT_DELAY = 0;
+	private static final int GROUP_COMMIT_DELAY_MIN = 0;
+	private static final int GROUP_COMMIT_DELAY_MAX = 1000;
+	private static final int DEFAULT_GROUP_COMMIT_SIZE = 16;
+	private static final int GROUP_COMMIT_SIZE_MIN = 2;
+	private static final int GROUP_COMMIT_SIZE_MAX = 65536;
+	private int groupCommitDelay = DEFAULT_GROUP_COMMIT_DELAY;
+	private int groupCommitSize = DEFAULT_GROUP_COMMIT_SIZE;
+
+	//asynchronous commit values, the delay is in milliseconds
+	private static final int DEFAULT_ASYNC_COMMIT_DELAY = 200;
+	private static final int ASYNC_COMMIT_DELAY_MIN = 1;
+	private static final int ASYNC_COMMIT_DELAY_MAX = 60000;
+	private int asyncCommitDelay = DEFAULT_ASYNC_COMMIT_DELAY;
+
 	/* Log Control file flags. */
 	private static final byte IS_BETA_FLAG = 0x1;
 	
@@ -306,6 +325,32 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 	private boolean logBeingFlushed; // is the log in the middle of a flush
 									 // (access of the variable should sync on this)
 
+	private boolean groupCommitGathering; // is a flushing thread waiting in
+									 // the group commit window for more
+									 // flush requests (sync on this)
+	private long    groupCommitWindow; // number of the current (or last)
+									 // group commit window (sync on this)
+	private int     groupCommitJoined; // number of threads that have joined
+									 // the current window (sync on this)
+
+	// background flusher for asynchronous commits, started on the first
+	// call to flushLazily() (access of the variables should sync on this)
+	private Thread  asyncFlusher;
+	private boolean asyncFlushPending; // log written by an async commit
+									 // still has to be flushed
+	private boolean asyncFlusherStopped;
+
+	// group commit statistics, exposed through TransactionLogMBean
+	// (access of the variables should sync on this)
+	private long    flushRequestCount;
+	private long    syncCount;
+	private long    groupCommitWaitNanos;
+	private long    asyncCommitCount;
+	private long    asyncFlushCount;
+
+	/** The identifier of the MBean that allows monitoring of the log. */
+	private Object mbean;
+
 	protected LogAccessFile logOut;		// an output stream to the log file
 								// (access of the variable should sync on this)
 	private   StorageRandomAccessFile firstLog = null;
@@ -1842,6 +1887,31 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 		flush(fileNumber, wherePosition);
 	}
 
+	/**
+		Flush all unwritten log records up to the log instance indicated to
+		disk and sync, for a transaction that is committing or aborting.
+		Unlike {@link #flush(LogInstant)}, this flush may wait for the group
+		commit window to close, so that the end records of concurrent
+		transactions are synced together.
+
+		<P>MT - not needed, wrapper method
+
+		@param where flush log up to here
+
+		@exception StandardException Standard Derby error policy
+	*/
+	void flushEndXact(LogInstant where) throws StandardException
+	{
+		if (where == null)
+		{
+			flush(where);
+			return;
+		}
+
+		LogCounter whereC = (LogCounter) where;
+		flush(whereC.getLogFileNumber(), whereC.getLogFilePosition(), true);
+	}
+
 	/**
 		Flush all unwritten log record to disk and sync.
 		Also check to see if database is frozen or corrupt.
@@ -1864,6 +1934,113 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 		flush(fnum, whereTo);
 	}
 
+	/**
+		Make sure the log is flushed up to the log instance indicated within
+		asyncCommitDelay milliseconds, without waiting for the flush.
+		Used by transactions that commit with relaxed durability. The
+		actual flush is done by a background thread, which is started the
+		first time this method is called.
+
+		<P>MT - synchronized on this
+
+		@param where flush log up to here
+
+		@exception StandardException the log is corrupt
+	*/
+	public void flushLazily(LogInstant where) throws StandardException
+	{
+		synchronized (this)
+		{
+			if (corrupt != null)
+			{
+				throw StandardException.newException(
+                        SQLState.LOG_STORE_CORRUPT, corrupt);
+			}
+
+			asyncCommitCount++;
+
+			if (!asyncFlusherStopped)
+			{
+				asyncFlushPending = true;
+
+				if (asyncFlusher == null)
+				{
+					asyncFlusher = getMonitor().getDaemonThread(
+						new AsyncFlusher(), "log-flusher", false);
+					asyncFlusher.start();
+				}
+				return;
+			}
+		}
+
+		// shutting down, nobody is going to flush it for us
+		flush(where);
+	}
+
+	/**
+		The background thread that syncs the log written by asynchronous
+		commits. It sleeps until an asynchronous commit has happened, then
+		waits asyncCommitDelay milliseconds to let more of them accumulate,
+		and flushes all of the log with a single sync.
+	*/
+	private final class AsyncFlusher implements Runnable
+	{
+		public void run()
+		{
+			for (;;)
+			{
+				boolean stopping;
+
+				synchronized (LogToFile.this)
+				{
+					try
+					{
+						while (!asyncFlushPending && !asyncFlusherStopped)
+							LogToFile.this.wait();
+
+						long deadline =
+							System.currentTimeMillis() + asyncCommitDelay;
+						long remaining;
+						while (!asyncFlusherStopped &&
+							   (remaining =
+								deadline - System.currentTimeMillis()) > 0)
+						{
+							LogToFile.this.wait(remaining);
+						}
+					}
+					catch (InterruptedException ie)
+					{
+						InterruptStatus.setInterrupted();
+					}
+
+					stopping = asyncFlusherStopped;
+					if (!asyncFlushPending)
+					{
+						if (stopping)
+							return;
+						continue;
+					}
+					asyncFlushPending = false;
+					asyncFlushCount++;
+				}
+
+				try
+				{
+					flushAll();
+				}
+				catch (StandardException se)
+				{
+					// flush() has marked the log corrupt, subsequent
+					// commits will see the error.
+					stopping = true;
+				}
+
+				if (stopping)
+					return;
+			}
+		}
+	}
+
 	/*
 	 * Private methods that helps to implement methods of LogFactory
 	 */
@@ -3213,6 +3390,26 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 												   LOG_BUFFER_SIZE_MIN, 
 												   LOG_BUFFER_SIZE_MAX, 
 												   DEFAULT_LOG_BUFFER_SIZE);
+
+		// group commit is disabled unless the user sets a window
+		groupCommitDelay = PropertyUtil.getSystemInt(
+                                 Property.LOG_GROUP_COMMIT_DELAY,
+                                 GROUP_COMMIT_DELAY_MIN,
+                                 GROUP_COMMIT_DELAY_MAX,
+                                 DEFAULT_GROUP_COMMIT_DELAY);
+		groupCommitSize = PropertyUtil.getSystemInt(
+                                 Property.LOG_GROUP_COMMIT_SIZE,
+                                 GROUP_COMMIT_SIZE_MIN,
+                                 GROUP_COMMIT_SIZE_MAX,
+                                 DEFAULT_GROUP_COMMIT_SIZE);
+
+		// the longest time an asynchronous commit may stay unsynced
+		asyncCommitDelay = PropertyUtil.getSystemInt(
+                                 Property.LOG_ASYNC_COMMIT_DELAY,
+                                 ASYNC_COMMIT_DELAY_MIN,
+                                 ASYNC_COMMIT_DELAY_MAX,
+                                 DEFAULT_ASYNC_COMMIT_DELAY);
+
 		jbmsVersion = getMonitor().getEngineVersion();
 
 		
@@ -3486,6 +3683,18 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 			maxLogFileNumber = LogCounter.DERBY_10_0_MAX_LOGFILE_NUMBER;
 
 		bootTimeLogFileNumber = logFileNumber;
+
+        // Register an MBean that allows users to monitor the log.
+        ManagementService managementService =
+            (ManagementService) getSystemModule(Module.JMX);
+        if (managementService != null)
+        {
+            mbean = managementService.registerMBean(
+                new LogToFileMBeanImpl(this),
+                TransactionLogMBean.class,
+                "type=TransactionLog,db=" +
+                managementService.quotePropertyValue(dataDirectory));
+        }
 	} // end of boot
 
     private void getLogStorageFactory() throws StandardException
@@ -3519,6 +3728,34 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 	*/
 	public  void stop() {
 
+        if (mbean != null)
+        {
+            ManagementService managementService =
+                (ManagementService) getSystemModule(Module.JMX);
+            if (managementService != null)
+                managementService.unregisterMBean(mbean);
+            mbean = null;
+        }
+
+		// stop the background flusher, it syncs what is pending first
+		Thread flusher;
+		synchronized (this)
+		{
+			flusher = asyncFlusher;
+			asyncFlusherStopped = true;
+			notifyAll();
+		}
+		if (flusher != null)
+		{
+			try
+			{
+				flusher.join();
+			}
+			catch (InterruptedException ie)
+			{
+				InterruptStatus.setInterrupted();
+			}
+		}
 
 		// stop our checkpoint 
 		if (checkpointDaemon != null) {
@@ -3940,6 +4177,54 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 		return logFileNumber;
 	}
 
+	/** Get the group commit window in milliseconds, 0 if disabled. */
+	int getGroupCommitDelay()
+	{
+		return groupCommitDelay;
+	}
+
+	/** Get the queue depth that closes the group commit window early. */
+	int getGroupCommitSize()
+	{
+		return groupCommitSize;
+	}
+
+	/** Get the number of requests to flush the log that needed a sync. */
+	synchronized long getFlushRequestCount()
+	{
+		return flushRequestCount;
+	}
+
+	/** Get the number of times the log has been synced by flush(). */
+	synchronized long getSyncCount()
+	{
+		return syncCount;
+	}
+
+	/** Get the time spent in the group commit window, in microseconds. */
+	synchronized long getGroupCommitWaitTime()
+	{
+		return groupCommitWaitNanos / 1000L;
+	}
+
+	/** Get the longest time an asynchronous commit stays unsynced. */
+	int getAsyncCommitDelay()
+	{
+		return asyncCommitDelay;
+	}
+
+	/** Get the number of commits that didn't wait for the log sync. */
+	synchronized long getAsyncCommitCount()
+	{
+		return asyncCommitCount;
+	}
+
+	/** Get the number of flushes done by the background flusher. */
+	synchronized long getAsyncFlushCount()
+	{
+		return asyncFlushCount;
+	}
+
 	/** 
 		Get the first valid log instant - this is the beginning of the first
 		log file
@@ -3963,9 +4248,39 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 
 	*/
 	protected void flush(long fileNumber, long wherePosition) throws StandardException
+	{
+		flush(fileNumber, wherePosition, false);
+	}
+
+	/**
+		Flush the log such that the log record written with the instant 
+        wherePosition is guaranteed to be on disk.
+
+		<P>If group commit is enabled (derby.storage.logGroupCommitDelay is
+		non-zero) and the flush is for the end of a transaction, the thread
+		that is about to flush the log first waits up to groupCommitDelay
+		milliseconds, or until groupCommitSize threads are waiting for the
+		log, so that the flush requests of all of those threads are
+		satisfied by a single write and sync of the log file. Each thread
+		holds or joins at most one window; once its window has closed, it
+		flushes the log itself if nobody else has.
+
+		@param endXact true if the flush is for a transaction that is
+		committing or aborting, false for the flushes done before writing
+		a data page, by a checkpoint and so on, which never wait for a
+		group commit window
+
+		@exception StandardException cannot sync log file
+
+	*/
+	private void flush(long fileNumber, long wherePosition, boolean endXact)
+		throws StandardException
 	{
 
 		long potentialLastFlush = 0;
+		boolean countedRequest = false;	// flushRequestCount bumped for this call
+		boolean gathered = false;		// group commit window held or joined
+		long joinedWindow = -1;			// group commit window joined last
 
 		synchronized (this)
 		{
@@ -4026,6 +4341,11 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 						return;
 					}
 
+					if (!countedRequest)
+					{
+						flushRequestCount++;
+						countedRequest = true;
+					}
 
 					if (SanityManager.DEBUG)
 					{
@@ -4043,9 +4363,25 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 
 					// There could be multiple threads who wants to flush the 
                     // log file, see if I can be the one.
-					if (logBeingFlushed)
+					if (logBeingFlushed || groupCommitGathering)
 					{
 						waited = true;
+
+						// if another thread is holding the group commit
+						// window open, join it. If the queue is now deep
+						// enough, tell it to go ahead and flush for all
+						// of us.
+						if (groupCommitGathering &&
+							joinedWindow != groupCommitWindow)
+						{
+							joinedWindow = groupCommitWindow;
+							// a joiner that wins the monitor after the
+							// window closes must flush, not open another
+							gathered = true;
+							if (++groupCommitJoined + 1 >= groupCommitSize)
+								notifyAll();
+						}
+
 						try
 						{
 							if (Performance.MEASURE)
@@ -4063,6 +4399,50 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
                             InterruptStatus.setInterrupted();
 						}
 					}
+					else if (endXact && groupCommitDelay > 0 &&
+							 !gathered && !logNotSynced)
+					{
+						// Group commit: hold the window open so that
+						// threads committing concurrently can add their
+						// log records, then flush them all with one sync.
+						// Go round the loop again afterwards, the checks
+						// above have to be redone since the monitor has
+						// been released.
+						waited = true;
+						gathered = true;
+						groupCommitGathering = true;
+						groupCommitWindow++;
+						groupCommitJoined = 0;
+
+						long start = System.nanoTime();
+						long deadline =
+							start + groupCommitDelay * 1000000L;
+						try
+						{
+							long remaining;
+							while (corrupt == null &&
+								   groupCommitJoined + 1 < groupCommitSize &&
+								   (remaining =
+									deadline - System.nanoTime()) > 0)
+							{
+								// wait(0) would wait forever
+								wait(Math.max(1L, remaining / 1000000L));
+							}
+						}
+						catch (InterruptedException ie)
+						{
+                            InterruptStatus.setInterrupted();
+						}
+						finally
+						{
+							groupCommitGathering = false;
+							groupCommitWaitNanos += System.nanoTime() - start;
+
+							// wake up the waiters in case we don't get to
+							// flush (e.g. the log got corrupted meanwhile)
+							notifyAll();
+						}
+					}
 					else
 					{
 						waited = false;
@@ -4190,6 +4570,7 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
 				if (syncSuceed)
 				{
 					lastFlush = potentialLastFlush;
+					syncCount++;
 				}
 
 
@@ -6034,6 +6415,24 @@ public final class LogToFile implements LogFactory, ModuleControl, ModuleSupport
              }
              );
     }
+
+    /**
+     * Privileged module lookup. Must be private so that user code
+     * can't call this entry point.
+     */
+    private static  Object getSystemModule( final String factoryInterface )
+    {
+        return AccessController.doPrivileged
+            (
+             new PrivilegedAction<Object>()
+             {
+                 public Object run()
+                 {
+                     return Monitor.getSystemModule( factoryInterface );
+                 }
+             }
+             );
+    }
     
     /**
      * Privileged startup. Must be private so that user code
@@ -0,0 +1,109 @@
+/*
+
+   Derby - Class org.apache.derby.impl.store.raw.log.LogToFileMBeanImpl
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.impl.store.raw.log;
+
+import java.security.AccessControlException;
+import java.security.AccessController;
+import org.apache.derby.mbeans.TransactionLogMBean;
+import org.apache.derby.security.SystemPermission;
+
+/**
+ * This class provides monitoring capabilities for LogToFile through
+ * Java Management Extension (JMX).
+ */
+final class LogToFileMBeanImpl implements TransactionLogMBean {
+
+    private final LogToFile log;
+
+    LogToFileMBeanImpl(LogToFile log) {
+        this.log = log;
+    }
+
+    @Override
+    public int getGroupCommitDelay() {
+        checkPermission();
+        return log.getGroupCommitDelay();
+    }
+
+    @Override
+    public int getGroupCommitSize() {
+        checkPermission();
+        return log.getGroupCommitSize();
+    }
+
+    @Override
+    public long getFlushRequestCount() {
+        checkPermission();
+        return log.getFlushRequestCount();
+    }
+
+    @Override
+    public long getSyncCount() {
+        checkPermission();
+        return log.getSyncCount();
+    }
+
+    @Override
+    public double getCommitsPerSync() {
+        checkPermission();
+        long syncs = log.getSyncCount();
+        return syncs == 0 ? 0 : (double) log.getFlushRequestCount() / syncs;
+    }
+
+    @Override
+    public long getGroupCommitWaitTime() {
+        checkPermission();
+        return log.getGroupCommitWaitTime();
+    }
+
+    @Override
+    public int getAsyncCommitDelay() {
+        checkPermission();
+        return log.getAsyncCommitDelay();
+    }
+
+    @Override
+    public long getAsyncCommitCount() {
+        checkPermission();
+        return log.getAsyncCommitCount();
+    }
+
+    @Override
+    public long getAsyncFlushCount() {
+        checkPermission();
+        return log.getAsyncFlushCount();
+    }
+
+    private static void checkPermission() {
+        if (System.getSecurityManager() != null) {
+            try {
+                AccessController.checkPermission(
+                        SystemPermission.ENGINE_MONITOR);
+            } catch (AccessControlException ace) {
+                // Need to throw a simplified version as AccessControlException
+                // will have a reference to Derby's SystemPermission class,
+                // which most likely will not be available on the client.
+                throw new SecurityException(ace.getMessage());
+            }
+        }
+    }
+}
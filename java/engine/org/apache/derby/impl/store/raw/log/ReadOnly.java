@@ -114,6 +114,9 @@ public class ReadOnly implements LogFactory, ModuleSupportable {
 	public void flush(LogInstant where) throws StandardException {
 	}
 
+	public void flushLazily(LogInstant where) throws StandardException {
+	}
+
 	/*
 	** Methods of ModuleControl
 	*/
@@ -65,6 +65,19 @@ class NoLocking implements LockingPolicy {
 		return true;
 	}
 
+	public boolean skipsUncommittedInserts()
+	{
+		return false;
+	}
+
+	public boolean skipUncommittedInsert(
+    Transaction     t, 
+    RecordHandle    record)
+		throws StandardException
+	{
+		return false;
+	}
+
 	public boolean zeroDurationLockRecordForWrite(
     Transaction     t, 
     RecordHandle    record,
@@ -102,6 +102,22 @@ public class RowLocking1 extends RowLocking2
                     t, container_handle, record, waitForLock, forUpdate));
 	}
 
+    /**
+     * Read uncommitted scans see uncommitted inserts, never skip them.
+     **/
+	public boolean skipsUncommittedInserts()
+    {
+        return(false);
+    }
+
+	public boolean skipUncommittedInsert(
+    Transaction     t, 
+    RecordHandle    record)
+		throws StandardException
+	{
+        return(false);
+	}
+
 	public void unlockRecordAfterRead(
     Transaction     t, 
     ContainerHandle container_handle,
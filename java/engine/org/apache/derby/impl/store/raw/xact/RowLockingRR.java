@@ -66,6 +66,33 @@ public class RowLockingRR extends RowLocking3
 		return(RowLock.RX2);
     }
 
+    /**
+     * Check whether a read-only scan should skip a record inserted by an
+     * uncommitted transaction.
+     * <p>
+     * Repeatable read does not protect against phantoms, so a scan may
+     * treat a record that another transaction has locked for insert as not
+     * yet existing, rather than wait for that transaction to commit.  This
+     * is only done if derby.locks.skipUncommittedInserts is set.
+     *
+	 * @exception  StandardException  Standard exception policy.
+     **/
+	public boolean skipsUncommittedInserts()
+    {
+        return(lf.getSkipUncommittedInserts());
+    }
+
+	public boolean skipUncommittedInsert(
+    Transaction     t, 
+    RecordHandle    record)
+		throws StandardException
+	{
+        return(
+            skipsUncommittedInserts() &&
+            lf.isLockHeldByOther(
+                t.getCompatibilitySpace(), record, RowLock.RI));
+	}
+
     /**
      * Unlock a record after it has been locked for read.
      * <p>
@@ -262,6 +262,10 @@ public class Xact extends RawTransaction implements Limit, LockOwner {
     // if commitNoSync() has been called rather than commit.
     private boolean         flush_log_on_xact_end;
 
+    // If true, commit() writes the commit log record but leaves it to the
+    // log factory's background flusher to sync it, see setAsyncCommit().
+    private boolean         asyncCommit;
+
 	// true, if the transaction executed some operations(like unlogged
 	// operations) that block the  online backup to prevent inconsistent
 	// backup copy.
@@ -623,6 +627,10 @@ public class Xact extends RawTransaction implements Limit, LockOwner {
         dontWaitForLocks = noWait;
     }
 
+    public void setAsyncCommit(boolean async) {
+        asyncCommit = async;
+    }
+
 	/**
 		get the short (internal to raw store) transaction id that is unique
 		only for this raw store
@@ -814,6 +822,14 @@ public class Xact extends RawTransaction implements Limit, LockOwner {
                         // will need to flush the log
 						needSync = true; 
                     }
+					else if (asyncCommit &&
+							 (commitflag & COMMIT_PREPARE) == 0)
+					{
+						// relaxed durability, the log will be synced
+						// by the background flusher shortly
+						logger.flushLazily(flushTo);
+						needSync = false;
+					}
 					else
 					{
 						logger.flush(flushTo);
@@ -220,6 +220,9 @@ public class XactFactory implements TransactionFactory, ModuleControl, ModuleSup
 		if (rawStoreDaemon != null)
 			rawStoreDaemon.stop();
 
+		if (lockFactory != null)
+			lockFactory.deregisterMBean();
+
 	}
 
 	/*
@@ -869,6 +872,9 @@ public class XactFactory implements TransactionFactory, ModuleControl, ModuleSup
 
 		// data factory is booted by the raw store implementation
 		dataFactory = (DataFactory) findServiceModule(this, rsf.getDataFactoryModule());
+
+		// Register an MBean that allows users to monitor the locks.
+		lockFactory.registerMBean(dataFactory.getRootDirectory());
 	}
 
 	/**
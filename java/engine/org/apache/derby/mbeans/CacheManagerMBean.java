@@ -96,4 +96,72 @@ public interface CacheManagerMBean {
      * @return the number of objects in the cache
      */
     long getUsedEntries();
+
+    /**
+     * Get the number of partitions the cache is split into. Each partition
+     * has its own replacement policy and background cleaner. A cache that
+     * is not partitioned has a single partition.
+     *
+     * @return the number of partitions in the cache
+     */
+    int getPartitionCount();
+
+    /**
+     * Get the number of cache hits in each partition of the cache.
+     * Hits are only counted while access counts are being collected.
+     *
+     * @return the number of cache hits, indexed by partition
+     * @see #setCollectAccessCounts(boolean)
+     * @see #getHitCount()
+     */
+    long[] getPartitionHitCounts();
+
+    /**
+     * Get the number of cache misses in each partition of the cache.
+     * Misses are only counted while access counts are being collected.
+     *
+     * @return the number of cache misses, indexed by partition
+     * @see #setCollectAccessCounts(boolean)
+     * @see #getMissCount()
+     */
+    long[] getPartitionMissCounts();
+
+    /**
+     * Get the number of evictions from each partition of the cache.
+     * Evictions are only counted while access counts are being collected.
+     *
+     * @return the number of evicted objects, indexed by partition
+     * @see #setCollectAccessCounts(boolean)
+     * @see #getEvictionCount()
+     */
+    long[] getPartitionEvictionCounts();
+
+    /**
+     * Get the name of the replacement policy that decides which objects to
+     * evict when the cache is full. "CLOCK" is the default policy. "2Q" is
+     * a policy that keeps objects that are only used once, for instance
+     * the pages read by a large table scan, from evicting objects that are
+     * used frequently.
+     *
+     * @return the name of the replacement policy
+     */
+    String getReplacementPolicy();
+
+    /**
+     * Get the number of entries that the replacement policy protects from
+     * eviction by objects that have only been used once. Always 0 for the
+     * CLOCK policy.
+     *
+     * @return the number of protected entries
+     */
+    long getProtectedEntries();
+
+    /**
+     * Get the number of objects that have been admitted into the protected
+     * entries, because they were brought back into the cache shortly after
+     * they had been evicted. Always 0 for the CLOCK policy.
+     *
+     * @return the number of promotions
+     */
+    long getPromotionCount();
 }
@@ -0,0 +1,94 @@
+/*
+
+   Derby - Class org.apache.derby.mbeans.LockManagerMBean
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.mbeans;
+
+/**
+ * This is an MBean that provides information about the lock manager of a
+ * booted database.
+ */
+public interface LockManagerMBean {
+    /**
+     * Get the number of lock requests, including requests for locks that
+     * the transaction already holds.
+     *
+     * @return the number of lock requests
+     */
+    long getLockRequestCount();
+
+    /**
+     * Get the number of locks that were granted on objects that no other
+     * transaction had locked or was waiting for.
+     *
+     * @return the number of uncontended locks
+     */
+    long getUncontendedLockCount();
+
+    /**
+     * Get the number of lock requests that had to wait because another
+     * transaction held a conflicting lock.
+     *
+     * @return the number of lock waits
+     */
+    long getLockWaitCount();
+
+    /**
+     * Get the number of lock requests that were chosen as the victim of a
+     * deadlock.
+     *
+     * @return the number of deadlocks
+     */
+    long getDeadlockCount();
+
+    /**
+     * Get the number of lock requests that gave up waiting because the
+     * lock wait timeout expired.
+     *
+     * @return the number of lock timeouts
+     */
+    long getLockTimeoutCount();
+
+    /**
+     * Get the number of objects that are currently locked, or that
+     * transactions are waiting to lock.
+     *
+     * @return the number of objects in the lock table
+     */
+    int getLockedObjectCount();
+
+    /**
+     * Get the number of times a transaction held so many locks, either by
+     * itself or together with the other transactions, that it tried to
+     * escalate its row locks to table locks.
+     *
+     * @return the number of lock escalation attempts
+     */
+    long getLockEscalationAttemptCount();
+
+    /**
+     * Get the number of lock escalation attempts that replaced row locks
+     * with a table lock. Attempts fail when other transactions hold
+     * conflicting locks on the tables.
+     *
+     * @return the number of lock escalations
+     */
+    long getLockEscalationCount();
+}
@@ -0,0 +1,105 @@
+/*
+
+   Derby - Class org.apache.derby.mbeans.TransactionLogMBean
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derby.mbeans;
+
+/**
+ * This is an MBean that provides information about the transaction log
+ * of a booted database.
+ */
+public interface TransactionLogMBean {
+    /**
+     * Get the group commit window, that is, the maximum number of
+     * milliseconds a transaction that needs to sync the log waits for
+     * other transactions to join the same sync.
+     *
+     * @return the group commit window in milliseconds, or 0 if group
+     *         commit is disabled
+     */
+    int getGroupCommitDelay();
+
+    /**
+     * Get the number of waiting transactions that closes the group commit
+     * window early.
+     *
+     * @return the group commit queue depth
+     */
+    int getGroupCommitSize();
+
+    /**
+     * Get the number of requests to make the log durable up to a given
+     * point. Each commit of a transaction that has written to the log
+     * makes such a request.
+     *
+     * @return the number of log flush requests
+     */
+    long getFlushRequestCount();
+
+    /**
+     * Get the number of times the log file has been synced in order to
+     * satisfy log flush requests.
+     *
+     * @return the number of log syncs
+     */
+    long getSyncCount();
+
+    /**
+     * Get the average number of log flush requests that were satisfied
+     * by each sync of the log file.
+     *
+     * @return the number of flush requests per sync, or 0 if the log has
+     *         not been synced yet
+     */
+    double getCommitsPerSync();
+
+    /**
+     * Get the accumulated time, in microseconds, that transactions have
+     * spent waiting in the group commit window.
+     *
+     * @return the total group commit wait time in microseconds
+     */
+    long getGroupCommitWaitTime();
+
+    /**
+     * Get the longest time, in milliseconds, that a transaction committed
+     * with the {@code asyncCommit=true} connection attribute may stay in
+     * the log buffer before it is synced to disk.
+     *
+     * @return the asynchronous commit delay in milliseconds
+     */
+    int getAsyncCommitDelay();
+
+    /**
+     * Get the number of commits that returned without waiting for the
+     * log to be synced.
+     *
+     * @return the number of asynchronous commits
+     */
+    long getAsyncCommitCount();
+
+    /**
+     * Get the number of times the background flusher has synced the log
+     * on behalf of asynchronous commits.
+     *
+     * @return the number of background log flushes
+     */
+    long getAsyncFlushCount();
+}
@@ -206,6 +206,12 @@ public interface Attribute
 	 */
 	String LOG_DEVICE = "logDevice";
 
+	/**
+		The attribute that is used to let the transactions of a connection
+		commit without waiting for the log to be synced to disk.
+	 */
+	String ASYNC_COMMIT = "asyncCommit";
+
 	/**
 		Set the territory for the database.
 	*/
@@ -368,4 +374,17 @@ public interface Attribute
     */
     String SSL_ATTR = "ssl";
 
+    /**
+     * compression.
+     * Client driver attribute that asks the server to compress the query
+     * data and LOB values that it sends.
+     */
+    String CLIENT_COMPRESSION = "compression";
+
+    /**
+     * Client driver attribute that makes forward-only result sets ask
+     * for their next query block before the application needs it.
+     */
+    String CLIENT_PREFETCH_QUERY_BLOCKS = "prefetchQueryBlocks";
+
 }
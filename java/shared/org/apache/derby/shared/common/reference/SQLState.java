@@ -303,6 +303,9 @@ public interface SQLState {
 	String STORE_RTS_SORT										= "XSAJH.U";
 	String STORE_RTS_EXTERNAL									= "XSAJI.U";
 	String STORE_RTS_INTERNAL									= "XSAJJ.U";
+	String STORE_RTS_NUM_SPILLED_PARTITIONS						= "XSAJK.U";
+	String STORE_RTS_NUM_PARTITION_READS						= "XSAJL.U";
+	String STORE_RTS_NUM_BTREE_PARTITIONS						= "XSAJM.U";
 
 	/*
 	** Store - access.protocol.XA statement exceptions
@@ -1349,6 +1352,7 @@ public interface SQLState {
 	String RTS_END_DEPENDENT_NUMBER									   = "43Y55.U";	
 	String RTS_USER_SUPPLIED_OPTIMIZER_OVERRIDES_FOR_TABLE			   = "43Y56.U";	
 	String RTS_USER_SUPPLIED_OPTIMIZER_OVERRIDES_FOR_JOIN			   = "43Y57.U";
+	String RTS_HASH_TABLE_BUILD_PARALLELISM							   = "43Y62.U";
 
 	// org.apache.derby.catalog.types
 	String TI_SQL_TYPE_NAME			= "44X00.U";
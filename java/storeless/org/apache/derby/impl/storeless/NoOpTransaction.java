@@ -156,7 +156,8 @@ class NoOpTransaction implements TransactionController {
             long max_inmemory_rowcnt, int initialCapacity, float loadFactor,
             boolean collect_runtimestats, boolean skipNullKeyColumns,
             boolean keepAfterCommit,
-            boolean includeRowLocations)
+            boolean includeRowLocations,
+            int max_build_parallelism)
             throws StandardException {
         // Auto-generated method stub
         return null;
@@ -429,4 +430,8 @@ class NoOpTransaction implements TransactionController {
         // Auto-generated method stub
     }
 
+    public void setAsyncCommit(boolean async) {
+        // Auto-generated method stub
+    }
+
 }
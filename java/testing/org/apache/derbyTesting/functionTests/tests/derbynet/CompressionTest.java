@@ -0,0 +1,239 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.derbynet.CompressionTest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.derbynet;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import javax.sql.DataSource;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.BaseTestSuite;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.Derby;
+import org.apache.derbyTesting.junit.JDBCDataSource;
+import org.apache.derbyTesting.junit.NetworkServerTestSetup;
+import org.apache.derbyTesting.junit.SecurityManagerSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test the network server with derby.drda.compressionLevel set, and
+ * clients that ask for compressed query data with the compression
+ * attribute. The rows and LOBs are repetitive, so that they compress
+ * well, except for one LOB of random bytes that doesn't compress.
+ */
+public class CompressionTest extends BaseJDBCTestCase
+{
+    /** Number of rows in the test table. */
+    private static final int ROWS = 2000;
+
+    /** Length of the LOB values. */
+    private static final int LOB_LENGTH = 100000;
+
+    public CompressionTest(String name)
+    {
+        super(name);
+    }
+
+    public static Test suite()
+    {
+        BaseTestSuite suite = new BaseTestSuite("CompressionTest");
+
+        // The server is started in a separate process, which requires
+        // that we run from the jar files.
+        if (!TestConfiguration.loadingFromJars() || !Derby.hasServer()) {
+            return suite;
+        }
+
+        String[] startupProperties = new String[] {
+            "derby.drda.compressionLevel=6",
+        };
+
+        Test test = new CleanDatabaseTestSetup(
+                new BaseTestSuite(CompressionTest.class)) {
+            protected void decorateSQL(Statement s) throws SQLException {
+                s.executeUpdate(
+                    "create table t_compress(id int, txt varchar(200))");
+                PreparedStatement ps = s.getConnection().prepareStatement(
+                    "insert into t_compress values (?, ?)");
+                for (int i = 0; i < ROWS; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, rowText(i));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                ps.close();
+
+                s.executeUpdate("create table t_compress_lob" +
+                                "(id int, c clob, b blob)");
+                ps = s.getConnection().prepareStatement(
+                    "insert into t_compress_lob values (?, ?, ?)");
+                for (int i = 0; i < 2; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, clobText());
+                    ps.setBytes(3, blobBytes(i));
+                    ps.executeUpdate();
+                }
+                ps.close();
+            }
+        };
+        test = new NetworkServerTestSetup(test, startupProperties,
+                                          new String[] {}, true);
+        test = SecurityManagerSetup.noSecurityManager(test);
+        suite.addTest(TestConfiguration.defaultServerDecorator(test));
+        return suite;
+    }
+
+    private static String rowText(int id)
+    {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 150) {
+            sb.append(id).append('-');
+        }
+        return sb.toString();
+    }
+
+    private static String clobText()
+    {
+        StringBuilder sb = new StringBuilder(LOB_LENGTH);
+        while (sb.length() < LOB_LENGTH) {
+            sb.append((char) ('a' + sb.length() % 26));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Bytes of the BLOB in a row. Row 0 has bytes that compress well, and
+     * row 1 has pseudo-random bytes that don't.
+     */
+    private static byte[] blobBytes(int id)
+    {
+        byte[] b = new byte[LOB_LENGTH];
+        int x = 12345;
+        for (int i = 0; i < b.length; i++) {
+            if (id == 0) {
+                b[i] = (byte) (i % 7);
+            } else {
+                x = x * 1103515245 + 12345;
+                b[i] = (byte) (x >>> 16);
+            }
+        }
+        return b;
+    }
+
+    private Connection openCompressedConnection() throws SQLException
+    {
+        DataSource ds = JDBCDataSource.getDataSource();
+        JDBCDataSource.setBeanProperty(ds, "compression", Boolean.TRUE);
+        return ds.getConnection();
+    }
+
+    /**
+     * Read all the rows of a forward-only cursor over a connection that
+     * uses compression, and check that none are lost or garbled.
+     */
+    public void testReadAll() throws SQLException
+    {
+        Connection conn = openCompressedConnection();
+        Statement s = conn.createStatement();
+        ResultSet rs = s.executeQuery(
+                "select id, txt from t_compress order by id");
+        for (int i = 0; i < ROWS; i++) {
+            assertTrue("Missing row " + i, rs.next());
+            assertEquals(i, rs.getInt(1));
+            assertEquals(rowText(i), rs.getString(2));
+        }
+        assertFalse(rs.next());
+        rs.close();
+        s.close();
+        conn.close();
+    }
+
+    /**
+     * Read LOBs over a connection that uses compression, both one that
+     * compresses well and one that doesn't.
+     */
+    public void testLobs() throws SQLException
+    {
+        Connection conn = openCompressedConnection();
+        Statement s = conn.createStatement();
+        ResultSet rs = s.executeQuery(
+                "select id, c, b from t_compress_lob order by id");
+        for (int i = 0; i < 2; i++) {
+            assertTrue(rs.next());
+            assertEquals(i, rs.getInt(1));
+            Clob c = rs.getClob(2);
+            assertEquals(clobText(), c.getSubString(1, (int) c.length()));
+            Blob b = rs.getBlob(3);
+            assertTrue(Arrays.equals(blobBytes(i),
+                                     b.getBytes(1, (int) b.length())));
+        }
+        assertFalse(rs.next());
+        rs.close();
+        s.close();
+        conn.close();
+    }
+
+    /**
+     * Check that scrollable cursors, whose data is sent uncompressed, can
+     * be positioned over a connection that uses compression.
+     */
+    public void testScrollableCursor() throws SQLException
+    {
+        Connection conn = openCompressedConnection();
+        Statement s = conn.createStatement(
+                ResultSet.TYPE_SCROLL_INSENSITIVE,
+                ResultSet.CONCUR_READ_ONLY);
+        ResultSet rs = s.executeQuery(
+                "select id, txt from t_compress order by id");
+        assertTrue(rs.absolute(ROWS / 2));
+        assertEquals(ROWS / 2 - 1, rs.getInt(1));
+        assertTrue(rs.last());
+        assertEquals(ROWS - 1, rs.getInt(1));
+        assertTrue(rs.first());
+        assertEquals(rowText(0), rs.getString(2));
+        rs.close();
+        s.close();
+        conn.close();
+    }
+
+    /**
+     * Check that connections that don't ask for compression still work
+     * against a server that has it enabled.
+     */
+    public void testUncompressedConnection() throws SQLException
+    {
+        Statement s = createStatement();
+        ResultSet rs = s.executeQuery(
+                "select count(*), max(id) from t_compress");
+        assertTrue(rs.next());
+        assertEquals(ROWS, rs.getInt(1));
+        assertEquals(ROWS - 1, rs.getInt(2));
+        rs.close();
+        s.close();
+    }
+}
@@ -0,0 +1,223 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.derbynet.MultiRowInsertTest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.derbynet;
+
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test batches of prepared statements that the client sends with one
+ * multi-row EXCSQLSTT, and batches whose rows can't all go in the same
+ * request because their parameters are described differently.
+ */
+public class MultiRowInsertTest extends BaseJDBCTestCase
+{
+    public MultiRowInsertTest(String name)
+    {
+        super(name);
+    }
+
+    public static Test suite()
+    {
+        Test test = TestConfiguration.clientServerSuite(
+                MultiRowInsertTest.class);
+        return new CleanDatabaseTestSetup(test) {
+            protected void decorateSQL(Statement s) throws SQLException {
+                s.executeUpdate("create table t_multirow(id int primary key, " +
+                                "txt varchar(100), d decimal(10,4), " +
+                                "dt date)");
+            }
+        };
+    }
+
+    protected void setUp() throws SQLException
+    {
+        getConnection().setAutoCommit(false);
+        createStatement().executeUpdate("delete from t_multirow");
+    }
+
+    /**
+     * Insert a large batch whose rows all go in one request.
+     */
+    public void testLargeBatch() throws SQLException
+    {
+        final int rows = 5000;
+        PreparedStatement ps = prepareStatement(
+                "insert into t_multirow values (?, ?, ?, ?)");
+        for (int i = 0; i < rows; i++) {
+            ps.setInt(1, i);
+            ps.setString(2, "row " + i);
+            ps.setBigDecimal(3, new BigDecimal(i).movePointLeft(2));
+            ps.setDate(4, java.sql.Date.valueOf("2020-01-01"));
+            ps.addBatch();
+        }
+        int[] counts = ps.executeBatch();
+        assertEquals(rows, counts.length);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(1, counts[i]);
+        }
+        ResultSet rs = createStatement().executeQuery(
+                "select id, txt, d from t_multirow order by id");
+        for (int i = 0; i < rows; i++) {
+            assertTrue(rs.next());
+            assertEquals(i, rs.getInt(1));
+            assertEquals("row " + i, rs.getString(2));
+            assertEquals(new BigDecimal(i).movePointLeft(2).setScale(4),
+                         rs.getBigDecimal(3));
+        }
+        assertFalse(rs.next());
+        rs.close();
+    }
+
+    /**
+     * Insert a batch where the parameter types, the decimal scale and
+     * nulls change from row to row, so that the rows are split between
+     * several requests.
+     */
+    public void testChangingParameters() throws SQLException
+    {
+        PreparedStatement ps = prepareStatement(
+                "insert into t_multirow values (?, ?, ?, ?)");
+        for (int i = 0; i < 100; i++) {
+            ps.setInt(1, i);
+            if (i % 10 == 3) {
+                ps.setNull(2, Types.VARCHAR);
+            } else {
+                ps.setString(2, "row " + i);
+            }
+            if (i < 50) {
+                ps.setBigDecimal(3, new BigDecimal("1.5"));
+            } else if (i < 75) {
+                ps.setBigDecimal(3, new BigDecimal("1.2345"));
+            } else {
+                ps.setInt(3, i);
+            }
+            ps.setNull(4, Types.DATE);
+            ps.addBatch();
+        }
+        int[] counts = ps.executeBatch();
+        assertEquals(100, counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            assertEquals(1, counts[i]);
+        }
+        JDBC.assertFullResultSet(createStatement().executeQuery(
+                "select count(*), count(txt), sum(d) from t_multirow"),
+                new String[][] {{"100", "90", "2280.8625"}});
+    }
+
+    /**
+     * Check that a row that fails in the middle of a multi-row request
+     * doesn't stop the rows after it.
+     */
+    public void testDuplicateKey() throws SQLException
+    {
+        PreparedStatement ps = prepareStatement(
+                "insert into t_multirow(id, txt) values (?, ?)");
+        int[] ids = {1, 2, 3, 2, 4};
+        for (int i = 0; i < ids.length; i++) {
+            ps.setInt(1, ids[i]);
+            ps.setString(2, "row " + i);
+            ps.addBatch();
+        }
+        try {
+            ps.executeBatch();
+            fail("Expected duplicate key error");
+        } catch (BatchUpdateException bue) {
+            assertSQLState("XJ208", bue);
+            int[] counts = bue.getUpdateCounts();
+            assertEquals(5, counts.length);
+            assertEquals(1, counts[0]);
+            assertEquals(1, counts[1]);
+            assertEquals(1, counts[2]);
+            assertEquals(Statement.EXECUTE_FAILED, counts[3]);
+            assertEquals(1, counts[4]);
+        }
+        JDBC.assertSingleValueResultSet(createStatement().executeQuery(
+                "select count(*) from t_multirow"), "4");
+    }
+
+    /**
+     * Test that a row whose parameter cannot be converted to the column
+     * type fails on its own, and that the other rows are inserted.
+     */
+    public void testBadParameterValue() throws SQLException
+    {
+        PreparedStatement ps = prepareStatement(
+                "insert into t_multirow(id, txt) values (?, ?)");
+        // Send all the ids as strings so that the rows are sent together
+        // and converted to INTEGER by the server.
+        String[] ids = {"1", "2", "x", "3", "4"};
+        for (int i = 0; i < ids.length; i++) {
+            ps.setString(1, ids[i]);
+            ps.setString(2, "row " + i);
+            ps.addBatch();
+        }
+        try {
+            ps.executeBatch();
+            fail("Expected conversion error");
+        } catch (BatchUpdateException bue) {
+            int[] counts = bue.getUpdateCounts();
+            assertEquals(5, counts.length);
+            assertEquals(1, counts[0]);
+            assertEquals(1, counts[1]);
+            assertEquals(Statement.EXECUTE_FAILED, counts[2]);
+            assertEquals(1, counts[3]);
+            assertEquals(1, counts[4]);
+        }
+        JDBC.assertFullResultSet(createStatement().executeQuery(
+                "select id from t_multirow order by id"),
+                new String[][] {{"1"}, {"2"}, {"3"}, {"4"}});
+    }
+
+    /**
+     * Run a batch of updates, which the server executes one row at a
+     * time, and check the update count of each row.
+     */
+    public void testUpdateBatch() throws SQLException
+    {
+        Statement s = createStatement();
+        for (int i = 0; i < 10; i++) {
+            s.executeUpdate("insert into t_multirow(id) values (" + i + ")");
+        }
+        PreparedStatement ps = prepareStatement(
+                "update t_multirow set txt = ? where id >= ?");
+        for (int i = 0; i < 12; i++) {
+            ps.setString(1, "u" + i);
+            ps.setInt(2, i);
+            ps.addBatch();
+        }
+        int[] counts = ps.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+            assertEquals(Math.max(10 - i, 0), counts[i]);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.derbynet.PrefetchQRYDTATest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.derbynet;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.BaseTestSuite;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.Derby;
+import org.apache.derbyTesting.junit.NetworkServerTestSetup;
+import org.apache.derbyTesting.junit.SecurityManagerSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test the network server with derby.drda.prefetchSize set, where the
+ * server builds the next query blocks of a forward-only cursor before the
+ * client asks for them. The rows are wide enough to fill many blocks.
+ */
+public class PrefetchQRYDTATest extends BaseJDBCTestCase
+{
+    /** Number of rows in the test table. */
+    private static final int ROWS = 2000;
+
+    public PrefetchQRYDTATest(String name)
+    {
+        super(name);
+    }
+
+    public static Test suite()
+    {
+        BaseTestSuite suite = new BaseTestSuite("PrefetchQRYDTATest");
+
+        // The server is started in a separate process, which requires
+        // that we run from the jar files.
+        if (!TestConfiguration.loadingFromJars() || !Derby.hasServer()) {
+            return suite;
+        }
+
+        String[] startupProperties = new String[] {
+            "derby.drda.prefetchSize=200000",
+        };
+
+        Test test = new CleanDatabaseTestSetup(
+                new BaseTestSuite(PrefetchQRYDTATest.class)) {
+            protected void decorateSQL(Statement s) throws SQLException {
+                s.executeUpdate(
+                    "create table t_prefetch(id int, txt varchar(200))");
+                PreparedStatement ps = s.getConnection().prepareStatement(
+                    "insert into t_prefetch values (?, ?)");
+                for (int i = 0; i < ROWS; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, rowText(i));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                ps.close();
+            }
+        };
+        test = new NetworkServerTestSetup(test, startupProperties,
+                                          new String[] {}, true);
+        test = SecurityManagerSetup.noSecurityManager(test);
+        suite.addTest(TestConfiguration.defaultServerDecorator(test));
+        return suite;
+    }
+
+    private static String rowText(int id)
+    {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 150) {
+            sb.append(id).append('-');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Read all the rows, so that most of them come from blocks that were
+     * built ahead, and check that none are lost or repeated.
+     */
+    public void testReadAll() throws SQLException
+    {
+        Statement s = createStatement();
+        ResultSet rs = s.executeQuery(
+                "select id, txt from t_prefetch order by id");
+        assertRows(rs, 0, ROWS);
+        assertFalse(rs.next());
+        rs.close();
+        s.close();
+    }
+
+    /**
+     * Fetch from two cursors in turn. Only one of them has blocks built
+     * ahead at a time, and both must see all their rows.
+     */
+    public void testInterleavedCursors() throws SQLException
+    {
+        Statement s1 = createStatement();
+        Statement s2 = createStatement();
+        ResultSet rs1 = s1.executeQuery(
+                "select id, txt from t_prefetch order by id");
+        ResultSet rs2 = s2.executeQuery(
+                "select id, txt from t_prefetch order by id");
+        for (int i = 0; i < ROWS; i += 100) {
+            assertRows(rs1, i, 100);
+            assertRows(rs2, i, 100);
+        }
+        assertFalse(rs1.next());
+        assertFalse(rs2.next());
+        rs1.close();
+        rs2.close();
+        s1.close();
+        s2.close();
+    }
+
+    /**
+     * Close a cursor that has blocks built ahead, and check that the
+     * connection can go on.
+     */
+    public void testCloseBeforeEnd() throws SQLException
+    {
+        Statement s = createStatement();
+        for (int round = 0; round < 3; round++) {
+            ResultSet rs = s.executeQuery(
+                    "select id, txt from t_prefetch order by id");
+            assertRows(rs, 0, 10);
+            rs.close();
+        }
+        ResultSet rs = s.executeQuery("select count(*) from t_prefetch");
+        assertTrue(rs.next());
+        assertEquals(ROWS, rs.getInt(1));
+        rs.close();
+        s.close();
+    }
+
+    /**
+     * Check that a transaction can commit while a held cursor has blocks
+     * built ahead, and that the cursor goes on where it was.
+     */
+    public void testCommitWithHeldCursor() throws SQLException
+    {
+        getConnection().setAutoCommit(false);
+        Statement s = createStatement();
+        ResultSet rs = s.executeQuery(
+                "select id, txt from t_prefetch order by id");
+        assertRows(rs, 0, 10);
+        commit();
+        assertRows(rs, 10, ROWS - 10);
+        assertFalse(rs.next());
+        rs.close();
+        s.close();
+        commit();
+    }
+
+    private static void assertRows(ResultSet rs, int first, int count)
+            throws SQLException
+    {
+        for (int i = first; i < first + count; i++) {
+            assertTrue("Missing row " + i, rs.next());
+            assertEquals(i, rs.getInt(1));
+            assertEquals(rowText(i), rs.getString(2));
+        }
+    }
+}
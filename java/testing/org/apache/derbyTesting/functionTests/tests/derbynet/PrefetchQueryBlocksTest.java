@@ -0,0 +1,194 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.derbynet.PrefetchQueryBlocksTest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.derbynet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.JDBCDataSource;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test the client with the prefetchQueryBlocks attribute, where
+ * forward-only result sets send the CNTQRY for their next query block
+ * before the application needs it. The fixtures make other requests flow
+ * while a CNTQRY is in flight, which must read its reply first.
+ */
+public class PrefetchQueryBlocksTest extends BaseJDBCTestCase
+{
+    /** Number of rows in the test table. */
+    private static final int ROWS = 2000;
+
+    public PrefetchQueryBlocksTest(String name)
+    {
+        super(name);
+    }
+
+    public static Test suite()
+    {
+        Test test = TestConfiguration.clientServerSuite(
+                PrefetchQueryBlocksTest.class);
+        return new CleanDatabaseTestSetup(test) {
+            protected void decorateSQL(Statement s) throws SQLException {
+                s.executeUpdate(
+                    "create table t_prefetch_cli(id int, txt varchar(200))");
+                PreparedStatement ps = s.getConnection().prepareStatement(
+                    "insert into t_prefetch_cli values (?, ?)");
+                for (int i = 0; i < ROWS; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, rowText(i));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                ps.close();
+            }
+        };
+    }
+
+    private static String rowText(int id)
+    {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 150) {
+            sb.append(id).append('-');
+        }
+        return sb.toString();
+    }
+
+    private Connection openPrefetchConnection() throws SQLException
+    {
+        DataSource ds = JDBCDataSource.getDataSource();
+        JDBCDataSource.setBeanProperty(
+                ds, "prefetchQueryBlocks", Boolean.TRUE);
+        return ds.getConnection();
+    }
+
+    /**
+     * Read all the rows, with and without a fetch size that limits the
+     * number of rows fetched ahead.
+     */
+    public void testReadAll() throws SQLException
+    {
+        Connection conn = openPrefetchConnection();
+        int[] fetchSizes = {0, 10, 100000};
+        for (int i = 0; i < fetchSizes.length; i++) {
+            Statement s = conn.createStatement();
+            s.setFetchSize(fetchSizes[i]);
+            ResultSet rs = s.executeQuery(
+                    "select id, txt from t_prefetch_cli order by id");
+            assertRows(rs, 0, ROWS);
+            assertFalse(rs.next());
+            rs.close();
+            s.close();
+        }
+        conn.close();
+    }
+
+    /**
+     * Fetch from two cursors in turn, so that the CNTQRY in flight for
+     * one of them is read when the other one fetches.
+     */
+    public void testInterleavedCursors() throws SQLException
+    {
+        Connection conn = openPrefetchConnection();
+        Statement s1 = conn.createStatement();
+        Statement s2 = conn.createStatement();
+        ResultSet rs1 = s1.executeQuery(
+                "select id, txt from t_prefetch_cli order by id");
+        ResultSet rs2 = s2.executeQuery(
+                "select id, txt from t_prefetch_cli order by id");
+        for (int i = 0; i < ROWS; i += 100) {
+            assertRows(rs1, i, 100);
+            assertRows(rs2, i, 100);
+        }
+        assertFalse(rs1.next());
+        assertFalse(rs2.next());
+        rs1.close();
+        rs2.close();
+        s1.close();
+        s2.close();
+        conn.close();
+    }
+
+    /**
+     * Run other statements and commit while a cursor has a CNTQRY in
+     * flight, and check that the cursor goes on where it was.
+     */
+    public void testOtherRequestsWhileInFlight() throws SQLException
+    {
+        Connection conn = openPrefetchConnection();
+        conn.setAutoCommit(false);
+        Statement s = conn.createStatement();
+        Statement other = conn.createStatement();
+        ResultSet rs = s.executeQuery(
+                "select id, txt from t_prefetch_cli order by id");
+        for (int i = 0; i < ROWS; i += 500) {
+            assertRows(rs, i, 500);
+            JDBC.assertSingleValueResultSet(
+                    other.executeQuery("values " + i), Integer.toString(i));
+            conn.commit();
+        }
+        assertFalse(rs.next());
+        rs.close();
+        s.close();
+        other.close();
+        conn.commit();
+        conn.close();
+    }
+
+    /**
+     * Close cursors that have a CNTQRY in flight, and check that the
+     * connection can go on.
+     */
+    public void testCloseBeforeEnd() throws SQLException
+    {
+        Connection conn = openPrefetchConnection();
+        Statement s = conn.createStatement();
+        for (int round = 0; round < 3; round++) {
+            ResultSet rs = s.executeQuery(
+                    "select id, txt from t_prefetch_cli order by id");
+            assertRows(rs, 0, 300);
+            rs.close();
+        }
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery("select count(*) from t_prefetch_cli"),
+                Integer.toString(ROWS));
+        s.close();
+        conn.close();
+    }
+
+    private static void assertRows(ResultSet rs, int first, int count)
+            throws SQLException
+    {
+        for (int i = first; i < first + count; i++) {
+            assertTrue("Missing row " + i, rs.next());
+            assertEquals(i, rs.getInt(1));
+            assertEquals(rowText(i), rs.getString(2));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.derbynet.SelectIdleSessionsTest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.derbynet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.BaseTestSuite;
+import org.apache.derbyTesting.junit.Derby;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.NetworkServerTestSetup;
+import org.apache.derbyTesting.junit.SecurityManagerSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test the network server with derby.drda.selectIdleSessions=true, where
+ * sessions whose clients are idle give up their connection threads. The
+ * server is started with a single connection thread, so the fixtures
+ * can only complete if the sessions are parked between requests.
+ */
+public class SelectIdleSessionsTest extends BaseJDBCTestCase
+{
+    /** Number of connections open at the same time. */
+    private static final int CONNECTIONS = 4;
+
+    public SelectIdleSessionsTest(String name)
+    {
+        super(name);
+    }
+
+    public static Test suite()
+    {
+        BaseTestSuite suite = new BaseTestSuite("SelectIdleSessionsTest");
+
+        // The server is started in a separate process, which requires
+        // that we run from the jar files.
+        if (!TestConfiguration.loadingFromJars() || !Derby.hasServer()) {
+            return suite;
+        }
+
+        String[] startupProperties = new String[] {
+            "derby.drda.selectIdleSessions=true",
+            "derby.drda.maxThreads=1",
+        };
+
+        Test test = new NetworkServerTestSetup(
+                new BaseTestSuite(SelectIdleSessionsTest.class),
+                startupProperties, new String[] {}, true);
+        test = SecurityManagerSetup.noSecurityManager(test);
+        suite.addTest(TestConfiguration.defaultServerDecorator(test));
+        return suite;
+    }
+
+    /**
+     * Run statements on connections in turn, so that each request goes to
+     * a session that has been parked since its previous request.
+     */
+    public void testInterleavedStatements() throws SQLException
+    {
+        Connection[] conns = openConnections();
+        try {
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    Statement s = conns[i].createStatement();
+                    JDBC.assertSingleValueResultSet(
+                            s.executeQuery("values " + (round * 10 + i)),
+                            Integer.toString(round * 10 + i));
+                    s.close();
+                }
+            }
+        } finally {
+            closeConnections(conns);
+        }
+    }
+
+    /**
+     * Check that prepared statements and transactions, and the encoding
+     * agreed on with the client,
+     * survive while the sessions are parked.
+     */
+    public void testSessionStateIsKept() throws SQLException
+    {
+        Statement s = createStatement();
+        s.executeUpdate("create table t_select_idle(id int, txt varchar(20))");
+
+        Connection[] conns = openConnections();
+        try {
+            PreparedStatement[] inserts = new PreparedStatement[CONNECTIONS];
+            for (int i = 0; i < CONNECTIONS; i++) {
+                conns[i].setAutoCommit(false);
+                inserts[i] = conns[i].prepareStatement(
+                        "insert into t_select_idle values (?, ?)");
+            }
+
+            // Non-ASCII characters check that the sessions go on using the
+            // encoding they agreed on with the client.
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    inserts[i].setInt(1, i);
+                    inserts[i].setString(2, "række " + round);
+                    inserts[i].executeUpdate();
+                }
+            }
+
+            for (int i = 0; i < CONNECTIONS; i++) {
+                if (i % 2 == 0) {
+                    conns[i].commit();
+                } else {
+                    conns[i].rollback();
+                }
+            }
+
+            ResultSet rs = s.executeQuery(
+                    "select id, count(*) from t_select_idle " +
+                    "where txt like 'række %' group by id order by id");
+            JDBC.assertFullResultSet(rs, new String[][] {
+                    {"0", "2"}, {"2", "2"}});
+        } finally {
+            closeConnections(conns);
+            s.executeUpdate("drop table t_select_idle");
+        }
+    }
+
+    private Connection[] openConnections() throws SQLException
+    {
+        Connection[] conns = new Connection[CONNECTIONS];
+        for (int i = 0; i < CONNECTIONS; i++) {
+            conns[i] = openDefaultConnection();
+        }
+        return conns;
+    }
+
+    private static void closeConnections(Connection[] conns)
+            throws SQLException
+    {
+        for (int i = 0; i < conns.length; i++) {
+            if (conns[i] != null) {
+                if (!conns[i].getAutoCommit()) {
+                    conns[i].rollback();
+                }
+                conns[i].close();
+            }
+        }
+    }
+}
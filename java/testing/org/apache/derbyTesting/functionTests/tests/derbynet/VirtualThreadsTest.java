@@ -0,0 +1,149 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.derbynet.VirtualThreadsTest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.derbynet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.BaseTestSuite;
+import org.apache.derbyTesting.junit.Derby;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.NetworkServerTestSetup;
+import org.apache.derbyTesting.junit.SecurityManagerSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test the network server with derby.drda.virtualThreads=true, where each
+ * session runs on a virtual thread of its own. If the JVM has virtual
+ * threads, the server is also limited to a single connection thread, so
+ * the fixtures can only complete if that limit is not applied to the
+ * virtual threads. Otherwise the server must fall back to platform
+ * threads.
+ */
+public class VirtualThreadsTest extends BaseJDBCTestCase
+{
+    /** Number of connections open at the same time. */
+    private static final int CONNECTIONS = 8;
+
+    public VirtualThreadsTest(String name)
+    {
+        super(name);
+    }
+
+    public static Test suite()
+    {
+        BaseTestSuite suite = new BaseTestSuite("VirtualThreadsTest");
+
+        // The server is started in a separate process, which requires
+        // that we run from the jar files.
+        if (!TestConfiguration.loadingFromJars() || !Derby.hasServer()) {
+            return suite;
+        }
+
+        String[] startupProperties = hasVirtualThreads() ?
+            new String[] {
+                "derby.drda.virtualThreads=true",
+                "derby.drda.maxThreads=1",
+            } :
+            new String[] {
+                "derby.drda.virtualThreads=true",
+            };
+
+        Test test = new NetworkServerTestSetup(
+                new BaseTestSuite(VirtualThreadsTest.class),
+                startupProperties, new String[] {}, true);
+        test = SecurityManagerSetup.noSecurityManager(test);
+        suite.addTest(TestConfiguration.defaultServerDecorator(test));
+        return suite;
+    }
+
+    /**
+     * Check if virtual threads can be created in this JVM. They are a
+     * preview feature in Java 19 and 20, where Thread.ofVirtual() fails
+     * unless preview features are enabled.
+     */
+    private static boolean hasVirtualThreads()
+    {
+        try {
+            Thread.class.getMethod("ofVirtual").invoke(null);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run statements on connections in turn, while all of them are open.
+     */
+    public void testInterleavedStatements() throws SQLException
+    {
+        Connection[] conns = new Connection[CONNECTIONS];
+        try {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                conns[i] = openDefaultConnection();
+            }
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    Statement s = conns[i].createStatement();
+                    JDBC.assertSingleValueResultSet(
+                            s.executeQuery("values " + (round * 10 + i)),
+                            Integer.toString(round * 10 + i));
+                    s.close();
+                }
+            }
+        } finally {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                if (conns[i] != null) {
+                    conns[i].close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Open and close many sessions, one after the other, and check that
+     * each of them gets a working thread.
+     */
+    public void testManySessions() throws SQLException
+    {
+        Statement s = createStatement();
+        s.executeUpdate("create table t_virtual(id int)");
+        try {
+            for (int i = 0; i < 50; i++) {
+                Connection c = openDefaultConnection();
+                PreparedStatement ps =
+                        c.prepareStatement("insert into t_virtual values ?");
+                ps.setInt(1, i);
+                assertUpdateCount(ps, 1);
+                ps.close();
+                c.close();
+            }
+            JDBC.assertSingleValueResultSet(
+                    s.executeQuery("select count(*) from t_virtual"), "50");
+        } finally {
+            s.executeUpdate("drop table t_virtual");
+        }
+    }
+}
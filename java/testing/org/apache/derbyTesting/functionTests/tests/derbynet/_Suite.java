@@ -63,6 +63,12 @@ public class _Suite extends BaseTestCase  {
         suite.addTest(GetCurrentPropertiesTest.suite());
         suite.addTest(Utf8CcsidManagerTest.suite());
         suite.addTest(DerbyNetAutoStartTest.suite());
+        suite.addTest(SelectIdleSessionsTest.suite());
+        suite.addTest(PrefetchQRYDTATest.suite());
+        suite.addTest(CompressionTest.suite());
+        suite.addTest(PrefetchQueryBlocksTest.suite());
+        suite.addTest(MultiRowInsertTest.suite());
+        suite.addTest(VirtualThreadsTest.suite());
 
         // Disabled due to "java.sql.SQLSyntaxErrorException: The class
         // 'org.apache.derbyTesting.functionTests.tests.derbynet.checkSecMgr'
@@ -1622,6 +1622,69 @@ public class BatchUpdateTest extends BaseJDBCTestCase {
             assertStatementError("42X05", s, "select * from c");
         }
     }
+
+    /**
+     * Test a batch of inserts into a table with an identity column and an
+     * index. The embedded driver inserts the rows of such a batch in one
+     * execution of the statement, and must still return one update count
+     * per row and leave IDENTITY_VAL_LOCAL at the value of the last row.
+     */
+    public void testInsertBatchWithIndex() throws SQLException {
+        setAutoCommit(false);
+
+        Statement s = createStatement();
+        s.execute("create table batchins(id int generated always as " +
+                  "identity, k int not null unique, v varchar(20))");
+
+        PreparedStatement ps = prepareStatement(
+                "insert into batchins(k, v) values (?, ?)");
+        for (int i = 0; i < 1000; i++) {
+            ps.setInt(1, 999 - i);
+            ps.setString(2, "v" + i);
+            ps.addBatch();
+        }
+        int[] expectedCounts = new int[1000];
+        Arrays.fill(expectedCounts, 1);
+        assertBatchUpdateCounts(expectedCounts, ps.executeBatch());
+
+        assertTableRowCount("BATCHINS", 1000);
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery("select v from batchins where k = 0"), "v999");
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery("values identity_val_local()"), "1000");
+        ps.close();
+    }
+
+    /**
+     * Test a batch of inserts where one of the rows violates a unique
+     * constraint. The rows before the failing one must be inserted and
+     * reported, as if the rows had been inserted one by one.
+     */
+    public void testInsertBatchWithDuplicateKey() throws SQLException {
+        setAutoCommit(false);
+
+        Statement s = createStatement();
+        s.execute("create table batchdup(k int primary key)");
+
+        PreparedStatement ps = prepareStatement(
+                "insert into batchdup values (?)");
+        int[] keys = {1, 2, 3, 2, 4};
+        for (int i = 0; i < keys.length; i++) {
+            ps.setInt(1, keys[i]);
+            ps.addBatch();
+        }
+
+        // Embedded stops at the duplicate key, whereas the client driver
+        // goes on with the rest of the batch.
+        long[] expectedCounts = usingEmbedded() ?
+            new long[] {1, 1, 1} :
+            new long[] {1, 1, 1, Statement.EXECUTE_FAILED, 1};
+        assertBatchExecuteError(usingEmbedded() ? "23505" : "XJ208",
+                                ps, expectedCounts);
+
+        assertTableRowCount("BATCHDUP", usingEmbedded() ? 3 : 4);
+        ps.close();
+    }
     ////////////////////////////////////////////////////////////////////////
     //
     // NESTED JDBC 4.2 WRAPPER AROUND A BatchUpdateException
@@ -0,0 +1,167 @@
+/*
+ * Derby - Class org.apache.derbyTesting.functionTests.tests.lang.DeadlockDetectorTest
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.apache.derbyTesting.functionTests.tests.lang;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.DatabasePropertyTestSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test the background deadlock detector enabled by
+ * derby.locks.deadlockDetectionInterval. The deadlock timeout is set so high
+ * that the deadlocks in these tests can only be broken in time by the
+ * detector.
+ */
+public class DeadlockDetectorTest extends BaseJDBCTestCase {
+
+    /** SQLState for deadlock exceptions. */
+    private final static String DEADLOCK = "40001";
+
+    /** Deadlock timeout and wait timeout, in seconds. */
+    private final static int LOCK_TIMEOUT = 60;
+
+    /**
+     * The longest time, in milliseconds, that the tests accept for a
+     * deadlock to be broken. It is well below the deadlock timeout, but
+     * leaves room for slow machines.
+     */
+    private final static long MAX_DETECTION_TIME = 20000L;
+
+    public static Test suite() {
+        // Deadlock detection is engine functionality, so only test embedded.
+        Test test =
+                TestConfiguration.embeddedSuite(DeadlockDetectorTest.class);
+
+        Properties props = new Properties();
+        props.setProperty("derby.locks.deadlockDetectionInterval", "50");
+        test = new DatabasePropertyTestSetup(test, props);
+        test = DatabasePropertyTestSetup.setLockTimeouts(
+                test, LOCK_TIMEOUT, LOCK_TIMEOUT);
+
+        return new CleanDatabaseTestSetup(test);
+    }
+
+    public DeadlockDetectorTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Two transactions that each hold a row the other one wants.
+     */
+    public void testTwoWayDeadlock() throws Exception {
+        assertDeadlockBroken("t_detector2", 2);
+    }
+
+    /**
+     * A cycle of four transactions, each waiting for the row held by the
+     * next one.
+     */
+    public void testFourWayDeadlock() throws Exception {
+        assertDeadlockBroken("t_detector4", 4);
+    }
+
+    /**
+     * Set up a cycle of waiters that each lock one row exclusively and
+     * then wait for the row locked by the next one, and check that exactly
+     * one of them is picked as a victim long before the deadlock timeout.
+     *
+     * @param table the name of the table to create for the test
+     * @param count the number of transactions in the cycle
+     */
+    private void assertDeadlockBroken(String table, int count)
+            throws Exception {
+        Statement s = createStatement();
+        s.executeUpdate("create table " + table + "(x int primary key, y int)");
+        for (int i = 0; i < count; i++) {
+            s.executeUpdate("insert into " + table + "(x) values " + i);
+        }
+
+        Connection[] conns = new Connection[count];
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            conns[i] = openDefaultConnection();
+            conns[i].setAutoCommit(false);
+            PreparedStatement ps = conns[i].prepareStatement(
+                    "update " + table + " set y = x where x = ?");
+            ps.setInt(1, i);
+            assertUpdateCount(ps, 1);
+            ps.close();
+        }
+
+        final List<Exception> exceptions =
+                Collections.synchronizedList(new ArrayList<Exception>());
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            final Connection c = conns[i];
+            final PreparedStatement ps = c.prepareStatement(
+                    "update " + table + " set y = x where x = ?");
+            ps.setInt(1, (i + 1) % count);
+
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        assertUpdateCount(ps, 1);
+                        c.commit();
+                    } catch (Exception e) {
+                        exceptions.add(e);
+                        try {
+                            c.rollback();
+                        } catch (SQLException se) {
+                            exceptions.add(se);
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (int i = 0; i < count; i++) {
+            threads[i].join();
+            conns[i].rollback();
+            conns[i].close();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        for (Exception e : exceptions) {
+            if (e instanceof SQLException) {
+                assertSQLState(DEADLOCK, (SQLException) e);
+            } else {
+                // What's this? Report it.
+                throw e;
+            }
+        }
+
+        // One transaction should be picked as victim, the other ones should
+        // be able to complete.
+        assertEquals("Number of victims", 1, exceptions.size());
+        assertTrue("Deadlock took " + elapsed + " ms to break",
+                   elapsed < MAX_DETECTION_TIME);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+
+Derby - Class org.apache.derbyTesting.functionTests.tests.lang.ParallelHashJoinTest
+
+Licensed to the Apache Software Foundation (ASF) under one or more
+contributor license agreements.  See the NOTICE file distributed with
+this work for additional information regarding copyright ownership.
+The ASF licenses this file to You under the Apache License, Version 2.0
+(the "License"); you may not use this file except in compliance with
+the License.  You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+*/
+package org.apache.derbyTesting.functionTests.tests.lang;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import junit.framework.Test;
+
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.RuntimeStatisticsParser;
+import org.apache.derbyTesting.junit.SQLUtilities;
+import org.apache.derbyTesting.junit.SystemPropertyTestSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test hash joins whose hash table is built by several threads, as
+ * controlled by the derby.language.maxDegreeOfParallelism property.
+ */
+public class ParallelHashJoinTest extends BaseJDBCTestCase
+{
+    /** Number of rows in the inner table of the hash join. */
+    private static final int INNER_ROWS = 60000;
+
+    /** Number of distinct join keys. */
+    private static final int KEYS = 1000;
+
+    private static final String JOIN =
+        "select count(*), sum(o.x), sum(i.y) from outer_t o, " +
+        "inner_t i --DERBY-PROPERTIES joinStrategy=HASH\n" +
+        "where o.k = i.k";
+
+    public ParallelHashJoinTest(String name)
+    {
+        super( name );
+    }
+
+    public static Test suite()
+    {
+        Properties props = new Properties();
+        // Keep the whole inner table in memory.
+        props.setProperty("derby.language.maxMemoryPerTable", "65536");
+
+        Test test = TestConfiguration.defaultSuite(
+            ParallelHashJoinTest.class, false);
+        test = new CleanDatabaseTestSetup(test) {
+            protected void decorateSQL(Statement s) throws SQLException
+            {
+                s.execute("create table outer_t(k int, x int)");
+                s.execute("create table inner_t(k int, y int)");
+                PreparedStatement ps = s.getConnection().prepareStatement(
+                    "insert into outer_t values (?, ?)");
+                for (int i = 0; i < KEYS; i++)
+                {
+                    ps.setInt(1, i);
+                    ps.setInt(2, i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                ps = s.getConnection().prepareStatement(
+                    "insert into inner_t values (?, ?)");
+                for (int i = 0; i < INNER_ROWS; i++)
+                {
+                    ps.setInt(1, i % KEYS);
+                    ps.setInt(2, i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        };
+        return new SystemPropertyTestSetup(test, props, true);
+    }
+
+    protected void tearDown() throws Exception
+    {
+        setDegreeOfParallelism(null);
+        super.tearDown();
+    }
+
+    private void setDegreeOfParallelism(String value) throws SQLException
+    {
+        PreparedStatement ps = prepareStatement(
+            "call syscs_util.syscs_set_database_property(" +
+            "'derby.language.maxDegreeOfParallelism', ?)");
+        ps.setString(1, value);
+        ps.execute();
+        ps.close();
+    }
+
+    /**
+     * Run the join and check that every inner row found its outer row.
+     *
+     * @return the runtime statistics of the join
+     */
+    private RuntimeStatisticsParser runJoin() throws SQLException
+    {
+        Statement s = createStatement();
+        s.execute("call syscs_util.syscs_set_runtimestatistics(1)");
+
+        // Every outer row matches INNER_ROWS / KEYS inner rows.
+        long sumX = (long) (INNER_ROWS / KEYS) * KEYS * (KEYS - 1) / 2;
+        long sumY = (long) INNER_ROWS * (INNER_ROWS - 1) / 2;
+        ResultSet rs = s.executeQuery(JOIN);
+        JDBC.assertFullResultSet(rs, new String[][] {
+            { Integer.toString(INNER_ROWS), Long.toString(sumX),
+              Long.toString(sumY) } });
+
+        RuntimeStatisticsParser rtsp =
+            SQLUtilities.getRuntimeStatisticsParser(s);
+        s.execute("call syscs_util.syscs_set_runtimestatistics(0)");
+        s.close();
+        return rtsp;
+    }
+
+    /**
+     * By default the hash table is built by a single thread, and the
+     * build parallelism is not shown in the query plan.
+     */
+    public void testSerialBuild() throws SQLException
+    {
+        RuntimeStatisticsParser rtsp = runJoin();
+        assertTrue(rtsp.usedHashJoin());
+        assertFalse(rtsp.toString(),
+                    rtsp.findString("Hash table build parallelism", 1));
+    }
+
+    /**
+     * With a maximum degree of parallelism larger than one, the hash table
+     * is split between as many build tasks as the row count allows, and
+     * the join returns the same rows as with a serial build.
+     */
+    public void testParallelBuild() throws SQLException
+    {
+        setDegreeOfParallelism("4");
+
+        // 60000 rows give three tasks of at least 20000 rows each.
+        RuntimeStatisticsParser rtsp = runJoin();
+        assertTrue(rtsp.usedHashJoin());
+        assertTrue(rtsp.toString(),
+                   rtsp.findString("Hash table build parallelism = 3", 1));
+
+        // A higher limit than the row count allows gives the same plan.
+        setDegreeOfParallelism("64");
+        rtsp = runJoin();
+        assertTrue(rtsp.toString(),
+                   rtsp.findString("Hash table build parallelism = 3", 1));
+    }
+
+    /**
+     * A hash table that is too small to split is built by a single thread
+     * even if a higher degree of parallelism is allowed.
+     */
+    public void testSmallHashTable() throws SQLException
+    {
+        setDegreeOfParallelism("4");
+
+        Statement s = createStatement();
+        s.execute("call syscs_util.syscs_set_runtimestatistics(1)");
+        JDBC.assertFullResultSet(
+            s.executeQuery(
+                "select count(*) from inner_t i, outer_t o " +
+                "--DERBY-PROPERTIES joinStrategy=HASH\n" +
+                "where o.k = i.k and i.y < 100"),
+            new String[][] { { "100" } });
+        RuntimeStatisticsParser rtsp =
+            SQLUtilities.getRuntimeStatisticsParser(s);
+        assertTrue(rtsp.usedHashJoin());
+        assertFalse(rtsp.toString(),
+                    rtsp.findString("Hash table build parallelism", 1));
+        s.execute("call syscs_util.syscs_set_runtimestatistics(0)");
+    }
+}
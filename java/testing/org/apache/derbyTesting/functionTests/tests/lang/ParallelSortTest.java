@@ -0,0 +1,181 @@
+/*
+
+Derby - Class org.apache.derbyTesting.functionTests.tests.lang.ParallelSortTest
+
+Licensed to the Apache Software Foundation (ASF) under one or more
+contributor license agreements.  See the NOTICE file distributed with
+this work for additional information regarding copyright ownership.
+The ASF licenses this file to You under the Apache License, Version 2.0
+(the "License"); you may not use this file except in compliance with
+the License.  You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+*/
+package org.apache.derbyTesting.functionTests.tests.lang;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import junit.framework.Test;
+
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.SystemPropertyTestSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test external sorts whose merge runs are sorted by several threads, as
+ * controlled by the derby.language.maxDegreeOfParallelism property.
+ */
+public class ParallelSortTest extends BaseJDBCTestCase
+{
+    /** Number of rows in the sorted table. */
+    private static final int ROWS = 20000;
+
+    /** Number of distinct values in the grouping column. */
+    private static final int GROUPS = 700;
+
+    public ParallelSortTest(String name)
+    {
+        super( name );
+    }
+
+    public static Test suite()
+    {
+        Properties props = new Properties();
+        // Small sort buffers, so that the sorts are external sorts with
+        // many merge runs. The sort buffer is only kept small in debug
+        // builds.
+        props.setProperty("derby.storage.sortBufferMax", "2500");
+        props.setProperty("derby.debug.true", "testSort");
+
+        Test test = TestConfiguration.embeddedSuite(ParallelSortTest.class);
+        test = new CleanDatabaseTestSetup(test) {
+            protected void decorateSQL(Statement s) throws SQLException
+            {
+                s.execute("create table t(id int, g int, v varchar(20))");
+                PreparedStatement ps = s.getConnection().prepareStatement(
+                    "insert into t values (?, ?, ?)");
+                for (int i = 0; i < ROWS; i++)
+                {
+                    // Insert the ids in a scrambled order.
+                    int id = (int) ((i * 7919L) % ROWS);
+                    ps.setInt(1, id);
+                    ps.setInt(2, id % GROUPS);
+                    ps.setString(3, "v" + (ROWS - id));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        };
+        return new SystemPropertyTestSetup(test, props, true);
+    }
+
+    protected void tearDown() throws Exception
+    {
+        setDegreeOfParallelism(null);
+        super.tearDown();
+    }
+
+    private void setDegreeOfParallelism(String value) throws SQLException
+    {
+        PreparedStatement ps = prepareStatement(
+            "call syscs_util.syscs_set_database_property(" +
+            "'derby.language.maxDegreeOfParallelism', ?)");
+        ps.setString(1, value);
+        ps.execute();
+        ps.close();
+    }
+
+    /**
+     * An ORDER BY returns all the rows in order.
+     */
+    public void testOrderBy() throws SQLException
+    {
+        setDegreeOfParallelism("4");
+
+        ResultSet rs = createStatement().executeQuery(
+            "select id, v from t order by v desc, id");
+        String previous = null;
+        int count = 0;
+        while (rs.next())
+        {
+            String v = rs.getString(2);
+            if (previous != null)
+            {
+                assertTrue(previous + " before " + v,
+                           previous.compareTo(v) >= 0);
+            }
+            assertEquals("v" + (ROWS - rs.getInt(1)), v);
+            previous = v;
+            count++;
+        }
+        rs.close();
+        assertEquals(ROWS, count);
+    }
+
+    /**
+     * GROUP BY and DISTINCT combine the duplicates that are found in the
+     * same merge run and in different merge runs.
+     */
+    public void testGroupByAndDistinct() throws SQLException
+    {
+        setDegreeOfParallelism("4");
+
+        ResultSet rs = createStatement().executeQuery(
+            "select g, count(*), sum(id) from t group by g order by g");
+        for (int g = 0; g < GROUPS; g++)
+        {
+            assertTrue(rs.next());
+            assertEquals(g, rs.getInt(1));
+
+            int count = 0;
+            long sum = 0;
+            for (int id = g; id < ROWS; id += GROUPS)
+            {
+                count++;
+                sum += id;
+            }
+            assertEquals(count, rs.getInt(2));
+            assertEquals(sum, rs.getLong(3));
+        }
+        assertFalse(rs.next());
+        rs.close();
+
+        JDBC.assertSingleValueResultSet(
+            createStatement().executeQuery(
+                "select count(*) from (select distinct g from t) d"),
+            Integer.toString(GROUPS));
+    }
+
+    /**
+     * CREATE INDEX sorts the rows of the table, and a unique index still
+     * finds the duplicate keys.
+     */
+    public void testCreateIndex() throws SQLException
+    {
+        setDegreeOfParallelism("4");
+
+        Statement s = createStatement();
+        s.execute("create unique index t_id on t(id)");
+        JDBC.assertSingleValueResultSet(
+            s.executeQuery(
+                "select count(*) from t --DERBY-PROPERTIES index=t_id\n" +
+                "where id >= 0"),
+            Integer.toString(ROWS));
+        s.execute("drop index t_id");
+
+        assertStatementError("23505", s, "create unique index t_g on t(g)");
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Derby - Class org.apache.derbyTesting.functionTests.tests.lang.RowBatchTest
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.apache.derbyTesting.functionTests.tests.lang;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test queries whose rows are passed from a bulk table scan to the
+ * operators above it in batches, with and without restrictions.
+ */
+public class RowBatchTest extends BaseJDBCTestCase {
+
+    /** Number of rows in the test table, several bulk fetch groups. */
+    private static final int ROWS = 1000;
+
+    public RowBatchTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return new CleanDatabaseTestSetup(
+                TestConfiguration.defaultSuite(RowBatchTest.class)) {
+            protected void decorateSQL(Statement s) throws SQLException {
+                s.executeUpdate("create table t_batch(a int, b int)");
+                PreparedStatement ps = s.getConnection().prepareStatement(
+                        "insert into t_batch values (?, ?)");
+                for (int i = 1; i <= ROWS; i++) {
+                    ps.setInt(1, i);
+                    ps.setInt(2, i % 10);
+                    ps.executeUpdate();
+                }
+                ps.close();
+            }
+        };
+    }
+
+    /**
+     * An aggregate over a computed expression without a WHERE clause must
+     * project every row of the batch, not a stale current row.
+     */
+    public void testAggregateOverExpressionWithoutRestriction()
+            throws SQLException {
+        Statement s = createStatement();
+        int max = 0;
+        for (int i = 1; i <= ROWS; i++) {
+            max = Math.max(max, i + i % 10);
+        }
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery("select sum(a * 2) from t_batch"),
+                Integer.toString(ROWS * (ROWS + 1)));
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery("select max(a + b) from t_batch"),
+                Integer.toString(max));
+    }
+
+    /**
+     * An aggregate over a computed expression with a WHERE clause.
+     */
+    public void testAggregateOverExpressionWithRestriction()
+            throws SQLException {
+        Statement s = createStatement();
+        int expected = 0;
+        for (int i = 1; i <= ROWS; i++) {
+            if (i % 10 == 3) {
+                expected += i * 2;
+            }
+        }
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery("select sum(a * 2) from t_batch where b = 3"),
+                Integer.toString(expected));
+    }
+
+    /**
+     * Computed columns returned to the client without a WHERE clause.
+     */
+    public void testProjectionWithoutRestriction() throws SQLException {
+        ResultSet rs = createStatement().executeQuery(
+                "select a, a * 2 from t_batch");
+        int count = 0;
+        while (rs.next()) {
+            assertEquals(2 * rs.getInt(1), rs.getInt(2));
+            count++;
+        }
+        rs.close();
+        assertEquals(ROWS, count);
+    }
+}
@@ -28,6 +28,7 @@ import junit.framework.Test;
 import org.apache.derby.catalog.SequencePreallocator;
 import org.apache.derby.iapi.store.access.TransactionController;
 import org.apache.derby.iapi.types.SQLLongint;
+import org.apache.derby.impl.sql.catalog.AdaptiveSequenceRange;
 import org.apache.derby.impl.sql.catalog.SequenceGenerator;
 import org.apache.derby.impl.sql.catalog.SequenceRange;
 import org.apache.derby.impl.sql.catalog.SequenceUpdater;
@@ -845,7 +846,69 @@ public class SequenceGeneratorTest  extends GeneratedColumnsHelper
         dboConn.rollback();
         dboConn.setAutoCommit( true );
     }
-    
+
+    /**
+     * <p>
+     * Test the preallocator which adapts the range size to demand.
+     * </p>
+     */
+    public void test_15_adaptiveAllocator() throws Exception
+    {
+        // ranges which are used up quickly grow up to the maximum
+        AdaptiveSequenceRange   fast = new AdaptiveSequenceRange( 10, 50, Long.MAX_VALUE / 1000000L );
+        assertEquals( 10, fast.nextRangeSize( TEST_DBO, "FAST" ) );
+        assertEquals( 20, fast.nextRangeSize( TEST_DBO, "FAST" ) );
+        assertEquals( 40, fast.nextRangeSize( TEST_DBO, "FAST" ) );
+        assertEquals( 50, fast.nextRangeSize( TEST_DBO, "FAST" ) );
+        assertEquals( 50, fast.nextRangeSize( TEST_DBO, "FAST" ) );
+
+        // ranges which last long shrink back down to the minimum
+        AdaptiveSequenceRange   slow = new AdaptiveSequenceRange( 10, 50, Long.MAX_VALUE / 1000000L );
+        assertEquals( 10, slow.nextRangeSize( TEST_DBO, "SLOW" ) );
+        assertEquals( 20, slow.nextRangeSize( TEST_DBO, "SLOW" ) );
+        assertEquals( 40, slow.nextRangeSize( TEST_DBO, "SLOW" ) );
+        slow.setTargetMillis( 0L );
+        assertEquals( 20, slow.nextRangeSize( TEST_DBO, "SLOW" ) );
+        assertEquals( 10, slow.nextRangeSize( TEST_DBO, "SLOW" ) );
+        assertEquals( 10, slow.nextRangeSize( TEST_DBO, "SLOW" ) );
+
+        // the adaptive preallocator hands out the same values as the default one
+        Connection  conn = openUserConnection( TEST_DBO );
+
+        goodStatement( conn, "create sequence seq_15\n" );
+        goodStatement
+            (
+             conn,
+             "call syscs_util.syscs_set_database_property( 'derby.language.sequence.preallocator', 'adaptive')"
+             );
+        PreparedStatement   ps = chattyPrepare( conn, "values ( next value for seq_15 )\n" );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            ResultSet   rs = ps.executeQuery();
+            rs.next();
+            assertEquals( Integer.MIN_VALUE + i, rs.getInt( 1 ) );
+            rs.close();
+        }
+        ps.close();
+
+        // the default preallocator would have allocated exactly 1000 values
+        // in ranges of 100, the adaptive one doubles the ranges during the burst
+        long    onDisk = getCurrentValue( conn, TEST_DBO, "SEQ_15" );
+        assertTrue( "On disk: " + onDisk, onDisk > Integer.MIN_VALUE + 1000L );
+
+        // no values are leaked by an orderly shutdown
+        getTestConfiguration().shutdownEngine();
+        conn = openUserConnection( TEST_DBO );
+        assertNextValue( conn, TEST_DBO, "SEQ_15", Integer.MIN_VALUE + 1000 );
+
+        goodStatement
+            (
+             conn,
+             "call syscs_util.syscs_set_database_property( 'derby.language.sequence.preallocator', null )"
+             );
+        goodStatement( conn, "drop sequence seq_15 restrict\n" );
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////
     //
     // MINIONS
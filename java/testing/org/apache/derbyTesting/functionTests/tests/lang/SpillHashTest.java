@@ -27,11 +27,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.BitSet;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import junit.framework.Test;
 import org.apache.derbyTesting.junit.BaseJDBCTestCase;
 import org.apache.derbyTesting.junit.BaseJDBCTestSetup;
 import org.apache.derbyTesting.junit.BaseTestSuite;
 import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.SQLUtilities;
+import org.apache.derbyTesting.junit.SystemPropertyTestSetup;
 
 /**
  * Test BackingStoreHashtable spilling to disk.
@@ -98,6 +103,13 @@ public class SpillHashTest extends BaseJDBCTestCase {
 		heavy.addTest(new SpillHashTest("testJoinHeavy"));
 		heavy.addTest(new SpillHashTest("testDistinctHeavy"));
 		heavy.addTest(new SpillHashTest("testCursorHeavy"));		
+
+		// With more memory per table, the rows that spill to disk are few
+		// enough to be read back into memory one partition at a time.
+		Properties props = new Properties();
+		props.setProperty("derby.language.maxMemoryPerTable", "2048");
+		heavy.addTest(new SystemPropertyTestSetup(
+				new SpillHashTest("testJoinHeavyPartitioned"), props, true));
 		
 		Test lightSetup = new BaseJDBCTestSetup(light) {
 			protected void setUp() throws Exception {
@@ -186,6 +198,48 @@ public class SpillHashTest extends BaseJDBCTestCase {
 		runJoin(getConnection(), LOTS_OF_ROWS, new String[][][] {initDupVals, spillDupVals});
 	}
 	
+	/**
+	 * Run a hash join whose spilled rows are read back into memory one
+	 * partition at a time, with some partitions falling back to a
+	 * DiskHashtable. Every key is looked up, so every spilled partition
+	 * must either have been read into memory exactly once, or have been
+	 * moved to the DiskHashtable without being read.
+	 */
+	public void testJoinHeavyPartitioned() throws SQLException {
+		Statement s = createStatement();
+		s.execute("call syscs_util.syscs_set_runtimestatistics(1)");
+
+		joinStmt.close();
+		joinStmt = getConnection().prepareStatement(
+				"select ta.ca1, ta.ca2, tb.cb2 from ta, tb " +
+				"--DERBY-PROPERTIES joinStrategy=HASH\n" +
+				"where ca1 = cb1");
+		runJoin(getConnection(), LOTS_OF_ROWS, new String[][][] {initDupVals, spillDupVals});
+
+		String rts = SQLUtilities.getRuntimeStatisticsParser(s).toString();
+		s.execute("call syscs_util.syscs_set_runtimestatistics(0)");
+
+		int spilled = getStatistic(rts,
+				"Number of hash table partitions spilled to disk");
+		int reads = getStatistic(rts,
+				"Number of reads of spilled partitions into memory");
+		int moved = getStatistic(rts,
+				"Number of spilled partitions moved to a B-tree");
+		assertTrue(rts, spilled > 1);
+		assertTrue(rts, reads > 0);
+		assertEquals(rts, spilled, reads + moved);
+	}
+
+	/**
+	 * Get the value of a numeric statistic from the runtime statistics.
+	 */
+	private static int getStatistic(String rts, String name) {
+		Matcher m = Pattern.compile(
+				Pattern.quote(name) + "=(\\d+)").matcher(rts);
+		assertTrue("No " + name + " in " + rts, m.find());
+		return Integer.parseInt(m.group(1));
+	}
+
 	public void testDistinctHeavy() throws SQLException {
 		runDistinct(getConnection(), LOTS_OF_ROWS, new String[][][] {initDupVals, spillDupVals});
 	}
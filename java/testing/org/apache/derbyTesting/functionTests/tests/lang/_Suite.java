@@ -153,6 +153,7 @@ public class _Suite extends BaseTestCase  {
         suite.addTest(UniqueConstraintMultiThreadedTest.suite());
         suite.addTest(ViewsTest.suite());
         suite.addTest(DeadlockDetectionTest.suite());
+        suite.addTest(DeadlockDetectorTest.suite());
         suite.addTest(DeadlockModeTest.suite());
         suite.addTest(AnsiSignaturesTest.suite());
         suite.addTest(PredicatePushdownTest.suite());
@@ -244,6 +245,7 @@ public class _Suite extends BaseTestCase  {
         suite.addTest(JoinDeadlockTest.suite());
         suite.addTest(Derby6131.suite());
         suite.addTest(AggBuiltinTest.suite());
+        suite.addTest(RowBatchTest.suite());
         suite.addTest(NewOptimizerOverridesTest.suite());
         suite.addTest(MergeStatementTest.suite());
         suite.addTest(IdentitySequenceTest.suite());
@@ -262,6 +264,8 @@ public class _Suite extends BaseTestCase  {
         suite.addTest(Derby5866TriggerOrderTest.suite());
         suite.addTest(NoDBInternalsPermissionTest.suite());
         suite.addTest(ClassLoadingTest.suite());
+        suite.addTest(ParallelHashJoinTest.suite());
+        suite.addTest(ParallelSortTest.suite());
         return suite;
 	}
 }
@@ -24,6 +24,7 @@ package org.apache.derbyTesting.functionTests.tests.management;
 import java.security.Permission;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.Set;
 import javax.management.ObjectName;
@@ -46,7 +47,9 @@ public class CacheManagerMBeanTest extends MBeanTest {
 
     private static String[] ALL_ATTRIBUTES = {
         "CollectAccessCounts", "HitCount", "MissCount", "EvictionCount",
-        "MaxEntries", "AllocatedEntries", "UsedEntries"
+        "MaxEntries", "AllocatedEntries", "UsedEntries", "PartitionCount",
+        "PartitionHitCounts", "PartitionMissCounts", "PartitionEvictionCounts",
+        "ReplacementPolicy", "ProtectedEntries", "PromotionCount"
     };
 
     public CacheManagerMBeanTest(String name) {
@@ -95,6 +98,14 @@ public class CacheManagerMBeanTest extends MBeanTest {
         TestConfiguration.getCurrent().shutdownDatabase();
     }
 
+    @Override
+    protected void tearDown() throws Exception {
+        removeSystemProperty("derby.system.cachePartitions");
+        removeSystemProperty("derby.storage.pageReplacementPolicy");
+        removeSystemProperty("derby.storage.pageCacheSize");
+        super.tearDown();
+    }
+
     /**
      * Create an {@code ObjectName} that identifies a {@code CacheManager}
      * management bean, or a pattern that potentially matches multiple
@@ -168,6 +179,9 @@ public class CacheManagerMBeanTest extends MBeanTest {
         assertLongAttribute(0, name, "MissCount");
         assertLongAttribute(0, name, "EvictionCount");
         assertLongAttribute(DEFAULT_PAGE_CACHE_SIZE, name, "MaxEntries");
+        assertStringAttribute("CLOCK", name, "ReplacementPolicy");
+        assertLongAttribute(0, name, "ProtectedEntries");
+        assertLongAttribute(0, name, "PromotionCount");
         // Cannot reliably tell how many entries to expect.
         // More than 0 for sure.
         Long allocated = (Long) getAttribute(name, "AllocatedEntries");
@@ -200,6 +214,134 @@ public class CacheManagerMBeanTest extends MBeanTest {
         assertBooleanAttribute(false, name, "CollectAccessCounts");
     }
 
+    /**
+     * Test that the page cache is split into partitions when
+     * derby.system.cachePartitions is set, and that the per-partition
+     * access counts add up to the totals. Only run in the platform
+     * configuration since the property must be set in the engine's JVM.
+     */
+    public void testPartitionedPageCache() throws Exception {
+        if (!isPlatformJMXClient()) {
+            return;
+        }
+
+        setSystemProperty("derby.system.cachePartitions", "4");
+
+        getConnection(); // boot the database with partitioned caches
+        ObjectName name = queryMBeans(createObjectName("PageCache", null))
+                .iterator().next();
+
+        assertIntAttribute(4, name, "PartitionCount");
+        assertLongAttribute(DEFAULT_PAGE_CACHE_SIZE, name, "MaxEntries");
+        Long used = (Long) getAttribute(name, "UsedEntries");
+        assertTrue("Used entries: " + used, used > 0);
+
+        // The container cache is too small to be split into four
+        // partitions of reasonable size.
+        ObjectName containerCache =
+                queryMBeans(createObjectName("ContainerCache", null))
+                .iterator().next();
+        Integer containerPartitions =
+                (Integer) getAttribute(containerCache, "PartitionCount");
+        assertTrue("Container cache partitions: " + containerPartitions,
+                   containerPartitions < 4);
+        assertLongAttribute(DEFAULT_CONTAINER_CACHE_SIZE, containerCache,
+                            "MaxEntries");
+
+        setAttribute(name, "CollectAccessCounts", Boolean.TRUE);
+
+        Statement s = createStatement();
+        s.execute("create table t(x int primary key)");
+        PreparedStatement ps = prepareStatement("insert into t values ?");
+        for (int i = 0; i < 500; i++) {
+            ps.setInt(1, i);
+            ps.executeUpdate();
+        }
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery("select count(*) from t"), "500");
+
+        long[] hits = (long[]) getAttribute(name, "PartitionHitCounts");
+        long[] misses = (long[]) getAttribute(name, "PartitionMissCounts");
+        long[] evictions =
+                (long[]) getAttribute(name, "PartitionEvictionCounts");
+        assertEquals(4, hits.length);
+        assertEquals(4, misses.length);
+        assertEquals(4, evictions.length);
+
+        long totalHits = 0;
+        long totalMisses = 0;
+        long totalEvictions = 0;
+        for (int i = 0; i < 4; i++) {
+            totalHits += hits[i];
+            totalMisses += misses[i];
+            totalEvictions += evictions[i];
+        }
+        assertEquals(totalHits, ((Long) getAttribute(name, "HitCount")).longValue());
+        assertEquals(totalMisses, ((Long) getAttribute(name, "MissCount")).longValue());
+        assertEquals(totalEvictions, ((Long) getAttribute(name, "EvictionCount")).longValue());
+        assertTrue("Hits: " + totalHits, totalHits > 0);
+
+        s.execute("drop table t");
+    }
+
+    /**
+     * Test that the page cache uses the 2Q replacement policy when
+     * derby.storage.pageReplacementPolicy is set, and that pages that are
+     * reused after they have been evicted are promoted into the protected
+     * part of the cache. Only run in the platform configuration since the
+     * properties must be set in the engine's JVM.
+     */
+    public void testTwoQueuePageCache() throws Exception {
+        if (!isPlatformJMXClient()) {
+            return;
+        }
+
+        setSystemProperty("derby.storage.pageReplacementPolicy", "2Q");
+        setSystemProperty("derby.storage.pageCacheSize", "40");
+
+        getConnection(); // boot the database with the 2Q policy
+        ObjectName name = queryMBeans(createObjectName("PageCache", null))
+                .iterator().next();
+        assertStringAttribute("2Q", name, "ReplacementPolicy");
+        assertLongAttribute(40, name, "MaxEntries");
+
+        // The statement cache should still use the default policy.
+        ObjectName statementCache =
+                queryMBeans(createObjectName("StatementCache", null))
+                .iterator().next();
+        assertStringAttribute("CLOCK", statementCache, "ReplacementPolicy");
+
+        // Create a table that is somewhat larger than the page cache (about
+        // three rows per page).
+        Statement s = createStatement();
+        s.execute("create table t(x int, c varchar(1000))");
+        PreparedStatement ps = prepareStatement("insert into t values (?, ?)");
+        char[] filler = new char[1000];
+        Arrays.fill(filler, 'x');
+        ps.setString(2, new String(filler));
+        for (int i = 0; i < 150; i++) {
+            ps.setInt(1, i);
+            ps.executeUpdate();
+        }
+
+        // Scan it a couple of times. The first pages of the table are
+        // evicted by the end of each scan, and the next scan brings them
+        // back while they are still remembered, so they become protected.
+        for (int i = 0; i < 3; i++) {
+            JDBC.assertSingleValueResultSet(
+                    s.executeQuery("select count(*) from t where x >= 0"),
+                    "150");
+        }
+
+        Long promotions = (Long) getAttribute(name, "PromotionCount");
+        assertTrue("Promotions: " + promotions, promotions > 0);
+        Long protectedEntries = (Long) getAttribute(name, "ProtectedEntries");
+        assertTrue("Protected entries: " + protectedEntries,
+                   protectedEntries > 0 && protectedEntries <= 40);
+
+        s.execute("drop table t");
+    }
+
     /**
      * Test the {@code CacheManagerMBean} for the page cache.
      */
@@ -0,0 +1,234 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.management.LockManagerMBeanTest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.management;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Hashtable;
+import java.util.Set;
+import javax.management.ObjectName;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test cases for {@code LockManagerMBean}.
+ */
+public class LockManagerMBeanTest extends MBeanTest {
+
+    public LockManagerMBeanTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return MBeanTest.suite(LockManagerMBeanTest.class,
+                               "LockManagerMBeanTest");
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        // Set up management.
+        super.setUp();
+
+        // Start every test case from a freshly booted database so that
+        // the counters start from zero. shutdownDatabase() fails if the
+        // database is not already booted, so get a connection first.
+        getConnection().close();
+        TestConfiguration.getCurrent().shutdownDatabase();
+    }
+
+    /**
+     * Create an {@code ObjectName} that identifies a {@code LockManager}
+     * management bean, or a pattern that matches the beans of all
+     * databases.
+     *
+     * @param dbName the name of the database, or {@code null} to create
+     *   a pattern that matches all database names
+     * @return an {@code ObjectName} suitable for looking up beans
+     */
+    private ObjectName createObjectName(String dbName) throws Exception {
+        Hashtable<String, String> props = new Hashtable<String, String>();
+        props.put("type", "LockManager");
+        props.put("db", dbName == null ? "*" : ObjectName.quote(dbName));
+        return getDerbyMBeanName(props);
+    }
+
+    /** Get the single LockManager bean of the booted database. */
+    private ObjectName getLockBean() throws Exception {
+        Set<ObjectName> names = queryMBeans(createObjectName(null));
+        assertEquals("Should have a single lock manager", 1, names.size());
+        return names.iterator().next();
+    }
+
+    /**
+     * Test case that verifies that the {@code LockManagerMBean} starts
+     * when a database is started, and stops when the database is shut down.
+     */
+    public void testMBeanStartedAndStopped() throws Exception {
+        ObjectName pattern = createObjectName(null);
+
+        Set<ObjectName> names = queryMBeans(pattern);
+        if (!names.isEmpty()) {
+            fail("Should not find MBeans before boot, found: " + names);
+        }
+
+        getConnection();
+        getLockBean();
+
+        TestConfiguration.getCurrent().shutdownDatabase();
+
+        names = queryMBeans(pattern);
+        if (!names.isEmpty()) {
+            fail("Should not find MBeans after shutdown, found: " + names);
+        }
+    }
+
+    /**
+     * Test that the locks taken by a single connection are counted, and
+     * that none of them have to wait.
+     */
+    public void testUncontendedLocks() throws Exception {
+        getConnection(); // boot the database
+        ObjectName name = getLockBean();
+
+        long requestsBefore = (Long) getAttribute(name, "LockRequestCount");
+        long uncontendedBefore =
+                (Long) getAttribute(name, "UncontendedLockCount");
+        long waitsBefore = (Long) getAttribute(name, "LockWaitCount");
+
+        Statement s = createStatement();
+        s.execute("create table t(x int primary key)");
+        PreparedStatement ps = prepareStatement("insert into t values ?");
+        for (int i = 0; i < 100; i++) {
+            ps.setInt(1, i);
+            ps.executeUpdate();
+        }
+
+        long requests = (Long) getAttribute(name, "LockRequestCount");
+        long uncontended = (Long) getAttribute(name, "UncontendedLockCount");
+        assertTrue("Lock requests: " + requests,
+                   requests >= requestsBefore + 100);
+        assertTrue("Uncontended locks: " + uncontended,
+                   uncontended >= uncontendedBefore + 100);
+        assertTrue("More uncontended locks (" + uncontended +
+                   ") than requests (" + requests + ")",
+                   uncontended <= requests);
+        assertEquals(waitsBefore,
+                     ((Long) getAttribute(name, "LockWaitCount")).longValue());
+
+        s.execute("drop table t");
+    }
+
+    /**
+     * Test that a lock request that waits for another transaction and
+     * times out is counted.
+     */
+    public void testWaitAndTimeout() throws Exception {
+        getConnection(); // boot the database
+        ObjectName name = getLockBean();
+
+        Statement s = createStatement();
+        s.execute("create table w(x int)");
+        s.execute("insert into w values 1");
+        s.execute("call syscs_util.syscs_set_database_property(" +
+                  "'derby.locks.waitTimeout', '1')");
+        try {
+            assertLongAttribute(0, name, "LockTimeoutCount");
+            assertLongAttribute(0, name, "DeadlockCount");
+            long waitsBefore = (Long) getAttribute(name, "LockWaitCount");
+
+            Connection c1 = openDefaultConnection();
+            c1.setAutoCommit(false);
+            c1.createStatement().executeUpdate("update w set x = 2");
+
+            Connection c2 = openDefaultConnection();
+            assertStatementError("40XL1", c2.createStatement(),
+                                 "update w set x = 3");
+
+            assertTrue((Long) getAttribute(name, "LockWaitCount") > waitsBefore);
+            assertLongAttribute(1, name, "LockTimeoutCount");
+            int locked = (Integer) getAttribute(name, "LockedObjectCount");
+            assertTrue("Locked objects: " + locked, locked > 0);
+
+            c1.rollback();
+            c1.close();
+            c2.close();
+        } finally {
+            s.execute("call syscs_util.syscs_set_database_property(" +
+                      "'derby.locks.waitTimeout', null)");
+            s.execute("drop table w");
+        }
+    }
+
+    /**
+     * Test that row locks are escalated once the lock table holds more
+     * objects than allowed by derby.locks.escalationGlobalThreshold, even
+     * though the transaction is far below derby.locks.escalationThreshold,
+     * and that the escalation is counted.
+     */
+    public void testGlobalEscalation() throws Exception {
+        getConnection(); // boot the database
+        ObjectName name = getLockBean();
+
+        Statement s = createStatement();
+        s.execute("create table e(x int primary key, y int)");
+        PreparedStatement ps = prepareStatement("insert into e(x) values ?");
+        for (int i = 0; i < 500; i++) {
+            ps.setInt(1, i);
+            ps.executeUpdate();
+        }
+        s.execute("call syscs_util.syscs_set_database_property(" +
+                  "'derby.locks.escalationGlobalThreshold', '200')");
+        try {
+            assertLongAttribute(0, name, "LockEscalationAttemptCount");
+            assertLongAttribute(0, name, "LockEscalationCount");
+
+            Connection c = openDefaultConnection();
+            c.setAutoCommit(false);
+            PreparedStatement upd =
+                    c.prepareStatement("update e set y = x where x = ?");
+            for (int i = 0; i < 500; i++) {
+                upd.setInt(1, i);
+                assertUpdateCount(upd, 1);
+            }
+
+            long escalations = (Long) getAttribute(name, "LockEscalationCount");
+            long attempts =
+                    (Long) getAttribute(name, "LockEscalationAttemptCount");
+            assertTrue("Escalations: " + escalations, escalations > 0);
+            assertTrue("More escalations (" + escalations +
+                       ") than attempts (" + attempts + ")",
+                       escalations <= attempts);
+
+            // The row locks have been replaced by a table lock.
+            int locked = (Integer) getAttribute(name, "LockedObjectCount");
+            assertTrue("Locked objects: " + locked, locked < 200);
+
+            c.rollback();
+            c.close();
+        } finally {
+            s.execute("call syscs_util.syscs_set_database_property(" +
+                      "'derby.locks.escalationGlobalThreshold', null)");
+            s.execute("drop table e");
+        }
+    }
+}
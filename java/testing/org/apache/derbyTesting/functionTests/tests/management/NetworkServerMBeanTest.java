@@ -107,6 +107,33 @@ public class NetworkServerMBeanTest extends MBeanTest {
         assertTrue(count >= 0);
     }
 
+    public void testAttributeAllocatedBytes() throws Exception {
+        Long allocated = (Long) getAttribute(
+                getNetworkServerMBeanObjectName(),
+                "AllocatedBytes");
+        assertNotNull(allocated);
+        // -1 if the JVM can't measure thread allocation
+        assertTrue(allocated >= -1);
+    }
+
+    public void testAttributeAllocatedBytesPerSecond() throws Exception {
+        Long bytesPerSec = (Long) getAttribute(
+                getNetworkServerMBeanObjectName(),
+                "AllocatedBytesPerSecond");
+        assertNotNull(bytesPerSec);
+        // -1 if the JVM can't measure thread allocation
+        assertTrue(bytesPerSec >= -1);
+    }
+
+    public void testAttributeAllocatedBytesPerConnection() throws Exception {
+        Long bytesPerConn = (Long) getAttribute(
+                getNetworkServerMBeanObjectName(),
+                "AllocatedBytesPerConnection");
+        assertNotNull(bytesPerConn);
+        // -1 if the JVM can't measure thread allocation
+        assertTrue(bytesPerConn >= -1);
+    }
+
     public void testAttributeBytesReceived() throws Exception {
         // TODO - do some DB work and verify that the number increases
         Long bytesReceived = (Long) getAttribute(
@@ -147,6 +174,15 @@ public class NetworkServerMBeanTest extends MBeanTest {
         assertTrue(bytesPerSec >= 0);
     }
 
+    public void testAttributeCompressedBytes() throws Exception {
+        Long compressed = (Long) getAttribute(
+                getNetworkServerMBeanObjectName(),
+                "CompressedBytes");
+        assertNotNull(compressed);
+        // zero unless a client has used compression
+        assertTrue(compressed >= 0);
+    }
+
     public void testAttributeConnectionCount() throws Exception {
         // TODO - connect to and disconnect from a DB and verify that the number changes
         Integer count = (Integer) getAttribute(
@@ -266,6 +302,15 @@ public class NetworkServerMBeanTest extends MBeanTest {
         checkLongAttributeValue(getNetworkServerMBeanObjectName(), "StartTime");
     }
     
+    public void testAttributeUncompressedBytes() throws Exception {
+        Long uncompressed = (Long) getAttribute(
+                getNetworkServerMBeanObjectName(),
+                "UncompressedBytes");
+        assertNotNull(uncompressed);
+        // zero unless a client has used compression
+        assertTrue(uncompressed >= 0);
+    }
+
     public void testAttributeUptime() throws Exception {
         // Haven't figured out how to test the actual value yet...
         // This will only check the attribute's existence, readability and 
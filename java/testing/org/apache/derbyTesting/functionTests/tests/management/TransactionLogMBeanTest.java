@@ -0,0 +1,276 @@
+/*
+
+   Derby - Class org.apache.derbyTesting.functionTests.tests.management.TransactionLogMBeanTest
+
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to you under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ */
+
+package org.apache.derbyTesting.functionTests.tests.management;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Set;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.JDBCDataSource;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Test cases for {@code TransactionLogMBean}.
+ */
+public class TransactionLogMBeanTest extends MBeanTest {
+
+    private final static int DEFAULT_GROUP_COMMIT_SIZE = 16;
+
+    public TransactionLogMBeanTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return MBeanTest.suite(TransactionLogMBeanTest.class,
+                               "TransactionLogMBeanTest");
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        // Set up management.
+        super.setUp();
+
+        // Start every test case from a freshly booted database so that
+        // the counters start from zero. shutdownDatabase() fails if the
+        // database is not already booted, so get a connection first.
+        getConnection().close();
+        TestConfiguration.getCurrent().shutdownDatabase();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        removeSystemProperty("derby.storage.logGroupCommitDelay");
+        removeSystemProperty("derby.storage.logGroupCommitSize");
+        super.tearDown();
+    }
+
+    /**
+     * Create an {@code ObjectName} that identifies a {@code TransactionLog}
+     * management bean, or a pattern that matches the beans of all
+     * databases.
+     *
+     * @param dbName the name of the database, or {@code null} to create
+     *   a pattern that matches all database names
+     * @return an {@code ObjectName} suitable for looking up beans
+     */
+    private ObjectName createObjectName(String dbName) throws Exception {
+        Hashtable<String, String> props = new Hashtable<String, String>();
+        props.put("type", "TransactionLog");
+        props.put("db", dbName == null ? "*" : ObjectName.quote(dbName));
+        return getDerbyMBeanName(props);
+    }
+
+    /** Get the single TransactionLog bean of the booted database. */
+    private ObjectName getLogBean() throws Exception {
+        Set<ObjectName> names = queryMBeans(createObjectName(null));
+        assertEquals("Should have a single transaction log", 1, names.size());
+        return names.iterator().next();
+    }
+
+    /**
+     * Test case that verifies that the {@code TransactionLogMBean} starts
+     * when a database is started, and stops when the database is shut down.
+     */
+    public void testMBeanStartedAndStopped() throws Exception {
+        ObjectName pattern = createObjectName(null);
+
+        Set<ObjectName> names = queryMBeans(pattern);
+        if (!names.isEmpty()) {
+            fail("Should not find MBeans before boot, found: " + names);
+        }
+
+        getConnection();
+        getLogBean();
+
+        TestConfiguration.getCurrent().shutdownDatabase();
+
+        names = queryMBeans(pattern);
+        if (!names.isEmpty()) {
+            fail("Should not find MBeans after shutdown, found: " + names);
+        }
+    }
+
+    /**
+     * Test that commits are counted, and that group commit is disabled
+     * by default.
+     */
+    public void testFlushCounters() throws Exception {
+        getConnection(); // boot the database
+        ObjectName name = getLogBean();
+
+        assertIntAttribute(0, name, "GroupCommitDelay");
+        assertIntAttribute(DEFAULT_GROUP_COMMIT_SIZE, name,
+                           "GroupCommitSize");
+        assertLongAttribute(0, name, "GroupCommitWaitTime");
+
+        long requestsBefore = (Long) getAttribute(name, "FlushRequestCount");
+        long syncsBefore = (Long) getAttribute(name, "SyncCount");
+
+        Statement s = createStatement();
+        s.execute("create table t(x int)");
+        PreparedStatement ps = prepareStatement("insert into t values ?");
+        for (int i = 0; i < 10; i++) {
+            ps.setInt(1, i);
+            ps.executeUpdate();
+        }
+
+        long requests = (Long) getAttribute(name, "FlushRequestCount");
+        long syncs = (Long) getAttribute(name, "SyncCount");
+        assertTrue("Flush requests: " + requests,
+                   requests >= requestsBefore + 10);
+        assertTrue("Syncs: " + syncs, syncs > syncsBefore);
+        assertTrue("More syncs (" + syncs + ") than requests ("
+                   + requests + ")", syncs <= requests);
+        Double perSync = (Double) getAttribute(name, "CommitsPerSync");
+        assertTrue("Commits per sync: " + perSync, perSync >= 1.0);
+
+        assertLongAttribute(0, name, "GroupCommitWaitTime");
+
+        s.execute("drop table t");
+    }
+
+    /**
+     * Test that concurrent commits go through the group commit window when
+     * derby.storage.logGroupCommitDelay is set. Only run in the platform
+     * configuration since the property must be set in the engine's JVM.
+     */
+    public void testGroupCommit() throws Exception {
+        if (!isPlatformJMXClient()) {
+            return;
+        }
+
+        setSystemProperty("derby.storage.logGroupCommitDelay", "20");
+        setSystemProperty("derby.storage.logGroupCommitSize", "4");
+
+        getConnection(); // boot the database with group commit enabled
+        ObjectName name = getLogBean();
+        assertIntAttribute(20, name, "GroupCommitDelay");
+        assertIntAttribute(4, name, "GroupCommitSize");
+
+        createStatement().execute("create table gc(x int)");
+
+        final int threads = 4;
+        final int rows = 25;
+        final List<Throwable> errors =
+                Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final Connection c = openDefaultConnection();
+            workers[i] = new Thread() {
+                public void run() {
+                    try {
+                        PreparedStatement ps =
+                            c.prepareStatement("insert into gc values ?");
+                        for (int j = 0; j < rows; j++) {
+                            ps.setInt(1, j);
+                            ps.executeUpdate();
+                        }
+                        ps.close();
+                        c.close();
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        for (int i = 0; i < threads; i++) {
+            workers[i].join();
+        }
+        if (!errors.isEmpty()) {
+            fail("Worker failed", errors.get(0));
+        }
+
+        JDBC.assertSingleValueResultSet(
+                createStatement().executeQuery("select count(*) from gc"),
+                Integer.toString(threads * rows));
+
+        long wait = (Long) getAttribute(name, "GroupCommitWaitTime");
+        assertTrue("Group commit wait time: " + wait, wait > 0);
+        long requests = (Long) getAttribute(name, "FlushRequestCount");
+        long syncs = (Long) getAttribute(name, "SyncCount");
+        assertTrue("More syncs (" + syncs + ") than requests ("
+                   + requests + ")", syncs <= requests);
+
+        // Only the flushes for commits wait for the window, not those of
+        // a checkpoint and of the pages it writes.
+        createStatement().execute("delete from gc");
+        wait = (Long) getAttribute(name, "GroupCommitWaitTime");
+        createStatement().execute(
+                "call syscs_util.syscs_checkpoint_database()");
+        assertEquals(wait,
+                ((Long) getAttribute(name, "GroupCommitWaitTime")).longValue());
+
+        createStatement().execute("drop table gc");
+    }
+
+    /**
+     * Test that a connection opened with asyncCommit=true commits without
+     * waiting for the log, and that the background flusher syncs the log
+     * shortly afterwards.
+     */
+    public void testAsyncCommit() throws Exception {
+        getConnection(); // boot the database
+        ObjectName name = getLogBean();
+        assertIntAttribute(200, name, "AsyncCommitDelay");
+        assertLongAttribute(0, name, "AsyncCommitCount");
+
+        createStatement().execute("create table ac(x int)");
+
+        DataSource ds = JDBCDataSource.getDataSource();
+        JDBCDataSource.setBeanProperty(
+                ds, "connectionAttributes", "asyncCommit=true");
+        Connection c = ds.getConnection();
+        PreparedStatement ps = c.prepareStatement("insert into ac values ?");
+        for (int i = 0; i < 10; i++) {
+            ps.setInt(1, i);
+            ps.executeUpdate();
+        }
+        ps.close();
+
+        assertLongAttribute(10, name, "AsyncCommitCount");
+
+        // The background flusher should get to it within the delay.
+        long flushes = 0;
+        for (int i = 0; i < 50 && flushes == 0; i++) {
+            Thread.sleep(100);
+            flushes = (Long) getAttribute(name, "AsyncFlushCount");
+        }
+        assertTrue("No background flush of async commits", flushes > 0);
+
+        // The committed rows are visible to other connections.
+        JDBC.assertSingleValueResultSet(
+                createStatement().executeQuery("select count(*) from ac"),
+                "10");
+        c.close();
+
+        createStatement().execute("drop table ac");
+    }
+}
@@ -61,6 +61,8 @@ public class _Suite extends BaseTestCase {
             suite.addTest(NetworkServerMBeanTest.suite());
             suite.addTest(CustomMBeanServerBuilderTest.suite());
             suite.addTest(CacheManagerMBeanTest.suite());
+            suite.addTest(TransactionLogMBeanTest.suite());
+            suite.addTest(LockManagerMBeanTest.suite());
         }
 
         return suite;
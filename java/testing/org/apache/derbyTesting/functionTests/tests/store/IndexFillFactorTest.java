@@ -0,0 +1,217 @@
+/*
+
+ Derby - Class org.apache.derbyTesting.functionTests.tests.store.IndexFillFactorTest
+
+ Licensed to the Apache Software Foundation (ASF) under one or more
+ contributor license agreements.  See the NOTICE file distributed with
+ this work for additional information regarding copyright ownership.
+ The ASF licenses this file to You under the Apache License, Version 2.0
+ (the "License"); you may not use this file except in compliance with
+ the License.  You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+
+ */
+package org.apache.derbyTesting.functionTests.tests.store;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import junit.framework.Test;
+
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Tests the derby.storage.indexFillFactor property, which leaves free
+ * space on the leaf pages of indexes created on tables with rows.
+ */
+public class IndexFillFactorTest extends BaseJDBCTestCase {
+
+    /** Number of rows in the test table. */
+    private static final int ROWS = 10000;
+
+    public IndexFillFactorTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        Test suite = TestConfiguration.embeddedSuite(IndexFillFactorTest.class);
+        return new CleanDatabaseTestSetup(suite) {
+            protected void decorateSQL(Statement s) throws SQLException {
+                s.executeUpdate("create table t_fill(id int, txt varchar(40))");
+                PreparedStatement ps = s.getConnection().prepareStatement(
+                        "insert into t_fill values (?, ?)");
+                for (int i = 0; i < ROWS; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "row " + (i * 7919 % ROWS));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                ps.close();
+            }
+        };
+    }
+
+    protected void tearDown() throws Exception {
+        Statement s = createStatement();
+        s.execute("call SYSCS_UTIL.SYSCS_SET_DATABASE_PROPERTY(" +
+                "'derby.storage.indexFillFactor', NULL)");
+        s.close();
+        super.tearDown();
+    }
+
+    /**
+     * Create the same index with the default fill factor and with a fill
+     * factor of 50, and check that the second one has about twice as many
+     * pages and the same contents.
+     */
+    public void testHalfFull() throws SQLException {
+        Statement s = createStatement();
+        s.executeUpdate("create index i_fill_full on t_fill(txt)");
+        int fullPages = indexPages("I_FILL_FULL");
+
+        setFillFactor("50");
+        s.executeUpdate("create index i_fill_half on t_fill(txt)");
+        int halfPages = indexPages("I_FILL_HALF");
+        assertTrue("full = " + fullPages + ", half = " + halfPages,
+                   halfPages > fullPages * 3 / 2);
+
+        JDBC.assertSingleValueResultSet(s.executeQuery(
+                "values SYSCS_UTIL.SYSCS_CHECK_TABLE(current schema, " +
+                "'T_FILL')"), "1");
+        assertIndexOrder(s, "I_FILL_FULL");
+        assertIndexOrder(s, "I_FILL_HALF");
+
+        // inserts into the index with free space still work
+        s.executeUpdate("insert into t_fill values (-1, 'row 5000x')");
+        JDBC.assertSingleValueResultSet(s.executeQuery(
+                "select id from t_fill --DERBY-PROPERTIES index=I_FILL_HALF\n" +
+                "where txt = 'row 5000x'"), "-1");
+        s.executeUpdate("delete from t_fill where id = -1");
+
+        s.executeUpdate("drop index i_fill_full");
+        s.executeUpdate("drop index i_fill_half");
+    }
+
+    /**
+     * Check that a unique index still finds duplicate keys when the leaf
+     * pages aren't filled.
+     */
+    public void testUniqueIndex() throws SQLException {
+        setFillFactor("10");
+        Statement s = createStatement();
+        s.executeUpdate("create unique index i_fill_unique on t_fill(id)");
+        assertStatementError("23505", s,
+                "insert into t_fill values (" + (ROWS / 2) + ", 'dup')");
+        s.executeUpdate("drop index i_fill_unique");
+
+        s.executeUpdate("insert into t_fill values (" + (ROWS / 2) +
+                        ", 'dup')");
+        assertStatementError("23505", s,
+                "create unique index i_fill_unique on t_fill(id)");
+        s.executeUpdate("delete from t_fill where txt = 'dup'");
+    }
+
+    /**
+     * Load an index with wide keys, so that the load adds many leaves and
+     * has to split branch pages and grow the root several times, and check
+     * the index with and without a fill factor.
+     */
+    public void testWideKeys() throws SQLException {
+        Statement s = createStatement();
+        s.executeUpdate("create table t_fill_wide(id int, txt varchar(300))");
+        s.executeUpdate("insert into t_fill_wide select id, " +
+                "cast(txt || repeat('x', 250) as varchar(300)) from t_fill");
+
+        s.executeUpdate("create index i_fill_wide on t_fill_wide(txt, id)");
+        setFillFactor("70");
+        s.executeUpdate("create index i_fill_wide70 on t_fill_wide(txt)");
+
+        JDBC.assertSingleValueResultSet(s.executeQuery(
+                "values SYSCS_UTIL.SYSCS_CHECK_TABLE(current schema, " +
+                "'T_FILL_WIDE')"), "1");
+        JDBC.assertSingleValueResultSet(s.executeQuery(
+                "select count(*) from t_fill_wide " +
+                "--DERBY-PROPERTIES index=I_FILL_WIDE\n" +
+                "where txt > 'row'"), Integer.toString(ROWS));
+        JDBC.assertSingleValueResultSet(s.executeQuery(
+                "select count(*) from t_fill_wide " +
+                "--DERBY-PROPERTIES index=I_FILL_WIDE70\n" +
+                "where txt > 'row'"), Integer.toString(ROWS));
+
+        // the rightmost leaf takes more rows after the load
+        s.executeUpdate("insert into t_fill_wide select id + " + ROWS +
+                ", 'z' || txt from t_fill_wide where id < 1000");
+        JDBC.assertSingleValueResultSet(s.executeQuery(
+                "values SYSCS_UTIL.SYSCS_CHECK_TABLE(current schema, " +
+                "'T_FILL_WIDE')"), "1");
+
+        s.executeUpdate("drop table t_fill_wide");
+    }
+
+    /**
+     * Check that values outside the allowed range are ignored.
+     */
+    public void testInvalidValue() throws SQLException {
+        Statement s = createStatement();
+        s.executeUpdate("create index i_fill_default on t_fill(txt)");
+        int defaultPages = indexPages("I_FILL_DEFAULT");
+        s.executeUpdate("drop index i_fill_default");
+
+        setFillFactor("0");
+        s.executeUpdate("create index i_fill_zero on t_fill(txt)");
+        assertEquals(defaultPages, indexPages("I_FILL_ZERO"));
+        s.executeUpdate("drop index i_fill_zero");
+    }
+
+    private void setFillFactor(String value) throws SQLException {
+        Statement s = createStatement();
+        s.execute("call SYSCS_UTIL.SYSCS_SET_DATABASE_PROPERTY(" +
+                "'derby.storage.indexFillFactor', '" + value + "')");
+        s.close();
+    }
+
+    private int indexPages(String index) throws SQLException {
+        PreparedStatement ps = prepareStatement(
+                "select numallocatedpages from " +
+                "table(syscs_diag.space_table('T_FILL')) t " +
+                "where conglomeratename = ?");
+        ps.setString(1, index);
+        ResultSet rs = ps.executeQuery();
+        assertTrue(rs.next());
+        int pages = rs.getInt(1);
+        rs.close();
+        ps.close();
+        return pages;
+    }
+
+    private void assertIndexOrder(Statement s, String index)
+            throws SQLException {
+        ResultSet rs = s.executeQuery(
+                "select txt from t_fill --DERBY-PROPERTIES index=" + index +
+                "\norder by txt");
+        String previous = null;
+        int count = 0;
+        while (rs.next()) {
+            String txt = rs.getString(1);
+            if (previous != null) {
+                assertTrue(previous.compareTo(txt) <= 0);
+            }
+            previous = txt;
+            count++;
+        }
+        rs.close();
+        assertEquals(ROWS, count);
+    }
+}
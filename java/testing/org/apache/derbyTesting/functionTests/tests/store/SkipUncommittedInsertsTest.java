@@ -0,0 +1,263 @@
+/*
+
+ Derby - Class org.apache.derbyTesting.functionTests.tests.store.SkipUncommittedInsertsTest
+
+ Licensed to the Apache Software Foundation (ASF) under one or more
+ contributor license agreements.  See the NOTICE file distributed with
+ this work for additional information regarding copyright ownership.
+ The ASF licenses this file to You under the Apache License, Version 2.0
+ (the "License"); you may not use this file except in compliance with
+ the License.  You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+
+ */
+package org.apache.derbyTesting.functionTests.tests.store;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import junit.framework.Test;
+
+import org.apache.derbyTesting.junit.BaseJDBCTestCase;
+import org.apache.derbyTesting.junit.CleanDatabaseTestSetup;
+import org.apache.derbyTesting.junit.DatabasePropertyTestSetup;
+import org.apache.derbyTesting.junit.JDBC;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Tests the derby.locks.skipUncommittedInserts property, which lets
+ * read-only scans skip rows inserted by transactions that have not
+ * committed yet instead of waiting for them.
+ */
+public class SkipUncommittedInsertsTest extends BaseJDBCTestCase {
+
+    /** SQLState for lock timeouts. */
+    private static final String LOCK_TIMEOUT = "40XL1";
+
+    /** Number of committed rows in the test table. */
+    private static final int ROWS = 100;
+
+    /** Query that reads the table through a heap scan. */
+    private static final String HEAP_QUERY =
+        "select count(*) from t_skip --DERBY-PROPERTIES index=null\n";
+
+    /** Query that reads the table through an index scan. */
+    private static final String INDEX_QUERY =
+        "select count(*) from t_skip --DERBY-PROPERTIES index=ix_skip\n" +
+        "where id >= 0";
+
+    public SkipUncommittedInsertsTest(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        Test test = TestConfiguration.embeddedSuite(
+                SkipUncommittedInsertsTest.class);
+
+        Properties props = new Properties();
+        props.setProperty("derby.locks.skipUncommittedInserts", "true");
+        test = new DatabasePropertyTestSetup(test, props);
+
+        // Readers that wait for a lock time out quickly.
+        test = DatabasePropertyTestSetup.setLockTimeouts(test, 2, 4);
+
+        return new CleanDatabaseTestSetup(test) {
+            protected void decorateSQL(Statement s) throws SQLException {
+                s.executeUpdate("create table t_skip(id int, txt varchar(20))");
+                s.executeUpdate("create index ix_skip on t_skip(id)");
+                for (int i = 0; i < ROWS; i++) {
+                    s.executeUpdate(
+                        "insert into t_skip values (" + i + ", 'row')");
+                }
+
+                s.executeUpdate("create table t_parent(id int primary key)");
+                s.executeUpdate("create table t_child(id int, " +
+                        "pid int references t_parent)");
+                s.executeUpdate("insert into t_parent values 1");
+            }
+        };
+    }
+
+    /**
+     * Open a connection with an uncommitted insert into the test table.
+     */
+    private Connection openInserter() throws SQLException {
+        Connection c = openDefaultConnection();
+        c.setAutoCommit(false);
+        Statement s = c.createStatement();
+        s.executeUpdate("insert into t_skip values (" + ROWS + ", 'new')");
+        s.close();
+        return c;
+    }
+
+    /**
+     * Check the number of rows that a query counts.
+     */
+    private void assertCount(String query, int expected) throws SQLException {
+        Statement s = createStatement();
+        JDBC.assertSingleValueResultSet(
+                s.executeQuery(query), Integer.toString(expected));
+        s.close();
+    }
+
+    /**
+     * Heap and index scans at read committed skip the uncommitted row, and
+     * see it once it has been committed.
+     */
+    public void testReadCommitted() throws SQLException {
+        getConnection().setTransactionIsolation(
+                Connection.TRANSACTION_READ_COMMITTED);
+        Connection inserter = openInserter();
+        try {
+            assertCount(HEAP_QUERY, ROWS);
+            assertCount(INDEX_QUERY, ROWS);
+
+            inserter.commit();
+            assertCount(HEAP_QUERY, ROWS + 1);
+            assertCount(INDEX_QUERY, ROWS + 1);
+        } finally {
+            inserter.rollback();
+            inserter.createStatement().executeUpdate(
+                    "delete from t_skip where id = " + ROWS);
+            inserter.commit();
+            inserter.close();
+        }
+    }
+
+    /**
+     * Repeatable read allows phantoms, so it skips the uncommitted row too.
+     */
+    public void testRepeatableRead() throws SQLException {
+        getConnection().setTransactionIsolation(
+                Connection.TRANSACTION_REPEATABLE_READ);
+        Connection inserter = openInserter();
+        try {
+            assertCount(HEAP_QUERY, ROWS);
+            assertCount(INDEX_QUERY, ROWS);
+        } finally {
+            inserter.rollback();
+            inserter.close();
+        }
+    }
+
+    /**
+     * Serializable must not let the row appear later, so it waits for the
+     * inserter as before.
+     */
+    public void testSerializableWaits() throws SQLException {
+        getConnection().setTransactionIsolation(
+                Connection.TRANSACTION_SERIALIZABLE);
+        Connection inserter = openInserter();
+        try {
+            assertStatementError(LOCK_TIMEOUT, createStatement(), HEAP_QUERY);
+        } finally {
+            inserter.rollback();
+            inserter.close();
+        }
+    }
+
+    /**
+     * The committed value of a row updated by an uncommitted transaction is
+     * not available, so readers still wait for updates.
+     */
+    public void testUncommittedUpdateWaits() throws SQLException {
+        getConnection().setTransactionIsolation(
+                Connection.TRANSACTION_READ_COMMITTED);
+        Connection updater = openDefaultConnection();
+        updater.setAutoCommit(false);
+        try {
+            Statement s = updater.createStatement();
+            assertUpdateCount(s, 1,
+                    "update t_skip set txt = 'updated' where id = 0");
+            s.close();
+
+            assertStatementError(LOCK_TIMEOUT, createStatement(), HEAP_QUERY);
+        } finally {
+            updater.rollback();
+            updater.close();
+        }
+    }
+
+    /**
+     * Foreign key checks must see uncommitted child rows. Deleting the
+     * parent of a row being inserted has to wait for the inserter instead
+     * of leaving an orphan behind.
+     */
+    public void testParentDeleteWaitsForChildInsert() throws SQLException {
+        getConnection().setTransactionIsolation(
+                Connection.TRANSACTION_READ_COMMITTED);
+        Connection inserter = openDefaultConnection();
+        inserter.setAutoCommit(false);
+        try {
+            Statement s = inserter.createStatement();
+            s.executeUpdate("insert into t_child values (1, 1)");
+            s.close();
+
+            assertStatementError(LOCK_TIMEOUT, createStatement(),
+                    "delete from t_parent where id = 1");
+
+            inserter.commit();
+            assertStatementError("23503", createStatement(),
+                    "delete from t_parent where id = 1");
+        } finally {
+            inserter.rollback();
+            inserter.createStatement().executeUpdate("delete from t_child");
+            inserter.commit();
+            inserter.close();
+        }
+    }
+
+    /**
+     * Foreign key checks must see uncommitted parent rows. Inserting a child
+     * of a parent row being inserted has to wait for the inserter instead of
+     * failing with a constraint violation.
+     */
+    public void testChildInsertWaitsForParentInsert() throws SQLException {
+        getConnection().setTransactionIsolation(
+                Connection.TRANSACTION_READ_COMMITTED);
+        Connection inserter = openDefaultConnection();
+        inserter.setAutoCommit(false);
+        try {
+            Statement s = inserter.createStatement();
+            s.executeUpdate("insert into t_parent values 2");
+            s.close();
+
+            assertStatementError(LOCK_TIMEOUT, createStatement(),
+                    "insert into t_child values (2, 2)");
+        } finally {
+            inserter.rollback();
+            inserter.close();
+        }
+    }
+
+    /**
+     * Inserts are waited for when the property is not set.
+     */
+    public void testDisabled() throws SQLException {
+        getConnection().setTransactionIsolation(
+                Connection.TRANSACTION_READ_COMMITTED);
+        Statement s = createStatement();
+        s.execute("call SYSCS_UTIL.SYSCS_SET_DATABASE_PROPERTY(" +
+                "'derby.locks.skipUncommittedInserts', 'false')");
+        Connection inserter = openInserter();
+        try {
+            assertStatementError(LOCK_TIMEOUT, s, HEAP_QUERY);
+            assertStatementError(LOCK_TIMEOUT, s, INDEX_QUERY);
+        } finally {
+            inserter.rollback();
+            inserter.close();
+            s.execute("call SYSCS_UTIL.SYSCS_SET_DATABASE_PROPERTY(" +
+                    "'derby.locks.skipUncommittedInserts', 'true')");
+            s.close();
+        }
+    }
+}
@@ -86,6 +86,8 @@ public class _Suite extends BaseTestCase  {
         suite.addTest(StoreScriptsTest.suite());
         suite.addTest(Derby4923Test.suite());
         suite.addTest(SpaceTableTest.suite());
+        suite.addTest(IndexFillFactorTest.suite());
+        suite.addTest(SkipUncommittedInsertsTest.suite());
         
         /* Tests that only run in sane builds */
         if (SanityManager.DEBUG) {
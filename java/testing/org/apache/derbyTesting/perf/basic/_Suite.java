@@ -27,6 +27,8 @@ import org.apache.derbyTesting.junit.BaseTestSuite;
 import org.apache.derbyTesting.perf.basic.jdbc.CountTest;
 import org.apache.derbyTesting.perf.basic.jdbc.CoveredIdxScan;
 import org.apache.derbyTesting.perf.basic.jdbc.HeapScan;
+import org.apache.derbyTesting.perf.basic.jdbc.LargeHeapScan;
+import org.apache.derbyTesting.perf.basic.jdbc.ScanAggregateTest;
 import org.apache.derbyTesting.perf.basic.jdbc.SelectDistinctTest;
 import org.apache.derbyTesting.perf.basic.jdbc.SortTest;
 import org.apache.derbyTesting.perf.basic.jdbc.ValuesTest;
@@ -43,9 +45,11 @@ public class _Suite extends BaseTestCase{
         suite.addTest(ValuesTest.suite());
         suite.addTest(CountTest.suite());
         suite.addTest(HeapScan.suite());
+        suite.addTest(LargeHeapScan.suite());
         suite.addTest(CoveredIdxScan.suite());
         suite.addTest(SortTest.suite());
         suite.addTest(SelectDistinctTest.suite());
+        suite.addTest(ScanAggregateTest.suite());
 
         return suite;
     }
@@ -0,0 +1,160 @@
+/*
+
+Derby - Class org.apache.derbyTesting.perf.basic.jdbc.LargeHeapScan
+
+Licensed to the Apache Software Foundation (ASF) under one or more
+contributor license agreements.  See the NOTICE file distributed with
+this work for additional information regarding copyright ownership.
+The ASF licenses this file to You under the Apache License, Version 2.0
+(the "License"); you may not use this file except in compliance with
+the License.  You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+*/
+package org.apache.derbyTesting.perf.basic.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseTestSuite;
+import org.apache.derbyTesting.junit.JDBCPerfTestCase;
+import org.apache.derbyTesting.junit.SystemPropertyTestSetup;
+import org.apache.derbyTesting.junit.TestConfiguration;
+
+/**
+ * Scan a table that is much larger than the page cache, so that every
+ * scan has to read the pages from the container file. The scans are run
+ * once with the container files read through the file channel, and once
+ * with derby.storage.mapContainerFiles=true, to compare the throughput of
+ * the two read paths.
+ */
+public class LargeHeapScan extends JDBCPerfTestCase {
+
+    private PreparedStatement select;
+    private static final String tableName = "LARGESCANTEST";
+
+    /**
+     * Rows to load. Makes the table larger than a single mapped region
+     * of the container file (64MB), otherwise no pages are mapped.
+     */
+    private static final int rowcount = 800000;
+
+    /**
+     * @return suite of tests
+     */
+    public static Test suite()
+    {
+        BaseTestSuite suite = new BaseTestSuite("LargeHeapScanTests");
+        suite.addTest(baseSuite("LargeHeapScan:channel", false));
+        suite.addTest(baseSuite("LargeHeapScan:mapped", true));
+        return suite;
+    }
+
+    /**
+     * Create a suite of all the tests in this class running against a
+     * database of its own, with a small page cache.
+     *
+     * @param name the name of the returned test suite
+     * @param mapped whether or not the container files should be mapped
+     * @return a test suite
+     */
+    private static Test baseSuite(String name, boolean mapped) {
+        int iterations = 5, repeats = 4;
+
+        BaseTestSuite scan = new BaseTestSuite(name);
+        scan.addTest(new LargeHeapScan("ScanAll", iterations, repeats));
+        scan.addTest(new LargeHeapScan("ScanAllGetData",
+                                       iterations, repeats));
+
+        Properties props = new Properties();
+        props.setProperty("derby.storage.pageCacheSize", "40");
+        props.setProperty("derby.storage.mapContainerFiles",
+                          Boolean.toString(mapped));
+
+        Test test = new BaseLoad100TestSetup(scan, rowcount, tableName);
+        test = TestConfiguration.singleUseDatabaseDecorator(test);
+        return new SystemPropertyTestSetup(test, props, true);
+    }
+
+    /**
+     * Scan tests.
+     * @param name test name
+     * @param iterations iterations of the test to measure
+     * @param repeats number of times to repeat the test
+     */
+    public LargeHeapScan(String name, int iterations, int repeats)
+    {
+        super(name, iterations, repeats);
+    }
+
+    /**
+     * Do the necessary setup for the test, prepare the statement
+     */
+    public void setUp() throws Exception {
+        select = prepareStatement("SELECT * FROM " + tableName);
+    }
+
+    /**
+     * Override initializeConnection to set the autocommit to false
+     */
+    public void initializeConnection(Connection conn)
+    throws SQLException
+    {
+        conn.setAutoCommit(false);
+    }
+
+    /**
+     * Iterate through all the rows in the table without retrieving
+     * the column data.
+     */
+    public void ScanAll() throws Exception
+    {
+        ResultSet rs = select.executeQuery();
+        int actualCount = 0;
+        while (rs.next()) {
+            actualCount++;
+        }
+
+        assertEquals(rowcount, actualCount);
+        rs.close();
+        commit();
+    }
+
+    /**
+     * Iterate through all the rows in the table and retrieve the
+     * column data.
+     */
+    public void ScanAllGetData() throws Exception
+    {
+        ResultSet rs = select.executeQuery();
+        int actualCount = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= 9; i++) {
+                rs.getObject(i);
+            }
+            actualCount++;
+        }
+
+        assertEquals(rowcount, actualCount);
+        rs.close();
+        commit();
+    }
+
+    /**
+     * Cleanup - close resources opened in this test.
+     **/
+    public void tearDown() throws Exception {
+        select = null;
+        super.tearDown();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+
+Derby - Class org.apache.derbyTesting.perf.basic.jdbc.ScanAggregateTest
+
+Licensed to the Apache Software Foundation (ASF) under one or more
+contributor license agreements.  See the NOTICE file distributed with
+this work for additional information regarding copyright ownership.
+The ASF licenses this file to You under the Apache License, Version 2.0
+(the "License"); you may not use this file except in compliance with
+the License.  You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+*/
+package org.apache.derbyTesting.perf.basic.jdbc;
+
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import junit.framework.Test;
+import org.apache.derbyTesting.junit.BaseTestSuite;
+import org.apache.derbyTesting.junit.JDBCPerfTestCase;
+
+/**
+ * Add tests to measure performance of aggregates over a filtered heap
+ * scan, where the rows are passed from the scan to the aggregate in
+ * batches.
+ */
+public class ScanAggregateTest extends JDBCPerfTestCase {
+
+    PreparedStatement select = null;
+    static String tableName = "SCANAGGREGATETEST";
+    protected static int rowcount = 10000;
+
+    /**
+     * Suite of tests to return.
+     */
+    public static Test suite()
+    {
+        BaseTestSuite suite = new BaseTestSuite("ScanAggregateTest");
+        int iterations = 700, repeats = 4;
+
+        suite.addTest(new ScanAggregateTest("ScalarAggregate100",
+                                            iterations,repeats));
+        suite.addTest(new ScanAggregateTest("GroupedAggregate100",
+                                            iterations,repeats));
+        return new BaseLoad100TestSetup(suite,rowcount,tableName);
+    }
+
+    /**
+     * Constructor -create a ScanAggregateTest
+     * @param name testname
+     * @param iterations iterations for the test to measure
+     * @param repeats number of times to repeat the test
+     */
+    public ScanAggregateTest(String name,int iterations, int repeats)
+    {
+        super(name,iterations,repeats);
+    }
+
+    /**
+     * setup for the test.
+     **/
+    public void setUp() throws Exception {
+
+        if ("ScalarAggregate100".equals(getName()))
+            select = openDefaultConnection().prepareStatement(
+                "SELECT COUNT(*), SUM(i1), MAX(i5) FROM " + tableName +
+                " WHERE i1 >= ?");
+        else
+            select = openDefaultConnection().prepareStatement(
+                "SELECT i3, COUNT(*), SUM(i5) FROM " + tableName +
+                " WHERE i2 = 2 GROUP BY i3 ORDER BY i3");
+    }
+
+
+    /**
+     * Override initializeConnection to set the autocommit to false
+     */
+    public void initializeConnection(Connection conn)
+        throws SQLException
+    {
+        conn.setAutoCommit(false);
+    }
+
+
+    /**
+     * Execute a scalar aggregate over half the rows of the
+     * BaseLoad100TestSetup schema.
+     * @throws Exception
+     */
+    public void ScalarAggregate100() throws Exception
+    {
+        int from = rowcount / 2;
+        select.setInt(1, from);
+        ResultSet rs = select.executeQuery();
+        rs.next();
+        assertEquals(rowcount - from, rs.getInt(1));
+        assertEquals(((long) from + rowcount - 1) * (rowcount - from) / 2,
+                     rs.getLong(2));
+        assertEquals(rowcount - 1, rs.getInt(3));
+        rs.close();
+        getConnection().commit();
+    }
+
+    /**
+     * Execute a grouped aggregate over all the rows of the
+     * BaseLoad100TestSetup schema. Column i3 is 436 in 1% of the rows
+     * and 2 in the others.
+     * @throws Exception
+     */
+    public void GroupedAggregate100() throws Exception
+    {
+        ResultSet rs = select.executeQuery();
+        rs.next();
+        assertEquals(2, rs.getInt(1));
+        assertEquals(rowcount - rowcount / 100, rs.getInt(2));
+        rs.next();
+        assertEquals(436, rs.getInt(1));
+        assertEquals(rowcount / 100, rs.getInt(2));
+        assertFalse(rs.next());
+        rs.close();
+        getConnection().commit();
+    }
+
+    /**
+     * Cleanup - close resources opened in this test.
+     **/
+    public void tearDown() throws Exception {
+        select.close();
+        select = null;
+        super.tearDown();
+    }
+}
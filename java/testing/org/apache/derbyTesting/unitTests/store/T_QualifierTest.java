@@ -1018,7 +1018,8 @@ public class T_QualifierTest
                 false,          // don't maintain runtime statistics
                 false,          // don't skip null key columns
                 false,          // don't keep after commit
-                false);         // don't include row locations
+                false,          // don't include row locations
+                1);             // build the hash table in this thread
 
         // make sure the expected result set is the same as the actual result
         // set.
@@ -1108,7 +1109,8 @@ public class T_QualifierTest
                 false,         // don't maintain runtime statistics
 				false,			// don't skip null key columns
                 false,          // don't keep after commit
-                false);         // don't include row locations
+                false,          // don't include row locations
+                1);             // build the hash table in this thread
 
         Object removed_obj;
         for (numrows = 0; numrows < expect_numrows; numrows++)